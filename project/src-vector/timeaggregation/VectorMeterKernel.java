@@ -0,0 +1,147 @@
+package timeaggregation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * @class VectorMeterKernel
+ * @brief Implements the IMeterKernel interface with the Vector API, folding as many values at once as the widest vector of the host holds
+ *          (4 doubles with AVX2, 8 with AVX-512); the buckets of the masked kernels are read as ints of the same number of lanes
+ *          It is compiled and run with --add-modules jdk.incubator.vector, and MeterKernels loads it by name where the module is present
+ */
+public class VectorMeterKernel implements IMeterKernel {
+    /**
+     * VALUES -> the species of the meter values, the widest one of the host
+     * BUCKETS -> the species of the buckets, with as many lanes as VALUES
+     */
+    private static final VectorSpecies<Double> VALUES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> BUCKETS =
+            IntVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(VALUES.vectorBitSize() / 2));
+
+    /**
+     * @message bucketMask
+     * @brief Finds the lanes of the rows that belong to a bucket, converting the buckets to doubles so that the mask fits the values
+     */
+    private static VectorMask<Double> bucketMask(int[] buckets, int row, int bucket) {
+        return ((DoubleVector)IntVector.fromArray(BUCKETS, buckets, row).convertShape(VectorOperators.I2D, VALUES, 0)).eq(bucket);
+    }
+
+    /**
+     * @message fold
+     * @brief Folds a range of the values of a meter column into its sum, minimum and maximum, a vector at a time
+     * @param stats the sum, minimum and maximum so far, updated in place
+     */
+    @Override
+    public void fold(double[] values, int from, int to, double[] stats) {
+        DoubleVector sums = DoubleVector.zero(VALUES);
+        DoubleVector mins = DoubleVector.broadcast(VALUES, stats[1]);
+        DoubleVector maxs = DoubleVector.broadcast(VALUES, stats[2]);
+        int row = from;
+        for(int bound = from + VALUES.loopBound(to - from); row < bound; row += VALUES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(VALUES, values, row);
+            sums = sums.add(vector);
+            mins = mins.min(vector);
+            maxs = maxs.max(vector);
+        }
+
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        double max = maxs.reduceLanes(VectorOperators.MAX);
+        for(; row < to; row++) {
+            sum += values[row];
+            min = Math.min(min, values[row]);
+            max = Math.max(max, values[row]);
+        }
+        stats[0] += sum;
+        stats[1] = min;
+        stats[2] = max;
+    }
+
+    /**
+     * @message squaredDeviations
+     * @brief Sums the squared deviations of a range of the values of a meter column around their mean, a vector at a time
+     */
+    @Override
+    public double squaredDeviations(double[] values, int from, int to, double mean) {
+        DoubleVector sums = DoubleVector.zero(VALUES);
+        int row = from;
+        for(int bound = from + VALUES.loopBound(to - from); row < bound; row += VALUES.length()) {
+            DoubleVector deviation = DoubleVector.fromArray(VALUES, values, row).sub(mean);
+            sums = deviation.fma(deviation, sums);
+        }
+
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for(; row < to; row++)
+            sum += (values[row] - mean) * (values[row] - mean);
+        return sum;
+    }
+
+    /**
+     * @message foldMasked
+     * @brief Folds the values of the rows of a range that belong to a bucket into their sum, count, minimum and maximum,
+     *          a vector at a time, leaving out the lanes of other buckets
+     * @param stats the sum, count, minimum and maximum so far, updated in place
+     */
+    @Override
+    public void foldMasked(int[] buckets, int bucket, double[] values, int offset, int length, double[] stats) {
+        DoubleVector sums = DoubleVector.zero(VALUES);
+        DoubleVector mins = DoubleVector.broadcast(VALUES, stats[2]);
+        DoubleVector maxs = DoubleVector.broadcast(VALUES, stats[3]);
+        long count = 0;
+        int row = 0;
+        for(int bound = VALUES.loopBound(length); row < bound; row += VALUES.length()) {
+            VectorMask<Double> mask = bucketMask(buckets, row, bucket);
+            if(!mask.anyTrue())
+                continue;
+            DoubleVector vector = DoubleVector.fromArray(VALUES, values, offset + row);
+            sums = sums.add(vector, mask);
+            mins = mins.lanewise(VectorOperators.MIN, vector, mask);
+            maxs = maxs.lanewise(VectorOperators.MAX, vector, mask);
+            count += mask.trueCount();
+        }
+
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        double max = maxs.reduceLanes(VectorOperators.MAX);
+        for(; row < length; row++) {
+            if(buckets[row] != bucket)
+                continue;
+            double value = values[offset + row];
+            sum += value;
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        stats[0] += sum;
+        stats[1] += count;
+        stats[2] = min;
+        stats[3] = max;
+    }
+
+    /**
+     * @message squaredDeviationsMasked
+     * @brief Sums the squared deviations around their mean of the values of the rows of a range that belong to a bucket, a vector at a time
+     */
+    @Override
+    public double squaredDeviationsMasked(int[] buckets, int bucket, double[] values, int offset, int length, double mean) {
+        DoubleVector sums = DoubleVector.zero(VALUES);
+        int row = 0;
+        for(int bound = VALUES.loopBound(length); row < bound; row += VALUES.length()) {
+            VectorMask<Double> mask = bucketMask(buckets, row, bucket);
+            if(!mask.anyTrue())
+                continue;
+            DoubleVector deviation = DoubleVector.fromArray(VALUES, values, offset + row).sub(mean);
+            sums = sums.add(deviation.mul(deviation), mask);
+        }
+
+        double sum = sums.reduceLanes(VectorOperators.ADD);
+        for(; row < length; row++)
+            if(buckets[row] == bucket)
+                sum += (values[offset + row] - mean) * (values[offset + row] - mean);
+        return sum;
+    }
+}
@@ -105,7 +105,7 @@ public class Main {
     private static int aggregateByTimeUnit() {
         while(true) {
             String aggregatorType = scanInput("Input the unit type to which I will aggregate data into (`season`, `month`, `dayofweek`, `periodofday`): ");
-            String aggFunction = scanInput("Input the type of function to use for aggregating the measurements (`avg`, `sum`): ");
+            String aggFunction = scanInput("Input the type of function to use for aggregating the measurements (`avg`, `sum`, `min`, `max`, `count`, `stddev`, `p95`, ...): ");
             description = scanInput("Give a small description of the results: ");
 
             measurementsResult = engine.aggregateByTimeUnit(objCollection, aggregatorType, aggFunction, description);
@@ -120,6 +120,35 @@ public class Main {
         }
     }
 
+    /**
+     * @message loadAndAggregate
+     * @brief Gets the inputs of a single pass load and aggregation and sends them UNCHECKED for viability into the engine checkers
+     * @return the return type
+     */
+    private static int loadAndAggregate() {
+        String inputFileName = scanInput("Provide the path of the input resource file: ");
+        String delimiter = scanInput("Provide the delimiter of the data file: ");
+        String hasHeaderLineInput = scanInput("Does the file have a header line (true|false)? ");
+
+        if(hasHeaderLineInput.equals("true")) hasHeaderLine = true;
+        else if(hasHeaderLineInput.equals("false")) hasHeaderLine = false;
+
+        String aggregatorType = scanInput("Input the unit type to which I will aggregate data into (`season`, `month`, `dayofweek`, `periodofday`): ");
+        String aggFunction = scanInput("Input the type of function to use for aggregating the measurements (`avg`, `sum`, `min`, `max`, `count`, `stddev`, `p95`, ...): ");
+        description = scanInput("Give a small description of the results: ");
+
+        /* The rows are never kept, so objCollection stays as it was */
+        measurementsResult = engine.loadAndAggregate(inputFileName, delimiter, hasHeaderLine, 9, aggregatorType, aggFunction, description);
+
+        if(measurementsResult == null) {
+            System.out.println("The data was not measured correctly");
+            return manageExit(0);
+        }
+
+        System.out.println("The data was loaded and measured correctly");
+        return manageExit(0);
+    }
+
     /**
      * @message reportResultsInFile
      * @brief Gets the inputs and sends them UNCHECKED for viability into the engine checkers
@@ -160,9 +189,10 @@ public class Main {
     private static int mainLoop() {
         System.out.println("\n1) Load resource file.");
         System.out.println("2) Get aggregate measures.");
-        System.out.println("3) Craft a report.");
-        System.out.println("4) View the report history.");
-        System.out.println("5) Exit.");
+        System.out.println("3) Load and aggregate a resource file in a single pass.");
+        System.out.println("4) Craft a report.");
+        System.out.println("5) View the report history.");
+        System.out.println("6) Exit.");
         System.out.print("Choose: ");
 
         String arg = s.nextLine();
@@ -172,11 +202,13 @@ public class Main {
                 return load();
             case "2": /* Get aggregate measures */
                 return aggregateByTimeUnit();
-            case "3": /* Craft the report */
+            case "3": /* Load and aggregate without keeping the resources */
+                return loadAndAggregate();
+            case "4": /* Craft the report */
                 return reportResultsInFile();
-            case "4": /* List the report history */
+            case "5": /* List the report history */
                 return listReports();
-            case "5": /* Exit the program */
+            case "6": /* Exit the program */
                 System.out.println("Goodbye.");
                 return manageExit(1);
             case "DEBUG MODE": /* TODO DEBUG ONLY: RUN A FULL TEST OF THE PROGRAM */
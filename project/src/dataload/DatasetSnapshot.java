@@ -0,0 +1,211 @@
+package dataload;
+
+import datamodel.MeasurementDataset;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * @class DatasetSnapshot
+ * @brief Keeps a binary columnar copy of a parsed source file next to it, so that later loads
+ * 			of the same file memory map the columns instead of parsing the text again
+ *
+ * Layout (big endian):
+ * 	magic, version, source size, source last modified, source checksum, header line flag,
+ * 	delimiter length and bytes, number of rows, then the epoch minute column, the global active power column and the three meter columns
+ */
+public class DatasetSnapshot {
+	/**
+	 * SUFFIX -> appended to the source filename to name its snapshot
+	 * MAGIC -> the first bytes of every snapshot ("HPCS")
+	 * VERSION -> the layout version, bumped whenever the layout changes
+	 * CHECKSUM_BLOCK -> the number of bytes at the start and at the end of the source that are checksummed
+	 * WRITE_BLOCK -> the size of the buffer the columns are written through
+	 */
+	public static final String SUFFIX = ".snapshot";
+	private static final int MAGIC = 0x48504353;
+	private static final int VERSION = 2;
+	private static final int CHECKSUM_BLOCK = 1 << 20;
+	private static final int WRITE_BLOCK = 1 << 20;
+
+	private DatasetSnapshot() {}
+
+	/**
+	 * @message snapshotPathOf
+	 * @brief Finds where the snapshot of a source file is kept
+	 */
+	public static String snapshotPathOf(String filename) {
+		return filename + SUFFIX;
+	}
+
+	/**
+	 * @message checksumOf
+	 * @brief Checksums the first and the last block of the source file, which together with its size
+	 * 			and modification time tell whether the file changed, without reading all of it
+	 */
+	private static long checksumOf(FileChannel channel) throws Exception {
+		CRC32C crc = new CRC32C();
+		long size = channel.size();
+		ByteBuffer block = ByteBuffer.allocate(CHECKSUM_BLOCK);
+
+		readBlock(channel, block, 0);
+		block.flip();
+		crc.update(block);
+
+		if(size > CHECKSUM_BLOCK) {
+			block.clear();
+			readBlock(channel, block, Math.max(CHECKSUM_BLOCK, size - CHECKSUM_BLOCK));
+			block.flip();
+			crc.update(block);
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * @message readBlock
+	 * @brief Reads from a position of a file until the block is full or the end of the file is reached,
+	 * 			as a single read may return fewer bytes than the block has room for
+	 */
+	private static void readBlock(FileChannel channel, ByteBuffer block, long position) throws Exception {
+		while(block.hasRemaining()) {
+			int read = channel.read(block, position);
+			if(read == -1)
+				break;
+			position += read;
+		}
+	}
+
+	/**
+	 * @message writeHeader
+	 * @brief Writes the header that ties the snapshot to its source file and load settings
+	 */
+	private static void writeHeader(ByteBuffer header, File source, long checksum, String delimiter, boolean hasHeaderLine, int rows) {
+		byte[] delimiterBytes = delimiter.getBytes(StandardCharsets.UTF_8);
+		header.putInt(MAGIC)
+			.putInt(VERSION)
+			.putLong(source.length())
+			.putLong(source.lastModified())
+			.putLong(checksum)
+			.put((byte)(hasHeaderLine ? 1 : 0))
+			.putInt(delimiterBytes.length)
+			.put(delimiterBytes)
+			.putInt(rows);
+	}
+
+	/**
+	 * @message read
+	 * @brief Memory maps the snapshot of a source file into a dataset
+	 * @param filename the source file
+	 * @param delimiter the delimiter the source is loaded with
+	 * @param hasHeaderLine whether the source is loaded with a header line
+	 * @return the dataset, or null if there is no snapshot or it does not match the current source and settings
+	 */
+	public static MeasurementDataset read(String filename, String delimiter, boolean hasHeaderLine) {
+		File source = new File(filename);
+		File snapshot = new File(snapshotPathOf(filename));
+		if(!snapshot.isFile())
+			return null;
+
+		try(RandomAccessFile sourceFile = new RandomAccessFile(source, "r");
+			RandomAccessFile snapshotFile = new RandomAccessFile(snapshot, "r");
+			FileChannel channel = snapshotFile.getChannel()) {
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			/* Compare the stored header with the one the current source would get */
+			ByteBuffer expected = ByteBuffer.allocate(64 + delimiter.length() * 4);
+			writeHeader(expected, source, checksumOf(sourceFile.getChannel()), delimiter, hasHeaderLine, 0);
+			int headerSize = expected.position() - Integer.BYTES;
+			if(buf.limit() < headerSize + Integer.BYTES || buf.slice(0, headerSize).compareTo(expected.flip().limit(headerSize)) != 0)
+				return null;
+
+			buf.position(headerSize);
+			int rows = buf.getInt();
+			if(buf.remaining() != (long)rows * (Integer.BYTES + 4 * Double.BYTES))
+				return null;
+
+			int[] epochMinutes = new int[rows];
+			double[] globalActivePower = new double[rows];
+			double[] subMetering1 = new double[rows];
+			double[] subMetering2 = new double[rows];
+			double[] subMetering3 = new double[rows];
+			buf.asIntBuffer().get(epochMinutes);
+			buf.position(buf.position() + rows * Integer.BYTES);
+			buf.asDoubleBuffer().get(globalActivePower);
+			buf.position(buf.position() + rows * Double.BYTES);
+			buf.asDoubleBuffer().get(subMetering1);
+			buf.position(buf.position() + rows * Double.BYTES);
+			buf.asDoubleBuffer().get(subMetering2);
+			buf.position(buf.position() + rows * Double.BYTES);
+			buf.asDoubleBuffer().get(subMetering3);
+			return new MeasurementDataset(epochMinutes, globalActivePower, subMetering1, subMetering2, subMetering3, rows);
+		}
+		catch(Exception e) { /* A snapshot that cannot be read is rebuilt from the source */
+			return null;
+		}
+	}
+
+	/**
+	 * @message write
+	 * @brief Writes the snapshot of a source file, replacing any older one at once
+	 * @param filename the source file
+	 * @param delimiter the delimiter the source was loaded with
+	 * @param hasHeaderLine whether the source was loaded with a header line
+	 * @param dataset the rows parsed from the source
+	 * @return 0 if the snapshot was written; -1 otherwise
+	 */
+	public static int write(String filename, String delimiter, boolean hasHeaderLine, MeasurementDataset dataset) {
+		File source = new File(filename);
+		File snapshot = new File(snapshotPathOf(filename));
+		File partial = new File(snapshot.getPath() + ".tmp");
+
+		try(RandomAccessFile sourceFile = new RandomAccessFile(source, "r");
+			FileChannel channel = FileChannel.open(partial.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			int rows = dataset.size();
+			ByteBuffer block = ByteBuffer.allocateDirect(WRITE_BLOCK);
+			writeHeader(block, source, checksumOf(sourceFile.getChannel()), delimiter, hasHeaderLine, rows);
+
+			for(int column = 0; column < 5; column++) {
+				for(int row = 0; row < rows; row++) {
+					if(block.remaining() < Double.BYTES) {
+						block.flip();
+						while(block.hasRemaining())
+							channel.write(block);
+						block.clear();
+					}
+					switch(column) {
+						case 0: block.putInt(dataset.getEpochMinute(row)); break;
+						case 1: block.putDouble(dataset.getGlobal_active_power(row)); break;
+						case 2: block.putDouble(dataset.getSub_metering_1(row)); break;
+						case 3: block.putDouble(dataset.getSub_metering_2(row)); break;
+						default: block.putDouble(dataset.getSub_metering_3(row)); break;
+					}
+				}
+			}
+			block.flip();
+			while(block.hasRemaining())
+				channel.write(block);
+		}
+		catch(Exception e) {
+			partial.delete();
+			return -1;
+		}
+
+		try {
+			Files.move(partial.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return 0;
+		}
+		catch(Exception e) {
+			partial.delete();
+			return -1;
+		}
+	}
+}
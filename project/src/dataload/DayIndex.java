@@ -0,0 +1,181 @@
+package dataload;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * @class DayIndex
+ * @brief A sparse index of a source file, mapping every calendar day to the byte offset of its first line,
+ * 			kept next to the source so that loads of a date range seek straight to the days they need
+ *
+ * Layout (big endian):
+ * 	magic, version, source size, source last modified, sorted flag,
+ * 	number of days, then the epoch day and the byte offset of every day in file order
+ */
+public class DayIndex {
+	/**
+	 * SUFFIX -> appended to the source filename to name its index
+	 * MAGIC -> the first bytes of every index ("HPDI")
+	 * VERSION -> the layout version, bumped whenever the layout changes
+	 */
+	public static final String SUFFIX = ".idx";
+	private static final int MAGIC = 0x48504449;
+	private static final int VERSION = 1;
+
+	/**
+	 * days -> the epoch days, in the order they start in the source file
+	 * offsets -> the byte offset of the first line of every day
+	 * size -> the number of days in the index
+	 * sorted -> whether the days only grow along the file; a day that comes back later makes the index unusable for seeks
+	 */
+	private int[] days = new int[64];
+	private long[] offsets = new long[64];
+	private int size;
+	private boolean sorted = true;
+
+	/**
+	 * @message indexPathOf
+	 * @brief Finds where the index of a source file is kept
+	 */
+	public static String indexPathOf(String filename) {
+		return filename + SUFFIX;
+	}
+
+	/**
+	 * @message add
+	 * @brief Records the first line of a day, called for every line whose day differs from the line before
+	 * @param epochDay the day of the line
+	 * @param offset the byte offset of the line in the source file
+	 */
+	void add(int epochDay, long offset) {
+		if(size > 0 && epochDay < days[size - 1])
+			sorted = false;
+		if(size == days.length) {
+			days = Arrays.copyOf(days, size * 2);
+			offsets = Arrays.copyOf(offsets, size * 2);
+		}
+		days[size] = epochDay;
+		offsets[size] = offset;
+		size++;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @message spanOf
+	 * @brief Finds the bytes of the source file that hold the lines of a range of days
+	 * @param fromDay the first epoch day of the range
+	 * @param toDay the last epoch day of the range
+	 * @return the start offset and the end offset (Long.MAX_VALUE for the end of the file),
+	 * 			or null if the days of the file are not in order
+	 */
+	public long[] spanOf(int fromDay, int toDay) {
+		if(!sorted)
+			return null;
+
+		int first = firstDayAfter(fromDay - 1L);
+		int last = firstDayAfter(toDay);
+		if(first == size)
+			return new long[] {Long.MAX_VALUE, Long.MAX_VALUE};
+		return new long[] {offsets[first], (last == size) ? Long.MAX_VALUE : offsets[last]};
+	}
+
+	/**
+	 * @message firstDayAfter
+	 * @brief Binary searches the position of the first day greater than the given one
+	 */
+	private int firstDayAfter(long epochDay) {
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(days[middle] <= epochDay)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * @message read
+	 * @brief Reads the index of a source file
+	 * @param filename the source file
+	 * @return the index, or null if there is no index or the source changed since it was written
+	 */
+	public static DayIndex read(String filename) {
+		File source = new File(filename);
+		File indexFile = new File(indexPathOf(filename));
+		if(!indexFile.isFile())
+			return null;
+
+		try(DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+			if(input.readInt() != MAGIC || input.readInt() != VERSION
+					|| input.readLong() != source.length() || input.readLong() != source.lastModified())
+				return null;
+
+			DayIndex index = new DayIndex();
+			index.sorted = input.readBoolean();
+			int size = input.readInt();
+			index.days = new int[Math.max(size, 1)];
+			index.offsets = new long[Math.max(size, 1)];
+			for(int day = 0; day < size; day++) {
+				index.days[day] = input.readInt();
+				index.offsets[day] = input.readLong();
+			}
+			index.size = size;
+			return index;
+		}
+		catch(Exception e) { /* An index that cannot be read is rebuilt on the next load */
+			return null;
+		}
+	}
+
+	/**
+	 * @message write
+	 * @brief Writes the index of a source file, replacing any older one at once
+	 * @param filename the source file the index was built from
+	 * @return 0 if the index was written; -1 otherwise
+	 */
+	public int write(String filename) {
+		File source = new File(filename);
+		File indexFile = new File(indexPathOf(filename));
+		File partial = new File(indexFile.getPath() + ".tmp");
+
+		try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partial)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(source.length());
+			output.writeLong(source.lastModified());
+			output.writeBoolean(sorted);
+			output.writeInt(size);
+			for(int day = 0; day < size; day++) {
+				output.writeInt(days[day]);
+				output.writeLong(offsets[day]);
+			}
+		}
+		catch(Exception e) {
+			partial.delete();
+			return -1;
+		}
+
+		try {
+			Files.move(partial.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return 0;
+		}
+		catch(Exception e) {
+			partial.delete();
+			return -1;
+		}
+	}
+}
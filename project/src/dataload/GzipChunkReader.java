@@ -0,0 +1,185 @@
+package dataload;
+
+import datamodel.FileHandler;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * @class GzipChunkReader
+ * @brief Decompresses a gzip input file on a single thread into newline aligned chunks,
+ * 			and hands them through a bounded queue to parser threads, so that decompression and parsing overlap
+ * 			Chunk buffers are recycled, so at most a fixed number of them is ever held in memory
+ */
+public class GzipChunkReader implements IChunkReader {
+	/**
+	 * CHUNK_SIZE -> the size of the decompressed chunks handed to the parsers
+	 * CHUNKS_PER_PARSER -> how many chunks may wait in the queue for every parser
+	 */
+	private static final int CHUNK_SIZE = 4 << 20;
+	private static final int CHUNKS_PER_PARSER = 2;
+
+	/**
+	 * @class Chunk
+	 * @brief A decompressed chunk and its position in the file; a chunk without bytes tells a parser to stop
+	 */
+	private static class Chunk {
+		private final byte[] bytes;
+		private final int length;
+		private final int index;
+
+		Chunk(byte[] bytes, int length, int index) {
+			this.bytes = bytes;
+			this.length = length;
+			this.index = index;
+		}
+	}
+
+	/**
+	 * filename -> the gzip file to be read
+	 * parsers -> the number of parser threads
+	 */
+	private final String filename;
+	private final int parsers;
+
+	public GzipChunkReader(String filename, int parsers) {
+		this.filename = filename;
+		this.parsers = Math.max(1, parsers);
+	}
+
+	/**
+	 * @message read
+	 * @brief Decompresses the whole file and parses all of its chunks in parallel
+	 * @param parser the parser that is applied to every chunk
+	 * @return the parsed chunks in file order, or null if the file could not be read
+	 */
+	@Override
+	public <R> ArrayList<R> read(IChunkParser<R> parser) {
+		FileHandler fileHandler = new FileHandler(filename);
+		if(fileHandler.createInputStreamFD() == -1)
+			return null;
+
+		ArrayBlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(parsers * CHUNKS_PER_PARSER);
+		ArrayBlockingQueue<byte[]> free = new ArrayBlockingQueue<>(parsers * (CHUNKS_PER_PARSER + 1) + 1);
+		for(int buffer = 0; buffer < parsers * (CHUNKS_PER_PARSER + 1); buffer++)
+			free.add(new byte[CHUNK_SIZE]);
+
+		/* The results are put in chunk order whichever parser finishes first */
+		ArrayList<R> results = new ArrayList<>();
+		Thread[] threads = new Thread[parsers];
+		for(int thread = 0; thread < parsers; thread++) {
+			threads[thread] = new Thread(() -> parseChunks(parser, filled, free, results), "gzip-parser-" + thread);
+			threads[thread].setDaemon(true);
+			threads[thread].start();
+		}
+
+		boolean decompressed = decompress(fileHandler, filled, free, results);
+		fileHandler.closeFD();
+
+		try {
+			for(int thread = 0; thread < parsers; thread++)
+				filled.put(new Chunk(null, 0, -1));
+			for(Thread thread : threads)
+				thread.join();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		return decompressed ? results : null;
+	}
+
+	/**
+	 * @message decompress
+	 * @brief Fills the chunks with decompressed bytes, cutting every chunk after its last newline
+	 * 			and carrying the incomplete line over to the next chunk
+	 * @return true if the whole file was decompressed
+	 */
+	private <R> boolean decompress(FileHandler fileHandler, ArrayBlockingQueue<Chunk> filled,
+									ArrayBlockingQueue<byte[]> free, ArrayList<R> results) {
+		try {
+			byte[] block = free.take();
+			int length = 0;
+			int index = 0;
+			while(true) {
+				/* Grow the block if a single line does not fit in it */
+				if(length == block.length)
+					block = Arrays.copyOf(block, block.length * 2);
+
+				int read = fileHandler.readBytesFromFile(block, length, block.length - length);
+				if(read == -1)
+					return false;
+				length += read;
+				if(read == 0)
+					break;
+				if(length < block.length)
+					continue;
+
+				int lineEnd = length;
+				while(lineEnd > 0 && block[lineEnd - 1] != '\n')
+					lineEnd--;
+				if(lineEnd == 0)
+					continue;
+
+				byte[] next = free.take();
+				if(next.length < length - lineEnd)
+					next = new byte[block.length];
+				System.arraycopy(block, lineEnd, next, 0, length - lineEnd);
+				hand(filled, results, new Chunk(block, lineEnd, index++));
+				block = next;
+				length -= lineEnd;
+			}
+
+			if(length > 0)
+				hand(filled, results, new Chunk(block, length, index));
+			return true;
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * @message hand
+	 * @brief Reserves the result slot of a chunk and queues the chunk for the parsers
+	 */
+	private static <R> void hand(ArrayBlockingQueue<Chunk> filled, ArrayList<R> results, Chunk chunk) throws InterruptedException {
+		synchronized(results) {
+			results.add(null);
+		}
+		filled.put(chunk);
+	}
+
+	/**
+	 * @message parseChunks
+	 * @brief Parses queued chunks until told to stop, giving every buffer back once its chunk is parsed
+	 */
+	private static <R> void parseChunks(IChunkParser<R> parser, ArrayBlockingQueue<Chunk> filled,
+										ArrayBlockingQueue<byte[]> free, ArrayList<R> results) {
+		try {
+			while(true) {
+				Chunk chunk = filled.take();
+				if(chunk.bytes == null)
+					return;
+
+				R result;
+				try {
+					result = parser.parse(ByteBuffer.wrap(chunk.bytes, 0, chunk.length), chunk.index);
+				}
+				catch(RuntimeException e) { /* The chunk is reported as invalid */
+					result = null;
+				}
+				synchronized(results) {
+					results.set(chunk.index, result);
+				}
+				free.offer(chunk.bytes);
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package dataload;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * @interface IChunkReader
+ * @brief Splits an input file into newline aligned chunks and parses them in parallel
+ */
+public interface IChunkReader {
+	/**
+	 * @interface IChunkParser
+	 * @brief Parses the lines of a single chunk, always called from a single worker thread
+	 */
+	interface IChunkParser<R> {
+		/**
+		 * @param chunk the bytes of the chunk, from 0 up to its limit
+		 * @param chunkIndex the position of the chunk in the file, starting from 0
+		 * @return the parsed chunk, or null if the chunk contained invalid data
+		 */
+		R parse(ByteBuffer chunk, int chunkIndex);
+	}
+
+	/**
+	 * Reads the whole file and parses all of its chunks
+	 * 
+	 * @param parser the parser that is applied to every chunk
+	 * @return the parsed chunks in file order, or null if the file could not be read
+	 */
+	<R> ArrayList<R> read(IChunkParser<R> parser);
+}
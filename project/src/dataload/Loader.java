@@ -1,11 +1,19 @@
 package dataload;
 
+import datamodel.EpochTime;
 import datamodel.FileHandler;
+import datamodel.IMeasurementSink;
+import datamodel.MeasurementDataset;
 import datamodel.MeasurementRecord;
-import datamodel.DateModel;
-import datamodel.TimeModel;
 
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @class Loader
@@ -18,11 +26,25 @@ public class Loader<E extends MeasurementRecord> implements ILoader<E> {
 	 * numFields -> an int with the number of columns in the input file
 	 * objCollection -> and empty list which will be loaded with the data from the input file
 	 * fileHandler -> a custom FileHandler object for mainEngine file descriptors
+	 * loadMode -> the way the input file is read ("sequential" line by line, or "mapped" in parallel chunks; gzip files are always read in parallel chunks)
+	 * followOffsets -> per input file, the offset right after the last complete line read so far
+	 * columns -> the columns that are decoded; any other numeric column is skipped over without being parsed
+	 * interner -> hands out the shared date and time models of the records the sequential reader reads through String.split;
+	 * 			the parallel chunk parsers have one of their own each, as an interner is meant for a single thread
 	 */
 	private String delimiter;
 	private int numFields;
 	private ArrayList<E> objCollection;
 	private FileHandler fileHandler;
+	private String loadMode = "sequential";
+	private final HashMap<String, Long> followOffsets = new HashMap<>();
+	private int[] columns = RecordParser.MODEL_COLUMNS;
+	private final ModelInterner interner = new ModelInterner();
+
+	/**
+	 * READ_BUFFER_SIZE -> the size of the blocks the sequential reader reads at once
+	 */
+	private static final int READ_BUFFER_SIZE = 1 << 20;
 	
 	/**
 	 * @message writeToCollection
@@ -37,7 +59,7 @@ public class Loader<E extends MeasurementRecord> implements ILoader<E> {
 				break;
 
 			/* In most cases 'E' dissolves into MeasurementRecord */
-			E dataRecord = createDataRecord(data, delimiter);
+			E dataRecord = createDataRecord(data, delimiter, interner);
 
 			/* Some line had wrong data */
 			if(dataRecord == null)
@@ -57,10 +79,11 @@ public class Loader<E extends MeasurementRecord> implements ILoader<E> {
 	 * @brief Creates a new E object and sets its fields according to what we read from the input file
 	 * @param data the string we split into the different fields
 	 * @param delimiter the delimiter to which we split to
+	 * @param interner hands out the date and time models of the record; it must not be used by another thread at the same time
 	 * @return (downcast MeasurementRecord into E) the filled data we want to insert to objCollection ArrayList
 	 */
 	@SuppressWarnings("unchecked")
-	private E createDataRecord(String data, String delimiter) {
+	private E createDataRecord(String data, String delimiter, ModelInterner interner) {
 		String[] dataItems = data.split(delimiter);
 		String[] dateItems;
 		String[] timeItems;
@@ -80,42 +103,451 @@ public class Loader<E extends MeasurementRecord> implements ILoader<E> {
 		if(dataItems.length != numFields)
 			return null;
 		
-		DateModel dateModel = new DateModel();
-		TimeModel timeModel = new TimeModel();
 		MeasurementRecord dataRecord = new MeasurementRecord();
 
-		dateModel.setDay(dateItems[0]);
-		try {
-			/* Trying to access dateItems[1] might reproduce out of index errors due to a wrong hasHeaderLine input */
-			dateModel.setMonth(dateItems[1]);
-		}
-		catch(Exception e) { /* Swallow the error */
+		/* Trying to access dateItems[1] might reproduce out of index errors due to a wrong hasHeaderLine input */
+		if(dateItems.length < 2) {
 			System.out.println("The file has a header line though you provided that it didn't.");
 			MeasurementRecord wrongData = new MeasurementRecord();
 			wrongData.set__delimiter_error(true);
 			return (E)wrongData;
 		}
-		dateModel.setMonth(dateItems[1]);
-		dateModel.setYear(dateItems[2]);
-
-		timeModel.setHour(timeItems[0]);
-		timeModel.setMinute(timeItems[1]);
-		timeModel.setSecond(timeItems[2]);
 
-		dataRecord.setDate(dateModel);
-		dataRecord.setTime(timeModel);
-		dataRecord.setGlobal_active_power(Double.parseDouble(dataItems[2]));
-		dataRecord.setGlobal_reactive_power(Double.parseDouble(dataItems[3]));
-		dataRecord.setVoltage(Double.parseDouble(dataItems[4]));
-		dataRecord.setGlobal_intensity(Double.parseDouble(dataItems[5]));
+		/* Records of the same date and time of day share a single model */
+		dataRecord.setDate(interner.dateOf(dateItems[0], dateItems[1], dateItems[2]));
+		dataRecord.setTime(interner.timeOf(timeItems[0], timeItems[1], timeItems[2]));
+		/* Convert inputs from strings to numeric values, only for the columns that are needed */
+		if(isProjected(RecordParser.GLOBAL_ACTIVE_POWER))
+			dataRecord.setGlobal_active_power(Double.parseDouble(dataItems[2]));
+		if(isProjected(RecordParser.GLOBAL_REACTIVE_POWER))
+			dataRecord.setGlobal_reactive_power(Double.parseDouble(dataItems[3]));
+		if(isProjected(RecordParser.VOLTAGE))
+			dataRecord.setVoltage(Double.parseDouble(dataItems[4]));
+		if(isProjected(RecordParser.GLOBAL_INTENSITY))
+			dataRecord.setGlobal_intensity(Double.parseDouble(dataItems[5]));
 		dataRecord.setSub_metering_1(Double.parseDouble(dataItems[6]));
 		dataRecord.setSub_metering_2(Double.parseDouble(dataItems[7]));
 		dataRecord.setSub_metering_3(Double.parseDouble(dataItems[8]));
-		/* Convert inputs from strings to numeric values */
 
 		return (E)dataRecord;
 	}
 
+	/**
+	 * @message isProjected
+	 * @brief Tells whether a column is among the columns that are decoded
+	 */
+	private boolean isProjected(int column) {
+		for(int projected : columns)
+			if(projected == column)
+				return true;
+		return false;
+	}
+
+	/**
+	 * @class CountingSink
+	 * @brief Hands the rows to another sink, global active power included, and counts them on the way
+	 */
+	private static class CountingSink implements IMeasurementSink {
+		private final IMeasurementSink sink;
+		private int rows;
+
+		CountingSink(IMeasurementSink sink) {
+			this.sink = sink;
+		}
+
+		@Override
+		public int add(int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+			sink.add(epochMinute, sub_metering_1, sub_metering_2, sub_metering_3);
+			return ++rows;
+		}
+
+		@Override
+		public int add(int epochMinute, double global_active_power, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+			sink.add(epochMinute, global_active_power, sub_metering_1, sub_metering_2, sub_metering_3);
+			return ++rows;
+		}
+	}
+
+	/**
+	 * @class LineParser
+	 * @brief Splits a run of bytes into lines and turns every line into a record
+	 * 			Each reading thread owns its own LineParser
+	 */
+	private class LineParser {
+		/**
+		 * parser -> the byte level parser, or null if the delimiter can only be handled by String.split
+		 * records -> the records parsed so far, in file order (when loading into a list)
+		 * rows -> the sink receiving the parsed rows in file order (when loading into a dataset or streaming)
+		 * skipFirstLine -> whether the next line is a header line that must be ignored
+		 * interner -> hands out the shared date and time models of the records
+		 * base -> the offset in the file of the first byte of the buffer being parsed
+		 * fromDay, toDay -> the range of epoch days whose lines are kept
+		 * dayIndex -> the index the first line of every day is recorded in, or null
+		 * lastDate, lastEpochDay -> the date (as yyyymmdd) and epoch day of the previous line
+		 */
+		private final RecordParser parser;
+		private final ArrayList<E> records;
+		private final IMeasurementSink rows;
+		private boolean skipFirstLine;
+		private final ModelInterner interner = new ModelInterner();
+		private byte[] line;
+		private long base;
+		private int fromDay = Integer.MIN_VALUE;
+		private int toDay = Integer.MAX_VALUE;
+		private DayIndex dayIndex;
+		private int lastDate = -1;
+		private int lastEpochDay;
+
+		LineParser(ArrayList<E> records, IMeasurementSink rows, boolean skipFirstLine) {
+			int delimiterByte = RecordParser.delimiterByte(delimiter);
+			this.parser = (delimiterByte == -1) ? null : new RecordParser((byte)delimiterByte, numFields);
+			if(parser != null)
+				parser.setColumns(columns);
+			this.records = records;
+			this.rows = rows;
+			this.skipFirstLine = skipFirstLine;
+		}
+
+		/**
+		 * @message parseLines
+		 * @brief Parses all the complete lines between from and limit
+		 * @param buf the bytes to parse
+		 * @param from the first byte of the first line
+		 * @param limit the end of the bytes
+		 * @param atEnd whether the bytes end the file, so that a last line without a line terminator is complete
+		 * @return the start of the first line that is not complete yet, or -1 if the delimiter or the header line was wrong
+		 */
+		int parseLines(ByteBuffer buf, int from, int limit, boolean atEnd) {
+			int start = from;
+			while(start < limit) {
+				int end = start;
+				while(end < limit && buf.get(end) != '\n')
+					end++;
+				if(end == limit && !atEnd)
+					break;
+				int next = end + 1;
+
+				/* Files written on Windows end their lines with '\r\n' */
+				if(end > start && buf.get(end - 1) == '\r')
+					end--;
+
+				if(skipFirstLine)
+					skipFirstLine = false;
+				else if(!parseLine(buf, start, end))
+					return -1;
+				start = next;
+			}
+			return Math.min(start, limit);
+		}
+
+		/**
+		 * @message parseLine
+		 * @brief Parses a single line and adds its record to the records
+		 * @return false if the delimiter or the header line was wrong
+		 */
+		private boolean parseLine(ByteBuffer buf, int start, int end) {
+			if(parser == null)
+				return parseLineAsString(buf, start, end);
+
+			switch(parser.parse(buf, start, end)) {
+				case RecordParser.OK:
+					if(!isInRange(parser.getYear(), parser.getMonth(), parser.getDay(), start))
+						return true;
+					if(rows != null)
+						rows.add(EpochTime.toEpochMinute(parser.getYear(), parser.getMonth(), parser.getDay(), parser.getHour(), parser.getMinute()),
+								parser.getValue(RecordParser.GLOBAL_ACTIVE_POWER),
+								parser.getValue(RecordParser.SUB_METERING_1),
+								parser.getValue(RecordParser.SUB_METERING_2),
+								parser.getValue(RecordParser.SUB_METERING_3));
+					else
+						records.add(createRecord(parser));
+					return true;
+				case RecordParser.SKIP:
+					return true;
+				case RecordParser.DELIMITER_ERROR:
+					System.out.println("The delimiter you set was wrong for the specific input file.");
+					break;
+				case RecordParser.HEADER_ERROR:
+					System.out.println("The file has a header line though you provided that it didn't.");
+					break;
+			}
+			return false;
+		}
+
+		/**
+		 * @message parseLineAsString
+		 * @brief Parses a line through createDataRecord, for delimiters that need String.split
+		 * @return false if the delimiter or the header line was wrong
+		 */
+		private boolean parseLineAsString(ByteBuffer buf, int start, int end) {
+			int length = end - start;
+			if(line == null || length > line.length)
+				line = new byte[Math.max(256, length * 2)];
+			buf.get(start, line, 0, length);
+
+			E dataRecord = createDataRecord(new String(line, 0, length, StandardCharsets.ISO_8859_1), delimiter, interner);
+			if(dataRecord == null)
+				return true;
+			if(dataRecord.get__delimiter_error())
+				return false;
+			if(isDated() && !isInRange(Integer.parseInt(dataRecord.getDate().getYear()),
+					Integer.parseInt(dataRecord.getDate().getMonth()), Integer.parseInt(dataRecord.getDate().getDay()), start))
+				return true;
+			if(rows != null)
+				rows.add(EpochTime.epochMinuteOf(dataRecord), dataRecord.getGlobal_active_power(), dataRecord.getSub_metering_1(),
+						dataRecord.getSub_metering_2(), dataRecord.getSub_metering_3());
+			else
+				records.add(dataRecord);
+			return true;
+		}
+
+		/**
+		 * @message isDated
+		 * @brief Tells whether the lines are filtered by date or their days are indexed
+		 */
+		private boolean isDated() {
+			return dayIndex != null || fromDay != Integer.MIN_VALUE || toDay != Integer.MAX_VALUE;
+		}
+
+		/**
+		 * @message isInRange
+		 * @brief Records the line in the day index when it starts a new day, and checks that its day is in the range
+		 * @param start the position of the line in the buffer
+		 * @return true if the line is kept
+		 */
+		private boolean isInRange(int year, int month, int day, int start) {
+			int date = year * 10000 + month * 100 + day;
+			if(date != lastDate) {
+				lastDate = date;
+				lastEpochDay = EpochTime.toEpochDay(year, month, day);
+				if(dayIndex != null)
+					dayIndex.add(lastEpochDay, base + start);
+			}
+			return lastEpochDay >= fromDay && lastEpochDay <= toDay;
+		}
+
+		/**
+		 * @message createRecord
+		 * @brief Creates a new E object out of the primitive fields of a parsed line
+		 * @param parsed the parser holding the fields of the line
+		 * @return (downcast MeasurementRecord into E) the filled data we want to insert to objCollection ArrayList
+		 */
+		@SuppressWarnings("unchecked")
+		private E createRecord(RecordParser parsed) {
+			MeasurementRecord dataRecord = new MeasurementRecord();
+			dataRecord.setDate(interner.dateOf(parsed.getYear(), parsed.getMonth(), parsed.getDay()));
+			dataRecord.setTime(interner.timeOf(parsed.getHour(), parsed.getMinute(), parsed.getSecond()));
+			dataRecord.setGlobal_active_power(parsed.getValue(RecordParser.GLOBAL_ACTIVE_POWER));
+			dataRecord.setGlobal_reactive_power(parsed.getValue(RecordParser.GLOBAL_REACTIVE_POWER));
+			dataRecord.setVoltage(parsed.getValue(RecordParser.VOLTAGE));
+			dataRecord.setGlobal_intensity(parsed.getValue(RecordParser.GLOBAL_INTENSITY));
+			dataRecord.setSub_metering_1(parsed.getValue(RecordParser.SUB_METERING_1));
+			dataRecord.setSub_metering_2(parsed.getValue(RecordParser.SUB_METERING_2));
+			dataRecord.setSub_metering_3(parsed.getValue(RecordParser.SUB_METERING_3));
+
+			return (E)dataRecord;
+		}
+	}
+
+	/**
+	 * @message writeBytesToCollection
+	 * @brief Reads the input file in blocks of bytes and writes the parsed records through the line parser
+	 * @param lineParser the line parser holding the collection to write to
+	 * @param offset the position in the file the reading starts from
+	 * @param end the position in the file the reading stops at, which must be the start of a line (Long.MAX_VALUE for the end of the file)
+	 * @param parseLastLine whether a last line without a line terminator is parsed as well
+	 * @return the offset right after the last complete line, or -1 if the file could not be loaded
+	 */
+	private long writeBytesToCollection(LineParser lineParser, long offset, long end, boolean parseLastLine) {
+		byte[] block = new byte[READ_BUFFER_SIZE];
+		ByteBuffer buf = ByteBuffer.wrap(block);
+		int filled = 0;
+
+		while(true) {
+			/* Grow the block if a single line does not fit in it */
+			if(filled == block.length) {
+				block = Arrays.copyOf(block, block.length * 2);
+				buf = ByteBuffer.wrap(block);
+			}
+
+			int read = 0;
+			long left = end - offset - filled;
+			if(left > 0)
+				read = fileHandler.readBytesFromFile(block, filled, (int)Math.min(block.length - filled, left));
+			if(read == -1)
+				return -1;
+			filled += read;
+
+			lineParser.base = offset;
+			int consumed = lineParser.parseLines(buf, 0, filled, false);
+			if(consumed == -1)
+				return -1;
+
+			if(read == 0) {
+				/* The last line may still be in the middle of being written */
+				if(parseLastLine && lineParser.parseLines(buf, consumed, filled, true) == -1)
+					return -1;
+				return offset + consumed;
+			}
+
+			/* Move the incomplete last line to the start of the block */
+			System.arraycopy(block, consumed, block, 0, filled - consumed);
+			filled -= consumed;
+			offset += consumed;
+		}
+	}
+
+	/**
+	 * @message readFile
+	 * @brief Reads a whole input file through a line parser, indexing its days when it has no up to date day index
+	 * @param filename the input file
+	 * @param lineParser the line parser holding the collection to write to
+	 * @return 0 if the file was read, or -1 if it could not be loaded
+	 */
+	private int readFile(String filename, LineParser lineParser) {
+		if(DayIndex.read(filename) == null)
+			lineParser.dayIndex = new DayIndex();
+
+		this.fileHandler = new FileHandler(filename);
+		if(fileHandler.createInputStreamFD() == -1)
+			return -1;
+		long end = writeBytesToCollection(lineParser, 0, Long.MAX_VALUE, true);
+		fileHandler.closeFD();
+		if(end == -1)
+			return -1;
+
+		/* A source in a read only directory is simply indexed again next time */
+		if(lineParser.dayIndex != null)
+			lineParser.dayIndex.write(filename);
+		followOffsets.put(followKey(filename), end);
+		return 0;
+	}
+
+	/**
+	 * @message readDays
+	 * @brief Reads only the lines of a range of days through a line parser, seeking to the first day through the day index
+	 * 			When there is no up to date index, the whole file is read and indexed, keeping only the lines of the range
+	 * @param filename the input file
+	 * @param hasHeaderLine whether the file has a header line
+	 * @param fromDay the first epoch day of the range
+	 * @param toDay the last epoch day of the range
+	 * @param lineParser the line parser holding the collection to write to
+	 * @return 0 if the lines were read, or -1 if the file could not be loaded
+	 */
+	private int readDays(String filename, boolean hasHeaderLine, int fromDay, int toDay, LineParser lineParser) {
+		lineParser.fromDay = fromDay;
+		lineParser.toDay = toDay;
+
+		DayIndex dayIndex = DayIndex.read(filename);
+		long[] span = (dayIndex == null) ? null : dayIndex.spanOf(fromDay, toDay);
+		if(span == null)
+			return (dayIndex == null) ? readFile(filename, lineParser) : readSpan(filename, lineParser, 0, Long.MAX_VALUE);
+		if(span[0] >= span[1])
+			return 0;
+
+		/* The first day starts after the header line */
+		lineParser.skipFirstLine = hasHeaderLine && span[0] == 0;
+		return readSpan(filename, lineParser, span[0], span[1]);
+	}
+
+	/**
+	 * @message readSpan
+	 * @brief Reads the lines between two offsets of an input file through a line parser
+	 * @return 0 if the lines were read, or -1 if the file could not be loaded
+	 */
+	private int readSpan(String filename, LineParser lineParser, long from, long to) {
+		this.fileHandler = new FileHandler(filename);
+		if(fileHandler.createInputStreamFD() == -1)
+			return -1;
+		long end = -1;
+		if(fileHandler.skipBytesFromFile(from) == 0)
+			end = writeBytesToCollection(lineParser, from, to, true);
+		fileHandler.closeFD();
+		return (end == -1) ? -1 : 0;
+	}
+
+	/**
+	 * @message lastLineEnd
+	 * @brief Finds the offset right after the last line terminator of a file
+	 * @param filename the input file
+	 * @return the offset, or 0 if the file has no complete line
+	 */
+	private static long lastLineEnd(String filename) {
+		try(RandomAccessFile file = new RandomAccessFile(filename, "r")) {
+			byte[] block = new byte[4096];
+			long end = file.length();
+			while(end > 0) {
+				int length = (int)Math.min(block.length, end);
+				file.seek(end - length);
+				file.readFully(block, 0, length);
+				for(int i = length - 1; i >= 0; i--)
+					if(block[i] == '\n')
+						return end - length + i + 1;
+				end -= length;
+			}
+		}
+		catch(Exception e) { /* Follow the file from its start */ }
+		return 0;
+	}
+
+	/**
+	 * @message followKey
+	 * @brief Names an input file the same way however its path was written
+	 */
+	private static String followKey(String filename) {
+		return new File(filename).getAbsolutePath();
+	}
+
+	/**
+	 * @message parseMapped
+	 * @brief Memory maps the input file, or decompresses it when it is gzip compressed, and parses its newline aligned chunks in parallel
+	 * @param filename the input file
+	 * @param hasHeaderLine whether the first line of the file is a header line
+	 * @param intoDataset whether the chunks are parsed into datasets (true) or into lists of records (false)
+	 * @return the parsed chunks in file order, or null if the file could not be loaded
+	 */
+	private ArrayList<LineParser> parseMapped(String filename, boolean hasHeaderLine, boolean intoDataset) {
+		/* A gzip file cannot be mapped, so it is decompressed on one thread while the parser threads parse it */
+		IChunkReader reader = new FileHandler(filename).isGzipFile()
+				? new GzipChunkReader(filename, ForkJoinPool.commonPool().getParallelism())
+				: new MappedChunkReader(filename, ForkJoinPool.commonPool());
+		ArrayList<LineParser> chunks = reader.read((chunk, chunkIndex) -> {
+			LineParser lineParser = intoDataset
+					? new LineParser(null, new MeasurementDataset(), hasHeaderLine && chunkIndex == 0)
+					: new LineParser(new ArrayList<>(), null, hasHeaderLine && chunkIndex == 0);
+			return (lineParser.parseLines(chunk, 0, chunk.limit(), true) == -1) ? null : lineParser;
+		});
+		if(chunks == null)
+			return null;
+
+		/* A single wrong chunk means the whole file was read with the wrong settings */
+		for(LineParser chunk : chunks)
+			if(chunk == null)
+				return null;
+		return chunks;
+	}
+
+	/**
+	 * @message loadMapped
+	 * @brief Loads the input file in parallel chunks into objCollection
+	 * @return the number of rows in objCollection, or -1 if the file could not be loaded
+	 */
+	private int loadMapped(String filename, boolean hasHeaderLine) {
+		ArrayList<LineParser> chunks = parseMapped(filename, hasHeaderLine, false);
+		if(chunks == null)
+			return -1;
+
+		/* Chunks are returned in file order, so the rows keep their order as well */
+		int rows = 0;
+		for(LineParser chunk : chunks)
+			rows += chunk.records.size();
+		objCollection.ensureCapacity(objCollection.size() + rows);
+		for(LineParser chunk : chunks)
+			objCollection.addAll(chunk.records);
+		markFollowed(filename);
+		return objCollection.size();
+	}
+
 	/**
 	 * @message load
 	 * @brief Reads the data from the given file and stores them in an ArrayList
@@ -132,8 +564,19 @@ public class Loader<E extends MeasurementRecord> implements ILoader<E> {
 		this.numFields = numFields;
 		this.objCollection = objCollection;
 
+		/* Gzip files are always decompressed and parsed in parallel */
+		if(loadMode.equals("mapped") || new FileHandler(filename).isGzipFile())
+			return loadMapped(filename, hasHeaderLine);
+
 		this.fileHandler = new FileHandler(filename);
-		
+
+		/* Delimiters that are a single plain character are parsed straight from the bytes */
+		if(RecordParser.delimiterByte(delimiter) != -1) {
+			if(readFile(filename, new LineParser(objCollection, null, hasHeaderLine)) == -1)
+				return -1;
+			return objCollection.size();
+		}
+
 		/* Create a managed file descriptor */
 		if(fileHandler.createReaderFD() == -1)
 			return -1;
@@ -151,4 +594,181 @@ public class Loader<E extends MeasurementRecord> implements ILoader<E> {
 		/* TODO CHECK IF WE CLEAR THE COLLECTION AFTER WE GET MEASURES OR NOT */
 		return objCollection.size();
 	}
+
+	/**
+	 * @message load
+	 * @brief Reads the data from the given file and appends them to a columnar dataset
+	 * @return the number of rows in the dataset
+	 * @param filename: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param dataset: the dataset which will be loaded with the data from the input file
+	 */
+	public int load(String filename, String delimiter, boolean hasHeaderLine, int numFields, MeasurementDataset dataset) {
+		this.delimiter = delimiter;
+		this.numFields = numFields;
+
+		if(loadMode.equals("mapped") || new FileHandler(filename).isGzipFile()) {
+			ArrayList<LineParser> chunks = parseMapped(filename, hasHeaderLine, true);
+			if(chunks == null)
+				return -1;
+
+			int rows = dataset.size();
+			for(LineParser chunk : chunks)
+				rows += ((MeasurementDataset)chunk.rows).size();
+			dataset.ensureCapacity(rows);
+			for(LineParser chunk : chunks)
+				dataset.addAll((MeasurementDataset)chunk.rows);
+			markFollowed(filename);
+			return dataset.size();
+		}
+
+		return (stream(filename, delimiter, hasHeaderLine, numFields, dataset) == -1) ? -1 : dataset.size();
+	}
+
+	/**
+	 * @message load
+	 * @brief Reads only the rows of a range of days from the given file and stores them in an ArrayList
+	 * 			The file is always read sequentially, seeking to the first day of the range through its day index
+	 * @return the number of rows in objCollection
+	 * @param filename: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param fromDay: the first epoch day of the range
+	 * @param toDay: the last epoch day of the range
+	 * @param objCollection: the list which will be loaded with the data from the input file
+	 */
+	public int load(String filename, String delimiter, boolean hasHeaderLine, int numFields, int fromDay, int toDay, ArrayList<E> objCollection) {
+		this.delimiter = delimiter;
+		this.numFields = numFields;
+		this.objCollection = objCollection;
+
+		if(readDays(filename, hasHeaderLine, fromDay, toDay, new LineParser(objCollection, null, hasHeaderLine)) == -1)
+			return -1;
+		return objCollection.size();
+	}
+
+	/**
+	 * @message load
+	 * @brief Reads only the rows of a range of days from the given file and appends them to a columnar dataset
+	 * @return the number of rows in the dataset
+	 * @param fromDay: the first epoch day of the range
+	 * @param toDay: the last epoch day of the range
+	 * @param dataset: the dataset which will be loaded with the data from the input file
+	 */
+	public int load(String filename, String delimiter, boolean hasHeaderLine, int numFields, int fromDay, int toDay, MeasurementDataset dataset) {
+		this.delimiter = delimiter;
+		this.numFields = numFields;
+
+		if(readDays(filename, hasHeaderLine, fromDay, toDay, new LineParser(null, dataset, hasHeaderLine)) == -1)
+			return -1;
+		return dataset.size();
+	}
+
+	/**
+	 * @message stream
+	 * @brief Reads the data from the given file block by block and hands every row to a sink as soon as it is parsed,
+	 * 			so that only a single block of the file is held in memory at any time
+	 * @return the number of rows handed to the sink, or -1 if the file could not be loaded
+	 * @param filename: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param sink: the sink receiving the rows in file order
+	 */
+	public int stream(String filename, String delimiter, boolean hasHeaderLine, int numFields, IMeasurementSink sink) {
+		this.delimiter = delimiter;
+		this.numFields = numFields;
+
+		/* Count the rows on their way to the sink */
+		CountingSink countingSink = new CountingSink(sink);
+
+		if(readFile(filename, new LineParser(null, countingSink, hasHeaderLine)) == -1)
+			return -1;
+		return countingSink.rows;
+	}
+
+	/**
+	 * @message follow
+	 * @brief Reads only the complete lines appended to the given file since it was last loaded or followed,
+	 * 			and hands their rows to a sink, so that live files are kept up to date without reading them again
+	 * @return the number of new rows handed to the sink, or -1 if the file could not be read
+	 * @param filename: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false), used when it is read from its start
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param sink: the sink receiving the new rows in file order
+	 */
+	public int follow(String filename, String delimiter, boolean hasHeaderLine, int numFields, IMeasurementSink sink) {
+		this.delimiter = delimiter;
+		this.numFields = numFields;
+
+		if(new FileHandler(filename).isGzipFile()) {
+			System.out.println("A compressed file cannot be followed.");
+			return -1;
+		}
+
+		String key = followKey(filename);
+		long offset = followOffsets.getOrDefault(key, 0L);
+		long size = new File(filename).length();
+
+		/* The file was truncated or replaced, so it is followed from its start again */
+		if(size < offset)
+			offset = 0;
+		if(size == offset)
+			return 0;
+
+		CountingSink countingSink = new CountingSink(sink);
+
+		this.fileHandler = new FileHandler(filename);
+		if(fileHandler.createInputStreamFD() == -1)
+			return -1;
+		long end = -1;
+		if(fileHandler.skipBytesFromFile(offset) == 0)
+			end = writeBytesToCollection(new LineParser(null, countingSink, hasHeaderLine && offset == 0), offset, Long.MAX_VALUE, false);
+		fileHandler.closeFD();
+		if(end == -1)
+			return -1;
+
+		followOffsets.put(key, end);
+		return countingSink.rows;
+	}
+
+	/**
+	 * @message markFollowed
+	 * @brief Remembers that the given file was read up to its last complete line without going through the loader,
+	 * 			e.g. when it was loaded from its snapshot
+	 * @param filename the input file
+	 */
+	public void markFollowed(String filename) {
+		/* The offsets of a gzip file are offsets in its decompressed bytes, which cannot be found from its end */
+		if(new FileHandler(filename).isGzipFile())
+			followOffsets.remove(followKey(filename));
+		else
+			followOffsets.put(followKey(filename), lastLineEnd(filename));
+	}
+
+	public String getLoadMode() {
+		return this.loadMode;
+	}
+	public void setLoadMode(String loadMode) {
+		this.loadMode = loadMode;
+	}
+
+	public int[] getColumns() {
+		return this.columns.clone();
+	}
+	/**
+	 * @message setColumns
+	 * @brief Sets the numeric columns that are decoded on top of RecordParser.MODEL_COLUMNS,
+	 * 			which every record and dataset keeps and are therefore always decoded
+	 * @param columns the column positions, from RecordParser.GLOBAL_ACTIVE_POWER to RecordParser.SUB_METERING_3
+	 */
+	public void setColumns(int... columns) {
+		int[] union = Arrays.copyOf(RecordParser.MODEL_COLUMNS, RecordParser.MODEL_COLUMNS.length + columns.length);
+		System.arraycopy(columns, 0, union, RecordParser.MODEL_COLUMNS.length, columns.length);
+		this.columns = union;
+	}
 }
@@ -0,0 +1,147 @@
+package dataload;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @class MappedChunkReader
+ * @brief Memory maps an input file, splits it into newline aligned chunks
+ * 			and hands every chunk to a parser running on a fork-join pool
+ */
+public class MappedChunkReader implements IChunkReader {
+	/**
+	 * MIN_CHUNK_SIZE -> the smallest chunk worth handing to a separate worker
+	 * MAX_CHUNK_SIZE -> the biggest region we map at once (a mapping cannot exceed Integer.MAX_VALUE bytes)
+	 * CHUNKS_PER_WORKER -> how many chunks each worker gets, so that uneven chunks still balance out
+	 */
+	private static final long MIN_CHUNK_SIZE = 1L << 20;
+	private static final long MAX_CHUNK_SIZE = 64L << 20;
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	/**
+	 * filename -> the file to be mapped
+	 * pool -> the fork-join pool the chunks are parsed on
+	 */
+	private final String filename;
+	private final ForkJoinPool pool;
+
+	public MappedChunkReader(String filename, ForkJoinPool pool) {
+		this.filename = filename;
+		this.pool = pool;
+	}
+
+	/**
+	 * @class ParseChunksTask
+	 * @brief Splits a range of chunks in halves until a single chunk is left and parses it
+	 */
+	private static class ParseChunksTask<R> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final ArrayList<MappedByteBuffer> chunks;
+		private final IChunkParser<R> parser;
+		private final Object[] results;
+		private final int from;
+		private final int to;
+
+		ParseChunksTask(ArrayList<MappedByteBuffer> chunks, IChunkParser<R> parser, Object[] results, int from, int to) {
+			this.chunks = chunks;
+			this.parser = parser;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from == 1) {
+				results[from] = parser.parse(chunks.get(from), from);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ParseChunksTask<>(chunks, parser, results, from, middle),
+					new ParseChunksTask<>(chunks, parser, results, middle, to));
+		}
+	}
+
+	/**
+	 * @message findLineStart
+	 * @brief Finds the first byte of the line following the given position
+	 * @param channel the channel of the input file
+	 * @param position a position somewhere inside a line
+	 * @param size the size of the file
+	 * @return the offset right after the next newline, or size if there is none
+	 */
+	private static long findLineStart(FileChannel channel, long position, long size) throws Exception {
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		while(position < size) {
+			probe.clear();
+			int read = channel.read(probe, position);
+			if(read <= 0)
+				break;
+			for(int i = 0; i < read; i++)
+				if(probe.get(i) == '\n')
+					return position + i + 1;
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * @message mapChunks
+	 * @brief Maps the file as a list of newline aligned chunks
+	 * @param channel the channel of the input file
+	 * @param size the size of the file
+	 * @return the mapped chunks in file order
+	 */
+	private ArrayList<MappedByteBuffer> mapChunks(FileChannel channel, long size) throws Exception {
+		int workers = Math.max(1, pool.getParallelism() * CHUNKS_PER_WORKER);
+		long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / workers + 1));
+
+		ArrayList<MappedByteBuffer> chunks = new ArrayList<>();
+		long start = 0;
+		while(start < size) {
+			/* Move the nominal end to the start of the next line so that no line is cut in two */
+			long end = (size - start <= chunkSize) ? size : findLineStart(channel, start + chunkSize - 1, size);
+			chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+			start = end;
+		}
+		return chunks;
+	}
+
+	/**
+	 * @message read
+	 * @brief Maps the whole file and parses all of its chunks in parallel
+	 * @param parser the parser that is applied to every chunk
+	 * @return the parsed chunks in file order, or null if the file could not be read
+	 */
+	@Override
+	public <R> ArrayList<R> read(IChunkParser<R> parser) {
+		ArrayList<MappedByteBuffer> chunks;
+		try(RandomAccessFile file = new RandomAccessFile(filename, "r");
+			FileChannel channel = file.getChannel()) {
+			chunks = mapChunks(channel, channel.size());
+		}
+		catch(Exception e) {
+			System.out.println("There was an error with mapping the input file.");
+			return null;
+		}
+
+		/* The mappings stay valid after their channel is closed */
+		Object[] results = new Object[chunks.size()];
+		if(!chunks.isEmpty())
+			pool.invoke(new ParseChunksTask<>(chunks, parser, results, 0, chunks.size()));
+
+		ArrayList<R> parsed = new ArrayList<>(results.length);
+		for(Object result : results) {
+			@SuppressWarnings("unchecked")
+			R chunkResult = (R)result;
+			parsed.add(chunkResult);
+		}
+		return parsed;
+	}
+}
@@ -0,0 +1,232 @@
+package dataload;
+
+import datamodel.DateModel;
+import datamodel.EpochTime;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import datamodel.TimeModel;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @class ModelInterner
+ * @brief Hands out shared, immutable DateModel and TimeModel instances, so that the records of the same day
+ * 			or of the same time of day point to a single model instead of each holding its own model and Strings
+ * 			Every instance remembers the last date it handed out, which makes sorted input hit without any lookup.
+ * 			An instance is meant to be used by a single thread; the shared models may be used by any thread.
+ */
+public class ModelInterner {
+	/**
+	 * @class SharedDateModel
+	 * @brief A DateModel that cannot be changed, as it is shared by many records
+	 */
+	private static final class SharedDateModel extends DateModel {
+		SharedDateModel(String day, String month, String year) {
+			super.setDay(day);
+			super.setMonth(month);
+			super.setYear(year);
+		}
+
+		@Override
+		public void setDay(String day) {
+			throw new UnsupportedOperationException("A shared DateModel cannot be changed");
+		}
+		@Override
+		public void setMonth(String month) {
+			throw new UnsupportedOperationException("A shared DateModel cannot be changed");
+		}
+		@Override
+		public void setYear(String year) {
+			throw new UnsupportedOperationException("A shared DateModel cannot be changed");
+		}
+	}
+
+	/**
+	 * @class SharedTimeModel
+	 * @brief A TimeModel that cannot be changed, as it is shared by many records
+	 */
+	private static final class SharedTimeModel extends TimeModel {
+		SharedTimeModel(String hour, String minute, String second) {
+			super.setHour(hour);
+			super.setMinute(minute);
+			super.setSecond(second);
+		}
+
+		@Override
+		public void setHour(String hour) {
+			throw new UnsupportedOperationException("A shared TimeModel cannot be changed");
+		}
+		@Override
+		public void setMinute(String minute) {
+			throw new UnsupportedOperationException("A shared TimeModel cannot be changed");
+		}
+		@Override
+		public void setSecond(String second) {
+			throw new UnsupportedOperationException("A shared TimeModel cannot be changed");
+		}
+	}
+
+	/**
+	 * MINUTES -> the models of every whole minute of a day, which is how the input files write their times
+	 * DATES -> the models of every date handed out so far, by their yyyymmdd number, whether they were asked for by numbers or by Strings
+	 * TIMES -> the models of the times that are not whole minutes, by their Strings
+	 */
+	private static final TimeModel[] MINUTES = new TimeModel[EpochTime.MINUTES_PER_DAY];
+	private static final ConcurrentHashMap<Integer, DateModel> DATES = new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<String, TimeModel> TIMES = new ConcurrentHashMap<>();
+	static {
+		for(int minute = 0; minute < MINUTES.length; minute++)
+			MINUTES[minute] = new SharedTimeModel(EpochTime.twoDigits(minute / 60), EpochTime.twoDigits(minute % 60), EpochTime.twoDigits(0));
+	}
+
+	/**
+	 * lastDate -> the date handed out last
+	 * lastDateKey -> the yyyymmdd number of the last date, or -1
+	 * lastDay, lastMonth, lastYear -> the Strings of the last date, when it was asked for by its Strings
+	 * lastEpochDay -> the epoch day of the last record created from a dataset row
+	 */
+	private DateModel lastDate;
+	private int lastDateKey = -1;
+	private String lastDay;
+	private String lastMonth;
+	private String lastYear;
+	private int lastEpochDay = Integer.MIN_VALUE;
+	private DateModel lastEpochDate;
+
+	/**
+	 * @message dateOf
+	 * @brief Finds the shared model of a date
+	 * @return a DateModel with the zero padded day and month, as they are written in the input file
+	 */
+	public DateModel dateOf(int year, int month, int day) {
+		int key = year * 10000 + month * 100 + day;
+		if(key != lastDateKey) {
+			lastDate = DATES.computeIfAbsent(key, unused -> new SharedDateModel(EpochTime.twoDigits(day), EpochTime.twoDigits(month), String.valueOf(year)));
+			lastDateKey = key;
+			lastDay = null;
+		}
+		return lastDate;
+	}
+
+	/**
+	 * @message dateOf
+	 * @brief Finds the shared model of a date, as its Strings were read from the input file
+	 * 			A date written the way dateOf(int, int, int) writes it shares the model of its yyyymmdd number, so a day has the same model
+	 * 			whichever parser read it; a date written any other way, e.g. without zero padding, gets a model of its own that keeps its Strings
+	 */
+	public DateModel dateOf(String day, String month, String year) {
+		if(!day.equals(lastDay) || !month.equals(lastMonth) || !year.equals(lastYear)) {
+			int dayValue = twoDigitValue(day);
+			int monthValue = twoDigitValue(month);
+			int yearValue = yearValue(year);
+			if(dayValue >= 0 && monthValue >= 0 && yearValue >= 0)
+				dateOf(yearValue, monthValue, dayValue);
+			else {
+				lastDate = new SharedDateModel(day, month, year);
+				lastDateKey = -1;
+			}
+			lastDay = day;
+			lastMonth = month;
+			lastYear = year;
+		}
+		return lastDate;
+	}
+
+	/**
+	 * @message timeOf
+	 * @brief Finds the shared model of a time of day
+	 * @return a TimeModel with zero padded parts, as they are written in the input file
+	 */
+	public TimeModel timeOf(int hour, int minute, int second) {
+		if(second == 0 && hour < 24 && minute < 60)
+			return MINUTES[hour * 60 + minute];
+		return timeOf(EpochTime.twoDigits(hour), EpochTime.twoDigits(minute), EpochTime.twoDigits(second));
+	}
+
+	/**
+	 * @message timeOf
+	 * @brief Finds the shared model of a time of day, as its Strings were read from the input file
+	 */
+	public TimeModel timeOf(String hour, String minute, String second) {
+		int h = twoDigitValue(hour);
+		int m = twoDigitValue(minute);
+		if(second.equals("00") && h >= 0 && h < 24 && m >= 0 && m < 60)
+			return MINUTES[h * 60 + m];
+		return TIMES.computeIfAbsent(hour + ":" + minute + ":" + second, unused -> new SharedTimeModel(hour, minute, second));
+	}
+
+	/**
+	 * @message twoDigitValue
+	 * @brief Decodes a part of a time written with exactly two digits
+	 * @return the number, or -1 for any other String
+	 */
+	private static int twoDigitValue(String part) {
+		if(part.length() != 2)
+			return -1;
+		int tens = part.charAt(0) - '0';
+		int units = part.charAt(1) - '0';
+		if(tens < 0 || tens > 9 || units < 0 || units > 9)
+			return -1;
+		return tens * 10 + units;
+	}
+
+	/**
+	 * @message yearValue
+	 * @brief Decodes a year written as String.valueOf writes it: digits only, without leading zeros, and short enough for a yyyymmdd int
+	 * @return the year, or -1 for any other String
+	 */
+	private static int yearValue(String year) {
+		if(year.isEmpty() || year.length() > 5 || year.charAt(0) == '0')
+			return -1;
+		int value = 0;
+		for(int at = 0; at < year.length(); at++) {
+			int digit = year.charAt(at) - '0';
+			if(digit < 0 || digit > 9)
+				return -1;
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	/**
+	 * @message recordOf
+	 * @brief Creates a MeasurementRecord from the values of a dataset row, with shared date and time models
+	 */
+	public MeasurementRecord recordOf(int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+		return recordOf(epochMinute, Double.NaN, sub_metering_1, sub_metering_2, sub_metering_3);
+	}
+
+	/**
+	 * @message recordOf
+	 * @brief Creates a MeasurementRecord from the values of a dataset row along with its global active power, with shared date and time models
+	 */
+	public MeasurementRecord recordOf(int epochMinute, double global_active_power, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+		int epochDay = EpochTime.epochDayOf(epochMinute);
+		if(epochDay != lastEpochDay) {
+			lastEpochDate = dateOf(EpochTime.yearOf(epochDay), EpochTime.monthOf(epochDay), EpochTime.dayOfMonthOf(epochDay));
+			lastEpochDay = epochDay;
+		}
+		MeasurementRecord record = new MeasurementRecord();
+		record.setDate(lastEpochDate);
+		record.setTime(MINUTES[Math.floorMod(epochMinute, EpochTime.MINUTES_PER_DAY)]);
+		record.setGlobal_active_power(global_active_power);
+		record.setSub_metering_1(sub_metering_1);
+		record.setSub_metering_2(sub_metering_2);
+		record.setSub_metering_3(sub_metering_3);
+		return record;
+	}
+
+	/**
+	 * @message recordsOf
+	 * @brief Creates the MeasurementRecords of all the rows of a dataset, with shared date and time models
+	 * @return an ArrayList with one MeasurementRecord per row, in dataset order
+	 */
+	public ArrayList<MeasurementRecord> recordsOf(MeasurementDataset dataset) {
+		ArrayList<MeasurementRecord> records = new ArrayList<>(dataset.size());
+		for(int row = 0; row < dataset.size(); row++)
+			records.add(recordOf(dataset.getEpochMinute(row), dataset.getGlobal_active_power(row), dataset.getSub_metering_1(row),
+					dataset.getSub_metering_2(row), dataset.getSub_metering_3(row)));
+		return records;
+	}
+}
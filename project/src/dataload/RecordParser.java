@@ -0,0 +1,322 @@
+package dataload;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @class RecordParser
+ * @brief Parses a single line of the input file straight from its bytes into primitive fields,
+ * 			without creating any intermediate String or array
+ */
+public class RecordParser {
+	/**
+	 * Return codes of parse, matching the way createDataRecord treats a line
+	 * OK -> the line was parsed and its fields can be read through the getters
+	 * SKIP -> the line has empty or invalid cells and is ignored
+	 * DELIMITER_ERROR -> the line cannot be split with the delimiter
+	 * HEADER_ERROR -> the line is a header line
+	 */
+	public static final int OK = 0;
+	public static final int SKIP = 1;
+	public static final int DELIMITER_ERROR = 2;
+	public static final int HEADER_ERROR = 3;
+
+	/**
+	 * Column positions in the input file
+	 */
+	public static final int DATE = 0;
+	public static final int TIME = 1;
+	public static final int GLOBAL_ACTIVE_POWER = 2;
+	public static final int GLOBAL_REACTIVE_POWER = 3;
+	public static final int VOLTAGE = 4;
+	public static final int GLOBAL_INTENSITY = 5;
+	public static final int SUB_METERING_1 = 6;
+	public static final int SUB_METERING_2 = 7;
+	public static final int SUB_METERING_3 = 8;
+
+	/**
+	 * MODEL_COLUMNS -> the columns MeasurementRecord and MeasurementDataset keep; the other setters discard their value
+	 */
+	public static final int[] MODEL_COLUMNS = {DATE, TIME, GLOBAL_ACTIVE_POWER, SUB_METERING_1, SUB_METERING_2, SUB_METERING_3};
+
+	/**
+	 * POWERS_OF_TEN -> every power of ten that a double holds exactly
+	 * MAX_EXACT_MANTISSA -> the biggest integer a double holds exactly (2^53)
+	 */
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/**
+	 * delimiter -> the byte between columns of the source file
+	 * numFields -> the number of columns in the input file
+	 * fieldStart, fieldEnd -> the byte range of every column of the current line
+	 * values -> the numeric columns of the current line, indexed by their column position
+	 * projected -> whether a column is decoded (true) or only checked for a missing value (false)
+	 */
+	private final byte delimiter;
+	private final int numFields;
+	private final int[] fieldStart;
+	private final int[] fieldEnd;
+	private final double[] values;
+	private final boolean[] projected;
+	private int day;
+	private int month;
+	private int year;
+	private int hour;
+	private int minute;
+	private int second;
+
+	public RecordParser(byte delimiter, int numFields) {
+		this.delimiter = delimiter;
+		this.numFields = numFields;
+		this.fieldStart = new int[numFields];
+		this.fieldEnd = new int[numFields];
+		this.values = new double[numFields];
+		this.projected = new boolean[numFields];
+		Arrays.fill(projected, true);
+	}
+
+	/**
+	 * @message setColumns
+	 * @brief Restricts the numeric columns that are decoded to the given ones
+	 * 			The date and time columns are always decoded. Any other column is skipped over at byte level
+	 * 			and only checked to be present, so that lines with missing values are still skipped.
+	 * @param columns the column positions needed, e.g. MODEL_COLUMNS
+	 */
+	public void setColumns(int... columns) {
+		Arrays.fill(projected, false);
+		for(int column : columns)
+			if(column >= 0 && column < numFields)
+				projected[column] = true;
+		for(int column = GLOBAL_ACTIVE_POWER; column < numFields; column++)
+			if(!projected[column])
+				values[column] = Double.NaN;
+	}
+
+	/**
+	 * @message delimiterByte
+	 * @brief Finds the single byte the delimiter stands for
+	 * @param delimiter the delimiter as given to the loader, which String.split treats as a regular expression
+	 * @return the delimiter byte, or -1 if the delimiter cannot be matched byte by byte
+	 */
+	public static int delimiterByte(String delimiter) {
+		if(delimiter.equals("\\t"))
+			return '\t';
+		if(delimiter.length() != 1)
+			return -1;
+
+		char c = delimiter.charAt(0);
+		if(c >= 128 || ".$|()[]{}^?*+\\".indexOf(c) != -1)
+			return -1;
+		return c;
+	}
+
+	/**
+	 * @message parse
+	 * @brief Parses the line between from (inclusive) and to (exclusive), without its line terminator
+	 * @param buf the bytes holding the line
+	 * @param from the first byte of the line
+	 * @param to the end of the line
+	 * @return OK, SKIP, DELIMITER_ERROR or HEADER_ERROR
+	 */
+	public int parse(ByteBuffer buf, int from, int to) {
+		/* Find the columns, keeping String.split semantics where trailing empty columns are dropped */
+		int fields = 0;
+		int lastNonEmpty = 0;
+		int start = from;
+		for(int i = from; i <= to; i++) {
+			if(i < to && buf.get(i) != delimiter)
+				continue;
+			if(fields < numFields) {
+				fieldStart[fields] = start;
+				fieldEnd[fields] = i;
+			}
+			fields++;
+			if(i > start)
+				lastNonEmpty = fields;
+			start = i + 1;
+		}
+		fields = lastNonEmpty;
+
+		if(fields < 2)
+			return DELIMITER_ERROR;
+		/* Consider for possible inputs between the delimiter that are empty */
+		if(fields != numFields)
+			return SKIP;
+
+		int status = parseDate(buf, fieldStart[DATE], fieldEnd[DATE]);
+		if(status != OK)
+			return status;
+		if(!parseTime(buf, fieldStart[TIME], fieldEnd[TIME]))
+			return SKIP;
+
+		for(int column = 2; column < numFields; column++) {
+			if(!projected[column]) {
+				if(isMissing(buf, fieldStart[column], fieldEnd[column]))
+					return SKIP;
+				continue;
+			}
+			values[column] = parseDecimal(buf, fieldStart[column], fieldEnd[column]);
+			if(Double.isNaN(values[column]))
+				return SKIP;
+		}
+		return OK;
+	}
+
+	/**
+	 * @message parseDate
+	 * @brief Decodes a dd/mm/yyyy column
+	 * @return OK, SKIP, or HEADER_ERROR when the column has no '/' at all
+	 */
+	private int parseDate(ByteBuffer buf, int from, int to) {
+		int firstSlash = indexOf(buf, from, to, (byte)'/');
+		if(firstSlash == -1)
+			return HEADER_ERROR;
+		int secondSlash = indexOf(buf, firstSlash + 1, to, (byte)'/');
+		if(secondSlash == -1)
+			return SKIP;
+
+		day = parseInt(buf, from, firstSlash);
+		month = parseInt(buf, firstSlash + 1, secondSlash);
+		year = parseInt(buf, secondSlash + 1, to);
+		return (day < 0 || month < 0 || year < 0) ? SKIP : OK;
+	}
+
+	/**
+	 * @message parseTime
+	 * @brief Decodes a hh:mm:ss column
+	 * @return true if all three parts are numbers
+	 */
+	private boolean parseTime(ByteBuffer buf, int from, int to) {
+		int firstColon = indexOf(buf, from, to, (byte)':');
+		int secondColon = (firstColon == -1) ? -1 : indexOf(buf, firstColon + 1, to, (byte)':');
+		if(secondColon == -1)
+			return false;
+
+		hour = parseInt(buf, from, firstColon);
+		minute = parseInt(buf, firstColon + 1, secondColon);
+		second = parseInt(buf, secondColon + 1, to);
+		return hour >= 0 && minute >= 0 && second >= 0;
+	}
+
+	/**
+	 * @message isMissing
+	 * @brief Checks a skipped column for the empty or '?' cells of missing measurements
+	 */
+	private static boolean isMissing(ByteBuffer buf, int from, int to) {
+		return from == to || buf.get(from) == '?';
+	}
+
+	private static int indexOf(ByteBuffer buf, int from, int to, byte b) {
+		for(int i = from; i < to; i++)
+			if(buf.get(i) == b)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * @message parseInt
+	 * @brief Decodes a short run of digits
+	 * @return the number, or -1 if the range is empty, too long or has anything but digits
+	 */
+	private static int parseInt(ByteBuffer buf, int from, int to) {
+		if(from == to || to - from > 9)
+			return -1;
+		int number = 0;
+		for(int i = from; i < to; i++) {
+			int digit = buf.get(i) - '0';
+			if(digit < 0 || digit > 9)
+				return -1;
+			number = number * 10 + digit;
+		}
+		return number;
+	}
+
+	/**
+	 * @message parseDecimal
+	 * @brief Decodes a plain decimal such as 0.000 or 17.000
+	 * 			The mantissa and the power of ten are both exact doubles, so their quotient is rounded
+	 * 			exactly like Double.parseDouble rounds. Anything else falls back to Double.parseDouble.
+	 * @return the number, or NaN if the column is empty or not a number
+	 */
+	static double parseDecimal(ByteBuffer buf, int from, int to) {
+		if(from == to)
+			return Double.NaN;
+
+		int i = from;
+		boolean negative = buf.get(i) == '-';
+		if(negative || buf.get(i) == '+')
+			i++;
+
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for(; i < to; i++) {
+			byte b = buf.get(i);
+			if(b == '.' && fractionDigits == -1) {
+				fractionDigits = 0;
+				continue;
+			}
+			int digit = b - '0';
+			if(digit < 0 || digit > 9 || mantissa >= MAX_EXACT_MANTISSA / 10)
+				return parseDecimalSlow(buf, from, to);
+			mantissa = mantissa * 10 + digit;
+			digits++;
+			if(fractionDigits != -1)
+				fractionDigits++;
+		}
+		if(digits == 0 || fractionDigits >= POWERS_OF_TEN.length)
+			return parseDecimalSlow(buf, from, to);
+
+		double value = (fractionDigits > 0) ? mantissa / POWERS_OF_TEN[fractionDigits] : (double)mantissa;
+		return negative ? -value : value;
+	}
+
+	/**
+	 * @message parseDecimalSlow
+	 * @brief Decodes the rare numbers the fast path does not handle (exponents, long mantissas, spaces)
+	 */
+	private static double parseDecimalSlow(ByteBuffer buf, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		buf.get(from, bytes);
+		try {
+			return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1));
+		}
+		catch(NumberFormatException e) { /* Missing values such as '?' */
+			return Double.NaN;
+		}
+	}
+
+	public int getDay() {
+		return this.day;
+	}
+	public int getMonth() {
+		return this.month;
+	}
+	public int getYear() {
+		return this.year;
+	}
+	public int getHour() {
+		return this.hour;
+	}
+	public int getMinute() {
+		return this.minute;
+	}
+	public int getSecond() {
+		return this.second;
+	}
+
+	/**
+	 * @message getValue
+	 * @brief Returns a numeric column of the last parsed line
+	 * @param column the column position, from GLOBAL_ACTIVE_POWER to SUB_METERING_3
+	 * @return the value, or NaN if the column is not projected
+	 */
+	public double getValue(int column) {
+		return this.values[column];
+	}
+}
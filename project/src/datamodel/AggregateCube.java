@@ -0,0 +1,113 @@
+package datamodel;
+
+/**
+ * @class AggregateCube
+ * @brief Aggregates measurements by every time unit type at once, keeping the running sums of the three meters
+ *          per season, month, day of week and period of day, so that a single scan of the input
+ *          answers the aggregations of all the time unit types with any aggregate function
+ */
+public class AggregateCube implements IMeasurementSink {
+    /**
+     * TIME_UNIT_TYPES -> the time unit types of the cube, in the order their summaries are kept
+     */
+    private static final String[] TIME_UNIT_TYPES = {"season", "month", "dayofweek", "periodofday"};
+    private static final int SEASON = 0;
+    private static final int MONTH = 1;
+    private static final int DAY_OF_WEEK = 2;
+    private static final int PERIOD_OF_DAY = 3;
+
+    /**
+     * summaries -> the running sums of every time unit type, indexed by the ordinals of its time units
+     * ordinals -> the lookup tables from the month, the day of week and the hour to the time unit ordinals
+     * size -> the number of measurements added to the cube
+     * lastEpochDay, lastSeason, lastMonth, lastDayOfWeek -> the time units of the day of the last measurement
+     */
+    private final SummaryResultModel[] summaries = new SummaryResultModel[TIME_UNIT_TYPES.length];
+    private final int[][] ordinals = new int[TIME_UNIT_TYPES.length][];
+    private int size;
+    private int lastEpochDay = Integer.MIN_VALUE;
+    private int lastSeason;
+    private int lastMonth;
+    private int lastDayOfWeek;
+
+    public AggregateCube() {
+        this(false);
+    }
+
+    /**
+     * @param keepsQuantiles whether the cube also keeps the sketches that percentile results are calculated from
+     */
+    public AggregateCube(boolean keepsQuantiles) {
+        TimeUnitMappingModel unitMap = new TimeUnitMappingModel();
+        for(int type = 0; type < TIME_UNIT_TYPES.length; type++) {
+            summaries[type] = new SummaryResultModel();
+            summaries[type].setTimeUnits(unitMap.getNames(TIME_UNIT_TYPES[type]));
+            summaries[type].setKeepsQuantiles(keepsQuantiles);
+            ordinals[type] = unitMap.getOrdinals(TIME_UNIT_TYPES[type]);
+        }
+    }
+
+    /**
+     * @message add
+     * @brief Folds a measurement into the running sums of its season, month, day of week and period of day
+     * @return the number of measurements added to the cube so far
+     */
+    @Override
+    public int add(int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        int epochDay = EpochTime.epochDayOf(epochMinute);
+        if(epochDay != lastEpochDay) {
+            int month = EpochTime.monthOf(epochDay);
+            lastSeason = ordinals[SEASON][month];
+            lastMonth = ordinals[MONTH][month];
+            lastDayOfWeek = ordinals[DAY_OF_WEEK][EpochTime.dayOfWeekOf(epochDay)];
+            lastEpochDay = epochDay;
+        }
+
+        summaries[SEASON].add(lastSeason, sub_metering_1, sub_metering_2, sub_metering_3);
+        summaries[MONTH].add(lastMonth, sub_metering_1, sub_metering_2, sub_metering_3);
+        summaries[DAY_OF_WEEK].add(lastDayOfWeek, sub_metering_1, sub_metering_2, sub_metering_3);
+        summaries[PERIOD_OF_DAY].add(ordinals[PERIOD_OF_DAY][EpochTime.hourOf(epochMinute)], sub_metering_1, sub_metering_2, sub_metering_3);
+        return ++size;
+    }
+
+    /**
+     * @message merge
+     * @brief Folds the running sums of another cube into this one, as if its measurements had been added here
+     * @param other a cube of a different part of the input
+     */
+    public void merge(AggregateCube other) {
+        for(int type = 0; type < TIME_UNIT_TYPES.length; type++)
+            summaries[type].merge(other.summaries[type]);
+        size += other.size;
+    }
+
+    /**
+     * @message getResult
+     * @brief Returns the aggregation of the cube by a time unit type, computed from the running sums alone
+     * @param timeUnitType a string belonging to the set "season", "month", "dayofweek", "periodofday"
+     * @param aggregateFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p95, ...) to be applied
+     * @param description a String with a textual description of the result
+     * @return a calculated IResult, or null if the time unit type or the aggregate function is invalid
+     */
+    public IResult getResult(String timeUnitType, String aggregateFunction, String description) {
+        if(!SummaryResultModel.isAggregateFunction(aggregateFunction)) {
+            System.out.println("The aggregate function is not one of avg, sum, min, max, count, stddev or a percentile such as p95.");
+            return null;
+        }
+        if(aggregateFunction.startsWith("p") && !summaries[0].getKeepsQuantiles()) {
+            System.out.println("The cube keeps no sketches to calculate percentiles from.");
+            return null;
+        }
+
+        for(int type = 0; type < TIME_UNIT_TYPES.length; type++)
+            if(TIME_UNIT_TYPES[type].equals(timeUnitType))
+                return summaries[type].summarizeAs(aggregateFunction, description);
+
+        System.out.println("The aggregator function input was invalid");
+        return null;
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,156 @@
+package datamodel;
+
+/**
+ * @class CalendarDimension
+ * @brief A table of the calendar attributes of every day of a span of whole years: day of week, day of month, month, season,
+ *          ISO week, year and whether the day is on a weekend or a public holiday
+ *          The attributes are worked out once when the table is built, so that grouping a measurement by any of them
+ *          is an array lookup by its epoch day instead of date arithmetic, and adding an attribute costs nothing per measurement
+ *          The holidays are the French public holidays, as the measurements come from a household in Sceaux
+ */
+public final class CalendarDimension {
+    /**
+     * DAY_OF_WEEK, DAY_OF_MONTH, MONTH, SEASON, ISO_WEEK, YEAR -> the attributes of a day, as given to attributeOf and lookupOf
+     * DAY_OF_WEEK [1-7] from Monday, DAY_OF_MONTH [1-31], MONTH [1-12], SEASON [0-3] from WINTER, ISO_WEEK [1-53], YEAR the year number
+     * WEEKEND, HOLIDAY -> the flags of a day
+     * SEASON_OF_MONTH -> takes the month [1-12] and maps it to its season
+     */
+    public static final int DAY_OF_WEEK = 0;
+    public static final int DAY_OF_MONTH = 1;
+    public static final int MONTH = 2;
+    public static final int SEASON = 3;
+    public static final int ISO_WEEK = 4;
+    public static final int YEAR = 5;
+    private static final int ATTRIBUTES = 6;
+    private static final int WEEKEND = 1;
+    private static final int HOLIDAY = 2;
+    private static final int[] SEASON_OF_MONTH = {-1, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, 0};
+
+    /**
+     * firstDay -> the epoch day of the first day of the table, a 1st of January
+     * days -> the number of days of the table
+     * attributes -> every attribute of every day, the attributes of a day one after the other
+     * flags -> the WEEKEND and HOLIDAY flags of every day
+     */
+    private final int firstDay;
+    private final int days;
+    private final int[] attributes;
+    private final byte[] flags;
+
+    /**
+     * @brief Builds the table of the whole years from the year of one day to the year of another
+     * @param fromEpochDay a day of the first year of the table
+     * @param toEpochDay a day of the last year of the table, not before fromEpochDay
+     */
+    public CalendarDimension(int fromEpochDay, int toEpochDay) {
+        int firstYear = EpochTime.yearOf(fromEpochDay);
+        int lastYear = EpochTime.yearOf(toEpochDay);
+        this.firstDay = EpochTime.toEpochDay(firstYear, 1, 1);
+        this.days = EpochTime.toEpochDay(lastYear + 1, 1, 1) - firstDay;
+        this.attributes = new int[days * ATTRIBUTES];
+        this.flags = new byte[days];
+
+        for(int day = 0; day < days; day++) {
+            int epochDay = firstDay + day;
+            int year = EpochTime.yearOf(epochDay);
+            int month = EpochTime.monthOf(epochDay);
+            int dayOfWeek = EpochTime.dayOfWeekOf(epochDay);
+            /* The ISO week of a day is the week of the Thursday of its week, counted in the year of that Thursday */
+            int thursday = epochDay - dayOfWeek + 4;
+            int at = day * ATTRIBUTES;
+            attributes[at + DAY_OF_WEEK] = dayOfWeek;
+            attributes[at + DAY_OF_MONTH] = EpochTime.dayOfMonthOf(epochDay);
+            attributes[at + MONTH] = month;
+            attributes[at + SEASON] = SEASON_OF_MONTH[month];
+            attributes[at + ISO_WEEK] = (thursday - EpochTime.toEpochDay(EpochTime.yearOf(thursday), 1, 1)) / 7 + 1;
+            attributes[at + YEAR] = year;
+            if(dayOfWeek >= 6)
+                flags[day] |= WEEKEND;
+        }
+        for(int year = firstYear; year <= lastYear; year++)
+            markHolidays(year);
+    }
+
+    /**
+     * @message of
+     * @brief Builds the table of the years a dataset spans
+     * @return the table, or null for an empty dataset
+     */
+    public static CalendarDimension of(MeasurementDataset dataset) {
+        if(dataset.size() == 0)
+            return null;
+        int[] minutes = dataset.getEpochMinuteColumn();
+        int first = minutes[0];
+        int last = minutes[0];
+        for(int row = 1; row < dataset.size(); row++) {
+            first = Math.min(first, minutes[row]);
+            last = Math.max(last, minutes[row]);
+        }
+        return new CalendarDimension(EpochTime.epochDayOf(first), EpochTime.epochDayOf(last));
+    }
+
+    /**
+     * @message markHolidays
+     * @brief Flags the French public holidays of a year: the fixed ones and those that follow Easter
+     */
+    private void markHolidays(int year) {
+        int[][] fixed = {{1, 1}, {5, 1}, {5, 8}, {7, 14}, {8, 15}, {11, 1}, {11, 11}, {12, 25}};
+        for(int[] holiday : fixed)
+            markHoliday(EpochTime.toEpochDay(year, holiday[0], holiday[1]));
+
+        /* Easter Sunday by the anonymous Gregorian algorithm; Easter Monday, Ascension Day and Whit Monday follow it */
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int h = (19 * a + b - b / 4 - (b - (b + 8) / 25 + 1) / 3 + 15) % 30;
+        int l = (32 + 2 * (b % 4) + 2 * (c / 4) - h - c % 4) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int easter = EpochTime.toEpochDay(year, (h + l - 7 * m + 114) / 31, (h + l - 7 * m + 114) % 31 + 1);
+        markHoliday(easter + 1);
+        markHoliday(easter + 39);
+        markHoliday(easter + 50);
+    }
+
+    private void markHoliday(int epochDay) {
+        flags[epochDay - firstDay] |= HOLIDAY;
+    }
+
+    /**
+     * @message lookupOf
+     * @brief Maps every day of the table straight to a value of one of its attributes, e.g. to the ordinal of its time unit
+     * @param attribute one of DAY_OF_WEEK, DAY_OF_MONTH, MONTH, SEASON, ISO_WEEK, YEAR
+     * @param values the value of every value of the attribute, e.g. TimeUnitMappingModel.getOrdinals
+     * @return the value of every day of the table, starting with getFirstDay
+     */
+    public int[] lookupOf(int attribute, int[] values) {
+        int[] lookup = new int[days];
+        for(int day = 0; day < days; day++)
+            lookup[day] = values[attributes[day * ATTRIBUTES + attribute]];
+        return lookup;
+    }
+
+    /**
+     * @message attributeOf
+     * @brief Returns an attribute of a day of the table
+     * @param attribute one of DAY_OF_WEEK, DAY_OF_MONTH, MONTH, SEASON, ISO_WEEK, YEAR
+     */
+    public int attributeOf(int attribute, int epochDay) {
+        return attributes[(epochDay - firstDay) * ATTRIBUTES + attribute];
+    }
+
+    public boolean contains(int epochDay) {
+        return epochDay >= firstDay && epochDay - firstDay < days;
+    }
+    public boolean isWeekend(int epochDay) {
+        return (flags[epochDay - firstDay] & WEEKEND) != 0;
+    }
+    public boolean isHoliday(int epochDay) {
+        return (flags[epochDay - firstDay] & HOLIDAY) != 0;
+    }
+    public int getFirstDay() {
+        return this.firstDay;
+    }
+    public int getDays() {
+        return this.days;
+    }
+}
@@ -0,0 +1,122 @@
+package datamodel;
+
+/**
+ * @class EpochTime
+ * @brief Converts between calendar fields and minutes or days since 01/01/1970,
+ *          using plain integer arithmetic on the proleptic Gregorian calendar
+ */
+public final class EpochTime {
+    /**
+     * MINUTES_PER_DAY -> the number of minutes in a day
+     * TWO_DIGITS -> the zero padded Strings "00" to "99" shared by all date and time models
+     */
+    public static final int MINUTES_PER_DAY = 1440;
+    private static final String[] TWO_DIGITS = new String[100];
+    static {
+        for(int i = 0; i < TWO_DIGITS.length; i++)
+            TWO_DIGITS[i] = (i < 10) ? "0" + i : String.valueOf(i);
+    }
+
+    private EpochTime() {}
+
+    /**
+     * @message toEpochDay
+     * @brief Finds the number of days between 01/01/1970 and a date
+     * @param year the year number
+     * @param month the month number [1-12]
+     * @param day the day number [1-31]
+     * @return the epoch day
+     */
+    public static int toEpochDay(int year, int month, int day) {
+        /* Count years from March, so that the leap day is the last day of the year */
+        int y = year - ((month <= 2) ? 1 : 0);
+        int era = ((y >= 0) ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * ((month + 9) % 12) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @message toEpochMinute
+     * @brief Finds the number of minutes between 01/01/1970 00:00 and a date and time (seconds are dropped)
+     * @return the epoch minute
+     */
+    public static int toEpochMinute(int year, int month, int day, int hour, int minute) {
+        return toEpochDay(year, month, day) * MINUTES_PER_DAY + hour * 60 + minute;
+    }
+
+    /**
+     * @message epochMinuteOf
+     * @brief Finds the epoch minute of a MeasurementRecord from its date and time Strings
+     */
+    public static int epochMinuteOf(MeasurementRecord record) {
+        return toEpochMinute(
+                Integer.parseInt(record.getDate().getYear()),
+                Integer.parseInt(record.getDate().getMonth()),
+                Integer.parseInt(record.getDate().getDay()),
+                Integer.parseInt(record.getTime().getHour()),
+                Integer.parseInt(record.getTime().getMinute()));
+    }
+
+    /**
+     * @message epochDayOf
+     * @brief Finds the day an epoch minute belongs to
+     */
+    public static int epochDayOf(int epochMinute) {
+        return Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * @message civilOf
+     * @brief Packs the year, month and day of an epoch day as year * 10000 + month * 100 + day
+     */
+    private static int civilOf(int epochDay) {
+        int z = epochDay + 719468;
+        int era = ((z >= 0) ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = (shiftedMonth < 10) ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + ((month <= 2) ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    public static int yearOf(int epochDay) {
+        return civilOf(epochDay) / 10000;
+    }
+    public static int monthOf(int epochDay) {
+        return civilOf(epochDay) / 100 % 100;
+    }
+    public static int dayOfMonthOf(int epochDay) {
+        return civilOf(epochDay) % 100;
+    }
+
+    /**
+     * @message dayOfWeekOf
+     * @brief Finds the day of week of an epoch day (01/01/1970 was a Thursday)
+     * @return 1 for Monday up to 7 for Sunday
+     */
+    public static int dayOfWeekOf(int epochDay) {
+        return Math.floorMod(epochDay + 3, 7) + 1;
+    }
+
+    public static int hourOf(int epochMinute) {
+        return Math.floorMod(epochMinute, MINUTES_PER_DAY) / 60;
+    }
+    public static int minuteOf(int epochMinute) {
+        return Math.floorMod(epochMinute, 60);
+    }
+
+    /**
+     * @message twoDigits
+     * @brief Returns the zero padded form of a date or time part, the way it is written in the input file
+     * @param value a non negative number
+     * @return a shared String such as "04" or "17" for values below 100
+     */
+    public static String twoDigits(int value) {
+        return (value < TWO_DIGITS.length) ? TWO_DIGITS[value] : String.valueOf(value);
+    }
+}
@@ -2,10 +2,14 @@ package datamodel;
 
 import java.io.File;
 
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.BufferedReader;
 import java.io.FileWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.Objects;
+import java.util.zip.GZIPInputStream;
 
 /**
  * @class FileHandler
@@ -16,17 +20,25 @@ public class FileHandler {
      * reader -> A reader file object
      * writer -> A writer file object
      * fd -> The buffered reader file descriptor
+     * input -> A raw byte stream file object, decompressing gzip files on the fly
      * filename -> the filename we want to either read or write to
      */
-    private FileReader reader;
+    private InputStreamReader reader;
     private FileWriter writer;
     private BufferedReader fd;
+    private InputStream input;
     private final String filename;
 
+    /**
+     * GZIP_BUFFER_SIZE -> the size of the compressed blocks a gzip file is read in
+     */
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
     public FileHandler(String filename) {
         this.reader = null;
         this.writer = null;
         this.fd = null;
+        this.input = null;
         this.filename = filename;
     }
 
@@ -106,13 +118,31 @@ public class FileHandler {
         }
     }
 
+    /**
+     * @message isGzipFile
+     * @brief Checks whether the file starts with the gzip magic bytes
+     * @return true if the file is gzip compressed
+     */
+    public boolean isGzipFile() {
+        try(FileInputStream probe = new FileInputStream(filename)) {
+            return probe.read() == 0x1f && probe.read() == 0x8b;
+        }
+        catch(Exception e) {
+            return false;
+        }
+    }
+
     /**
      * @message createReaderFD
      * @brief Manages the errors of creating a reader file object as well as its buffered reader
+     *          A gzip file is decompressed while it is read
      */
     public int createReaderFD() {
         try {
-            reader = new FileReader(filename);
+            if(isGzipFile())
+                reader = new InputStreamReader(new GZIPInputStream(new FileInputStream(filename), GZIP_BUFFER_SIZE));
+            else
+                reader = new FileReader(filename);
             fd = new BufferedReader(reader);
             return 0;
         }
@@ -122,6 +152,67 @@ public class FileHandler {
         }
     }
 
+    /**
+     * @message createInputStreamFD
+     * @brief Manages the errors of creating a raw byte stream file object
+     *          A gzip file is decompressed while it is read, without writing any temporary file
+     */
+    public int createInputStreamFD() {
+        try {
+            if(isGzipFile())
+                input = new GZIPInputStream(new FileInputStream(filename), GZIP_BUFFER_SIZE);
+            else
+                input = new FileInputStream(filename);
+            return 0;
+        }
+        catch(Exception e) {
+            System.out.println("There was an error with creating the input file.");
+            return -1;
+        }
+    }
+
+    /**
+     * @message readBytesFromFile
+     * @brief Read raw bytes from a file
+     * @param buffer the array to fill
+     * @param offset the position of the first byte to fill
+     * @param length the maximum number of bytes to read
+     * @return the number of bytes read, 0 at the end of the file, or -1 on error
+     */
+    public int readBytesFromFile(byte[] buffer, int offset, int length) {
+        try {
+            int read = Objects.requireNonNull(input).read(buffer, offset, length);
+            return (read == -1) ? 0 : read;
+        }
+        catch(Exception e) {
+            System.out.println("There was an error with reading from the input file.");
+            return -1;
+        }
+    }
+
+    /**
+     * @message skipBytesFromFile
+     * @brief Moves the raw byte stream forward without reading
+     * @param count the number of bytes to skip
+     * @return 0 if all the bytes were skipped, or -1 on error
+     */
+    public int skipBytesFromFile(long count) {
+        try {
+            InputStream stream = Objects.requireNonNull(input);
+            while(count > 0) {
+                long skipped = stream.skip(count);
+                if(skipped <= 0)
+                    return -1;
+                count -= skipped;
+            }
+            return 0;
+        }
+        catch(Exception e) {
+            System.out.println("There was an error with reading from the input file.");
+            return -1;
+        }
+    }
+
     /**
      * @message readFromFile
      * @brief Read data from a file
@@ -152,6 +243,7 @@ public class FileHandler {
             if(writer != null) writer.flush();
             if(reader != null) reader.close();
             if(writer != null) writer.close();
+            if(input != null) input.close();
         }
         catch(Exception e) {
             System.out.println("There was an error with closing the files.");
@@ -0,0 +1,39 @@
+package datamodel;
+
+/**
+ * @class FileLoadModel
+ * @brief A model that holds the outcome of loading a single file of a directory
+ */
+public class FileLoadModel {
+    /**
+     * filename -> The path of the loaded file
+     * rows -> The number of rows loaded from the file, or -1 if it could not be loaded
+     * millis -> The time it took to load the file, in milliseconds
+     */
+    private String filename;
+    private int rows;
+    private long millis;
+
+    public FileLoadModel() {}
+
+    public String getFilename() {
+        return this.filename;
+    }
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    public long getMillis() {
+        return this.millis;
+    }
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+}
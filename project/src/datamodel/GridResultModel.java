@@ -0,0 +1,121 @@
+package datamodel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * @class GridResultModel
+ * @brief A summary grouped by two time unit types at once, e.g. season by period of day or day of week by hour of the day
+ *          Every pair of a row and a column time unit is a cell, whose ordinal row * columns + column is the time unit ordinal
+ *          of the summary, so measurements are folded into the accumulator of their cell by a dense int, like those of a single time unit
+ *          The cells are also named by cellOf, under which getAggregateMeterKitchen and the other IResult views find them
+ */
+public class GridResultModel extends SummaryResultModel implements IResult2D {
+    /**
+     * rowUnitType, columnUnitType -> the time unit types of the rows and columns
+     * rowUnits, columnUnits -> the names of the time units of the rows and columns, in ordinal order
+     */
+    private String rowUnitType;
+    private String columnUnitType;
+    private String[] rowUnits;
+    private String[] columnUnits;
+
+    /**
+     * @message cellOf
+     * @brief Names the cell of a row and a column time unit, e.g. "WINTER / NIGHT"
+     */
+    public static String cellOf(String rowUnit, String columnUnit) {
+        return rowUnit + " / " + columnUnit;
+    }
+
+    /**
+     * @message setUnits
+     * @brief Chooses the time units of the rows and columns, and names the cells measurements are added under by ordinal
+     *          It has to be chosen before any measurement is added
+     * @param rowUnitType the time unit type of the rows
+     * @param rowUnits the names of the time units of the rows, in ordinal order
+     * @param columnUnitType the time unit type of the columns
+     * @param columnUnits the names of the time units of the columns, in ordinal order
+     */
+    public void setUnits(String rowUnitType, String[] rowUnits, String columnUnitType, String[] columnUnits) {
+        this.rowUnitType = rowUnitType;
+        this.rowUnits = rowUnits.clone();
+        this.columnUnitType = columnUnitType;
+        this.columnUnits = columnUnits.clone();
+
+        String[] cells = new String[rowUnits.length * columnUnits.length];
+        for(int row = 0; row < rowUnits.length; row++)
+            for(int column = 0; column < columnUnits.length; column++)
+                cells[row * columnUnits.length + column] = cellOf(rowUnits[row], columnUnits[column]);
+        setTimeUnits(cells);
+    }
+
+    /**
+     * @message summarizeAs
+     * @brief Creates a calculated copy of the grid with its own aggregate function and description
+     * @return the copy, which is not affected by measurements added to this grid afterwards
+     */
+    @Override
+    public GridResultModel summarizeAs(String aggregateFunction, String description) {
+        GridResultModel copy = new GridResultModel();
+        copy.setKeepsQuantiles(getKeepsQuantiles());
+        copy.setMetrics(getMetrics());
+        copy.setAggregateFunction(aggregateFunction);
+        copy.setDescription(description);
+        copy.setUnits(rowUnitType, rowUnits, columnUnitType, columnUnits);
+        copy.setPeaks(getPeakMinutes(), getPeakCount());
+        copy.merge(this);
+        copy.calculateResult();
+        return copy;
+    }
+
+    /**
+     * @message tableOf
+     * @brief Lays out aggregates kept by cell name as a table of the rows and columns of the grid
+     * @param aggregates the aggregate value of every cell, by the name cellOf gives it
+     * @return a double[row][column] table, with NaN for the cells without a value
+     */
+    @Override
+    public double[][] tableOf(HashMap<String, Double> aggregates) {
+        double[][] table = new double[rowUnits.length][columnUnits.length];
+        for(int row = 0; row < rowUnits.length; row++) {
+            Arrays.fill(table[row], Double.NaN);
+            for(int column = 0; column < columnUnits.length; column++) {
+                Double value = aggregates.get(cellOf(rowUnits[row], columnUnits[column]));
+                if(value != null)
+                    table[row][column] = value;
+            }
+        }
+        return table;
+    }
+
+    @Override
+    public double[][] getAggregateMeterKitchenTable() {
+        return tableOf(getAggregateMeterKitchen());
+    }
+    @Override
+    public double[][] getAggregateMeterLaundryTable() {
+        return tableOf(getAggregateMeterLaundry());
+    }
+    @Override
+    public double[][] getAggregateMeterACTable() {
+        return tableOf(getAggregateMeterAC());
+    }
+
+    @Override
+    public String getRowUnitType() {
+        return this.rowUnitType;
+    }
+    @Override
+    public String getColumnUnitType() {
+        return this.columnUnitType;
+    }
+    @Override
+    public String[] getRowUnits() {
+        return this.rowUnits.clone();
+    }
+    @Override
+    public String[] getColumnUnits() {
+        return this.columnUnits.clone();
+    }
+}
@@ -0,0 +1,31 @@
+package datamodel;
+
+public interface IMeasurementSink {
+	/**
+	 * Receives a single measurement, in the order it was read from its source
+	 * 
+	 * @param epochMinute the minutes since 01/01/1970 00:00 of the measurement
+	 * @param sub_metering_1 the Kitchen measurement
+	 * @param sub_metering_2 the Laundry measurement
+	 * @param sub_metering_3 the AC measurement
+	 * 
+	 * @return the number of measurements received so far
+	 */
+	int add(int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3);
+
+	/**
+	 * Receives a single measurement along with the global active power of the household, for sinks that keep it;
+	 * any other sink receives the meters only
+	 * 
+	 * @param epochMinute the minutes since 01/01/1970 00:00 of the measurement
+	 * @param global_active_power the household global minute-averaged active power, in kilowatts
+	 * @param sub_metering_1 the Kitchen measurement
+	 * @param sub_metering_2 the Laundry measurement
+	 * @param sub_metering_3 the AC measurement
+	 * 
+	 * @return the number of measurements received so far
+	 */
+	default int add(int epochMinute, double global_active_power, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+		return add(epochMinute, sub_metering_1, sub_metering_2, sub_metering_3);
+	}
+}
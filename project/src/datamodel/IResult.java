@@ -52,4 +52,31 @@ public interface IResult {
 	 * @return A HashMap<String, Double>, where the grouping time unit is represented as a String and the aggregate value as a Double
 	 */
 	HashMap<String, Double> getAggregateMeterAC();
+
+	/**
+	 * Stores the highest consumptions of the Kitchen metric over minutes, hours or days, for each of the grouper time units
+	 * 
+	 * @return A HashMap<String, ArrayList<PeakRecord>> with the peaks of every time unit, the highest first; empty if the result keeps no peaks
+	 */
+	default HashMap<String, ArrayList<PeakRecord>> getPeakMeterKitchen() {
+		return new HashMap<>();
+	}
+
+	/**
+	 * Stores the highest consumptions of the Laundry metric over minutes, hours or days, for each of the grouper time units
+	 * 
+	 * @return A HashMap<String, ArrayList<PeakRecord>> with the peaks of every time unit, the highest first; empty if the result keeps no peaks
+	 */
+	default HashMap<String, ArrayList<PeakRecord>> getPeakMeterLaundry() {
+		return new HashMap<>();
+	}
+
+	/**
+	 * Stores the highest consumptions of the air condition metric over minutes, hours or days, for each of the grouper time units
+	 * 
+	 * @return A HashMap<String, ArrayList<PeakRecord>> with the peaks of every time unit, the highest first; empty if the result keeps no peaks
+	 */
+	default HashMap<String, ArrayList<PeakRecord>> getPeakMeterAC() {
+		return new HashMap<>();
+	}
 }
@@ -0,0 +1,63 @@
+package datamodel;
+
+import java.util.HashMap;
+
+public interface IResult2D extends IResult {
+
+	/**
+	 * Returns the time unit type the rows of the result are grouped by, e.g. "season"
+	 *
+	 * @return A String with the time unit type of the rows
+	 */
+	String getRowUnitType();
+
+	/**
+	 * Returns the time unit type the columns of the result are grouped by, e.g. "periodofday"
+	 *
+	 * @return A String with the time unit type of the columns
+	 */
+	String getColumnUnitType();
+
+	/**
+	 * Returns the names of the time units of the rows, in ordinal order
+	 *
+	 * @return A String[] with a name for each row, e.g. WINTER, SPRING, SUMMER, AUTUMN
+	 */
+	String[] getRowUnits();
+
+	/**
+	 * Returns the names of the time units of the columns, in ordinal order
+	 *
+	 * @return A String[] with a name for each column, e.g. NIGHT, EARLY MORNING, MORNING, AFTERNOON, EVENING
+	 */
+	String[] getColumnUnits();
+
+	/**
+	 * Stores the aggregate measurements for the Kitchen metric, one for each pair of a row and a column time unit
+	 *
+	 * @return A double[row][column] table, with NaN for the pairs without measurements
+	 */
+	double[][] getAggregateMeterKitchenTable();
+
+	/**
+	 * Stores the aggregate measurements for the Laundry metric, one for each pair of a row and a column time unit
+	 *
+	 * @return A double[row][column] table, with NaN for the pairs without measurements
+	 */
+	double[][] getAggregateMeterLaundryTable();
+
+	/**
+	 * Stores the aggregate measurements for the air condition metric, one for each pair of a row and a column time unit
+	 *
+	 * @return A double[row][column] table, with NaN for the pairs without measurements
+	 */
+	double[][] getAggregateMeterACTable();
+
+	/**
+	 * Lays out aggregates kept by the names of the cells of the result, e.g. those of getAggregateMeterKitchen, as a table
+	 *
+	 * @param aggregates a HashMap<String, Double> with the aggregate value of every cell, named by GridResultModel.cellOf
+	 * @return A double[row][column] table, with NaN for the cells without a value
+	 */
+	double[][] tableOf(HashMap<String, Double> aggregates);
+}
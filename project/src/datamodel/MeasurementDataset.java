@@ -0,0 +1,352 @@
+package datamodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * @class MeasurementDataset
+ * @brief A columnar model of measurements, holding one primitive array per column
+ *          instead of one MeasurementRecord (with its DateModel and TimeModel) per row
+ */
+public class MeasurementDataset implements IMeasurementSink {
+    /**
+     * INITIAL_CAPACITY -> the number of rows an empty dataset has room for
+     * epochMinutes -> the minutes since 01/01/1970 00:00 of every row
+     * globalActivePower -> the household global active power column, in kilowatts; NaN for rows added without it
+     * subMetering1 -> the Kitchen column
+     * subMetering2 -> the Laundry column
+     * subMetering3 -> the AC column
+     * size -> the number of rows held in the columns
+     * version -> counts the changes to the rows, so that what was built from them, e.g. a RollupStore, can tell it is out of date
+     * calendar, calendarVersion -> the calendar dimension of the years of the rows, and the version it was built for
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    private int[] epochMinutes;
+    private double[] globalActivePower;
+    private double[] subMetering1;
+    private double[] subMetering2;
+    private double[] subMetering3;
+    private int size;
+    private int version;
+    private CalendarDimension calendar;
+    private int calendarVersion;
+
+    public MeasurementDataset() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public MeasurementDataset(int capacity) {
+        capacity = Math.max(capacity, 1);
+        epochMinutes = new int[capacity];
+        globalActivePower = new double[capacity];
+        subMetering1 = new double[capacity];
+        subMetering2 = new double[capacity];
+        subMetering3 = new double[capacity];
+    }
+
+    /**
+     * @brief Wraps existing meter columns without copying them; the global active power of every row is NaN
+     * @param epochMinutes the minutes since 01/01/1970 00:00 of every row
+     * @param subMetering1 the Kitchen column
+     * @param subMetering2 the Laundry column
+     * @param subMetering3 the AC column
+     * @param size the number of rows held in the columns
+     */
+    public MeasurementDataset(int[] epochMinutes, double[] subMetering1, double[] subMetering2, double[] subMetering3, int size) {
+        this(epochMinutes, filledWithNaN(epochMinutes.length), subMetering1, subMetering2, subMetering3, size);
+    }
+
+    /**
+     * @brief Wraps existing columns without copying them
+     * @param epochMinutes the minutes since 01/01/1970 00:00 of every row
+     * @param globalActivePower the global active power column
+     * @param subMetering1 the Kitchen column
+     * @param subMetering2 the Laundry column
+     * @param subMetering3 the AC column
+     * @param size the number of rows held in the columns
+     */
+    public MeasurementDataset(int[] epochMinutes, double[] globalActivePower, double[] subMetering1, double[] subMetering2,
+                              double[] subMetering3, int size) {
+        this.epochMinutes = epochMinutes;
+        this.globalActivePower = globalActivePower;
+        this.subMetering1 = subMetering1;
+        this.subMetering2 = subMetering2;
+        this.subMetering3 = subMetering3;
+        this.size = size;
+    }
+
+    /**
+     * @message ensureCapacity
+     * @brief Grows the columns so that they can hold at least the given number of rows
+     * @param capacity the number of rows
+     */
+    public void ensureCapacity(int capacity) {
+        if(capacity <= epochMinutes.length)
+            return;
+        capacity = Math.max(capacity, epochMinutes.length + (epochMinutes.length >> 1));
+        epochMinutes = Arrays.copyOf(epochMinutes, capacity);
+        globalActivePower = Arrays.copyOf(globalActivePower, capacity);
+        subMetering1 = Arrays.copyOf(subMetering1, capacity);
+        subMetering2 = Arrays.copyOf(subMetering2, capacity);
+        subMetering3 = Arrays.copyOf(subMetering3, capacity);
+    }
+
+    /**
+     * @message trimToSize
+     * @brief Releases the unused capacity of the columns
+     */
+    public void trimToSize() {
+        int capacity = Math.max(size, 1);
+        epochMinutes = Arrays.copyOf(epochMinutes, capacity);
+        globalActivePower = Arrays.copyOf(globalActivePower, capacity);
+        subMetering1 = Arrays.copyOf(subMetering1, capacity);
+        subMetering2 = Arrays.copyOf(subMetering2, capacity);
+        subMetering3 = Arrays.copyOf(subMetering3, capacity);
+    }
+
+    /**
+     * @message add
+     * @brief Appends a row to the dataset, without its global active power
+     * @param epochMinute the minutes since 01/01/1970 00:00
+     * @param sub_metering_1 the Kitchen measurement
+     * @param sub_metering_2 the Laundry measurement
+     * @param sub_metering_3 the AC measurement
+     * @return the number of rows in the dataset
+     */
+    @Override
+    public int add(int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        return add(epochMinute, Double.NaN, sub_metering_1, sub_metering_2, sub_metering_3);
+    }
+
+    /**
+     * @message add
+     * @brief Appends a row to the dataset
+     * @param epochMinute the minutes since 01/01/1970 00:00
+     * @param global_active_power the household global active power, in kilowatts
+     * @param sub_metering_1 the Kitchen measurement
+     * @param sub_metering_2 the Laundry measurement
+     * @param sub_metering_3 the AC measurement
+     * @return the number of rows in the dataset
+     */
+    @Override
+    public int add(int epochMinute, double global_active_power, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        if(size == epochMinutes.length)
+            ensureCapacity(size + 1);
+        epochMinutes[size] = epochMinute;
+        globalActivePower[size] = global_active_power;
+        subMetering1[size] = sub_metering_1;
+        subMetering2[size] = sub_metering_2;
+        subMetering3[size] = sub_metering_3;
+        version++;
+        return ++size;
+    }
+
+    /**
+     * @message add
+     * @brief Appends a MeasurementRecord to the dataset
+     * @param record the record to convert into a row
+     * @return the number of rows in the dataset
+     */
+    public int add(MeasurementRecord record) {
+        return add(EpochTime.epochMinuteOf(record), record.getGlobal_active_power(), record.getSub_metering_1(), record.getSub_metering_2(), record.getSub_metering_3());
+    }
+
+    /**
+     * @message addAll
+     * @brief Appends all the rows of another dataset, keeping their order
+     * @param other the dataset to append
+     * @return the number of rows in the dataset
+     */
+    public int addAll(MeasurementDataset other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.epochMinutes, 0, epochMinutes, size, other.size);
+        System.arraycopy(other.globalActivePower, 0, globalActivePower, size, other.size);
+        System.arraycopy(other.subMetering1, 0, subMetering1, size, other.size);
+        System.arraycopy(other.subMetering2, 0, subMetering2, size, other.size);
+        System.arraycopy(other.subMetering3, 0, subMetering3, size, other.size);
+        size += other.size;
+        version++;
+        return size;
+    }
+
+    /**
+     * @message betweenDays
+     * @brief Selects the rows of a range of days
+     * @param fromDay the first epoch day of the range
+     * @param toDay the last epoch day of the range
+     * @return a new dataset with the rows of the range, in dataset order
+     */
+    public MeasurementDataset betweenDays(int fromDay, int toDay) {
+        MeasurementDataset selected = new MeasurementDataset();
+        for(int row = 0; row < size; row++) {
+            int epochDay = EpochTime.epochDayOf(epochMinutes[row]);
+            if(epochDay >= fromDay && epochDay <= toDay)
+                selected.add(epochMinutes[row], globalActivePower[row], subMetering1[row], subMetering2[row], subMetering3[row]);
+        }
+        return selected;
+    }
+
+    /**
+     * @message sortByTime
+     * @brief Orders the rows by their epoch minute, keeping the order of rows with the same minute
+     *          A dataset that is already in order is left as it is
+     */
+    public void sortByTime() {
+        int row = 1;
+        while(row < size && epochMinutes[row - 1] <= epochMinutes[row])
+            row++;
+        if(row >= size)
+            return;
+
+        /* Sort the minutes together with their row, which also keeps equal minutes in their order */
+        long[] keys = new long[size];
+        for(row = 0; row < size; row++)
+            keys[row] = ((long)epochMinutes[row] << 32) | row;
+        Arrays.sort(keys);
+
+        int[] sortedMinutes = new int[size];
+        double[] sortedPower = new double[size];
+        double[] sorted1 = new double[size];
+        double[] sorted2 = new double[size];
+        double[] sorted3 = new double[size];
+        for(row = 0; row < size; row++) {
+            int from = (int)keys[row];
+            sortedMinutes[row] = epochMinutes[from];
+            sortedPower[row] = globalActivePower[from];
+            sorted1[row] = subMetering1[from];
+            sorted2[row] = subMetering2[from];
+            sorted3[row] = subMetering3[from];
+        }
+        epochMinutes = sortedMinutes;
+        globalActivePower = sortedPower;
+        subMetering1 = sorted1;
+        subMetering2 = sorted2;
+        subMetering3 = sorted3;
+        version++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @message getCalendar
+     * @brief Returns the calendar dimension of the years the rows span, built on first use after a load or any other change
+     *          and kept as long as no row falls outside its years
+     * @return the calendar, or null for an empty dataset
+     */
+    public synchronized CalendarDimension getCalendar() {
+        if(calendar != null && calendarVersion == version)
+            return calendar;
+        /* Rows added within the years of the calendar leave it as it is */
+        CalendarDimension spanned = CalendarDimension.of(this);
+        if(calendar == null || spanned == null || spanned.getFirstDay() < calendar.getFirstDay()
+                || spanned.getFirstDay() + spanned.getDays() > calendar.getFirstDay() + calendar.getDays())
+            calendar = spanned;
+        calendarVersion = version;
+        return calendar;
+    }
+
+    public int getEpochMinute(int row) {
+        return this.epochMinutes[row];
+    }
+    public double getGlobal_active_power(int row) {
+        return this.globalActivePower[row];
+    }
+    public double getSub_metering_1(int row) {
+        return this.subMetering1[row];
+    }
+    public double getSub_metering_2(int row) {
+        return this.subMetering2[row];
+    }
+    public double getSub_metering_3(int row) {
+        return this.subMetering3[row];
+    }
+
+    /**
+     * @message getEpochMinuteColumn
+     * @brief Returns the column of the epoch minutes itself, for kernels that work on whole columns; only the first size() rows are in use
+     */
+    public int[] getEpochMinuteColumn() {
+        return this.epochMinutes;
+    }
+
+    /**
+     * @message getMeterColumn
+     * @brief Returns the column of a meter itself, for kernels that work on whole columns; only the first size() rows are in use
+     * @param meter 0 for the Kitchen, 1 for the Laundry and 2 for the AC column
+     */
+    public double[] getMeterColumn(int meter) {
+        return (meter == 0) ? subMetering1 : (meter == 1) ? subMetering2 : subMetering3;
+    }
+
+    /**
+     * @message getGlobalActivePowerColumn
+     * @brief Returns the column of the global active power itself, for kernels that work on whole columns; only the first size() rows are in use
+     */
+    public double[] getGlobalActivePowerColumn() {
+        return this.globalActivePower;
+    }
+
+    /**
+     * @message getRecord
+     * @brief Creates a MeasurementRecord view of a row, for callers that work with records
+     * @param row the position of the row
+     * @return a new MeasurementRecord with the values of the row
+     */
+    public MeasurementRecord getRecord(int row) {
+        MeasurementRecord record = recordOf(epochMinutes[row], subMetering1[row], subMetering2[row], subMetering3[row]);
+        record.setGlobal_active_power(globalActivePower[row]);
+        return record;
+    }
+
+    /**
+     * @message recordOf
+     * @brief Creates a MeasurementRecord from the values of a row
+     * @param epochMinute the minutes since 01/01/1970 00:00
+     * @return a new MeasurementRecord with zero padded date and time parts, as they are written in the input file
+     */
+    public static MeasurementRecord recordOf(int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        int epochDay = EpochTime.epochDayOf(epochMinute);
+
+        DateModel dateModel = new DateModel();
+        dateModel.setDay(EpochTime.twoDigits(EpochTime.dayOfMonthOf(epochDay)));
+        dateModel.setMonth(EpochTime.twoDigits(EpochTime.monthOf(epochDay)));
+        dateModel.setYear(String.valueOf(EpochTime.yearOf(epochDay)));
+
+        TimeModel timeModel = new TimeModel();
+        timeModel.setHour(EpochTime.twoDigits(EpochTime.hourOf(epochMinute)));
+        timeModel.setMinute(EpochTime.twoDigits(EpochTime.minuteOf(epochMinute)));
+        timeModel.setSecond(EpochTime.twoDigits(0));
+
+        MeasurementRecord record = new MeasurementRecord();
+        record.setDate(dateModel);
+        record.setTime(timeModel);
+        record.setSub_metering_1(sub_metering_1);
+        record.setSub_metering_2(sub_metering_2);
+        record.setSub_metering_3(sub_metering_3);
+        record.setGlobal_active_power(Double.NaN);
+        return record;
+    }
+
+    private static double[] filledWithNaN(int length) {
+        double[] column = new double[length];
+        Arrays.fill(column, Double.NaN);
+        return column;
+    }
+
+    /**
+     * @message toRecords
+     * @brief Creates the MeasurementRecord views of all the rows
+     * @return an ArrayList with one MeasurementRecord per row, in dataset order
+     */
+    public ArrayList<MeasurementRecord> toRecords() {
+        ArrayList<MeasurementRecord> records = new ArrayList<>(size);
+        for(int row = 0; row < size; row++)
+            records.add(getRecord(row));
+        return records;
+    }
+}
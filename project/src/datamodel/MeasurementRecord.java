@@ -13,6 +13,7 @@ public class MeasurementRecord {
      */
     private DateModel date;
     private TimeModel time;
+    private double global_active_power; /* Household, in kilowatts */
     private double sub_metering_1; /* Kitchen */
     private double sub_metering_2; /* Laundry */
     private double sub_metering_3; /* AC */
@@ -61,7 +62,12 @@ public class MeasurementRecord {
         this._delimiter_error = _delimiter_error;
     }
 
-    public void setGlobal_active_power(double global_active_power) {}
+    public double getGlobal_active_power() {
+        return this.global_active_power;
+    }
+    public void setGlobal_active_power(double global_active_power) {
+        this.global_active_power = global_active_power;
+    }
 
     public void setGlobal_reactive_power(double global_reactive_power) {}
 
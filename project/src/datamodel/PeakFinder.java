@@ -0,0 +1,243 @@
+package datamodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * @class PeakFinder
+ * @brief Finds the highest consumptions of every meter within every time unit, over minutes, hours or days, while the measurements stream by
+ *          Every meter of every time unit keeps a min-heap of at most count peaks in primitive arrays, so a measurement below the lowest
+ *          peak kept costs a single comparison and the measurements themselves are never kept
+ *          Hours and days are first totalled per period and time unit, as the measurements of a period may be split among the parts of an input,
+ *          and a day may be split among time units such as the periods of the day
+ *          Finders of separate parts of the input, e.g. one per thread, merge into the finder of the whole input
+ */
+public class PeakFinder {
+    /**
+     * METERS -> the number of meters a peak is found for: Kitchen, Laundry and A/C
+     * periodMinutes -> the length of the periods whose consumption is ranked: 1 for minutes, 60 for hours, 1440 for days
+     * count -> the number of peaks kept per meter and time unit
+     * timeUnits -> the names of the time units, in ordinal order
+     * heapValues, heapMinutes, heapSizes -> the heap of time unit t and meter m at t * METERS + m: the values of its peaks,
+     *          the first minutes of their periods and the number of peaks, the lowest peak first
+     * heapsCurrent -> whether the heaps hold the peaks of the period totals added so far
+     * slots -> the open addressed table of the periods totalled, holding the entry of every period and time unit plus one, or 0 for a free slot
+     * periods, periodUnits, totals -> the period, the time unit and the total of every meter of every entry
+     * entries -> the number of periods and time units totalled
+     * lastEntry -> the entry last added to, as the measurements of a period mostly come one after the other
+     */
+    private static final int METERS = 3;
+    private final int periodMinutes;
+    private final int count;
+    private final String[] timeUnits;
+    private final double[][] heapValues;
+    private final int[][] heapMinutes;
+    private final int[] heapSizes;
+    private boolean heapsCurrent = true;
+    private int[] slots = new int[16];
+    private int[] periods = new int[8];
+    private int[] periodUnits = new int[8];
+    private double[] totals = new double[8 * METERS];
+    private int entries;
+    private int lastEntry = -1;
+
+    /**
+     * @param periodMinutes the length of the periods, as periodMinutesOf gives it
+     * @param count the number of peaks kept per meter and time unit, at least 1
+     * @param timeUnits the names of the time units measurements are added under by ordinal, e.g. TimeUnitMappingModel.getNames
+     */
+    public PeakFinder(int periodMinutes, int count, String[] timeUnits) {
+        this.periodMinutes = periodMinutes;
+        this.count = count;
+        this.timeUnits = timeUnits;
+        this.heapValues = new double[timeUnits.length * METERS][];
+        this.heapMinutes = new int[timeUnits.length * METERS][];
+        this.heapSizes = new int[timeUnits.length * METERS];
+    }
+
+    /**
+     * @message periodMinutesOf
+     * @brief Reads the length of the periods whose consumption is ranked
+     * @param period "minute", "hour" or "day"
+     * @return the number of minutes of the period, or -1 if it is none of them
+     */
+    public static int periodMinutesOf(String period) {
+        if("minute".equals(period))
+            return 1;
+        if("hour".equals(period))
+            return 60;
+        if("day".equals(period))
+            return EpochTime.MINUTES_PER_DAY;
+        return -1;
+    }
+
+    /**
+     * @message add
+     * @brief Ranks the meter values of a measurement among the peaks of its time unit, or adds them to the totals of its period
+     * @param timeUnit the ordinal of the time unit of the measurement
+     * @param epochMinute the minute of the measurement
+     */
+    public void add(int timeUnit, int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        if(periodMinutes == 1) {
+            offer(timeUnit * METERS, sub_metering_1, epochMinute);
+            offer(timeUnit * METERS + 1, sub_metering_2, epochMinute);
+            offer(timeUnit * METERS + 2, sub_metering_3, epochMinute);
+            return;
+        }
+
+        int period = Math.floorDiv(epochMinute, periodMinutes);
+        int entry = (lastEntry >= 0 && periods[lastEntry] == period && periodUnits[lastEntry] == timeUnit) ? lastEntry : entryOf(period, timeUnit);
+        lastEntry = entry;
+        totals[entry * METERS] += sub_metering_1;
+        totals[entry * METERS + 1] += sub_metering_2;
+        totals[entry * METERS + 2] += sub_metering_3;
+        heapsCurrent = false;
+    }
+
+    /**
+     * @message merge
+     * @brief Folds the peaks, or the period totals, of another finder into this one, as if its measurements had been added here
+     *          The other finder is left as it is
+     * @param other a finder of a different part of the input, of the same periods and time units
+     */
+    public void merge(PeakFinder other) {
+        for(int heap = 0; heap < heapSizes.length; heap++)
+            for(int peak = 0; peak < other.heapSizes[heap]; peak++)
+                offer(heap, other.heapValues[heap][peak], other.heapMinutes[heap][peak]);
+
+        for(int entry = 0; entry < other.entries; entry++) {
+            int merged = entryOf(other.periods[entry], other.periodUnits[entry]);
+            for(int meter = 0; meter < METERS; meter++)
+                totals[merged * METERS + meter] += other.totals[entry * METERS + meter];
+        }
+        if(other.entries > 0)
+            heapsCurrent = false;
+    }
+
+    /**
+     * @message entryOf
+     * @brief Finds the entry of the totals of a period within a time unit, creating an empty one for a new pair
+     */
+    private int entryOf(int period, int timeUnit) {
+        int mask = slots.length - 1;
+        int slot = slotOf(period, timeUnit) & mask;
+        for(; slots[slot] != 0; slot = (slot + 1) & mask)
+            if(periods[slots[slot] - 1] == period && periodUnits[slots[slot] - 1] == timeUnit)
+                return slots[slot] - 1;
+
+        if(entries == periods.length) {
+            periods = Arrays.copyOf(periods, entries * 2);
+            periodUnits = Arrays.copyOf(periodUnits, entries * 2);
+            totals = Arrays.copyOf(totals, entries * 2 * METERS);
+        }
+        periods[entries] = period;
+        periodUnits[entries] = timeUnit;
+        slots[slot] = ++entries;
+        /* The table is kept at most half full, so that a period is found within a few slots */
+        if(entries * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            for(int entry = 0; entry < entries; entry++) {
+                int moved = slotOf(periods[entry], periodUnits[entry]) & (slots.length - 1);
+                while(slots[moved] != 0)
+                    moved = (moved + 1) & (slots.length - 1);
+                slots[moved] = entry + 1;
+            }
+        }
+        return entries - 1;
+    }
+
+    /* The hash of a period within a time unit, before it is masked to the size of the table */
+    private static int slotOf(int period, int timeUnit) {
+        return (period * 31 + timeUnit) * 0x9E3779B9 >>> 7;
+    }
+
+    /* Whether the value of one period ranks above the value of another; of equal values, the earlier period ranks above */
+    private static boolean ranksAbove(double value, int epochMinute, double otherValue, int otherEpochMinute) {
+        return value > otherValue || (value == otherValue && epochMinute < otherEpochMinute);
+    }
+
+    /**
+     * @message offer
+     * @brief Keeps a value among the peaks of a heap if the heap is not full or the value ranks above its lowest peak
+     *          A missing value, NaN, is never a peak
+     */
+    private void offer(int heap, double value, int epochMinute) {
+        if(value != value)
+            return;
+        int size = heapSizes[heap];
+        if(size == count && !ranksAbove(value, epochMinute, heapValues[heap][0], heapMinutes[heap][0]))
+            return;
+        if(heapValues[heap] == null) {
+            heapValues[heap] = new double[count];
+            heapMinutes[heap] = new int[count];
+        }
+        double[] values = heapValues[heap];
+        int[] minutes = heapMinutes[heap];
+
+        if(size < count) {
+            /* Sift the new peak up past the peaks that rank above it */
+            int at = size;
+            for(int parent = (at - 1) >> 1; at > 0 && ranksAbove(values[parent], minutes[parent], value, epochMinute); parent = (at - 1) >> 1) {
+                values[at] = values[parent];
+                minutes[at] = minutes[parent];
+                at = parent;
+            }
+            values[at] = value;
+            minutes[at] = epochMinute;
+            heapSizes[heap] = size + 1;
+            return;
+        }
+
+        /* Replace the lowest peak and sift the new one down past the lower of its children while they rank below it */
+        int at = 0;
+        for(int child = 1; child < count; child = 2 * at + 1) {
+            if(child + 1 < count && ranksAbove(values[child], minutes[child], values[child + 1], minutes[child + 1]))
+                child++;
+            if(!ranksAbove(value, epochMinute, values[child], minutes[child]))
+                break;
+            values[at] = values[child];
+            minutes[at] = minutes[child];
+            at = child;
+        }
+        values[at] = value;
+        minutes[at] = epochMinute;
+    }
+
+    /**
+     * @message peaksOf
+     * @brief Returns the peaks of a meter within every time unit that has any, the highest first
+     * @param meter 0 for the Kitchen, 1 for the Laundry and 2 for the AC meter
+     * @return A HashMap<String, ArrayList<PeakRecord>> with at most count peaks for each time unit
+     */
+    public synchronized HashMap<String, ArrayList<PeakRecord>> peaksOf(int meter) {
+        if(!heapsCurrent) {
+            Arrays.fill(heapSizes, 0);
+            for(int entry = 0; entry < entries; entry++)
+                for(int heapMeter = 0; heapMeter < METERS; heapMeter++)
+                    offer(periodUnits[entry] * METERS + heapMeter, totals[entry * METERS + heapMeter], periods[entry] * periodMinutes);
+            heapsCurrent = true;
+        }
+
+        HashMap<String, ArrayList<PeakRecord>> peaks = new HashMap<>();
+        for(int timeUnit = 0; timeUnit < timeUnits.length; timeUnit++) {
+            int heap = timeUnit * METERS + meter;
+            if(heapSizes[heap] == 0)
+                continue;
+            PeakRecord[] ranked = new PeakRecord[heapSizes[heap]];
+            for(int peak = 0; peak < ranked.length; peak++)
+                ranked[peak] = new PeakRecord(heapMinutes[heap][peak], periodMinutes, heapValues[heap][peak]);
+            Arrays.sort(ranked, (first, second) -> ranksAbove(first.getValue(), first.getEpochMinute(), second.getValue(), second.getEpochMinute()) ? -1
+                    : ranksAbove(second.getValue(), second.getEpochMinute(), first.getValue(), first.getEpochMinute()) ? 1 : 0);
+            peaks.put(timeUnits[timeUnit], new ArrayList<>(Arrays.asList(ranked)));
+        }
+        return peaks;
+    }
+
+    public int getPeriodMinutes() {
+        return this.periodMinutes;
+    }
+    public int getCount() {
+        return this.count;
+    }
+}
@@ -0,0 +1,51 @@
+package datamodel;
+
+/**
+ * @class PeakRecord
+ * @brief One of the highest consumptions of a meter within a time unit: the minute, hour or day it was measured in and its value
+ */
+public class PeakRecord {
+    /**
+     * epochMinute -> the first minute of the period of the peak
+     * periodMinutes -> the length of the period: 1 for a minute, 60 for an hour, 1440 for a day
+     * value -> the consumption of the meter over the period, in watt-hours
+     */
+    private final int epochMinute;
+    private final int periodMinutes;
+    private final double value;
+
+    public PeakRecord(int epochMinute, int periodMinutes, double value) {
+        this.epochMinute = epochMinute;
+        this.periodMinutes = periodMinutes;
+        this.value = value;
+    }
+
+    /**
+     * @message getLabel
+     * @brief Returns the period of the peak the way the input file writes dates and times, e.g. 16/12/2006 17:24 for a minute,
+     *          16/12/2006 17:00 for an hour and 16/12/2006 for a day
+     */
+    public String getLabel() {
+        int epochDay = EpochTime.epochDayOf(epochMinute);
+        String date = EpochTime.twoDigits(EpochTime.dayOfMonthOf(epochDay)) + "/" + EpochTime.twoDigits(EpochTime.monthOf(epochDay))
+                + "/" + EpochTime.yearOf(epochDay);
+        if(periodMinutes >= EpochTime.MINUTES_PER_DAY)
+            return date;
+        return date + " " + EpochTime.twoDigits(EpochTime.hourOf(epochMinute)) + ":" + EpochTime.twoDigits(EpochTime.minuteOf(epochMinute));
+    }
+
+    public int getEpochMinute() {
+        return this.epochMinute;
+    }
+    public int getPeriodMinutes() {
+        return this.periodMinutes;
+    }
+    public double getValue() {
+        return this.value;
+    }
+
+    @Override
+    public String toString() {
+        return getLabel() + " " + value;
+    }
+}
@@ -0,0 +1,140 @@
+package datamodel;
+
+import java.util.Arrays;
+
+/**
+ * @class QuantileSketch
+ * @brief Approximates the quantiles of a stream of values without keeping the values themselves
+ *          Every value is counted in a logarithmic bucket, so any quantile is found within RELATIVE_ACCURACY of its true value
+ *          The buckets only cover [MIN_VALUE, MAX_VALUE], so a sketch never holds more than a fixed number of counters,
+ *          and sketches of separate parts of the input merge into the sketch of the whole input
+ */
+public class QuantileSketch {
+    /**
+     * RELATIVE_ACCURACY -> the largest relative error of a quantile
+     * GAMMA -> the ratio between the bounds of a bucket
+     * MIN_VALUE -> values below it, zero and negative ones included, are counted as zero
+     * MAX_VALUE -> values above it are counted in the last bucket
+     */
+    public static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MIN_VALUE = 1e-3;
+    private static final double MAX_VALUE = 1e9;
+    private static final int MIN_INDEX = indexOf(MIN_VALUE);
+    private static final int MAX_INDEX = indexOf(MAX_VALUE);
+
+    /**
+     * WHOLE_INDEXES -> the buckets of the whole numbers below its length, as meters mostly read whole watt-hours
+     */
+    private static final int[] WHOLE_INDEXES = new int[1024];
+    static {
+        for(int value = 1; value < WHOLE_INDEXES.length; value++)
+            WHOLE_INDEXES[value] = indexOf(value);
+    }
+
+    /**
+     * counts -> the number of values of every bucket from offset on, grown to the range of the buckets in use
+     * offset -> the index of the bucket counted by counts[0]
+     * zeroCount -> the number of values counted as zero
+     * count -> the number of values added
+     * lastValue, lastIndex -> the bucket of the last fractional value, as meter readings often repeat
+     */
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double lastValue = Double.NaN;
+    private int lastIndex;
+
+    /**
+     * @message indexOf
+     * @brief Finds the bucket of a positive value, the one whose bounds are (GAMMA^(index-1), GAMMA^index]
+     */
+    private static int indexOf(double value) {
+        return (int)Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    /**
+     * @message add
+     * @brief Counts a value in its bucket
+     */
+    public void add(double value) {
+        count++;
+        if(!(value >= MIN_VALUE)) {
+            zeroCount++;
+            return;
+        }
+        int whole = (int)value;
+        if(whole == value && whole < WHOLE_INDEXES.length && whole > 0) {
+            addToBucket(WHOLE_INDEXES[whole], 1);
+            return;
+        }
+        if(value != lastValue) {
+            lastIndex = Math.min(indexOf(value), MAX_INDEX);
+            lastValue = value;
+        }
+        addToBucket(lastIndex, 1);
+    }
+
+    /**
+     * @message merge
+     * @brief Adds the counts of another sketch to this one
+     * @param other a sketch of a different part of the input
+     */
+    public void merge(QuantileSketch other) {
+        for(int bucket = 0; bucket < other.counts.length; bucket++)
+            if(other.counts[bucket] > 0)
+                addToBucket(other.offset + bucket, other.counts[bucket]);
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * @message addToBucket
+     * @brief Adds to the count of a bucket, growing the counters to reach it
+     */
+    private void addToBucket(int index, long added) {
+        if(counts.length == 0) {
+            counts = new long[16];
+            offset = Math.max(MIN_INDEX, index - 8);
+        }
+        if(index < offset) {
+            int grown = offset - Math.max(MIN_INDEX, index - counts.length / 2);
+            long[] moved = new long[counts.length + grown];
+            System.arraycopy(counts, 0, moved, grown, counts.length);
+            counts = moved;
+            offset -= grown;
+        }
+        else if(index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, Math.min(Math.max(index - offset + 1, counts.length * 2), MAX_INDEX - offset + 1));
+        }
+        counts[index - offset] += added;
+    }
+
+    /**
+     * @message quantile
+     * @brief Finds the value below which a fraction of the values falls
+     * @param fraction the quantile, between 0 and 1, e.g. 0.95 for the 95th percentile
+     * @return the approximate value, 0 for values counted as zero, or NaN for an empty sketch
+     */
+    public double quantile(double fraction) {
+        if(count == 0)
+            return Double.NaN;
+
+        long rank = (long)Math.floor(Math.min(Math.max(fraction, 0), 1) * (count - 1));
+        if(rank < zeroCount)
+            return 0;
+        long seen = zeroCount;
+        for(int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if(rank < seen)
+                return 2 * Math.pow(GAMMA, offset + bucket) / (GAMMA + 1);
+        }
+        return MAX_VALUE;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+}
@@ -0,0 +1,232 @@
+package datamodel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * @class RollupStore
+ * @brief Keeps the running sums of the three meters per calendar period of a dataset: per hour, day, week, month and year
+ *          The hours are built in one scan of the dataset and every coarser level from the level below it,
+ *          so that an aggregation by a time unit type folds a few thousand periods instead of every measurement
+ */
+public class RollupStore {
+    /**
+     * HOUR, DAY, WEEK, MONTH, YEAR -> the levels of the store, from the finest to the coarsest
+     * LEVEL_NAMES -> the names of the levels, in level order
+     * TIME_UNIT_TYPES -> the time unit types the store answers
+     * ANSWERS -> per level, whether each of its periods falls in a single time unit of each time unit type;
+     *          weeks and years do not, as a week may span two months and a year spans them all
+     */
+    public static final int HOUR = 0;
+    public static final int DAY = 1;
+    public static final int WEEK = 2;
+    public static final int MONTH = 3;
+    public static final int YEAR = 4;
+    private static final String[] LEVEL_NAMES = {"hour", "day", "week", "month", "year"};
+    private static final String[] TIME_UNIT_TYPES = {"season", "month", "dayofweek", "periodofday"};
+    private static final boolean[][] ANSWERS = {
+            {true, true, true, true},
+            {true, true, true, false},
+            {false, false, false, false},
+            {true, true, false, false},
+            {false, false, false, false}
+    };
+
+    /**
+     * periods -> per level, the key of every period in order: the epoch hour, the epoch day, the epoch day of the Monday of the week,
+     *          year * 12 + month - 1, or the year
+     * accumulators -> per level, the running sums of every period, in the layout of SummaryResultModel
+     * version -> the version of the dataset the store was built from
+     */
+    private final int[][] periods = new int[LEVEL_NAMES.length][];
+    private final double[][][] accumulators = new double[LEVEL_NAMES.length][][];
+    private final int version;
+
+    /**
+     * @param dataset the dataset whose rows are rolled up; its rows may be in any order
+     */
+    public RollupStore(MeasurementDataset dataset) {
+        version = dataset.getVersion();
+        rollUpHours(dataset);
+        rollUp(HOUR, DAY);
+        rollUp(DAY, WEEK);
+        rollUp(DAY, MONTH);
+        rollUp(MONTH, YEAR);
+    }
+
+    /**
+     * @message rollUpHours
+     * @brief Folds every row into the accumulator of its hour; the accumulator is only looked up when the hour changes,
+     *          which for rows in time order is once per hour
+     */
+    private void rollUpHours(MeasurementDataset dataset) {
+        HashMap<Integer, double[]> hours = new HashMap<>();
+        int lastHour = 0;
+        double[] accumulator = null;
+        for(int row = 0; row < dataset.size(); row++) {
+            int hour = Math.floorDiv(dataset.getEpochMinute(row), 60);
+            if(accumulator == null || hour != lastHour) {
+                accumulator = hours.computeIfAbsent(hour, key -> SummaryResultModel.newAccumulator());
+                lastHour = hour;
+            }
+            SummaryResultModel.foldAll(accumulator, dataset.getSub_metering_1(row), dataset.getSub_metering_2(row), dataset.getSub_metering_3(row));
+        }
+
+        int[] keys = new int[hours.size()];
+        int period = 0;
+        for(int key : hours.keySet())
+            keys[period++] = key;
+        Arrays.sort(keys);
+
+        periods[HOUR] = keys;
+        accumulators[HOUR] = new double[keys.length][];
+        for(period = 0; period < keys.length; period++)
+            accumulators[HOUR][period] = hours.get(keys[period]);
+    }
+
+    /**
+     * @message rollUp
+     * @brief Merges the periods of a level into the periods of a coarser one
+     *          The periods of the finer level are in order, so the periods falling in the same coarser period are next to each other
+     */
+    private void rollUp(int from, int to) {
+        int[] keys = new int[periods[from].length];
+        double[][] rolled = new double[periods[from].length][];
+        int size = 0;
+        for(int period = 0; period < periods[from].length; period++) {
+            int key = coarserKeyOf(from, to, periods[from][period]);
+            if(size == 0 || keys[size - 1] != key) {
+                keys[size] = key;
+                rolled[size++] = SummaryResultModel.newAccumulator();
+            }
+            SummaryResultModel.mergeAccumulator(rolled[size - 1], accumulators[from][period]);
+        }
+        periods[to] = Arrays.copyOf(keys, size);
+        accumulators[to] = Arrays.copyOf(rolled, size);
+    }
+
+    /**
+     * @message coarserKeyOf
+     * @brief Finds the key of the period of a coarser level that a period falls in
+     */
+    private static int coarserKeyOf(int from, int to, int key) {
+        if(from == HOUR)
+            return Math.floorDiv(key, 24);
+        if(from == MONTH)
+            return Math.floorDiv(key, 12);
+        if(to == WEEK)
+            return key - (EpochTime.dayOfWeekOf(key) - 1);
+        return EpochTime.yearOf(key) * 12 + EpochTime.monthOf(key) - 1;
+    }
+
+    /**
+     * @message levelFor
+     * @brief Picks the coarsest level whose periods each fall in a single time unit of a time unit type
+     * @param timeUnitType a string belonging to the set "season", "month", "dayofweek", "periodofday"
+     * @return MONTH for "season" and "month", DAY for "dayofweek", HOUR for "periodofday", or -1 for any other time unit type
+     */
+    public static int levelFor(String timeUnitType) {
+        for(int type = 0; type < TIME_UNIT_TYPES.length; type++)
+            if(TIME_UNIT_TYPES[type].equals(timeUnitType))
+                for(int level = YEAR; level >= HOUR; level--)
+                    if(ANSWERS[level][type])
+                        return level;
+        return -1;
+    }
+
+    /**
+     * @message getResult
+     * @brief Aggregates the dataset by a time unit type from the coarsest level that can answer it, without going back to its rows
+     * @param timeUnitType a string belonging to the set "season", "month", "dayofweek", "periodofday"
+     * @param aggregateFunction a String representing the aggregate function (avg, sum, min, max, count, stddev) to be applied
+     * @param description a String with a textual description of the result
+     * @return a calculated IResult, or null if the time unit type is invalid or the aggregate function needs the rows themselves, as percentiles do
+     */
+    public IResult getResult(String timeUnitType, String aggregateFunction, String description) {
+        if(!SummaryResultModel.isAggregateFunction(aggregateFunction)) {
+            System.out.println("The aggregate function is not one of avg, sum, min, max, count, stddev or a percentile such as p95.");
+            return null;
+        }
+        if(aggregateFunction.startsWith("p")) {
+            System.out.println("Percentiles can not be calculated from the rollups.");
+            return null;
+        }
+        int level = levelFor(timeUnitType);
+        if(level == -1) {
+            System.out.println("The aggregator function input was invalid");
+            return null;
+        }
+
+        TimeUnitMappingModel unitMap = new TimeUnitMappingModel();
+        int[] ordinals = unitMap.getOrdinals(timeUnitType);
+        SummaryResultModel result = new SummaryResultModel();
+        result.setAggregateFunction(aggregateFunction);
+        result.setDescription(description);
+        result.setTimeUnits(unitMap.getNames(timeUnitType));
+        for(int period = 0; period < periods[level].length; period++)
+            result.add(ordinals[fieldOf(level, periods[level][period], timeUnitType)], accumulators[level][period]);
+        result.calculateResult();
+        return result;
+    }
+
+    /**
+     * @message fieldOf
+     * @brief Finds the field a time unit type is found from for a period: the month, the day of week or the hour
+     */
+    private static int fieldOf(int level, int key, String timeUnitType) {
+        if(level == MONTH)
+            return Math.floorMod(key, 12) + 1;
+        if(timeUnitType.equals("periodofday"))
+            return Math.floorMod(key, 24);
+
+        int epochDay = (level == HOUR) ? Math.floorDiv(key, 24) : key;
+        return timeUnitType.equals("dayofweek") ? EpochTime.dayOfWeekOf(epochDay) : EpochTime.monthOf(epochDay);
+    }
+
+    /**
+     * @message isCurrent
+     * @brief Checks whether the store still matches the rows of a dataset, i.e. no row has been added or moved since it was built
+     * @param dataset the dataset the store was built from
+     */
+    public boolean isCurrent(MeasurementDataset dataset) {
+        return dataset.getVersion() == version;
+    }
+
+    /**
+     * @message size
+     * @brief Returns the number of periods of a level
+     * @param level one of HOUR, DAY, WEEK, MONTH, YEAR
+     */
+    public int size(int level) {
+        return periods[level].length;
+    }
+
+    /**
+     * @message getPeriod
+     * @brief Returns the key of a period: the epoch hour, the epoch day, the epoch day of the Monday of the week, year * 12 + month - 1, or the year
+     */
+    public int getPeriod(int level, int period) {
+        return periods[level][period];
+    }
+
+    /**
+     * @message getCount
+     * @brief Returns the number of measurements of a period
+     */
+    public int getCount(int level, int period) {
+        return (int)SummaryResultModel.countOf(accumulators[level][period]);
+    }
+
+    /**
+     * @message getSum
+     * @brief Returns the sum of a meter over a period
+     * @param meter 0 for the Kitchen, 1 for the Laundry and 2 for the AC meter
+     */
+    public double getSum(int level, int period, int meter) {
+        return SummaryResultModel.sumOf(accumulators[level][period], meter);
+    }
+
+    public static String getLevelName(int level) {
+        return LEVEL_NAMES[level];
+    }
+}
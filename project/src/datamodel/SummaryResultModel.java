@@ -0,0 +1,684 @@
+package datamodel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * @class SummaryResultModel
+ * @brief Implements the IResult interface by keeping a running sum, minimum, maximum, mean, sum of squared deviations
+ *          and count per time unit and meter, and optionally a QuantileSketch, instead of keeping the measurements themselves
+ *          Summaries built over separate parts of the input, e.g. one per thread, can be merged into one
+ *          On top of the three meters, a summary may keep derived metrics, whose values are computed by the aggregation,
+ *          and the peaks of every meter within every time unit, which the aggregation adds along with the meter values
+ */
+public class SummaryResultModel implements IResult {
+    /**
+     * KITCHEN, LAUNDRY, AC -> the meters of an accumulator; derived metrics follow them
+     * SUM, MIN, MAX, MEAN, M2 -> where the running sum, minimum, maximum, running mean and sum of squared deviations of a meter are kept
+     *          among the STATS values of the meter, the values of meter m starting at m * STATS
+     * METERS -> the number of built-in meters
+     * The number of measurements is kept last, after the values of every meter
+     */
+    private static final int KITCHEN = 0;
+    private static final int LAUNDRY = 1;
+    private static final int AC = 2;
+    private static final int METERS = 3;
+    private static final int SUM = 0;
+    private static final int MIN = 1;
+    private static final int MAX = 2;
+    private static final int MEAN = 3;
+    private static final int M2 = 4;
+    private static final int STATS = 5;
+
+    /**
+     * description -> a String with a textual description of the result
+     * aggregateFunction -> a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the record
+     * accumulators -> per time unit, the running sum, minimum, maximum, mean and squared deviations of every meter and metric followed by the number of measurements
+     * calculated -> whether calculateResult has been called, after which every new measurement updates the meters at once
+     * timeUnits -> the names of the time units measurements may be added under by ordinal, or null
+     * buckets -> the accumulator of every time unit ordinal, the same arrays the accumulators hold under the names
+     * keepsQuantiles -> whether every meter of every time unit also counts its values in a QuantileSketch
+     * sketches, bucketSketches -> the sketches of the three meters per time unit, by name and by ordinal
+     * metrics -> the names of the derived metrics kept after the meters
+     * metricValues -> the aggregates of every derived metric per time unit, by metric name
+     * peakMinutes, peakCount -> the length of the periods whose peaks are kept and the number of peaks per meter and time unit, 0 for none
+     * peaks -> the peaks of every meter and time unit, or null if the summary keeps none
+     */
+    private String description;
+    private String aggregateFunction;
+    private final HashMap<String, double[]> accumulators;
+    private boolean calculated;
+    private String[] timeUnits;
+    private double[][] buckets;
+    private boolean keepsQuantiles;
+    private final HashMap<String, QuantileSketch[]> sketches;
+    private QuantileSketch[][] bucketSketches;
+    private String[] metrics = new String[0];
+    private HashMap<String, HashMap<String, Double>> metricValues;
+    private int peakMinutes;
+    private int peakCount;
+    private PeakFinder peaks;
+    private HashMap<String, Double> kitchenMeter;
+    private HashMap<String, Double> laundryMeter;
+    private HashMap<String, Double> acMeter;
+
+    public SummaryResultModel() {
+        accumulators = new HashMap<>();
+        sketches = new HashMap<>();
+        kitchenMeter = new HashMap<>();
+        laundryMeter = new HashMap<>();
+        acMeter = new HashMap<>();
+        metricValues = new HashMap<>();
+    }
+
+    /**
+     * @message add
+	 * @brief Folds a new measurement into the running sums of its time unit
+	 * @param timeUnit a String by which we aggregate measurements
+	 * @param record a MeasurementRecord to be added
+	 * @return the number of measurements folded into the time unit
+	 */
+    @Override
+    public int add(String timeUnit, MeasurementRecord record) {
+        return add(timeUnit, record.getSub_metering_1(), record.getSub_metering_2(), record.getSub_metering_3());
+    }
+
+    /**
+     * @message add
+     * @brief Folds the meter values of a measurement into the running sums of its time unit
+     *          Once the summary has been calculated, the aggregates of the time unit are updated as well
+     * @param timeUnit a String by which we aggregate measurements
+     * @return the number of measurements folded into the time unit
+     */
+    public int add(String timeUnit, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        double[] accumulator = accumulatorOf(timeUnit);
+        foldAll(accumulator, sub_metering_1, sub_metering_2, sub_metering_3);
+        if(keepsQuantiles)
+            sketchAll(sketchesOf(timeUnit), sub_metering_1, sub_metering_2, sub_metering_3);
+
+        if(calculated)
+            update(timeUnit, accumulator);
+        return (int)countOf(accumulator);
+    }
+
+    /**
+     * @message add
+     * @brief Folds the meter values of a measurement into the running sums of a time unit, found by its ordinal
+     *          Only the first measurement of a time unit goes through its name, the rest index straight into an array
+     * @param timeUnit the ordinal of the time unit among the names given to setTimeUnits
+     * @return the number of measurements folded into the time unit
+     */
+    public int add(int timeUnit, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        double[] accumulator = buckets[timeUnit];
+        if(accumulator == null) {
+            accumulator = accumulatorOf(timeUnits[timeUnit]);
+            buckets[timeUnit] = accumulator;
+        }
+        foldAll(accumulator, sub_metering_1, sub_metering_2, sub_metering_3);
+        if(keepsQuantiles) {
+            QuantileSketch[] sketch = bucketSketches[timeUnit];
+            if(sketch == null) {
+                sketch = sketchesOf(timeUnits[timeUnit]);
+                bucketSketches[timeUnit] = sketch;
+            }
+            sketchAll(sketch, sub_metering_1, sub_metering_2, sub_metering_3);
+        }
+
+        if(calculated)
+            update(timeUnits[timeUnit], accumulator);
+        return (int)countOf(accumulator);
+    }
+
+    /**
+     * @message add
+     * @brief Folds the meter values of a measurement and the values of its derived metrics into the running sums of a time unit,
+     *          found by its ordinal; the meters and the metrics share the count of their time unit, so a summary with derived metrics
+     *          takes every measurement through this add
+     * @param timeUnit the ordinal of the time unit among the names given to setTimeUnits
+     * @param metricValues the value of every derived metric of the summary for the measurement, in the order of getMetrics
+     * @return the number of measurements folded into the time unit
+     */
+    public int add(int timeUnit, double sub_metering_1, double sub_metering_2, double sub_metering_3, double[] metricValues) {
+        double[] accumulator = buckets[timeUnit];
+        if(accumulator == null) {
+            accumulator = accumulatorOf(timeUnits[timeUnit]);
+            buckets[timeUnit] = accumulator;
+        }
+        foldAll(accumulator, sub_metering_1, sub_metering_2, sub_metering_3);
+        double count = countOf(accumulator);
+        for(int metric = 0; metric < metrics.length; metric++)
+            fold(accumulator, METERS + metric, metricValues[metric], count);
+
+        if(calculated)
+            update(timeUnits[timeUnit], accumulator);
+        return (int)count;
+    }
+
+    /**
+     * @message add
+     * @brief Adds a new measurement under a time unit, found by its ordinal
+     * @param timeUnit the ordinal of the time unit among the names given to setTimeUnits
+     * @return the number of measurements added under the time unit
+     */
+    public int add(int timeUnit, MeasurementRecord record) {
+        return add(timeUnit, record.getSub_metering_1(), record.getSub_metering_2(), record.getSub_metering_3());
+    }
+
+    /**
+     * @message addPeak
+     * @brief Ranks the meter values of a measurement among the peaks of its time unit; the running sums are left as they are,
+     *          as the measurement is folded into them by add
+     * @param timeUnit the ordinal of the time unit among the names given to setTimeUnits
+     * @param epochMinute the minute of the measurement
+     */
+    public void addPeak(int timeUnit, int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        peaks.add(timeUnit, epochMinute, sub_metering_1, sub_metering_2, sub_metering_3);
+    }
+
+    /**
+     * @message merge
+     * @brief Folds the running sums of another summary into this one, as if its measurements had been added here
+     *          The sketches of the other summary are merged only if both summaries keep quantiles, and so are its peaks
+     *          The other summary is left as it is
+     * @param other a summary of a different part of the input
+     */
+    public void merge(SummaryResultModel other) {
+        if(peaks != null && other.peaks != null)
+            peaks.merge(other.peaks);
+        for(HashMap.Entry<String, double[]> entry : other.accumulators.entrySet()) {
+            double[] accumulator = accumulatorOf(entry.getKey());
+            mergeAccumulator(accumulator, entry.getValue());
+
+            if(keepsQuantiles && other.keepsQuantiles) {
+                QuantileSketch[] sketch = sketchesOf(entry.getKey());
+                QuantileSketch[] mergedSketch = other.sketches.get(entry.getKey());
+                for(int meter = KITCHEN; meter <= AC && mergedSketch != null; meter++)
+                    sketch[meter].merge(mergedSketch[meter]);
+            }
+
+            if(calculated)
+                update(entry.getKey(), accumulator);
+        }
+    }
+
+    /**
+     * @message add
+     * @brief Folds the accumulator of a group of measurements, e.g. a RollupStore period, into the running sums of a time unit
+     *          No sketches are kept for the group, so percentiles of the time unit are not calculated from it
+     * @param timeUnit the ordinal of the time unit among the names given to setTimeUnits
+     * @param partial an accumulator in the layout of newAccumulator
+     * @return the number of measurements folded into the time unit
+     */
+    int add(int timeUnit, double[] partial) {
+        double[] accumulator = buckets[timeUnit];
+        if(accumulator == null) {
+            accumulator = accumulatorOf(timeUnits[timeUnit]);
+            buckets[timeUnit] = accumulator;
+        }
+        mergeAccumulator(accumulator, partial);
+
+        if(calculated)
+            update(timeUnits[timeUnit], accumulator);
+        return (int)countOf(accumulator);
+    }
+
+    /**
+     * @message add
+     * @brief Folds a group of measurements of a time unit, already summed per meter, e.g. by a vectorized kernel, into the running sums of the time unit
+     *          No sketches are kept for the group, so percentiles of the time unit are not calculated from it
+     * @param timeUnit the ordinal of the time unit among the names given to setTimeUnits
+     * @param count the number of measurements of the group, at least 1
+     * @param sums the sum of every meter, followed by the sum of every derived metric if the group has them
+     * @param minimums the minimum of every meter and metric
+     * @param maximums the maximum of every meter and metric
+     * @param squaredDeviations the sum of the squared deviations around its mean of every meter and metric
+     * @return the number of measurements folded into the time unit
+     */
+    public int add(int timeUnit, int count, double[] sums, double[] minimums, double[] maximums, double[] squaredDeviations) {
+        double[] partial = newAccumulator(sums.length);
+        for(int meter = 0; meter < sums.length; meter++) {
+            partial[meter * STATS + SUM] = sums[meter];
+            partial[meter * STATS + MIN] = minimums[meter];
+            partial[meter * STATS + MAX] = maximums[meter];
+            partial[meter * STATS + MEAN] = sums[meter] / count;
+            partial[meter * STATS + M2] = squaredDeviations[meter];
+        }
+        partial[partial.length - 1] = count;
+        return add(timeUnit, partial);
+    }
+
+    /**
+     * @message mergeAccumulator
+     * @brief Folds the running sums of one accumulator into another, as if its measurements had been folded there
+     *          Only the meters both accumulators keep are merged, e.g. the built-in meters of a rollup into a summary with derived metrics
+     */
+    static void mergeAccumulator(double[] accumulator, double[] merged) {
+        double count = countOf(accumulator);
+        double mergedCount = countOf(merged);
+        int meters = Math.min(metersOf(accumulator), metersOf(merged));
+        for(int meter = 0; meter < meters; meter++) {
+            int at = meter * STATS;
+            accumulator[at + SUM] += merged[at + SUM];
+            accumulator[at + MIN] = Math.min(accumulator[at + MIN], merged[at + MIN]);
+            accumulator[at + MAX] = Math.max(accumulator[at + MAX], merged[at + MAX]);
+
+            /* Combine the deviations of both parts around their own means into deviations around the common mean */
+            if(mergedCount > 0) {
+                double delta = merged[at + MEAN] - accumulator[at + MEAN];
+                accumulator[at + M2] += merged[at + M2] + delta * delta * count * mergedCount / (count + mergedCount);
+                accumulator[at + MEAN] += delta * mergedCount / (count + mergedCount);
+            }
+        }
+        accumulator[accumulator.length - 1] = count + mergedCount;
+    }
+
+    /**
+     * @message summarizeAs
+     * @brief Creates a calculated copy of the summary with its own aggregate function and description,
+     *          at the cost of copying the running sums of its time units
+     * @return the copy, which is not affected by measurements added to this summary afterwards
+     */
+    public SummaryResultModel summarizeAs(String aggregateFunction, String description) {
+        SummaryResultModel copy = new SummaryResultModel();
+        copy.setKeepsQuantiles(keepsQuantiles);
+        copy.setMetrics(metrics);
+        copy.setAggregateFunction(aggregateFunction);
+        copy.setDescription(description);
+        if(timeUnits != null)
+            copy.setTimeUnits(timeUnits);
+        copy.setPeaks(peakMinutes, peakCount);
+        copy.merge(this);
+        copy.calculateResult();
+        return copy;
+    }
+
+    /**
+     * @message accumulatorOf
+     * @brief Finds the accumulator of a time unit, creating an empty one for a new time unit
+     */
+    private double[] accumulatorOf(String timeUnit) {
+        double[] accumulator = accumulators.get(timeUnit);
+        if(accumulator == null) {
+            accumulator = newAccumulator(METERS + metrics.length);
+            accumulators.put(timeUnit, accumulator);
+        }
+        return accumulator;
+    }
+
+    /**
+     * @message newAccumulator
+     * @brief Creates the accumulator of no measurements of the three meters
+     */
+    static double[] newAccumulator() {
+        return newAccumulator(METERS);
+    }
+
+    /**
+     * @message newAccumulator
+     * @brief Creates the accumulator of no measurements: the running sum, minimum, maximum, running mean
+     *          and sum of squared deviations of every meter, then the number of measurements
+     * @param meters the number of meters, the built-in ones followed by any derived metrics
+     */
+    static double[] newAccumulator(int meters) {
+        double[] accumulator = new double[meters * STATS + 1];
+        for(int meter = 0; meter < meters; meter++) {
+            accumulator[meter * STATS + MIN] = Double.POSITIVE_INFINITY;
+            accumulator[meter * STATS + MAX] = Double.NEGATIVE_INFINITY;
+        }
+        return accumulator;
+    }
+
+    private static int metersOf(double[] accumulator) {
+        return accumulator.length / STATS;
+    }
+
+    /**
+     * @message countOf
+     * @brief Reads the number of measurements from an accumulator
+     */
+    static double countOf(double[] accumulator) {
+        return accumulator[accumulator.length - 1];
+    }
+
+    /**
+     * @message sumOf
+     * @brief Reads the running sum of a meter from an accumulator
+     * @param meter 0 for the Kitchen, 1 for the Laundry and 2 for the AC meter
+     */
+    static double sumOf(double[] accumulator, int meter) {
+        return accumulator[meter * STATS + SUM];
+    }
+
+    /**
+     * @message sketchesOf
+     * @brief Finds the sketches of the three meters of a time unit, creating empty ones for a new time unit
+     */
+    private QuantileSketch[] sketchesOf(String timeUnit) {
+        QuantileSketch[] sketch = sketches.get(timeUnit);
+        if(sketch == null) {
+            sketch = new QuantileSketch[] {new QuantileSketch(), new QuantileSketch(), new QuantileSketch()};
+            sketches.put(timeUnit, sketch);
+        }
+        return sketch;
+    }
+
+    private static void sketchAll(QuantileSketch[] sketch, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        sketch[KITCHEN].add(sub_metering_1);
+        sketch[LAUNDRY].add(sub_metering_2);
+        sketch[AC].add(sub_metering_3);
+    }
+
+    /**
+     * @message foldAll
+     * @brief Counts a measurement and folds the values of its three meters into the accumulator of its time unit
+     */
+    static void foldAll(double[] accumulator, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        double count = ++accumulator[accumulator.length - 1];
+        fold(accumulator, KITCHEN, sub_metering_1, count);
+        fold(accumulator, LAUNDRY, sub_metering_2, count);
+        fold(accumulator, AC, sub_metering_3, count);
+    }
+
+    /**
+     * @message fold
+     * @brief Adds a meter value to the running sum, minimum, maximum, mean and squared deviations of its meter
+     * @param count the number of measurements including this one
+     */
+    private static void fold(double[] accumulator, int meter, double value, double count) {
+        int at = meter * STATS;
+        accumulator[at + SUM] += value;
+        if(value < accumulator[at + MIN])
+            accumulator[at + MIN] = value;
+        if(value > accumulator[at + MAX])
+            accumulator[at + MAX] = value;
+
+        /* Welford's update, which keeps the deviations accurate where a sum of squares would cancel out */
+        double delta = value - accumulator[at + MEAN];
+        accumulator[at + MEAN] += delta / count;
+        accumulator[at + M2] += delta * (value - accumulator[at + MEAN]);
+    }
+
+    /**
+     * @message update
+     * @brief Recalculates the aggregates of a single time unit
+     */
+    private void update(String timeUnit, double[] accumulator) {
+        kitchenMeter.put(timeUnit, aggregate(timeUnit, accumulator, KITCHEN));
+        laundryMeter.put(timeUnit, aggregate(timeUnit, accumulator, LAUNDRY));
+        acMeter.put(timeUnit, aggregate(timeUnit, accumulator, AC));
+        for(int metric = 0; metric < metrics.length; metric++)
+            metricValues.get(metrics[metric]).put(timeUnit, aggregate(timeUnit, accumulator, METERS + metric));
+    }
+
+    /**
+     * @message getCount
+     * @brief Returns the number of measurements added under a time unit
+     * @return the count, or 0 for a time unit without measurements
+     */
+    public int getCount(String timeUnit) {
+        double[] accumulator = accumulators.get(timeUnit);
+        return (accumulator == null) ? 0 : (int)countOf(accumulator);
+    }
+
+    /**
+     * @message getDescription
+	 * @brief Return the textual description for what the result is all about
+	 * @return A String with the text describing the result
+	 */
+    @Override
+    public String getDescription() {
+        return this.description;
+    }
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * @message getDetailedResults
+	 * @brief A summary keeps no measurements, so there are no detailed results
+	 * @return An empty HashMap
+	 */
+    @Override
+    public HashMap<String, ArrayList<MeasurementRecord>> getDetailedResults() {
+        return new HashMap<>();
+    }
+
+    /**
+     * @message calculateResult
+     * @brief Calculates all 3 hashmaps containing the aggregate function of type of elements from the running sums and sketches
+     */
+    public void calculateResult() {
+        kitchenMeter = calculateResultByType(KITCHEN);
+        laundryMeter = calculateResultByType(LAUNDRY);
+        acMeter = calculateResultByType(AC);
+        for(int metric = 0; metric < metrics.length; metric++)
+            metricValues.put(metrics[metric], calculateResultByType(METERS + metric));
+        calculated = true;
+    }
+
+    /**
+     * @message calculateResultByType
+     * @brief Calculates the metrics of a meter according to the time unit
+     * @param meter the position of the meter in the accumulators
+     */
+    private HashMap<String, Double> calculateResultByType(int meter) {
+        HashMap<String, Double> values = new HashMap<>();
+        for(HashMap.Entry<String, double[]> entry : accumulators.entrySet())
+            values.put(entry.getKey(), aggregate(entry.getKey(), entry.getValue(), meter));
+        return values;
+    }
+
+    /**
+     * @message aggregate
+     * @brief Applies the aggregate function to the running sums of a time unit
+     * @return the aggregate; the sample standard deviation for stddev; NaN for a percentile of a summary without sketches
+     */
+    private double aggregate(String timeUnit, double[] accumulator, int meter) {
+        int at = meter * STATS;
+        double count = countOf(accumulator);
+        switch(aggregateFunction) {
+            case "avg":
+                return accumulator[at + SUM] / count;
+            case "min":
+                return accumulator[at + MIN];
+            case "max":
+                return accumulator[at + MAX];
+            case "count":
+                return count;
+            case "stddev":
+                return (count > 1) ? Math.sqrt(accumulator[at + M2] / (count - 1)) : 0;
+            case "sum":
+                return accumulator[at + SUM];
+        }
+
+        /* Only the built-in meters are sketched, so a percentile of a derived metric is NaN */
+        double fraction = quantileOf(aggregateFunction);
+        if(fraction >= 0) {
+            QuantileSketch[] sketch = sketches.get(timeUnit);
+            return (sketch == null || meter >= sketch.length) ? Double.NaN : sketch[meter].quantile(fraction);
+        }
+        return accumulator[at + SUM];
+    }
+
+    /**
+     * @message quantileOf
+     * @brief Reads the fraction of a percentile aggregate function, "p" followed by a number between 0 and 100, e.g. p95 or p99.9
+     * @return the fraction between 0 and 1, or -1 if the function is not a percentile
+     */
+    private static double quantileOf(String aggregateFunction) {
+        if(aggregateFunction == null || aggregateFunction.length() < 2 || aggregateFunction.charAt(0) != 'p')
+            return -1;
+        try {
+            double percentile = Double.parseDouble(aggregateFunction.substring(1));
+            return (percentile >= 0 && percentile <= 100) ? percentile / 100 : -1;
+        }
+        catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @message isAggregateFunction
+     * @brief Checks that an aggregate function is one of avg, sum, min, max, count, stddev or a percentile such as p95
+     */
+    public static boolean isAggregateFunction(String aggregateFunction) {
+        if(aggregateFunction == null)
+            return false;
+        switch(aggregateFunction) {
+            case "avg":
+            case "sum":
+            case "min":
+            case "max":
+            case "count":
+            case "stddev":
+                return true;
+            default:
+                return quantileOf(aggregateFunction) >= 0;
+        }
+    }
+
+    /**
+     * @message getAggregateMeterKitchen
+	 * @brief Stores the aggregate measurements for the Kitchen metric, one for each of the grouper time units
+	 * @return A HashMap<String, Double>, where the grouping time unit is represented as a String and the aggregate value as a Double
+	 */
+    @Override
+    public HashMap<String, Double> getAggregateMeterKitchen() {
+        return kitchenMeter;
+    }
+
+    /**
+     * @message getAggregateMeterLaundry
+	 * @brief Stores the aggregate measurements for the Laundry metric, one for each of the grouper time units
+	 * @return A HashMap<String, Double>, where the grouping time unit is represented as a String and the aggregate value as a Double
+	 */
+    @Override
+    public HashMap<String, Double> getAggregateMeterLaundry() {
+        return laundryMeter;
+    }
+
+    /**
+     * @message getAggregateMeterAC
+	 * @brief Stores the aggregate measurements for the air condition metric, one for each of the grouper time units
+	 * @return A HashMap<String, Double>, where the grouping time unit is represented as a String and the aggregate value as a Double
+	 */
+    @Override
+    public HashMap<String, Double> getAggregateMeterAC() {
+        return acMeter;
+    }
+
+    /**
+     * @message getPeakMeterKitchen
+     * @brief Stores the highest consumptions of the Kitchen metric over minutes, hours or days, for each of the grouper time units
+     * @return A HashMap<String, ArrayList<PeakRecord>> with the peaks of every time unit, the highest first; empty if the summary keeps no peaks
+     */
+    @Override
+    public HashMap<String, ArrayList<PeakRecord>> getPeakMeterKitchen() {
+        return (peaks == null) ? new HashMap<>() : peaks.peaksOf(KITCHEN);
+    }
+
+    /**
+     * @message getPeakMeterLaundry
+     * @brief Stores the highest consumptions of the Laundry metric over minutes, hours or days, for each of the grouper time units
+     * @return A HashMap<String, ArrayList<PeakRecord>> with the peaks of every time unit, the highest first; empty if the summary keeps no peaks
+     */
+    @Override
+    public HashMap<String, ArrayList<PeakRecord>> getPeakMeterLaundry() {
+        return (peaks == null) ? new HashMap<>() : peaks.peaksOf(LAUNDRY);
+    }
+
+    /**
+     * @message getPeakMeterAC
+     * @brief Stores the highest consumptions of the air condition metric over minutes, hours or days, for each of the grouper time units
+     * @return A HashMap<String, ArrayList<PeakRecord>> with the peaks of every time unit, the highest first; empty if the summary keeps no peaks
+     */
+    @Override
+    public HashMap<String, ArrayList<PeakRecord>> getPeakMeterAC() {
+        return (peaks == null) ? new HashMap<>() : peaks.peaksOf(AC);
+    }
+
+    /**
+     * @message getAggregateMetric
+     * @brief Stores the aggregate values of a derived metric, one for each of the grouper time units
+     * @param metric the name of the metric
+     * @return A HashMap<String, Double> by time unit, or null if the summary does not keep the metric
+     */
+    public HashMap<String, Double> getAggregateMetric(String metric) {
+        return metricValues.get(metric);
+    }
+
+    /**
+     * @message setMetrics
+     * @brief Names the derived metrics the summary keeps after the meters, in the order their values are added;
+     *          it has to be chosen before any measurement is added
+     * @param metrics the names of the metrics
+     */
+    public void setMetrics(String[] metrics) {
+        this.metrics = metrics.clone();
+        this.metricValues = new HashMap<>();
+        for(String metric : metrics)
+            metricValues.put(metric, new HashMap<>());
+    }
+    public String[] getMetrics() {
+        return this.metrics.clone();
+    }
+
+    /**
+     * @message setAggregateFunction
+     * @brief Chooses the aggregate function of the result; a percentile makes the summary keep quantiles,
+     *          so it has to be chosen before any measurement is added
+     */
+    public void setAggregateFunction(String aggregateFunction) {
+        this.aggregateFunction = aggregateFunction;
+        if(quantileOf(aggregateFunction) >= 0)
+            setKeepsQuantiles(true);
+    }
+
+    /**
+     * @message setKeepsQuantiles
+     * @brief Chooses whether the values of every meter are also counted in a sketch, so that percentiles can be calculated
+     *          It has to be chosen before any measurement is added
+     */
+    public void setKeepsQuantiles(boolean keepsQuantiles) {
+        this.keepsQuantiles = keepsQuantiles;
+    }
+    public boolean getKeepsQuantiles() {
+        return this.keepsQuantiles;
+    }
+
+    /**
+     * @message setPeaks
+     * @brief Chooses how many of the highest consumptions of every meter the summary keeps per time unit, and over which periods
+     *          Peaks are kept by time unit ordinal, so they are only kept once the time units are named as well;
+     *          both have to be chosen before any measurement is added
+     * @param peakMinutes the length of the periods, as PeakFinder.periodMinutesOf gives it
+     * @param peakCount the number of peaks per meter and time unit, 0 for none
+     */
+    public void setPeaks(int peakMinutes, int peakCount) {
+        this.peakMinutes = peakMinutes;
+        this.peakCount = peakCount;
+        this.peaks = (peakCount > 0 && timeUnits != null) ? new PeakFinder(peakMinutes, peakCount, timeUnits) : null;
+    }
+    public int getPeakMinutes() {
+        return this.peakMinutes;
+    }
+    public int getPeakCount() {
+        return this.peakCount;
+    }
+
+    /**
+     * @message setTimeUnits
+     * @brief Names the time units that measurements may be added under by ordinal
+     * @param timeUnits the names of the time units, in ordinal order, e.g. TimeUnitMappingModel.getNames
+     */
+    public void setTimeUnits(String[] timeUnits) {
+        this.timeUnits = timeUnits;
+        this.buckets = new double[timeUnits.length][];
+        this.bucketSketches = new QuantileSketch[timeUnits.length][];
+        if(peakCount > 0)
+            this.peaks = new PeakFinder(peakMinutes, peakCount, timeUnits);
+    }
+    public String[] getTimeUnits() {
+        return this.timeUnits;
+    }
+}
@@ -0,0 +1,128 @@
+package datamodel;
+
+import java.util.Arrays;
+
+/**
+ * @class TimeSeriesResultModel
+ * @brief A result holding one aggregate of the three meters per step of a sliding window over the measurements,
+ *          e.g. the moving average of every minute over the last hour, kept in columns as a series may have millions of steps
+ */
+public class TimeSeriesResultModel {
+    /**
+     * INITIAL_CAPACITY -> the number of steps an empty series has room for
+     * description -> a String with a textual description of the result
+     * aggregateFunction -> the aggregate function (avg, sum, count) applied to every window
+     * windowMinutes -> the number of minutes every window spans, ending with the minute of its step
+     * stepMinutes -> the number of minutes between two steps
+     * epochMinutes -> the minute every window ends with
+     * kitchen, laundry, ac -> the aggregate of every window per meter
+     * counts -> the number of measurements in every window, fewer than windowMinutes where minutes are missing
+     * size -> the number of steps held in the columns
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    private String description;
+    private String aggregateFunction;
+    private int windowMinutes;
+    private int stepMinutes;
+    private int[] epochMinutes;
+    private double[] kitchen;
+    private double[] laundry;
+    private double[] ac;
+    private int[] counts;
+    private int size;
+
+    public TimeSeriesResultModel() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TimeSeriesResultModel(int capacity) {
+        capacity = Math.max(capacity, 1);
+        epochMinutes = new int[capacity];
+        kitchen = new double[capacity];
+        laundry = new double[capacity];
+        ac = new double[capacity];
+        counts = new int[capacity];
+    }
+
+    /**
+     * @message add
+     * @brief Appends the aggregates of a window to the series
+     * @param epochMinute the minute the window ends with
+     * @param count the number of measurements in the window
+     * @return the number of steps in the series
+     */
+    public int add(int epochMinute, double kitchenValue, double laundryValue, double acValue, int count) {
+        if(size == epochMinutes.length) {
+            int capacity = size + (size >> 1) + 1;
+            epochMinutes = Arrays.copyOf(epochMinutes, capacity);
+            kitchen = Arrays.copyOf(kitchen, capacity);
+            laundry = Arrays.copyOf(laundry, capacity);
+            ac = Arrays.copyOf(ac, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        epochMinutes[size] = epochMinute;
+        kitchen[size] = kitchenValue;
+        laundry[size] = laundryValue;
+        ac[size] = acValue;
+        counts[size] = count;
+        return ++size;
+    }
+
+    /**
+     * @message getLabel
+     * @brief Returns the minute a window ends with, the way the input file writes it, e.g. 16/12/2006 17:24
+     */
+    public String getLabel(int step) {
+        int epochDay = EpochTime.epochDayOf(epochMinutes[step]);
+        return EpochTime.twoDigits(EpochTime.dayOfMonthOf(epochDay)) + "/" + EpochTime.twoDigits(EpochTime.monthOf(epochDay))
+                + "/" + EpochTime.yearOf(epochDay) + " " + EpochTime.twoDigits(EpochTime.hourOf(epochMinutes[step]))
+                + ":" + EpochTime.twoDigits(EpochTime.minuteOf(epochMinutes[step]));
+    }
+
+    public int size() {
+        return this.size;
+    }
+    public int getEpochMinute(int step) {
+        return this.epochMinutes[step];
+    }
+    public double getKitchen(int step) {
+        return this.kitchen[step];
+    }
+    public double getLaundry(int step) {
+        return this.laundry[step];
+    }
+    public double getAC(int step) {
+        return this.ac[step];
+    }
+    public int getCount(int step) {
+        return this.counts[step];
+    }
+
+    public String getDescription() {
+        return this.description;
+    }
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getAggregateFunction() {
+        return this.aggregateFunction;
+    }
+    public void setAggregateFunction(String aggregateFunction) {
+        this.aggregateFunction = aggregateFunction;
+    }
+
+    public int getWindowMinutes() {
+        return this.windowMinutes;
+    }
+    public void setWindowMinutes(int windowMinutes) {
+        this.windowMinutes = windowMinutes;
+    }
+
+    public int getStepMinutes() {
+        return this.stepMinutes;
+    }
+    public void setStepMinutes(int stepMinutes) {
+        this.stepMinutes = stepMinutes;
+    }
+}
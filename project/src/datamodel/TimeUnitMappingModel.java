@@ -129,6 +129,66 @@ public class TimeUnitMappingModel {
 
     };
 
+    /**
+     * SEASON_NAMES, MONTH_NAMES, DAY_NAMES, PERIOD_NAMES -> the names of every time unit type, in ordinal order
+     * SEASON_OF_MONTH -> takes the month [1-12] and maps it to the ordinal of its season
+     * MONTH_OF_MONTH -> takes the month [1-12] and maps it to the ordinal of its name
+     * DAY_OF_DAY -> takes the day of week [1-7] and maps it to the ordinal of its name
+     * PERIOD_OF_HOUR -> takes the hour [0-23] and maps it to the ordinal of its period of day
+     */
+    private static final String[] SEASON_NAMES = {"WINTER", "SPRING", "SUMMER", "AUTUMN"};
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_NAMES = {"MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN"};
+    private static final String[] PERIOD_NAMES = {"NIGHT", "EARLY MORNING", "MORNING", "AFTERNOON", "EVENING"};
+
+    private static final int[] SEASON_OF_MONTH = {-1, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, 0};
+    private static final int[] MONTH_OF_MONTH = {-1, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+    private static final int[] DAY_OF_DAY = {-1, 0, 1, 2, 3, 4, 5, 6};
+    private static final int[] PERIOD_OF_HOUR = {0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 0, 0, 0};
+
+    /**
+     * @message getOrdinals
+     * @brief Returns the table that maps the field a time unit type is found from straight to the ordinal of its time unit:
+     *          the month [1-12] for "season" and "month", the day of week [1-7] for "dayofweek", the hour [0-23] for "periodofday"
+     * @param timeUnitType one of "season", "month", "dayofweek", "periodofday"
+     * @return the table, with -1 for values that are not part of the field, or null for any other time unit type
+     */
+    public int[] getOrdinals(String timeUnitType) {
+        switch(timeUnitType) {
+            case "season":
+                return SEASON_OF_MONTH.clone();
+            case "month":
+                return MONTH_OF_MONTH.clone();
+            case "dayofweek":
+                return DAY_OF_DAY.clone();
+            case "periodofday":
+                return PERIOD_OF_HOUR.clone();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @message getNames
+     * @brief Returns the names of the time units of a time unit type, the way results expose them, in ordinal order
+     * @param timeUnitType one of "season", "month", "dayofweek", "periodofday"
+     * @return the names, or null for any other time unit type
+     */
+    public String[] getNames(String timeUnitType) {
+        switch(timeUnitType) {
+            case "season":
+                return SEASON_NAMES.clone();
+            case "month":
+                return MONTH_NAMES.clone();
+            case "dayofweek":
+                return DAY_NAMES.clone();
+            case "periodofday":
+                return PERIOD_NAMES.clone();
+            default:
+                return null;
+        }
+    }
+
     public HashMap<String, String> getSeasons() {
         return this.seasons;
     }
@@ -1,30 +1,74 @@
 package mainengine;
 
+import dataload.DatasetSnapshot;
+import dataload.DayIndex;
 import dataload.Loader;
+import dataload.ModelInterner;
+import datamodel.AggregateCube;
+import datamodel.EpochTime;
+import datamodel.FileLoadModel;
 import datamodel.IResult;
+import datamodel.IResult2D;
+import datamodel.MeasurementDataset;
+import datamodel.IMeasurementSink;
 import datamodel.MeasurementRecord;
+import datamodel.PeakFinder;
 import datamodel.ReportMetadataModel;
+import datamodel.RollupStore;
+import datamodel.SummaryResultModel;
+import datamodel.TimeSeriesResultModel;
 import datamodel.History;
+import timeaggregation.AggregationQuery;
 import timeaggregation.Aggregator;
+import timeaggregation.IMeterKernel;
+import timeaggregation.MetricExpression;
+import timeaggregation.MeterKernels;
 import reporting.Reporter;
 
 import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @class Engine
  * @brief Implements the base functions of IMainEngine interface
  *          primarily dealing with the controller part of the front end view
+ *          Every aggregation runs as a query of its own and every report through a file of its own, so once data is loaded
+ *          any number of threads may aggregate it and report on it through the same engine at once
  */
 public class Engine implements IMainEngine {
     /**
      * loader -> the Loader object implemented for loading data files
      * aggregator -> the Aggregator object implemented for measuring and aggregating data
      * reported -> the Reporter object implemented for writing reports about the measured data
+     * snapshotMode -> whether loads keep a binary snapshot next to their source file and reuse it on later loads
+     * rollupMode -> whether datasets are rolled up into calendar periods after they are loaded, and aggregated from their rollups
+     * rollups -> the rollups of every dataset loaded or aggregated, dropped along with their dataset
+     * resultCache -> the summaries of the latest aggregations, cleared whenever data is loaded
+     * metrics -> the derived metrics every aggregation of the engine folds along with the meters, replaced as a whole when one is added
+     * peakPeriod, peakCount -> the periods whose highest consumptions every aggregation of the engine keeps, and how many, or null and 0 for none
+     * DEFAULT_CACHE_SIZE -> the number of summaries the result cache keeps unless told otherwise
      */
+    private static final int DEFAULT_CACHE_SIZE = 64;
     private final Loader<MeasurementRecord> loader;
     private final Aggregator aggregator;
     private final Reporter reporter;
+    private boolean snapshotMode = true;
+    private boolean rollupMode = true;
+    private final WeakHashMap<MeasurementDataset, RollupStore> rollups = new WeakHashMap<>();
+    private final ResultCache resultCache = new ResultCache(DEFAULT_CACHE_SIZE);
+    private volatile MetricExpression[] metrics = new MetricExpression[0];
+    private volatile String peakPeriod;
+    private volatile int peakCount;
 
     public Engine() {
         loader = new Loader<>();
@@ -44,9 +88,336 @@ public class Engine implements IMainEngine {
 	 */
     @Override
     public int loadData(String filename, String delimiter, Boolean hasHeaderLine, int numFields, ArrayList<MeasurementRecord> objCollection) {
+        if(!checkLoadArguments(filename, delimiter, numFields))
+            return -1;
+        if(objCollection == null) {
+            System.out.println("The objCollection is null");
+            return -1;
+        }
+        resultCache.clear();
+        if(!snapshotMode)
+            return loader.load(filename, delimiter, hasHeaderLine, numFields, objCollection);
+
+        /* The snapshot holds columns, so the records are created from them, sharing their date and time models */
+        MeasurementDataset dataset = loadThroughSnapshot(filename, delimiter, hasHeaderLine, numFields);
+        if(dataset == null)
+            return -1;
+        objCollection.addAll(new ModelInterner().recordsOf(dataset));
+        return objCollection.size();
+    }
+
+    /**
+     * @message loadData
+	 * @brief A method that reads the data from the given file and stores them in a columnar dataset
+	 * @param filename a String with the name of the input file
+	 * @param delimiter a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine specifies whether the file has a header (true) or not (false)
+	 * @param numFields an int with the number of columns in the input file
+	 * @param dataset the dataset which will be loaded with the data from the input file
+	 * @return the number of rows that are eventually added to the dataset
+	 */
+    @Override
+    public int loadData(String filename, String delimiter, Boolean hasHeaderLine, int numFields, MeasurementDataset dataset) {
+        if(!checkLoadArguments(filename, delimiter, numFields))
+            return -1;
+        if(dataset == null) {
+            System.out.println("The dataset is null");
+            return -1;
+        }
+        resultCache.clear();
+        int rows;
+        if(!snapshotMode) {
+            rows = loader.load(filename, delimiter, hasHeaderLine, numFields, dataset);
+        }
+        else {
+            MeasurementDataset loaded = loadThroughSnapshot(filename, delimiter, hasHeaderLine, numFields);
+            if(loaded == null)
+                return -1;
+            rows = dataset.addAll(loaded);
+        }
+        if(rows != -1)
+            rollupsOf(dataset);
+        return rows;
+    }
+
+    /**
+     * @message loadData
+	 * @brief A method that reads only the rows of a range of days from the given file and stores them in an ArrayList
+	 *          The rows are taken from the snapshot of the file when it is up to date; otherwise the day index of the file
+	 *          is used to read only the bytes of the range (the index is built on the first load of the file)
+	 * @param filename a String with the name of the input file
+	 * @param delimiter a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine specifies whether the file has a header (true) or not (false)
+	 * @param numFields an int with the number of columns in the input file
+	 * @param fromDate the first day of the range as dd/mm/yyyy, or null for no lower bound
+	 * @param toDate the last day of the range as dd/mm/yyyy, or null for no upper bound
+	 * @param objCollection and empty list which will be loaded with the data from the input file
+	 * @return the number of rows that are eventually added to objCollection
+	 */
+    @Override
+    public int loadData(String filename, String delimiter, Boolean hasHeaderLine, int numFields,
+                        String fromDate, String toDate, ArrayList<MeasurementRecord> objCollection) {
+        if(!checkLoadArguments(filename, delimiter, numFields))
+            return -1;
+        if(objCollection == null) {
+            System.out.println("The objCollection is null");
+            return -1;
+        }
+        resultCache.clear();
+        int[] days = dayRangeOf(fromDate, toDate);
+        if(days == null)
+            return -1;
+
+        MeasurementDataset snapshot = snapshotMode ? DatasetSnapshot.read(filename, delimiter, hasHeaderLine) : null;
+        if(snapshot == null)
+            return loader.load(filename, delimiter, hasHeaderLine, numFields, days[0], days[1], objCollection);
+
+        objCollection.addAll(new ModelInterner().recordsOf(snapshot.betweenDays(days[0], days[1])));
+        return objCollection.size();
+    }
+
+    /**
+     * @message loadData
+	 * @brief A method that reads only the rows of a range of days from the given file and stores them in a columnar dataset
+	 * @param filename a String with the name of the input file
+	 * @param delimiter a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine specifies whether the file has a header (true) or not (false)
+	 * @param numFields an int with the number of columns in the input file
+	 * @param fromDate the first day of the range as dd/mm/yyyy, or null for no lower bound
+	 * @param toDate the last day of the range as dd/mm/yyyy, or null for no upper bound
+	 * @param dataset the dataset which will be loaded with the data from the input file
+	 * @return the number of rows that are eventually added to the dataset
+	 */
+    @Override
+    public int loadData(String filename, String delimiter, Boolean hasHeaderLine, int numFields,
+                        String fromDate, String toDate, MeasurementDataset dataset) {
+        if(!checkLoadArguments(filename, delimiter, numFields))
+            return -1;
+        if(dataset == null) {
+            System.out.println("The dataset is null");
+            return -1;
+        }
+        resultCache.clear();
+        int[] days = dayRangeOf(fromDate, toDate);
+        if(days == null)
+            return -1;
+
+        MeasurementDataset snapshot = snapshotMode ? DatasetSnapshot.read(filename, delimiter, hasHeaderLine) : null;
+        int rows = (snapshot == null)
+                ? loader.load(filename, delimiter, hasHeaderLine, numFields, days[0], days[1], dataset)
+                : dataset.addAll(snapshot.betweenDays(days[0], days[1]));
+        if(rows != -1)
+            rollupsOf(dataset);
+        return rows;
+    }
+
+    /**
+     * @message dayRangeOf
+     * @brief Converts a range of dd/mm/yyyy dates into epoch days
+     * @return the first and the last epoch day of the range, or null if a date is given incorrectly
+     */
+    private int[] dayRangeOf(String fromDate, String toDate) {
+        int[] days = {Integer.MIN_VALUE, Integer.MAX_VALUE};
+        try {
+            if(fromDate != null)
+                days[0] = epochDayOf(fromDate);
+            if(toDate != null)
+                days[1] = epochDayOf(toDate);
+        }
+        catch(Exception e) {
+            System.out.println("The dates of the range are not given as dd/mm/yyyy.");
+            return null;
+        }
+        if(days[0] > days[1]) {
+            System.out.println("The range starts after it ends.");
+            return null;
+        }
+        return days;
+    }
+
+    /**
+     * @message epochDayOf
+     * @brief Converts a dd/mm/yyyy date into its epoch day
+     * @throws IllegalArgumentException if the date is given incorrectly
+     */
+    private static int epochDayOf(String date) {
+        String[] dateItems = date.split("/");
+        if(dateItems.length != 3)
+            throw new IllegalArgumentException(date);
+        int day = Integer.parseInt(dateItems[0]);
+        int month = Integer.parseInt(dateItems[1]);
+        int year = Integer.parseInt(dateItems[2]);
+        if(day < 1 || day > 31 || month < 1 || month > 12)
+            throw new IllegalArgumentException(date);
+        return EpochTime.toEpochDay(year, month, day);
+    }
+
+    /**
+     * @message loadDirectory
+	 * @brief A method that loads all the files of a directory, or all the files matching a glob pattern, at once on a bounded pool of workers
+	 *          and merges their rows, together with any rows already in the dataset, into a single dataset ordered by timestamp
+	 * @param path a directory (e.g. "Resources/Data") or a glob pattern over the file names of a directory (e.g. "Resources/Data/household_*.txt")
+	 * @param delimiter a String with the delimiter between columns of the source files
+	 * @param hasHeaderLine specifies whether the files have a header (true) or not (false)
+	 * @param numFields an int with the number of columns in the input files
+	 * @param dataset the dataset which will be loaded with the data from all the input files
+	 * @return the rows and the load time of every file in file name order (rows are -1 for a file that could not be loaded), or null if sth goes wrong
+	 */
+    @Override
+    public ArrayList<FileLoadModel> loadDirectory(String path, String delimiter, Boolean hasHeaderLine, int numFields, MeasurementDataset dataset) {
+        if(path == null) {
+            System.out.println("There is no directory given.");
+            return null;
+        }
+        if(dataset == null) {
+            System.out.println("The dataset is null");
+            return null;
+        }
+        if(delimiter == null) {
+            System.out.println("There is no delimiter given.");
+            return null;
+        }
+        if(numFields != 9) {
+            System.out.println("The number of columns is given incorrectly.");
+            return null;
+        }
+
+        resultCache.clear();
+        ArrayList<String> filenames = listFiles(path);
+        if(filenames == null) {
+            System.out.println("There does not exist a directory with this name.");
+            return null;
+        }
+
+        /* Every worker has its own loader, as a loader keeps the state of the file it reads */
+        int workers = Math.max(1, Math.min(filenames.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        ArrayList<Future<MeasurementDataset>> loads = new ArrayList<>();
+        ArrayList<FileLoadModel> files = new ArrayList<>();
+        for(String filename : filenames) {
+            FileLoadModel file = new FileLoadModel();
+            file.setFilename(filename);
+            files.add(file);
+            loads.add(pool.submit(() -> {
+                long start = System.nanoTime();
+                MeasurementDataset loaded = snapshotMode
+                        ? loadThroughSnapshot(new Loader<>(), filename, delimiter, hasHeaderLine, numFields)
+                        : loadInto(new Loader<>(), filename, delimiter, hasHeaderLine, numFields);
+                file.setMillis((System.nanoTime() - start) / 1000000);
+                file.setRows((loaded == null) ? -1 : loaded.size());
+                return loaded;
+            }));
+        }
+        pool.shutdown();
+
+        /* Files are appended in order of their first timestamp, so that one file per period needs no sorting */
+        ArrayList<MeasurementDataset> loaded = new ArrayList<>();
+        try {
+            for(Future<MeasurementDataset> load : loads)
+                if(load.get() != null && load.get().size() > 0)
+                    loaded.add(load.get());
+        }
+        catch(Exception e) {
+            System.out.println("There was an error with loading the directory.");
+            return null;
+        }
+        loaded.sort(Comparator.comparingInt(rows -> rows.getEpochMinute(0)));
+
+        int rows = dataset.size();
+        for(MeasurementDataset rowsOfFile : loaded)
+            rows += rowsOfFile.size();
+        dataset.ensureCapacity(rows);
+        for(MeasurementDataset rowsOfFile : loaded)
+            dataset.addAll(rowsOfFile);
+        dataset.sortByTime();
+        rollupsOf(dataset);
+
+        /* Later follows of the files start after the rows loaded now */
+        for(FileLoadModel file : files)
+            if(file.getRows() != -1)
+                loader.markFollowed(file.getFilename());
+
+        return files;
+    }
+
+    /**
+     * @message listFiles
+     * @brief Lists the data files of a directory, or the files of a directory whose name matches a glob pattern,
+     *          leaving out the snapshots and indexes written next to the data files
+     * @return the paths of the files in name order, or null if there is no such directory
+     */
+    private static ArrayList<String> listFiles(String path) {
+        File directory = new File(path);
+        PathMatcher matcher = null;
+        if(!directory.isDirectory()) {
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + directory.getName());
+            directory = directory.getAbsoluteFile().getParentFile();
+        }
+        File[] entries = (directory == null) ? null : directory.listFiles();
+        if(entries == null)
+            return null;
+
+        ArrayList<String> filenames = new ArrayList<>();
+        for(File entry : entries) {
+            String name = entry.getName();
+            if(!entry.isFile() || name.endsWith(DatasetSnapshot.SUFFIX) || name.endsWith(DayIndex.SUFFIX) || name.endsWith(".tmp"))
+                continue;
+            if(matcher == null || matcher.matches(Paths.get(name)))
+                filenames.add(entry.getPath());
+        }
+        Collections.sort(filenames);
+        return filenames;
+    }
+
+    /**
+     * @message loadInto
+     * @brief Loads a file into a new dataset through the given loader
+     * @return the rows of the file, or null if the file could not be loaded
+     */
+    private static MeasurementDataset loadInto(Loader<MeasurementRecord> loader, String filename, String delimiter, Boolean hasHeaderLine, int numFields) {
+        MeasurementDataset dataset = new MeasurementDataset();
+        return (loader.load(filename, delimiter, hasHeaderLine, numFields, dataset) == -1) ? null : dataset;
+    }
+
+    /**
+     * @message loadThroughSnapshot
+     * @brief Maps the snapshot of the file if it is up to date, otherwise parses the file and writes a new snapshot
+     * @return the rows of the file, or null if the file could not be loaded
+     */
+    private MeasurementDataset loadThroughSnapshot(String filename, String delimiter, Boolean hasHeaderLine, int numFields) {
+        return loadThroughSnapshot(loader, filename, delimiter, hasHeaderLine, numFields);
+    }
+
+    /**
+     * @message loadThroughSnapshot
+     * @brief Same as above, through the given loader, so that several files can be loaded at once by different loaders
+     */
+    private MeasurementDataset loadThroughSnapshot(Loader<MeasurementRecord> loader, String filename, String delimiter, Boolean hasHeaderLine, int numFields) {
+        MeasurementDataset dataset = DatasetSnapshot.read(filename, delimiter, hasHeaderLine);
+        if(dataset != null) {
+            /* Later follows of the file start after the rows held in the snapshot */
+            loader.markFollowed(filename);
+            return dataset;
+        }
+
+        dataset = new MeasurementDataset();
+        if(loader.load(filename, delimiter, hasHeaderLine, numFields, dataset) == -1)
+            return null;
+
+        /* A source in a read only directory is simply parsed again next time */
+        DatasetSnapshot.write(filename, delimiter, hasHeaderLine, dataset);
+        return dataset;
+    }
+
+    /**
+     * @message checkLoadArguments
+     * @brief Checks the arguments shared by all the load methods
+     * @return true if the arguments are valid; false otherwise
+     */
+    private boolean checkLoadArguments(String filename, String delimiter, int numFields) {
         if(filename == null) {
             System.out.println("The given output filename is not valid.");
-            return -1;
+            return false;
         }
 
         /* Check if the filename exists as a name in the filesystem */
@@ -54,21 +425,17 @@ public class Engine implements IMainEngine {
         if(!checkDir.exists() || checkDir.isDirectory()) {
             /* It does not exits neither it is a directory */
             System.out.println("There does not exist a file with this name.");
-            return -1;
+            return false;
         }
         if(delimiter == null) {
             System.out.println("There is no delimiter given.");
-            return -1;
+            return false;
         }
         if(numFields != 9) {
             System.out.println("The number of columns is given incorrectly.");
-            return -1;
-        }
-        if(objCollection == null) {
-            System.out.println("The objCollection is null");
-            return -1;
+            return false;
         }
-        return loader.load(filename, delimiter, hasHeaderLine, numFields, objCollection);
+        return true;
     }
 
     /**
@@ -76,7 +443,7 @@ public class Engine implements IMainEngine {
 	 * @brief A method that aggregates measurements by a time unit, e.g., month, day of week, period of day etc.
 	 * @param inputMeasurements the measurements to be aggregated
 	 * @param aggregatorType a string belonging to the set "season", "month", "dayofweek", "periodofday" to determine by which time unit type the records will be aggregated 
-	 * @param aggFunction a String representing the aggregate function (avg, sum) to be applied to the input
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
 	 * @param description a String with a textual description of the result
 	 * @return An IResult object where the input is aggregated by time period, or null if sth goes wrong
 	 */
@@ -86,21 +453,409 @@ public class Engine implements IMainEngine {
             System.out.println("The input measurements list is empty.");
             return null;
         }
-        if(aggregatorType == null) {
-            System.out.println("The aggregator time type is not given.");
+        if(!checkAggregateArguments(aggregatorType, aggFunction, description))
+            return null;
+
+        boolean detailedResults = aggregator.getDetailedResults();
+        MetricExpression[] metricsOfQuery = metrics;
+        String peakPeriodOfQuery = peakPeriod;
+        int peakCountOfQuery = peakCount;
+        String key = detailedResults ? null : ResultCache.keyOf(inputMeasurements, aggregatorType, aggFunction) + metricsKeyOf(metricsOfQuery)
+                + peaksKeyOf(peakPeriodOfQuery, peakCountOfQuery);
+        IResult cached = (key == null) ? null : resultCache.get(key, aggFunction, description);
+        if(cached != null)
+            return cached;
+
+        IResult result = aggregator.aggregate(inputMeasurements, new AggregationQuery(aggregatorType, null, aggFunction, description, detailedResults,
+                metricsOfQuery, peakPeriodOfQuery, peakCountOfQuery));
+        if(key != null && result != null)
+            resultCache.put(key, aggFunction, result);
+        return result;
+    }
+
+    /**
+     * @message aggregateByTimeUnit
+	 * @brief A method that aggregates the rows of a columnar dataset by a time unit, e.g., month, day of week, period of day etc.
+	 *          Unless detailed results or a percentile are asked for, the aggregation is answered from the coarsest rollup of the dataset
+	 *          that can answer it, built after the load or on the first aggregation of the dataset
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @param aggregatorType a string belonging to the set "season", "month", "dayofweek", "periodofday" to determine by which time unit type the records will be aggregated
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return An IResult object where the input is aggregated by time period, or null if sth goes wrong
+	 */
+    @Override
+    public IResult aggregateByTimeUnit(MeasurementDataset inputMeasurements, String aggregatorType, String aggFunction, String description) {
+        if(inputMeasurements == null) {
+            System.out.println("The input dataset is empty.");
             return null;
         }
-        if(aggFunction == null) {
-            System.out.println("The type of aggregate function is not given.");
+        if(!checkAggregateArguments(aggregatorType, aggFunction, description))
             return null;
+
+        boolean detailedResults = aggregator.getDetailedResults();
+        MetricExpression[] metricsOfQuery = metrics;
+        String peakPeriodOfQuery = peakPeriod;
+        int peakCountOfQuery = peakCount;
+        String key = detailedResults ? null : ResultCache.keyOf(inputMeasurements, aggregatorType, aggFunction) + metricsKeyOf(metricsOfQuery)
+                + peaksKeyOf(peakPeriodOfQuery, peakCountOfQuery);
+        IResult cached = (key == null) ? null : resultCache.get(key, aggFunction, description);
+        if(cached != null)
+            return cached;
+
+        /* The rollups keep no measurements, no sketches, no derived metrics and no peaks, so detailed results, percentiles, metrics and peaks go back to the rows */
+        IResult result = null;
+        RollupStore rollupsOfInput = (key == null || aggFunction.startsWith("p") || metricsOfQuery.length > 0 || peakPeriodOfQuery != null)
+                ? null : rollupsOf(inputMeasurements);
+        if(rollupsOfInput != null) {
+            result = rollupsOfInput.getResult(aggregatorType, aggFunction, description);
+        }
+        else {
+            result = aggregator.aggregate(inputMeasurements, new AggregationQuery(aggregatorType, null, aggFunction, description, detailedResults,
+                    metricsOfQuery, peakPeriodOfQuery, peakCountOfQuery));
+        }
+        if(key != null && result != null)
+            resultCache.put(key, aggFunction, result);
+        return result;
+    }
+
+    /**
+     * @message aggregateByTimeUnits
+	 * @brief A method that aggregates measurements by pairs of time units, e.g. season by period of day or day of week by month,
+	 *          into a table whose rows are the time units of one type and whose columns are the time units of the other
+	 * @param inputMeasurements the measurements to be aggregated
+	 * @param rowUnitType one of "season", "month", "dayofweek", "periodofday", by which the rows are grouped
+	 * @param columnUnitType another one of them, by which the columns are grouped
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return An IResult2D object where the input is aggregated by pairs of time units, or null if sth goes wrong
+	 */
+    @Override
+    public IResult2D aggregateByTimeUnits(ArrayList<MeasurementRecord> inputMeasurements, String rowUnitType, String columnUnitType,
+            String aggFunction, String description) {
+        if(inputMeasurements == null) {
+            System.out.println("The input measurements list is empty.");
+            return null;
+        }
+        if(!checkAggregateArguments(rowUnitType, aggFunction, description) || !checkColumnUnitType(columnUnitType))
+            return null;
+
+        MetricExpression[] metricsOfQuery = metrics;
+        String peakPeriodOfQuery = peakPeriod;
+        int peakCountOfQuery = peakCount;
+        String key = ResultCache.keyOf(inputMeasurements, rowUnitType + "*" + columnUnitType, aggFunction) + metricsKeyOf(metricsOfQuery)
+                + peaksKeyOf(peakPeriodOfQuery, peakCountOfQuery);
+        IResult cached = resultCache.get(key, aggFunction, description);
+        if(cached != null)
+            return (IResult2D)cached;
+
+        IResult result = aggregator.aggregate(inputMeasurements,
+                new AggregationQuery(rowUnitType, columnUnitType, aggFunction, description, false, metricsOfQuery, peakPeriodOfQuery, peakCountOfQuery));
+        if(result != null)
+            resultCache.put(key, aggFunction, result);
+        return (IResult2D)result;
+    }
+
+    /**
+     * @message aggregateByTimeUnits
+	 * @brief A method that aggregates the rows of a columnar dataset by pairs of time units, e.g. season by period of day,
+	 *          into a table whose rows are the time units of one type and whose columns are the time units of the other
+	 *          The cells are aggregated from the rows of the dataset, not from its rollups
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @param rowUnitType one of "season", "month", "dayofweek", "periodofday", by which the rows are grouped
+	 * @param columnUnitType another one of them, by which the columns are grouped
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return An IResult2D object where the input is aggregated by pairs of time units, or null if sth goes wrong
+	 */
+    @Override
+    public IResult2D aggregateByTimeUnits(MeasurementDataset inputMeasurements, String rowUnitType, String columnUnitType,
+            String aggFunction, String description) {
+        if(inputMeasurements == null) {
+            System.out.println("The input dataset is empty.");
+            return null;
+        }
+        if(!checkAggregateArguments(rowUnitType, aggFunction, description) || !checkColumnUnitType(columnUnitType))
+            return null;
+
+        MetricExpression[] metricsOfQuery = metrics;
+        String peakPeriodOfQuery = peakPeriod;
+        int peakCountOfQuery = peakCount;
+        String key = ResultCache.keyOf(inputMeasurements, rowUnitType + "*" + columnUnitType, aggFunction) + metricsKeyOf(metricsOfQuery)
+                + peaksKeyOf(peakPeriodOfQuery, peakCountOfQuery);
+        IResult cached = resultCache.get(key, aggFunction, description);
+        if(cached != null)
+            return (IResult2D)cached;
+
+        IResult result = aggregator.aggregate(inputMeasurements,
+                new AggregationQuery(rowUnitType, columnUnitType, aggFunction, description, false, metricsOfQuery, peakPeriodOfQuery, peakCountOfQuery));
+        if(result != null)
+            resultCache.put(key, aggFunction, result);
+        return (IResult2D)result;
+    }
+
+    private static boolean checkColumnUnitType(String columnUnitType) {
+        if(columnUnitType == null) {
+            System.out.println("The column time type is not given.");
+            return false;
+        }
+        return true;
+    }
+
+    /* The part of a cache key telling the derived metrics of the aggregation apart; empty without metrics */
+    private static String metricsKeyOf(MetricExpression[] metricsOfQuery) {
+        StringBuilder key = new StringBuilder();
+        for(MetricExpression metric : metricsOfQuery)
+            key.append(':').append(metric.getName()).append('=').append(metric.getExpression());
+        return key.toString();
+    }
+
+    /* The part of a cache key telling the peaks kept by the aggregation apart; empty without peaks */
+    private static String peaksKeyOf(String peakPeriodOfQuery, int peakCountOfQuery) {
+        return (peakPeriodOfQuery == null) ? "" : ":peaks=" + peakCountOfQuery + "/" + peakPeriodOfQuery;
+    }
+
+    /**
+     * @message rollupsOf
+     * @brief Finds the rollups of a dataset, building them again if rows have been added or moved since they were built
+     * @return the rollups, or null when the rollup mode is off
+     */
+    private RollupStore rollupsOf(MeasurementDataset dataset) {
+        if(!rollupMode)
+            return null;
+        /* Queries of several threads over a new dataset wait for the first one to build its rollups, instead of all building them */
+        synchronized(rollups) {
+            RollupStore rollupsOfDataset = rollups.get(dataset);
+            if(rollupsOfDataset == null || !rollupsOfDataset.isCurrent(dataset)) {
+                rollupsOfDataset = new RollupStore(dataset);
+                rollups.put(dataset, rollupsOfDataset);
+            }
+            return rollupsOfDataset;
+        }
+    }
+
+    /**
+     * @message aggregateRolling
+	 * @brief A method that aggregates measurements over a window sliding through time, e.g. the moving average of the last hour of every minute
+	 * @param inputMeasurements the measurements to be aggregated
+	 * @param windowMinutes the number of minutes every window spans, e.g. 15, 60 or 1440
+	 * @param stepMinutes the number of minutes between two steps of the series
+	 * @param aggFunction a String representing the aggregate function (avg, sum, count) to be applied to every window
+	 * @param description a String with a textual description of the result
+	 * @return A TimeSeriesResultModel with the aggregates of every step, or null if sth goes wrong
+	 */
+    @Override
+    public TimeSeriesResultModel aggregateRolling(ArrayList<MeasurementRecord> inputMeasurements, int windowMinutes, int stepMinutes,
+                                                  String aggFunction, String description) {
+        if(inputMeasurements == null) {
+            System.out.println("The input measurements list is empty.");
+            return null;
+        }
+        if(!checkRollingArguments(windowMinutes, stepMinutes, aggFunction, description))
+            return null;
+
+        MeasurementDataset dataset = new MeasurementDataset(inputMeasurements.size());
+        for(MeasurementRecord record : inputMeasurements)
+            dataset.add(record);
+        dataset.sortByTime();
+        return aggregator.aggregateRolling(dataset, windowMinutes, stepMinutes, aggFunction, description);
+    }
+
+    /**
+     * @message aggregateRolling
+	 * @brief A method that aggregates the rows of a columnar dataset over a window sliding through time; the rows are put in time order first
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @param windowMinutes the number of minutes every window spans, e.g. 15, 60 or 1440
+	 * @param stepMinutes the number of minutes between two steps of the series
+	 * @param aggFunction a String representing the aggregate function (avg, sum, count) to be applied to every window
+	 * @param description a String with a textual description of the result
+	 * @return A TimeSeriesResultModel with the aggregates of every step, or null if sth goes wrong
+	 */
+    @Override
+    public TimeSeriesResultModel aggregateRolling(MeasurementDataset inputMeasurements, int windowMinutes, int stepMinutes,
+                                                  String aggFunction, String description) {
+        if(inputMeasurements == null) {
+            System.out.println("The input dataset is empty.");
+            return null;
+        }
+        if(!checkRollingArguments(windowMinutes, stepMinutes, aggFunction, description))
+            return null;
+
+        inputMeasurements.sortByTime();
+        return aggregator.aggregateRolling(inputMeasurements, windowMinutes, stepMinutes, aggFunction, description);
+    }
+
+    /**
+     * @message checkRollingArguments
+     * @brief Checks the arguments of the rolling aggregations
+     * @return true if the arguments are valid; false otherwise
+     */
+    private boolean checkRollingArguments(int windowMinutes, int stepMinutes, String aggFunction, String description) {
+        if(windowMinutes < 1 || stepMinutes < 1) {
+            System.out.println("The window and the step must be at least one minute.");
+            return false;
+        }
+        if(aggFunction == null || !(aggFunction.equals("avg") || aggFunction.equals("sum") || aggFunction.equals("count"))) {
+            System.out.println("The aggregate function of a rolling window is not one of avg, sum or count.");
+            return false;
         }
         if(description == null || description.equals("")) {
             System.out.println("A description about the measurements was not given.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @message aggregateCube
+	 * @brief A method that aggregates measurements by all the time unit types at once, in a single scan of the measurements
+	 * @param inputMeasurements the measurements to be aggregated
+	 * @return An AggregateCube whose getResult gives the IResult of any time unit type and aggregate function, or null if sth goes wrong
+	 */
+    @Override
+    public AggregateCube aggregateCube(ArrayList<MeasurementRecord> inputMeasurements) {
+        if(inputMeasurements == null) {
+            System.out.println("The input measurements list is empty.");
+            return null;
+        }
+        return aggregator.aggregateCube(inputMeasurements);
+    }
+
+    /**
+     * @message aggregateCube
+	 * @brief A method that aggregates the rows of a columnar dataset by all the time unit types at once, in a single scan of the dataset
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @return An AggregateCube whose getResult gives the IResult of any time unit type and aggregate function, or null if sth goes wrong
+	 */
+    @Override
+    public AggregateCube aggregateCube(MeasurementDataset inputMeasurements) {
+        if(inputMeasurements == null) {
+            System.out.println("The input dataset is empty.");
+            return null;
+        }
+        return aggregator.aggregateCube(inputMeasurements);
+    }
+
+    /**
+     * @message loadAndAggregateCube
+	 * @brief A method that reads the data from the given file and aggregates every row by all the time unit types
+	 *          as soon as it is parsed, without keeping the rows in memory
+	 * @param filename a String with the name of the input file
+	 * @param delimiter a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine specifies whether the file has a header (true) or not (false)
+	 * @param numFields an int with the number of columns in the input file
+	 * @return An AggregateCube whose getResult gives the IResult of any time unit type and aggregate function, or null if sth goes wrong
+	 */
+    @Override
+    public AggregateCube loadAndAggregateCube(String filename, String delimiter, Boolean hasHeaderLine, int numFields) {
+        if(!checkLoadArguments(filename, delimiter, numFields))
+            return null;
+
+        AggregateCube cube = new AggregateCube();
+        if(loader.stream(filename, delimiter, hasHeaderLine, numFields, cube) == -1)
             return null;
+        return cube;
+    }
+
+    /**
+     * @message loadAndAggregate
+	 * @brief A method that reads the data from the given file and aggregates every row as soon as it is parsed,
+	 *          without keeping the rows in memory, so that files bigger than the heap can be aggregated
+	 *          The derived metrics and peaks set on the engine are aggregated as aggregateByTimeUnit aggregates them,
+	 *          but the rows are never kept, whether detailed results are set or not
+	 * @param filename a String with the name of the input file
+	 * @param delimiter a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine specifies whether the file has a header (true) or not (false)
+	 * @param numFields an int with the number of columns in the input file
+	 * @param aggregatorType a string belonging to the set "season", "month", "dayofweek", "periodofday" to determine by which time unit type the records will be aggregated
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return An IResult object where the input is aggregated by time period, or null if sth goes wrong
+	 */
+    @Override
+    public IResult loadAndAggregate(String filename, String delimiter, Boolean hasHeaderLine, int numFields,
+                                    String aggregatorType, String aggFunction, String description) {
+        if(!checkLoadArguments(filename, delimiter, numFields))
+            return null;
+        if(!checkAggregateArguments(aggregatorType, aggFunction, description))
+            return null;
+
+        /* Laid out as aggregateByTimeUnit lays out its result, except that the rows are never kept as detailed results */
+        MetricExpression[] metricsOfQuery = metrics;
+        String peakPeriodOfQuery = peakPeriod;
+        int peakCountOfQuery = peakCount;
+        SummaryResultModel result = aggregator.summaryOf(new AggregationQuery(aggregatorType, null, aggFunction, description, false,
+                metricsOfQuery, peakPeriodOfQuery, peakCountOfQuery));
+        if(result == null)
+            return null;
+
+        IMeasurementSink sink = aggregator.summarize(result, aggregatorType, metricsOfQuery);
+        if(sink == null)
+            return null;
+
+        if(loader.stream(filename, delimiter, hasHeaderLine, numFields, sink) == -1)
+            return null;
+
+        result.calculateResult();
+        return result;
+    }
+
+    /**
+     * @message followData
+	 * @brief A method that reads only the rows appended to the given file since it was last loaded or followed,
+	 *          and adds them to a result that has already been aggregated, whose aggregates are updated in place
+	 * @param filename a String with the name of the input file
+	 * @param delimiter a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine specifies whether the file has a header (true) or not (false)
+	 * @param numFields an int with the number of columns in the input file
+	 * @param aggregatorType the time unit type the result was aggregated by
+	 * @param result the result returned by aggregateByTimeUnit or loadAndAggregate for the same file
+	 * @return the number of new rows added to the result, or -1 if sth goes wrong
+	 */
+    @Override
+    public int followData(String filename, String delimiter, Boolean hasHeaderLine, int numFields,
+                          String aggregatorType, IResult result) {
+        if(!checkLoadArguments(filename, delimiter, numFields))
+            return -1;
+        if(result == null) {
+            System.out.println("There are no results in memory measured.");
+            return -1;
+        }
+        if(aggregatorType == null) {
+            System.out.println("The aggregator time type is not given.");
+            return -1;
         }
 
-        aggregator.setTimeUnitType(aggregatorType);
-        return aggregator.aggregateByTimeUnit(inputMeasurements, aggFunction, description);
+        IMeasurementSink sink = aggregator.feed(result, aggregatorType, metrics);
+        if(sink == null)
+            return -1;
+
+        return loader.follow(filename, delimiter, hasHeaderLine, numFields, sink);
+    }
+
+    /**
+     * @message checkAggregateArguments
+     * @brief Checks the arguments shared by all the aggregate methods
+     * @return true if the arguments are valid; false otherwise
+     */
+    private boolean checkAggregateArguments(String aggregatorType, String aggFunction, String description) {
+        if(aggregatorType == null) {
+            System.out.println("The aggregator time type is not given.");
+            return false;
+        }
+        if(aggFunction == null) {
+            System.out.println("The type of aggregate function is not given.");
+            return false;
+        }
+        if(!SummaryResultModel.isAggregateFunction(aggFunction)) {
+            System.out.println("The aggregate function is not one of avg, sum, min, max, count, stddev or a percentile such as p95.");
+            return false;
+        }
+        if(description == null || description.equals("")) {
+            System.out.println("A description about the measurements was not given.");
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -133,9 +888,197 @@ public class Engine implements IMainEngine {
             return -1;
         }
 
-        /* Through the setter, the class gains access of the export type */
-        reporter.setExportType(reportType);
-        return reporter.reportResultInFile(result, filename);
+        return reporter.reportResultInFile(result, reportType, filename);
+    }
+
+    /**
+     * @message reportTimeSeriesInFile
+	 * @brief A method that reports the steps of a time series result to a file, one row per step
+	 * @param series the time series result, containing the aggregates of every window
+	 * @param reportType a string belonging to the set "text", "md", "html" to determine the type of report that will be generated
+	 * @param filename a String with the path of the file where the report will be written
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+    @Override
+    public int reportTimeSeriesInFile(TimeSeriesResultModel series, String reportType, String filename) {
+        if(series == null) {
+            System.out.println("There are no results in memory measured.");
+            return -1;
+        }
+        if(reportType == null) {
+            System.out.println("There has been no report type given.");
+            return -1;
+        }
+        if(filename == null) {
+            System.out.println("The given output filename is not valid.");
+            return -1;
+        }
+        if(new File(filename).exists()) {
+            System.out.println("There already exists a file with this name. Choose a different name.");
+            return -1;
+        }
+
+        return reporter.reportTimeSeriesInFile(series, reportType, filename);
+    }
+
+    /**
+     * @message setLoadMode
+     * @brief Chooses how the loader reads input files
+     * @param loadMode "sequential" for reading line by line, "mapped" for memory mapping the file and parsing it in parallel chunks
+     * @return 0 if the mode is valid; -1 otherwise
+     */
+    public int setLoadMode(String loadMode) {
+        if(loadMode == null || !(loadMode.equals("sequential") || loadMode.equals("mapped"))) {
+            System.out.println("The load mode is neither sequential nor mapped.");
+            return -1;
+        }
+        loader.setLoadMode(loadMode);
+        return 0;
+    }
+
+    /**
+     * @message setSnapshotMode
+     * @brief Chooses whether loads keep a binary snapshot next to their source file
+     * @param snapshotMode true to write snapshots and load from them while they match their source; false to always parse
+     */
+    public void setSnapshotMode(boolean snapshotMode) {
+        this.snapshotMode = snapshotMode;
+    }
+
+    /**
+     * @message setRollupMode
+     * @brief Chooses whether loaded datasets are rolled up into hours, days, weeks, months and years, and aggregated from the rollups
+     * @param rollupMode true, the default, to answer aggregations of a dataset from the coarsest rollup that can answer them;
+     *          false to always aggregate the rows of the dataset
+     */
+    public void setRollupMode(boolean rollupMode) {
+        this.rollupMode = rollupMode;
+        if(!rollupMode) {
+            synchronized(rollups) {
+                rollups.clear();
+            }
+        }
+    }
+
+    /**
+     * @message setResultCacheSize
+     * @brief Chooses how many summaries aggregateByTimeUnit keeps for the aggregations asked for again over the same measurements
+     * @param resultCacheSize the number of summaries, evicting the least recently used ones beyond it; 0 turns the cache off
+     * @return 0 if the size is valid; -1 otherwise
+     */
+    public int setResultCacheSize(int resultCacheSize) {
+        if(resultCacheSize < 0) {
+            System.out.println("The size of the result cache can not be negative.");
+            return -1;
+        }
+        resultCache.setMaxEntries(resultCacheSize);
+        return 0;
+    }
+
+    /**
+     * @message getResultCache
+     * @brief Returns the result cache, whose hits, misses and evictions tell how often aggregations are answered from it
+     */
+    public ResultCache getResultCache() {
+        return this.resultCache;
+    }
+
+    /**
+     * @message setDetailedResults
+     * @brief Chooses whether aggregateByTimeUnit keeps every measurement of the result, on top of its running sums
+     * @param detailedResults true for results whose getDetailedResults holds the grouped measurements;
+     *          false, the default, for results that keep only the running sums
+     */
+    public void setDetailedResults(boolean detailedResults) {
+        aggregator.setDetailedResults(detailedResults);
+    }
+
+    /**
+     * @message setMeterKernel
+     * @brief Chooses the kernel that folds the meter columns of datasets into the running sums of aggregateByTimeUnit
+     * @param kernel "vector" for the Vector API kernel, which needs --add-modules jdk.incubator.vector and the classes of src-vector,
+     *          "scalar" for the kernel that runs anywhere, or "auto", the default, for the vector kernel where it is available
+     * @return 0 if the kernel is valid and available; -1 otherwise
+     */
+    public int setMeterKernel(String kernel) {
+        IMeterKernel created = MeterKernels.create(kernel);
+        if(created == null) {
+            System.out.println("The meter kernel is neither auto nor scalar nor an available vector kernel.");
+            return -1;
+        }
+        aggregator.setKernel(created);
+        return 0;
+    }
+
+    /**
+     * @message addMetric
+     * @brief Adds a derived metric that every following aggregateByTimeUnit folds along with the meters, in the same scan of the rows,
+     *          e.g. addMetric("unmetered", MetricExpression.UNMETERED); its aggregates are then found by getAggregateMetric of the summary
+     *          Metrics are kept in summaries only, so aggregations with metrics can neither be percentiles nor keep detailed results
+     * @param name the name of the metric, different from the names of the metrics added before
+     * @param expression an arithmetic expression over global_active_power, sub_metering_1, sub_metering_2 and sub_metering_3
+     * @return 0 if the metric is added; -1 if its name is taken or its expression is not valid
+     */
+    public synchronized int addMetric(String name, String expression) {
+        for(MetricExpression metric : metrics) {
+            if(metric.getName().equals(name)) {
+                System.out.println("A metric named " + name + " has already been added.");
+                return -1;
+            }
+        }
+        MetricExpression compiled = MetricExpression.compile(name, expression);
+        if(compiled == null)
+            return -1;
+        MetricExpression[] added = Arrays.copyOf(metrics, metrics.length + 1);
+        added[metrics.length] = compiled;
+        metrics = added;
+        return 0;
+    }
+
+    /**
+     * @message clearMetrics
+     * @brief Removes every derived metric, so that aggregations fold the meters only
+     */
+    public synchronized void clearMetrics() {
+        metrics = new MetricExpression[0];
+    }
+
+    /**
+     * @message setPeaks
+     * @brief Makes every following aggregateByTimeUnit and aggregateByTimeUnits keep the highest consumptions of every meter within every time unit,
+     *          found in the same scan of the rows as the aggregates, e.g. setPeaks("hour", 10) for the ten highest hours of the A/C of every season;
+     *          the peaks are then found by getPeakMeterKitchen, getPeakMeterLaundry and getPeakMeterAC of the result
+     * @param period "minute", "hour" or "day", the periods whose consumption is ranked, or null to keep no peaks
+     * @param count the number of peaks per meter and time unit, at least 1 unless period is null
+     * @return 0 if the period and count are valid; -1 otherwise
+     */
+    public synchronized int setPeaks(String period, int count) {
+        if(period != null && PeakFinder.periodMinutesOf(period) < 0) {
+            System.out.println("The peak period is neither minute nor hour nor day.");
+            return -1;
+        }
+        if(period != null && count < 1) {
+            System.out.println("The number of peaks must be at least one.");
+            return -1;
+        }
+        peakCount = (period == null) ? 0 : count;
+        peakPeriod = period;
+        return 0;
+    }
+
+    /**
+     * @message setParallelism
+     * @brief Chooses how many threads aggregateByTimeUnit uses; the results are the same for any number of threads
+     * @param parallelism the number of threads, at least 1
+     * @return 0 if the parallelism is valid; -1 otherwise
+     */
+    public int setParallelism(int parallelism) {
+        if(parallelism < 1) {
+            System.out.println("The parallelism must be at least one thread.");
+            return -1;
+        }
+        aggregator.setParallelism(parallelism);
+        return 0;
     }
 
     /**
@@ -182,7 +1125,7 @@ public class Engine implements IMainEngine {
 		System.out.println("Size to process: " + numRows);
 		
         IResult result = aggregateByTimeUnit(objCollection, "dayofweek", "avg", description);
-		System.out.println("Time units with measurements: " + result.getDetailedResults().size());
+		System.out.println("Time units with measurements: " + result.getAggregateMeterKitchen().size());
 		
         int printOutcome = reportResultInFile(result, exportType, outputFilename);
         System.out.println("printOutcome: " + printOutcome);
@@ -2,8 +2,13 @@ package mainengine;
 
 import java.util.ArrayList;
 
+import datamodel.AggregateCube;
+import datamodel.FileLoadModel;
 import datamodel.IResult;
+import datamodel.IResult2D;
+import datamodel.MeasurementDataset;
 import datamodel.MeasurementRecord;
+import datamodel.TimeSeriesResultModel;
 
 public interface IMainEngine {
 	/**
@@ -19,12 +24,25 @@ public interface IMainEngine {
 	int loadData(String fileName, String delimiter, Boolean hasHeaderLine, int numFields,
 				 ArrayList<MeasurementRecord> objCollection);
 
+	/**
+	 * A method that reads the data from the given file and stores them in a columnar dataset
+	 * 
+	 * @param fileName: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param dataset: the dataset which will be loaded with the data from the input file
+	 * @return the number of rows that are eventually added to the dataset
+	 */
+	int loadData(String fileName, String delimiter, Boolean hasHeaderLine, int numFields,
+				 MeasurementDataset dataset);
+
 	/**
 	 * A method that aggregates measurements by a time unit, e.g., month, day of week, period of day etc.
 	 * 
 	 * @param inputMeasurements the measurements to be aggregated
 	 * @param aggregatorType a string belonging to the set "season", "month", "dayofweek", "periodofday" to determine by which time unit type the records will be aggregated 
-	 * @param aggFunction a String representing the aggregate function (avg, sum) to be applied to the input
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
 	 * @param description a String with a textual description of the result
 	 * @return An IResult object where the input is aggregated by time period, or null if sth goes wrong
 	 * 
@@ -32,6 +50,174 @@ public interface IMainEngine {
 	IResult aggregateByTimeUnit(ArrayList<MeasurementRecord> inputMeasurements, String aggregatorType,
 								String aggFunction, String description);
 
+	/**
+	 * A method that aggregates the rows of a columnar dataset by a time unit, e.g., month, day of week, period of day etc.
+	 * Unless detailed results or a percentile are asked for, the aggregation is answered from the hourly, daily or monthly rollups of the dataset
+	 * 
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @param aggregatorType a string belonging to the set "season", "month", "dayofweek", "periodofday" to determine by which time unit type the records will be aggregated 
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return An IResult object where the input is aggregated by time period, or null if sth goes wrong
+	 */
+	IResult aggregateByTimeUnit(MeasurementDataset inputMeasurements, String aggregatorType,
+								String aggFunction, String description);
+
+	/**
+	 * A method that aggregates measurements by pairs of time units, e.g. season by period of day or day of week by month
+	 * 
+	 * @param inputMeasurements the measurements to be aggregated
+	 * @param rowUnitType a string belonging to the set "season", "month", "dayofweek", "periodofday" by which the rows of the result are grouped
+	 * @param columnUnitType another string of the set, by which the columns of the result are grouped
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return An IResult2D object with a table of aggregates per meter, or null if sth goes wrong
+	 */
+	IResult2D aggregateByTimeUnits(ArrayList<MeasurementRecord> inputMeasurements, String rowUnitType, String columnUnitType,
+								   String aggFunction, String description);
+
+	/**
+	 * A method that aggregates the rows of a columnar dataset by pairs of time units, e.g. season by period of day or day of week by month
+	 * 
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @param rowUnitType a string belonging to the set "season", "month", "dayofweek", "periodofday" by which the rows of the result are grouped
+	 * @param columnUnitType another string of the set, by which the columns of the result are grouped
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return An IResult2D object with a table of aggregates per meter, or null if sth goes wrong
+	 */
+	IResult2D aggregateByTimeUnits(MeasurementDataset inputMeasurements, String rowUnitType, String columnUnitType,
+								   String aggFunction, String description);
+
+	/**
+	 * A method that aggregates measurements by all the time unit types at once, in a single scan of the measurements
+	 * 
+	 * @param inputMeasurements the measurements to be aggregated
+	 * @return An AggregateCube whose getResult gives the IResult of any time unit type and aggregate function, or null if sth goes wrong
+	 */
+	AggregateCube aggregateCube(ArrayList<MeasurementRecord> inputMeasurements);
+
+	/**
+	 * A method that aggregates the rows of a columnar dataset by all the time unit types at once, in a single scan of the dataset
+	 * 
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @return An AggregateCube whose getResult gives the IResult of any time unit type and aggregate function, or null if sth goes wrong
+	 */
+	AggregateCube aggregateCube(MeasurementDataset inputMeasurements);
+
+	/**
+	 * A method that reads only the rows of a range of days from the given file and stores them in an ArrayList
+	 * 
+	 * @param fileName: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param fromDate: the first day of the range as dd/mm/yyyy, or null for no lower bound
+	 * @param toDate: the last day of the range as dd/mm/yyyy, or null for no upper bound
+	 * @param objCollection: and empty list which will be loaded with the data from the input file
+	 * @return the number of rows that are eventually added to objCollection
+	 */
+	int loadData(String fileName, String delimiter, Boolean hasHeaderLine, int numFields,
+				 String fromDate, String toDate, ArrayList<MeasurementRecord> objCollection);
+
+	/**
+	 * A method that reads only the rows of a range of days from the given file and stores them in a columnar dataset
+	 * 
+	 * @param fileName: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param fromDate: the first day of the range as dd/mm/yyyy, or null for no lower bound
+	 * @param toDate: the last day of the range as dd/mm/yyyy, or null for no upper bound
+	 * @param dataset: the dataset which will be loaded with the data from the input file
+	 * @return the number of rows that are eventually added to the dataset
+	 */
+	int loadData(String fileName, String delimiter, Boolean hasHeaderLine, int numFields,
+				 String fromDate, String toDate, MeasurementDataset dataset);
+
+	/**
+	 * A method that loads all the files of a directory, or all the files matching a glob pattern, at once
+	 * and merges them into a single dataset ordered by timestamp
+	 * 
+	 * @param path: a directory or a glob pattern over the file names of a directory
+	 * @param delimiter: a String with the delimiter between columns of the source files
+	 * @param hasHeaderLine: specifies whether the files have a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input files
+	 * @param dataset: the dataset which will be loaded with the data from all the input files
+	 * @return the rows and the load time of every file, or null if sth goes wrong
+	 */
+	ArrayList<FileLoadModel> loadDirectory(String path, String delimiter, Boolean hasHeaderLine, int numFields,
+										   MeasurementDataset dataset);
+
+	/**
+	 * A method that aggregates measurements over a window sliding through time, e.g. the moving average of the last hour of every minute
+	 * 
+	 * @param inputMeasurements the measurements to be aggregated
+	 * @param windowMinutes the number of minutes every window spans, e.g. 15, 60 or 1440
+	 * @param stepMinutes the number of minutes between two steps of the series
+	 * @param aggFunction a String representing the aggregate function (avg, sum, count) to be applied to every window
+	 * @param description a String with a textual description of the result
+	 * @return A TimeSeriesResultModel with the aggregates of every step, or null if sth goes wrong
+	 */
+	TimeSeriesResultModel aggregateRolling(ArrayList<MeasurementRecord> inputMeasurements, int windowMinutes, int stepMinutes,
+										   String aggFunction, String description);
+
+	/**
+	 * A method that aggregates the rows of a columnar dataset over a window sliding through time; the rows are put in time order first
+	 * 
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @param windowMinutes the number of minutes every window spans, e.g. 15, 60 or 1440
+	 * @param stepMinutes the number of minutes between two steps of the series
+	 * @param aggFunction a String representing the aggregate function (avg, sum, count) to be applied to every window
+	 * @param description a String with a textual description of the result
+	 * @return A TimeSeriesResultModel with the aggregates of every step, or null if sth goes wrong
+	 */
+	TimeSeriesResultModel aggregateRolling(MeasurementDataset inputMeasurements, int windowMinutes, int stepMinutes,
+										   String aggFunction, String description);
+
+	/**
+	 * A method that reads the data from the given file and aggregates every row as soon as it is parsed,
+	 * without keeping the rows in memory
+	 * 
+	 * @param fileName: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param aggregatorType a string belonging to the set "season", "month", "dayofweek", "periodofday" to determine by which time unit type the records will be aggregated 
+	 * @param aggFunction a String representing the aggregate function (avg, sum, min, max, count, stddev, p50, p95, p99, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return An IResult object where the input is aggregated by time period, or null if sth goes wrong
+	 */
+	IResult loadAndAggregate(String fileName, String delimiter, Boolean hasHeaderLine, int numFields,
+							 String aggregatorType, String aggFunction, String description);
+
+	/**
+	 * A method that reads the data from the given file and aggregates every row by all the time unit types
+	 * as soon as it is parsed, without keeping the rows in memory
+	 * 
+	 * @param fileName: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @return An AggregateCube whose getResult gives the IResult of any time unit type and aggregate function, or null if sth goes wrong
+	 */
+	AggregateCube loadAndAggregateCube(String fileName, String delimiter, Boolean hasHeaderLine, int numFields);
+
+	/**
+	 * A method that reads only the rows appended to the given file since it was last loaded or followed,
+	 * and adds them to an already aggregated result, updating its aggregates in place
+	 * 
+	 * @param fileName: a String with the name of the input file
+	 * @param delimiter: a String with the delimiter between columns of the source file
+	 * @param hasHeaderLine: specifies whether the file has a header (true) or not (false)
+	 * @param numFields: an int with the number of columns in the input file
+	 * @param aggregatorType the time unit type the result was aggregated by
+	 * @param result the result of an earlier aggregation of the same file
+	 * @return the number of new rows added to the result, or -1 if sth goes wrong
+	 */
+	int followData(String fileName, String delimiter, Boolean hasHeaderLine, int numFields,
+				   String aggregatorType, IResult result);
+
 	/**
 	 * 	A method that reports the contents of an aggregate result to a file
 	 * 
@@ -41,4 +227,14 @@ public interface IMainEngine {
 	 * @return 0 if the task completes successfully; a negative integer otherwise
 	 */
 	int reportResultInFile(IResult result, String reportType, String filename);
+
+	/**
+	 * A method that reports the steps of a time series result to a file, one row per step
+	 * 
+	 * @param series the time series result, containing the aggregates of every window
+	 * @param reportType a string belonging to the set "text", "md", "html" to determine the type of report that will be generated 
+	 * @param filename a String with the path of the file where the report will be written
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+	int reportTimeSeriesInFile(TimeSeriesResultModel series, String reportType, String filename);
 }
@@ -0,0 +1,162 @@
+package mainengine;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import datamodel.EpochTime;
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import datamodel.ResultModel;
+import datamodel.SummaryResultModel;
+
+/**
+ * @class ResultCache
+ * @brief Keeps the results of the latest aggregations, so that an aggregation asked for again over the same measurements
+ *          is answered without aggregating them again; the least recently used result is evicted once the cache is full
+ *          Only summaries are kept, as a result with detailed results holds every measurement of the input
+ */
+public class ResultCache {
+    /**
+     * SAMPLES -> the number of rows of a dataset that its fingerprint is taken from, on top of its version
+     * entries -> the cached summaries by key, in order of use, the least recently used first
+     * maxEntries -> the number of summaries kept at most; 0 keeps none
+     * hits, misses, evictions -> the number of lookups answered, the number of lookups not answered and the number of summaries evicted
+     */
+    private static final int SAMPLES = 64;
+    private final LinkedHashMap<String, SummaryResultModel> entries;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries the number of summaries kept at most
+     */
+    public ResultCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            /* Suppresses warnings */
+            @Serial
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SummaryResultModel> eldest) {
+                if(size() <= ResultCache.this.maxEntries)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @message keyOf
+     * @brief Creates the key of an aggregation of a list of measurements
+     *          A list has no version, so every measurement goes into its fingerprint and a measurement changed in place changes the key;
+     *          a single pass over the fields of the measurements costs far less than aggregating them
+     * @return the key, made of the fingerprint of the list and the query
+     */
+    public static String keyOf(ArrayList<MeasurementRecord> inputMeasurements, String aggregatorType, String aggFunction) {
+        long fingerprint = 31L * System.identityHashCode(inputMeasurements) + inputMeasurements.size();
+        for(MeasurementRecord record : inputMeasurements) {
+            fingerprint = mix(fingerprint, record.getDate() == null || record.getTime() == null ? 0 : EpochTime.epochMinuteOf(record),
+                    record.getSub_metering_1(), record.getSub_metering_2(), record.getSub_metering_3());
+            /* Derived metrics read the global active power as well */
+            fingerprint = 31L * fingerprint + Double.hashCode(record.getGlobal_active_power());
+        }
+        return Long.toHexString(fingerprint) + ":" + aggregatorType + ":" + aggFunction;
+    }
+
+    /**
+     * @message keyOf
+     * @brief Creates the key of an aggregation of a dataset; any row added to or moved in the dataset changes its version, and so the key
+     * @return the key, made of the fingerprint of the dataset and the query
+     */
+    public static String keyOf(MeasurementDataset inputMeasurements, String aggregatorType, String aggFunction) {
+        long fingerprint = 31L * System.identityHashCode(inputMeasurements) + inputMeasurements.size();
+        fingerprint = 31L * fingerprint + inputMeasurements.getVersion();
+        int stride = Math.max(1, inputMeasurements.size() / SAMPLES);
+        for(int row = 0; row < inputMeasurements.size(); row += stride)
+            fingerprint = mix(fingerprint, inputMeasurements.getEpochMinute(row), inputMeasurements.getSub_metering_1(row),
+                    inputMeasurements.getSub_metering_2(row), inputMeasurements.getSub_metering_3(row));
+        return Long.toHexString(fingerprint) + ":" + aggregatorType + ":" + aggFunction;
+    }
+
+    private static long mix(long fingerprint, int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        fingerprint = 31L * fingerprint + epochMinute;
+        fingerprint = 31L * fingerprint + Double.hashCode(sub_metering_1);
+        fingerprint = 31L * fingerprint + Double.hashCode(sub_metering_2);
+        return 31L * fingerprint + Double.hashCode(sub_metering_3);
+    }
+
+    /**
+     * @message get
+     * @brief Looks up the result of an aggregation
+     * @param key the key of the aggregation
+     * @param aggFunction the aggregate function of the aggregation
+     * @param description the description the result is returned with
+     * @return a copy of the cached result with the given description, which the caller may change freely, or null if it is not cached
+     */
+    public synchronized IResult get(String key, String aggFunction, String description) {
+        SummaryResultModel cached = entries.get(key);
+        if(cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.summarizeAs(aggFunction, description);
+    }
+
+    /**
+     * @message put
+     * @brief Keeps a copy of the result of an aggregation, unless it keeps detailed results, evicting the least recently used result if the cache is full
+     * @param key the key of the aggregation
+     * @param aggFunction the aggregate function of the aggregation
+     * @param result the result of the aggregation
+     */
+    public synchronized void put(String key, String aggFunction, IResult result) {
+        if(maxEntries == 0 || !(result instanceof SummaryResultModel) || result instanceof ResultModel)
+            return;
+        entries.put(key, ((SummaryResultModel)result).summarizeAs(aggFunction, result.getDescription()));
+    }
+
+    /**
+     * @message clear
+     * @brief Drops all the cached results, e.g. when data is loaded again
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @message setMaxEntries
+     * @brief Changes the number of results kept at most, evicting the least recently used results that no longer fit
+     * @param maxEntries the number of results, 0 to keep none
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        while(entries.size() > maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+            evictions++;
+        }
+    }
+    public synchronized int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+    public synchronized long getHits() {
+        return this.hits;
+    }
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+}
@@ -1,6 +1,7 @@
 package reporting;
 
 import datamodel.IResult;
+import datamodel.TimeSeriesResultModel;
 
 public interface IResultReporter {
 
@@ -12,4 +13,33 @@ public interface IResultReporter {
 	 * @return 0 if the task completes successfully; a negative integer otherwise
 	 */
 	int reportResultInFile(IResult result, String filename);
+
+	/**
+	 * Reports the contents of an aggregate result to a file of a given export type
+	 * 
+	 * @param result an instance of a class implementing the IResult interface, containing the aggregate results
+	 * @param exportType the type of the report: html, md or txt
+	 * @param filename a String with the path of the file where the report will be written
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+	int reportResultInFile(IResult result, String exportType, String filename);
+
+	/**
+	 * Reports the steps of a time series result to a file, one row per step
+	 * 
+	 * @param series a TimeSeriesResultModel, containing the aggregates of every window
+	 * @param filename a String with the path of the file where the report will be written
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+	int reportTimeSeriesInFile(TimeSeriesResultModel series, String filename);
+
+	/**
+	 * Reports the steps of a time series result to a file of a given export type, one row per step
+	 * 
+	 * @param series a TimeSeriesResultModel, containing the aggregates of every window
+	 * @param exportType the type of the report: html, md or txt
+	 * @param filename a String with the path of the file where the report will be written
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+	int reportTimeSeriesInFile(TimeSeriesResultModel series, String exportType, String filename);
 }
@@ -1,46 +1,95 @@
 package reporting;
 
 import datamodel.IResult;
+import datamodel.IResult2D;
 import datamodel.FileHandler;
+import datamodel.PeakRecord;
+import datamodel.SummaryResultModel;
+import datamodel.TimeSeriesResultModel;
 
 import java.lang.StringBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * @class Reporter
  * @brief Implements the IResultReporter interface and its base functions
  * 			primarily dealing with crafting a report of the collected data
+ * 			Every report is written through a file handler of its own, so reports given their export type
+ * 			may be written by several threads at once
  */
 public class Reporter implements IResultReporter {
 	/**
-	 * exportType -> The type of export file (html, md, txt)
-	 * result -> The aggregated results object containing hashmaps
-	 * filename -> The name of the file to write to
-	 * fileHandler -> The file handler object for writing the reports
+	 * exportType -> The type of export file (html, md, txt) of the reports not given one
+	 * SERIES_CHUNK -> the number of characters of a time series report kept in memory before they are written
 	 */
+	private static final int SERIES_CHUNK = 1 << 20;
 	private String exportType;
-	private IResult result;
-	private String filename;
-	private FileHandler fileHandler;
 
 	/**
 	 * @message writeReport
 	 * @brief Writes the report on the database, and stores it for the next use case
+	 * @param fileHandler the file handler of the report
 	 * @param constructedData The data string constructed according to the export type
 	 * @return the return type of the function
 	 */
-	private int writeReport(String constructedData) {
+	private static int writeReport(FileHandler fileHandler, String constructedData) {
 		/* Error messages will be printed inside the file handler model */
 		if(fileHandler.writeToFile(constructedData) == -1)
 			return -1;
 		return 0;
 	}
 
+	/**
+	 * @message metricsOf
+	 * @brief Finds the derived metrics a result keeps after its meters, each of which gets a section of its own after the A/C one
+	 */
+	private static String[] metricsOf(IResult result) {
+		return (result instanceof SummaryResultModel) ? ((SummaryResultModel)result).getMetrics() : new String[0];
+	}
+
+	/**
+	 * @message peaksOf
+	 * @brief Writes the peaks of every meter of a result that keeps them as a section per meter, every peak as its time unit,
+	 * 			its rank within the time unit, the minute, hour or day it was measured in and its consumption
+	 * @param heading the text before the peaks of a meter, in which %s is the name of the meter
+	 * @param itemStart the text before a peak
+	 * @param separator the text between the period of a peak and its consumption
+	 * @param sectionEnd the text after the peaks of a meter
+	 * @return the sections, or an empty String if the result keeps no peaks
+	 */
+	private static String peaksOf(IResult result, String heading, String itemStart, String separator, String sectionEnd) {
+		String[] names = {"Kitchen", "Laundry", "A/C"};
+		ArrayList<HashMap<String, ArrayList<PeakRecord>>> meters = new ArrayList<>();
+		meters.add(result.getPeakMeterKitchen());
+		meters.add(result.getPeakMeterLaundry());
+		meters.add(result.getPeakMeterAC());
+		if(meters.get(0).isEmpty() && meters.get(1).isEmpty() && meters.get(2).isEmpty())
+			return "";
+
+		StringBuffer constructedData = new StringBuffer();
+		for(int meter = 0; meter < names.length; meter++) {
+			constructedData.append(String.format(heading, names[meter] + " peaks"));
+			meters.get(meter).forEach((key, peaks) -> {
+				for(int rank = 0; rank < peaks.size(); rank++)
+					constructedData.append(itemStart)
+						.append(key).append(" #").append(rank + 1).append(": ")
+						.append(peaks.get(rank).getLabel())
+						.append(separator)
+						.append(peaks.get(rank).getValue())
+						.append("\n");
+			});
+			constructedData.append(sectionEnd);
+		}
+		return constructedData.toString();
+	}
+
 	/**
 	 * @message writeAsHtml
 	 * @brief Constructs a string buffer of report data using the html format
 	 * @return the return type of the function
 	 */
-	private int writeAsHtml() {
+	private static int writeAsHtml(IResult result, FileHandler fileHandler) {
 		/* Thread safe way */
 		/* We use a string buffer that has atomic properties,
 			so that we can use it on the forEach functional iterator */
@@ -81,7 +130,19 @@ public class Reporter implements IResultReporter {
 				.append("\n"));
 		constructedData.append("</ul>\n\n");
 
-		if(writeReport(constructedData.toString()) == -1)
+		for(String metric : metricsOf(result)) {
+			constructedData.append("<h2> ").append(metric).append("</h2>\n<ul>\n");
+			((SummaryResultModel)result).getAggregateMetric(metric).forEach((key, value) -> constructedData
+					.append("<li>")
+					.append(key)
+					.append(": &nbsp;&nbsp;&nbsp;&nbsp;")
+					.append(value)
+					.append("\n"));
+			constructedData.append("</ul>\n\n");
+		}
+		constructedData.append(peaksOf(result, "<h2> %s</h2>\n<ul>\n", "<li>", " &nbsp;&nbsp;&nbsp;&nbsp;", "</ul>\n\n"));
+
+		if(writeReport(fileHandler, constructedData.toString()) == -1)
 			return -1;
 
 		fileHandler.closeFD();
@@ -93,7 +154,7 @@ public class Reporter implements IResultReporter {
 	 * @brief Constructs a string buffer of report data using the markdown format
 	 * @return the return type of the function
 	 */
-	private int writeAsMd() {
+	private static int writeAsMd(IResult result, FileHandler fileHandler) {
 		StringBuffer constructedData = new StringBuffer();
 		constructedData.append("# ").append(result.getDescription())
 			.append("\n\n")
@@ -125,7 +186,18 @@ public class Reporter implements IResultReporter {
 				.append(value)
 				.append("\n"));
 
-		if(writeReport(constructedData.toString()) == -1)
+		for(String metric : metricsOf(result)) {
+			constructedData.append("\n\n## ").append(metric).append("\n\n");
+			((SummaryResultModel)result).getAggregateMetric(metric).forEach((key, value) -> constructedData
+					.append("* ")
+					.append(key)
+					.append(": \t")
+					.append(value)
+					.append("\n"));
+		}
+		constructedData.append(peaksOf(result, "\n\n## %s\n\n", "* ", " \t", ""));
+
+		if(writeReport(fileHandler, constructedData.toString()) == -1)
 			return -1;
 
 		fileHandler.closeFD();
@@ -137,7 +209,7 @@ public class Reporter implements IResultReporter {
 	 * @brief Constructs a string buffer of report data using the text format
 	 * @return the return type of the function
 	 */
-	private int writeAsTxt() {
+	private static int writeAsTxt(IResult result, FileHandler fileHandler) {
 		StringBuffer constructedData = new StringBuffer();
 		constructedData.append(result.getDescription())
 			.append("\n=======================================\n")
@@ -169,7 +241,18 @@ public class Reporter implements IResultReporter {
 				.append(value)
 				.append("\n"));
 
-		if(writeReport(constructedData.toString()) == -1)
+		for(String metric : metricsOf(result)) {
+			constructedData.append("\n\n").append(metric).append("\n--------------\n");
+			((SummaryResultModel)result).getAggregateMetric(metric).forEach((key, value) -> constructedData
+					.append("* ")
+					.append(key)
+					.append(": \t")
+					.append(value)
+					.append("\n"));
+		}
+		constructedData.append(peaksOf(result, "\n\n%s\n--------------\n", "* ", " \t", ""));
+
+		if(writeReport(fileHandler, constructedData.toString()) == -1)
 			return -1;
 
 		fileHandler.closeFD();
@@ -185,52 +268,227 @@ public class Reporter implements IResultReporter {
 	 */
 	@Override
 	public int reportResultInFile(IResult result, String filename) {
-		this.result = result;
-		this.fileHandler = new FileHandler(filename);
+		return reportResultInFile(result, exportType, filename);
+	}
+
+	/**
+	 * @message reportResultInFile
+	 * @brief Reports the contents of an aggregate result to a file of a given export type, regardless of the export type set on the reporter
+	 * @param result an instance of a class implementing the IResult interface, containing the aggregate results
+	 * @param exportType the type of the report: html, md or txt
+	 * @param filename a String with the path of the file where the report will be written
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+	@Override
+	public int reportResultInFile(IResult result, String exportType, String filename) {
+		FileHandler fileHandler = new FileHandler(filename);
 
 		/* Create a managed file descriptor */
 		if(fileHandler.createWriterFD() == -1)
 			return -1;
 
+		/* Results grouped by two time units are written as a table per meter instead of a list */
+		if(result instanceof IResult2D)
+			return reportTables((IResult2D)result, exportType, fileHandler);
+
 		switch(exportType) {
 			case "html":
-				return writeAsHtml();
+				return writeAsHtml(result, fileHandler);
 			case "md":
-				return writeAsMd();
+				return writeAsMd(result, fileHandler);
 			case "txt":
-				return writeAsTxt();
+				return writeAsTxt(result, fileHandler);
 		}
 
 		System.out.println("The export type is neither html nor md nor txt");
 		return -1;
 	}
 
-	/* Accessor methods for class fields (FOR TESTING MOSTLY) */
-	public String getExportType() {
-		return this.exportType;
-	}
-	public void setExportType(String exportType) {
-		this.exportType = exportType;
+	/**
+	 * @message reportTables
+	 * @brief Reports a result grouped by two time units as a table per meter and derived metric,
+	 * 			with a row per time unit of the first type and a column per time unit of the second
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+	private static int reportTables(IResult2D result, String exportType, FileHandler fileHandler) {
+		String title = result.getDescription();
+		String about = "consumption (watt-hours) over (a) Kitchen, (b) Laundry, (c) A/C, by "
+				+ result.getRowUnitType() + " and " + result.getColumnUnitType();
+		switch(exportType) {
+			case "html":
+				return writeTables(fileHandler, result, "<!doctype html>\n<html>\n<head>\n"
+						+ "<meta http-equiv=\"Content-Type\" content\"text/html; charset=windows-1253\">\n"
+						+ "<title>" + title + "</title>\n</head>\n<body>\n\n<h1>" + title + "</h1>\n\n<p>" + about + "</p>\n\n",
+						"<h2> %s</h2>\n<table>\n", "<tr><td>", "</td><td>", "</td></tr>\n", null, "</table>\n\n",
+						peaksOf(result, "<h2> %s</h2>\n<ul>\n", "<li>", " &nbsp;&nbsp;&nbsp;&nbsp;", "</ul>\n\n"));
+			case "md":
+				return writeTables(fileHandler, result, "# " + title + "\n\n" + about + "\n\n",
+						"## %s\n\n", "| ", " | ", " |\n", "---", "\n\n", peaksOf(result, "## %s\n\n", "* ", " \t", "\n\n"));
+			case "txt":
+				return writeTables(fileHandler, result, title + "\n=======================================\n" + about + "\n\n",
+						"%s\n--------------\n", "", "\t", "\n", null, "\n\n", peaksOf(result, "%s\n--------------\n", "* ", " \t", "\n\n"));
+		}
+
+		System.out.println("The export type is neither html nor md nor txt");
+		return -1;
 	}
 
-	public IResult getResult() {
-		return this.result;
+	/**
+	 * @message writeTables
+	 * @brief Writes the table of every meter and derived metric of a result grouped by two time units; cells without measurements are written as -
+	 * @param head the text before the tables
+	 * @param heading the text before a table, in which %s is the name of the meter
+	 * @param rowStart the text before the cells of a row
+	 * @param separator the text between two cells
+	 * @param rowEnd the text after the cells of a row
+	 * @param rule the cell of a rule under the header row, or null for no rule
+	 * @param tableEnd the text after a table
+	 * @param tail the text after the tables, e.g. the peaks of the result
+	 * @return the return type of the function
+	 */
+	private static int writeTables(FileHandler fileHandler, IResult2D result, String head, String heading, String rowStart, String separator,
+			String rowEnd, String rule, String tableEnd, String tail) {
+		String[] metrics = metricsOf(result);
+		String[] names = new String[3 + metrics.length];
+		double[][][] tables = new double[3 + metrics.length][][];
+		names[0] = "Kitchen";
+		tables[0] = result.getAggregateMeterKitchenTable();
+		names[1] = "Laundry";
+		tables[1] = result.getAggregateMeterLaundryTable();
+		names[2] = "A/C";
+		tables[2] = result.getAggregateMeterACTable();
+		for(int metric = 0; metric < metrics.length; metric++) {
+			names[3 + metric] = metrics[metric];
+			tables[3 + metric] = result.tableOf(((SummaryResultModel)result).getAggregateMetric(metrics[metric]));
+		}
+
+		String[] rowUnits = result.getRowUnits();
+		String[] columnUnits = result.getColumnUnits();
+		StringBuffer constructedData = new StringBuffer(head);
+		for(int table = 0; table < tables.length; table++) {
+			constructedData.append(String.format(heading, names[table]));
+			constructedData.append(rowStart).append(result.getRowUnitType()).append(" \\ ").append(result.getColumnUnitType());
+			for(String columnUnit : columnUnits)
+				constructedData.append(separator).append(columnUnit);
+			constructedData.append(rowEnd);
+			if(rule != null) {
+				constructedData.append(rowStart).append(rule);
+				for(int column = 0; column < columnUnits.length; column++)
+					constructedData.append(separator).append(rule);
+				constructedData.append(rowEnd);
+			}
+
+			for(int row = 0; row < rowUnits.length; row++) {
+				constructedData.append(rowStart).append(rowUnits[row]);
+				for(double value : tables[table][row])
+					constructedData.append(separator).append(Double.isNaN(value) ? "-" : String.valueOf(value));
+				constructedData.append(rowEnd);
+			}
+			constructedData.append(tableEnd);
+		}
+		constructedData.append(tail);
+
+		if(writeReport(fileHandler, constructedData.toString()) == -1)
+			return -1;
+
+		fileHandler.closeFD();
+		return 0;
 	}
-	public void setResult(IResult result) {
-		this.result = result;
+
+	/**
+	 * @message reportTimeSeriesInFile
+	 * @brief Reports the steps of a time series result to a file, as a table with one row per step
+	 * @param series a TimeSeriesResultModel, containing the aggregates of every window
+	 * @param filename a String with the path of the file where the report will be written
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+	@Override
+	public int reportTimeSeriesInFile(TimeSeriesResultModel series, String filename) {
+		return reportTimeSeriesInFile(series, exportType, filename);
 	}
 
-	public String getFilename() {
-		return this.filename;
+	/**
+	 * @message reportTimeSeriesInFile
+	 * @brief Reports the steps of a time series result to a file of a given export type, regardless of the export type set on the reporter
+	 * @param series a TimeSeriesResultModel, containing the aggregates of every window
+	 * @param exportType the type of the report: html, md or txt
+	 * @param filename a String with the path of the file where the report will be written
+	 * @return 0 if the task completes successfully; a negative integer otherwise
+	 */
+	@Override
+	public int reportTimeSeriesInFile(TimeSeriesResultModel series, String exportType, String filename) {
+		FileHandler fileHandler = new FileHandler(filename);
+
+		/* Create a managed file descriptor */
+		if(fileHandler.createWriterFD() == -1)
+			return -1;
+
+		String title = series.getDescription();
+		String about = series.getAggregateFunction() + " consumption (watt-hours) over (a) Kitchen, (b) Laundry, (c) A/C, in windows of "
+				+ series.getWindowMinutes() + " minutes every " + series.getStepMinutes() + " minutes";
+		switch(exportType) {
+			case "html":
+				return writeSeries(fileHandler, series, "<!doctype html>\n<html>\n<head>\n"
+						+ "<meta http-equiv=\"Content-Type\" content\"text/html; charset=windows-1253\">\n"
+						+ "<title>" + title + "</title>\n</head>\n<body>\n\n<h1>" + title + "</h1>\n\n<p>" + about + "</p>\n\n"
+						+ "<table>\n<tr><th>Time</th><th>Kitchen</th><th>Laundry</th><th>A/C</th><th>Measurements</th></tr>\n",
+						"<tr><td>", "</td><td>", "</td></tr>\n", "</table>\n\n");
+			case "md":
+				return writeSeries(fileHandler, series, "# " + title + "\n\n" + about + "\n\n"
+						+ "| Time | Kitchen | Laundry | A/C | Measurements |\n| --- | --- | --- | --- | --- |\n",
+						"| ", " | ", " |\n", "");
+			case "txt":
+				return writeSeries(fileHandler, series, title + "\n=======================================\n" + about + "\n\n"
+						+ "Time\tKitchen\tLaundry\tA/C\tMeasurements\n",
+						"", "\t", "\n", "");
+		}
+
+		System.out.println("The export type is neither html nor md nor txt");
+		return -1;
 	}
-	public void setFilename(String filename) {
-		this.filename = filename;
+
+	/**
+	 * @message writeSeries
+	 * @brief Writes the steps of a time series as the rows of a table, a chunk at a time,
+	 *          so that a series of millions of steps is never held in memory as a single string
+	 * @param head the text before the rows
+	 * @param rowStart the text before the cells of a row
+	 * @param separator the text between two cells
+	 * @param rowEnd the text after the cells of a row
+	 * @param tail the text after the rows
+	 * @return the return type of the function
+	 */
+	private static int writeSeries(FileHandler fileHandler, TimeSeriesResultModel series, String head, String rowStart, String separator, String rowEnd, String tail) {
+		StringBuffer constructedData = new StringBuffer(head);
+		for(int step = 0; step < series.size(); step++) {
+			constructedData.append(rowStart)
+				.append(series.getLabel(step)).append(separator)
+				.append(series.getKitchen(step)).append(separator)
+				.append(series.getLaundry(step)).append(separator)
+				.append(series.getAC(step)).append(separator)
+				.append(series.getCount(step))
+				.append(rowEnd);
+
+			if(constructedData.length() >= SERIES_CHUNK) {
+				if(writeReport(fileHandler, constructedData.toString()) == -1)
+					return -1;
+				constructedData.setLength(0);
+			}
+		}
+		constructedData.append(tail);
+
+		if(writeReport(fileHandler, constructedData.toString()) == -1)
+			return -1;
+
+		fileHandler.closeFD();
+		return 0;
 	}
 
-	public FileHandler getFileHandler() {
-		return this.fileHandler;
+	/* Accessor methods for class fields (FOR TESTING MOSTLY) */
+	public String getExportType() {
+		return this.exportType;
 	}
-	public void setFileHandler(FileHandler fileHandler) {
-		this.fileHandler = fileHandler;
+	public void setExportType(String exportType) {
+		this.exportType = exportType;
 	}
 }
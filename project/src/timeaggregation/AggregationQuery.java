@@ -0,0 +1,133 @@
+package timeaggregation;
+
+import datamodel.PeakFinder;
+
+/**
+ * @class AggregationQuery
+ * @brief Describes a single aggregation by time unit: which time unit, which aggregate function, the description of the result,
+ *          whether the result keeps its measurements and which derived metrics it aggregates besides the meters
+ *          A second time unit type groups the measurements by pairs of time units instead, e.g. season by period of day
+ *          The result may also keep the highest consumptions of every meter within every time unit, found in the same scan
+ *          A query cannot be changed once created, so that any number of threads can run their own queries over the same input
+ *          through the same Aggregator at once
+ */
+public final class AggregationQuery {
+    /**
+     * timeUnitType -> the time unit the measurements are aggregated by: "season", "month", "dayofweek" or "periodofday"
+     * columnUnitType -> the second time unit the measurements are aggregated by, or null to group by timeUnitType alone
+     * aggFunction -> the aggregate function of the result (avg, sum, min, max, count, stddev, p50, p95, ...)
+     * description -> the textual description of the result
+     * detailedResults -> whether the result also keeps every measurement grouped per time unit, instead of only its running sums
+     * metrics -> the derived metrics aggregated along with the meters
+     * peakPeriod -> the periods whose highest consumptions are kept: "minute", "hour" or "day", or null to keep no peaks
+     * peakCount -> the number of peaks kept per meter and time unit
+     */
+    private final String timeUnitType;
+    private final String columnUnitType;
+    private final String aggFunction;
+    private final String description;
+    private final boolean detailedResults;
+    private final MetricExpression[] metrics;
+    private final String peakPeriod;
+    private final int peakCount;
+
+    /**
+     * @param timeUnitType the time unit the measurements are aggregated by
+     * @param aggFunction the aggregate function of the result
+     * @param description the textual description of the result
+     * @param detailedResults whether the result keeps the measurements of every time unit
+     */
+    public AggregationQuery(String timeUnitType, String aggFunction, String description, boolean detailedResults) {
+        this(timeUnitType, aggFunction, description, detailedResults, new MetricExpression[0]);
+    }
+
+    /**
+     * @param timeUnitType the time unit the measurements are aggregated by
+     * @param aggFunction the aggregate function of the result
+     * @param description the textual description of the result
+     * @param detailedResults whether the result keeps the measurements of every time unit
+     * @param metrics the derived metrics aggregated along with the meters, none for the meters only
+     */
+    public AggregationQuery(String timeUnitType, String aggFunction, String description, boolean detailedResults, MetricExpression[] metrics) {
+        this(timeUnitType, null, aggFunction, description, detailedResults, metrics);
+    }
+
+    /**
+     * @param timeUnitType the time unit of the rows of the result
+     * @param columnUnitType the time unit of the columns of the result, null for a result grouped by timeUnitType alone
+     * @param aggFunction the aggregate function of the result
+     * @param description the textual description of the result
+     * @param detailedResults whether the result keeps the measurements of every time unit
+     * @param metrics the derived metrics aggregated along with the meters, none for the meters only
+     */
+    public AggregationQuery(String timeUnitType, String columnUnitType, String aggFunction, String description, boolean detailedResults,
+            MetricExpression[] metrics) {
+        this(timeUnitType, columnUnitType, aggFunction, description, detailedResults, metrics, null, 0);
+    }
+
+    /**
+     * @param timeUnitType the time unit of the rows of the result
+     * @param columnUnitType the time unit of the columns of the result, null for a result grouped by timeUnitType alone
+     * @param aggFunction the aggregate function of the result
+     * @param description the textual description of the result
+     * @param detailedResults whether the result keeps the measurements of every time unit
+     * @param metrics the derived metrics aggregated along with the meters, none for the meters only
+     * @param peakPeriod "minute", "hour" or "day" for the result to keep the highest consumptions over such periods, null for none
+     * @param peakCount the number of peaks per meter and time unit, at least 1 if there is a peak period
+     */
+    public AggregationQuery(String timeUnitType, String columnUnitType, String aggFunction, String description, boolean detailedResults,
+            MetricExpression[] metrics, String peakPeriod, int peakCount) {
+        this.timeUnitType = timeUnitType;
+        this.columnUnitType = columnUnitType;
+        this.aggFunction = aggFunction;
+        this.description = description;
+        this.detailedResults = detailedResults;
+        this.metrics = metrics.clone();
+        this.peakPeriod = peakPeriod;
+        this.peakCount = peakCount;
+    }
+
+    /**
+     * @message isValid
+     * @brief Checks that the time unit type is one of "season", "month", "dayofweek", "periodofday",
+     *          and so is the column time unit type if there is one, other than the time unit type,
+     *          and that peaks, if any, are asked for over minutes, hours or days
+     */
+    public boolean isValid() {
+        if(columnUnitType != null && (!isTimeUnitType(columnUnitType) || columnUnitType.equals(timeUnitType)))
+            return false;
+        if(peakPeriod != null && (PeakFinder.periodMinutesOf(peakPeriod) < 0 || peakCount < 1))
+            return false;
+        return isTimeUnitType(timeUnitType);
+    }
+
+    private static boolean isTimeUnitType(String timeUnitType) {
+        return "season".equals(timeUnitType) || "month".equals(timeUnitType)
+                || "dayofweek".equals(timeUnitType) || "periodofday".equals(timeUnitType);
+    }
+
+    public String getTimeUnitType() {
+        return this.timeUnitType;
+    }
+    public String getColumnUnitType() {
+        return this.columnUnitType;
+    }
+    public String getAggFunction() {
+        return this.aggFunction;
+    }
+    public String getDescription() {
+        return this.description;
+    }
+    public boolean getDetailedResults() {
+        return this.detailedResults;
+    }
+    public MetricExpression[] getMetrics() {
+        return this.metrics.clone();
+    }
+    public String getPeakPeriod() {
+        return this.peakPeriod;
+    }
+    public int getPeakCount() {
+        return this.peakCount;
+    }
+}
@@ -1,26 +1,54 @@
 package timeaggregation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
 
+import dataload.ModelInterner;
+import datamodel.AggregateCube;
+import datamodel.CalendarDimension;
+import datamodel.DateModel;
+import datamodel.EpochTime;
+import datamodel.GridResultModel;
+import datamodel.IMeasurementSink;
 import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.PeakFinder;
 import datamodel.ResultModel;
+import datamodel.SummaryResultModel;
 import datamodel.MeasurementRecord;
+import datamodel.TimeSeriesResultModel;
 import datamodel.TimeUnitMappingModel;
 
 /**
  * @class Aggregator
  * @brief Implements the IAggregator interface and its base functions
  *          primarily dealing with producing data aggregations
+ *          An aggregation keeps all of its state in its AggregationQuery and its own partial results, so any number of threads
+ *          may aggregate through the same Aggregator at once, over the same input as long as nobody changes it meanwhile
  */
 public class Aggregator implements IAggregator {
     /**
-     * timeUnitType -> The time unit we want to use for aggregations
-     * result -> The ResultModel that will contain the aggregated by time unit results
+     * timeUnitType -> The time unit the aggregations without a query of their own use
      * unitMap -> A map that connects time models with time units
+     * detailedResults -> whether the results of the aggregations without a query of their own also keep every measurement grouped per time unit
+     * parallelism -> the number of threads aggregating the blocks of an input at once
+     * pool -> the fork join pool of those threads, created on first use
+     * kernel -> folds the meter columns of a dataset into sums, vectorized where the runtime allows it
+     * BLOCK_SIZE -> the number of rows aggregated into a single partial result
+     * MASKED_TIME_UNITS -> the most time units the rows of a block out of time order may belong to for the masked kernels to sum them in place
      */
-    private String timeUnitType;
-    private ResultModel result;
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int MASKED_TIME_UNITS = 2;
+
+    private volatile String timeUnitType;
     private final TimeUnitMappingModel unitMap;
+    private volatile boolean detailedResults;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool pool;
+    private volatile IMeterKernel kernel = MeterKernels.create("auto");
 
     public Aggregator() {
         this.unitMap = new TimeUnitMappingModel();
@@ -29,6 +57,7 @@ public class Aggregator implements IAggregator {
     /**
      * @message aggregateByTimeUnit
 	 * @brief Aggregates measurements by a time unit, e.g., month, day of week, period of day etc.
+	 *          The time unit and the kind of result are the ones set on the aggregator
 	 * @param inputMeasurements the measurements to be aggregated
 	 * @param aggFunction a String representing the aggregate function (avg, sum, ...) to be applied to the input (ONLY USED TO BE PASSED THROUGH TO THE RESULT MODEL)
 	 * @param description a String with a textual description of the result (ONLY USED TO BE PASSED THROUGH TO THE RESULT MODEL)
@@ -36,110 +65,1004 @@ public class Aggregator implements IAggregator {
 	 */
     @Override
     public IResult aggregateByTimeUnit(ArrayList<MeasurementRecord> inputMeasurements, String aggFunction, String description) {
-        result = new ResultModel();
-        
-        result.setAggregateFunction(aggFunction);
-        result.setDescription(description);
+        return aggregate(inputMeasurements, new AggregationQuery(timeUnitType, aggFunction, description, detailedResults));
+    }
+
+    /**
+     * @message aggregateByTimeUnit
+	 * @brief Aggregates the rows of a columnar dataset by a time unit, e.g., month, day of week, period of day etc.
+	 *          The time unit and the kind of result are the ones set on the aggregator
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @param aggFunction a String representing the aggregate function (avg, sum, ...) to be applied to the input
+	 * @param description a String with a textual description of the result
+	 * @return A IResult object where the input is aggregated by time period, or null if sth goes wrong
+	 */
+    public IResult aggregateByTimeUnit(MeasurementDataset inputMeasurements, String aggFunction, String description) {
+        return aggregate(inputMeasurements, new AggregationQuery(timeUnitType, aggFunction, description, detailedResults));
+    }
+
+    /**
+     * @message aggregate
+	 * @brief Aggregates measurements as a query asks; queries of other threads may run over the same measurements at the same time
+	 * @param inputMeasurements the measurements to be aggregated
+	 * @param query the time unit, aggregate function, description and kind of the result
+	 * @return A IResult object where the input is aggregated by time period, or null if sth goes wrong
+	 */
+    public IResult aggregate(ArrayList<MeasurementRecord> inputMeasurements, AggregationQuery query) {
+        if(!checkQuery(query))
+            return null;
+
+        IMeterKernel kernelOfQuery = kernel;
+        MetricExpression[] metrics = query.getMetrics();
+        TimeUnitOrdinals lookup = ordinalsOf(query, null);
+        SummaryResultModel result = aggregateInBlocks(inputMeasurements.size(), (from, to) -> {
+            SummaryResultModel partial = createResult(query);
+            TimeUnitOrdinals timeUnits = lookup.cursor();
+            if(partial.getPeakCount() > 0)
+                findPeaks(inputMeasurements, from, to, timeUnits, partial);
+            if(metrics.length > 0) {
+                foldRecords(inputMeasurements, from, to, timeUnits, kernelOfQuery, evaluatorsOf(metrics), partial);
+                return partial;
+            }
+            for(int row = from; row < to; row++) {
+                MeasurementRecord record = inputMeasurements.get(row);
+                int timeUnit = timeUnits.of(record);
+                if(timeUnit >= 0)
+                    partial.add(timeUnit, record);
+                else /* A record with a date or time outside the mapping keeps the former null time unit */
+                    partial.add((String)null, record);
+            }
+            return partial;
+        }, SummaryResultModel::merge);
+
+        result.calculateResult();
+        return result;
+    }
+
+    /**
+     * @message aggregate
+	 * @brief Aggregates the rows of a columnar dataset as a query asks; queries of other threads may run over the same dataset at the same time
+	 *          The time unit of every row is found from its epoch minute, without going through Strings
+	 * @param inputMeasurements the dataset to be aggregated
+	 * @param query the time unit, aggregate function, description and kind of the result
+	 * @return A IResult object where the input is aggregated by time period, or null if sth goes wrong
+	 */
+    public IResult aggregate(MeasurementDataset inputMeasurements, AggregationQuery query) {
+        if(!checkQuery(query))
+            return null;
+
+        /* The kernel is read once, so that all the blocks of the aggregation use the same one */
+        IMeterKernel kernelOfQuery = kernel;
+        MetricExpression[] metrics = query.getMetrics();
+        /* The lookup tables of the time units, built from the calendar once per query; every block reads them through a cursor of its own */
+        TimeUnitOrdinals lookup = ordinalsOf(query, inputMeasurements.getCalendar());
+        SummaryResultModel result = aggregateInBlocks(inputMeasurements.size(), (from, to) -> {
+            SummaryResultModel partial = createResult(query);
+            TimeUnitOrdinals timeUnits = lookup.cursor();
+            /* Measurements and sketches are kept one row at a time, where the sink ranks the peaks of every row as well;
+               plain running sums are folded by the kernel a column at a time */
+            if(partial instanceof ResultModel || partial.getKeepsQuantiles()) {
+                addRows(inputMeasurements, from, to, sinkOf(partial, timeUnits, partial.getTimeUnits(), new ModelInterner()));
+                return partial;
+            }
+            if(isInTimeOrder(inputMeasurements, from, to))
+                foldRuns(inputMeasurements, from, to, timeUnits, kernelOfQuery, evaluatorsOf(metrics), partial);
+            else
+                foldBuckets(inputMeasurements, from, to, timeUnits, kernelOfQuery, evaluatorsOf(metrics), partial);
+            /* The peaks are ranked while the rows of the block are still in cache from the fold */
+            if(partial.getPeakCount() > 0)
+                findPeaks(inputMeasurements, from, to, timeUnits, partial);
+            return partial;
+        }, SummaryResultModel::merge);
+
+        result.calculateResult();
+        return result;
+    }
+
+    /**
+     * @message aggregateCube
+     * @brief Aggregates measurements by all the time unit types at once, in a single scan of the input
+     * @param inputMeasurements the measurements to be aggregated
+     * @return An AggregateCube that gives the result of any time unit type and aggregate function
+     */
+    public AggregateCube aggregateCube(ArrayList<MeasurementRecord> inputMeasurements) {
+        return aggregateInBlocks(inputMeasurements.size(), (from, to) -> {
+            AggregateCube partial = new AggregateCube();
+            DateModel lastDate = null;
+            int lastEpochDay = 0;
+            for(int row = from; row < to; row++) {
+                MeasurementRecord record = inputMeasurements.get(row);
+                /* Records of the same day share their date model, so its Strings are only decoded once per day */
+                if(record.getDate() != lastDate) {
+                    lastDate = record.getDate();
+                    lastEpochDay = EpochTime.toEpochDay(Integer.parseInt(lastDate.getYear()),
+                            Integer.parseInt(lastDate.getMonth()), Integer.parseInt(lastDate.getDay()));
+                }
+                /* The cube only needs the hour of a measurement, so its minutes are left out */
+                partial.add(lastEpochDay * EpochTime.MINUTES_PER_DAY + Integer.parseInt(record.getTime().getHour()) * 60,
+                        record.getSub_metering_1(), record.getSub_metering_2(), record.getSub_metering_3());
+            }
+            return partial;
+        }, AggregateCube::merge);
+    }
 
-        switch(timeUnitType) {
-            case "season":
-                return aggregateBySeason(inputMeasurements);
-            case "month":
-                return aggregateByMonth(inputMeasurements);
-            case "dayofweek":
-                return aggregateByDayOfWeek(inputMeasurements);
-            case "periodofday":
-                return aggregateByPeriodOfDay(inputMeasurements);
+    /**
+     * @message aggregateCube
+     * @brief Aggregates the rows of a columnar dataset by all the time unit types at once, in a single scan of the dataset
+     * @param inputMeasurements the dataset to be aggregated
+     * @return An AggregateCube that gives the result of any time unit type and aggregate function
+     */
+    public AggregateCube aggregateCube(MeasurementDataset inputMeasurements) {
+        return aggregateInBlocks(inputMeasurements.size(), (from, to) -> {
+            AggregateCube partial = new AggregateCube();
+            addRows(inputMeasurements, from, to, partial);
+            return partial;
+        }, AggregateCube::merge);
+    }
+
+    /**
+     * @message aggregateRolling
+     * @brief Aggregates the rows of a dataset over a window sliding by a minute at a time, from the first to the last minute of the dataset,
+     *          and keeps the aggregates of every step; each minute is added to and dropped from the running sums of the window once
+     *          Missing minutes are left out of the windows they fall in: an average is taken over the measurements present,
+     *          and a window without any is NaN
+     * @param inputMeasurements the dataset to be aggregated, in time order
+     * @param windowMinutes the number of minutes every window spans, ending with the minute of its step
+     * @param stepMinutes the number of minutes between two steps of the series
+     * @param aggFunction a String representing the aggregate function (avg, sum, count) to be applied to every window
+     * @param description a String with a textual description of the result
+     * @return A TimeSeriesResultModel with one step per stepMinutes, or null if the aggregate function is not one of avg, sum or count
+     *          or the dataset is not in time order
+     */
+    public TimeSeriesResultModel aggregateRolling(MeasurementDataset inputMeasurements, int windowMinutes, int stepMinutes,
+                                                  String aggFunction, String description) {
+        if(!RollingWindow.isAggregateFunction(aggFunction)) {
+            System.out.println("The aggregate function of a rolling window is not one of avg, sum or count.");
+            return null;
+        }
+        int size = inputMeasurements.size();
+        for(int row = 1; row < size; row++) {
+            if(inputMeasurements.getEpochMinute(row - 1) > inputMeasurements.getEpochMinute(row)) {
+                System.out.println("The rows of the dataset are not in time order.");
+                return null;
+            }
         }
 
-        System.out.println("The aggregator function input was invalid");
-        return null;
+        int first = (size == 0) ? 0 : inputMeasurements.getEpochMinute(0);
+        int last = (size == 0) ? -1 : inputMeasurements.getEpochMinute(size - 1);
+        TimeSeriesResultModel series = new TimeSeriesResultModel((int)(((long)last - first) / stepMinutes + 1));
+        series.setAggregateFunction(aggFunction);
+        series.setDescription(description);
+        series.setWindowMinutes(windowMinutes);
+        series.setStepMinutes(stepMinutes);
+
+        RollingWindow window = new RollingWindow(windowMinutes);
+        int row = 0;
+        for(int minute = first, step = 0; minute <= last; minute++, step++) {
+            window.advance();
+            for(; row < size && inputMeasurements.getEpochMinute(row) == minute; row++)
+                window.add(inputMeasurements.getSub_metering_1(row), inputMeasurements.getSub_metering_2(row), inputMeasurements.getSub_metering_3(row));
+
+            if(step == stepMinutes)
+                step = 0;
+            if(step == 0)
+                series.add(minute, window.value(aggFunction, 0), window.value(aggFunction, 1), window.value(aggFunction, 2), window.getCount());
+        }
+        return series;
     }
 
     /**
-     * @message aggregateByPeriodOfDay
-     * @brief Aggregate the input measurements by period of day, mapping specific hours to day periods
-     * @param inputMeasurements The data to be aggregated
-     * @return The ResultModel of the aggregated data
+     * @message isInTimeOrder
+     * @brief Checks whether the rows [from, to) of a dataset are in time order
      */
-    private IResult aggregateByPeriodOfDay(ArrayList<MeasurementRecord> inputMeasurements) {
-        for(MeasurementRecord record : inputMeasurements) {
-            /* For each record in inputMeasurements get the hour
-                value and use the mapped version of it as a key for the record */
-            result.add(unitMap.getPeriodOfDay().get(record.getTime().getHour()), record);
+    private static boolean isInTimeOrder(MeasurementDataset inputMeasurements, int from, int to) {
+        int[] minutes = inputMeasurements.getEpochMinuteColumn();
+        for(int row = from + 1; row < to; row++)
+            if(minutes[row - 1] > minutes[row])
+                return false;
+        return true;
+    }
+
+    /**
+     * @message foldRuns
+     * @brief Folds the rows [from, to) of a dataset in time order into a summary a run at a time, a run being the rows of consecutive hours
+     *          that belong to the same time unit, e.g. all the rows of a month; the kernel sums the meter columns of every run at once
+     */
+    private static void foldRuns(MeasurementDataset inputMeasurements, int from, int to, TimeUnitOrdinals timeUnits, IMeterKernel kernel,
+            MetricExpression.Evaluator[] metrics, SummaryResultModel summary) {
+        int[] minutes = inputMeasurements.getEpochMinuteColumn();
+        double[][] columns = meterColumnsOf(inputMeasurements);
+        int row = from;
+        while(row < to) {
+            int timeUnit = timeUnits.of(minutes[row]);
+            int hour = Math.floorDiv(minutes[row], 60);
+            int end = row + 1;
+            for(; end < to; end++) {
+                /* All the rows of an hour belong to the same time unit, so the time unit is only looked up when the hour changes */
+                int nextHour = Math.floorDiv(minutes[end], 60);
+                if(nextHour != hour) {
+                    if(timeUnits.of(minutes[end]) != timeUnit)
+                        break;
+                    hour = nextHour;
+                }
+            }
+            foldRun(columns, row, end, timeUnit, kernel, metrics, summary);
+            row = end;
         }
+    }
 
-        result.calculateResult();
-        return this.result;
+    /**
+     * @message foldRun
+     * @brief Folds the rows [from, to) of the meter columns, all of the same time unit, into a summary through the kernel
+     *          With derived metrics the run is folded a chunk at a time instead: the program of every metric runs over the chunk
+     *          right after its meters are folded, while its rows are still in cache, and the chunks are merged with Chan's formula
+     * @param metrics the evaluators of the derived metrics of the summary, in its order
+     */
+    private static void foldRun(double[][] columns, int from, int to, int timeUnit, IMeterKernel kernel,
+            MetricExpression.Evaluator[] metrics, SummaryResultModel summary) {
+        int meters = 3 + metrics.length;
+        double[] sums = new double[meters];
+        double[] minimums = new double[meters];
+        double[] maximums = new double[meters];
+        double[] squaredDeviations = new double[meters];
+        if(metrics.length == 0) {
+            for(int meter = 0; meter < 3; meter++) {
+                double[] stats = {0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+                kernel.fold(columns[meter], from, to, stats);
+                sums[meter] = stats[0];
+                minimums[meter] = stats[1];
+                maximums[meter] = stats[2];
+                squaredDeviations[meter] = kernel.squaredDeviations(columns[meter], from, to, stats[0] / (to - from));
+            }
+            summary.add(timeUnit, to - from, sums, minimums, maximums, squaredDeviations);
+            return;
+        }
+
+        double[] means = new double[meters];
+        Arrays.fill(minimums, Double.POSITIVE_INFINITY);
+        Arrays.fill(maximums, Double.NEGATIVE_INFINITY);
+        for(int chunk = from; chunk < to; chunk += MetricExpression.CHUNK) {
+            int length = Math.min(MetricExpression.CHUNK, to - chunk);
+            int before = chunk - from;
+            for(int meter = 0; meter < meters; meter++) {
+                /* The meters are read in place, the metrics from the chunk buffer their program wrote */
+                double[] values = (meter < 3) ? columns[meter] : metrics[meter - 3].evaluate(columns, chunk, length);
+                int offset = (meter < 3) ? chunk : 0;
+                double[] stats = {0, minimums[meter], maximums[meter]};
+                kernel.fold(values, offset, offset + length, stats);
+                double chunkMean = stats[0] / length;
+                double delta = chunkMean - means[meter];
+                squaredDeviations[meter] += kernel.squaredDeviations(values, offset, offset + length, chunkMean)
+                        + delta * delta * before * length / (before + length);
+                means[meter] += delta * length / (before + length);
+                sums[meter] += stats[0];
+                minimums[meter] = stats[1];
+                maximums[meter] = stats[2];
+            }
+        }
+        summary.add(timeUnit, to - from, sums, minimums, maximums, squaredDeviations);
     }
 
     /**
-     * @message aggregateByDayOfWeek
-     * @brief Aggregate the input measurements by day of week, mapping specific day encoding values to day names
-     * @param inputMeasurements The data to be aggregated
-     * @return The Result<Model of the aggregated data
+     * @message foldBuckets
+     * @brief Folds the rows [from, to) of a dataset in any order into a summary a time unit at a time
+     *          Rows of at most MASKED_TIME_UNITS time units are summed in place by the masked kernels, one pass per time unit;
+     *          rows of more time units are first gathered per time unit, as the passes would outweigh the copy, and summed as runs
      */
-    private IResult aggregateByDayOfWeek(ArrayList<MeasurementRecord> inputMeasurements) {
-        /* We first need to map our encoding of week days with the days in a month */
-        /* Once we find a specific day's name (Monday, Tuesday..) we calculate the margin to shift */
-        for(MeasurementRecord record : inputMeasurements) {
-            int day = Integer.parseInt(record.getDate().getDay());
-            int month = Integer.parseInt(record.getDate().getMonth());
-            int year = Integer.parseInt(record.getDate().getYear());
+    private static void foldBuckets(MeasurementDataset inputMeasurements, int from, int to, TimeUnitOrdinals timeUnits, IMeterKernel kernel,
+            MetricExpression.Evaluator[] metrics, SummaryResultModel summary) {
+        int[] minutes = inputMeasurements.getEpochMinuteColumn();
+        int[] buckets = new int[to - from];
+        for(int row = from; row < to; row++)
+            buckets[row - from] = timeUnits.of(minutes[row]);
+        foldBucketed(meterColumnsOf(inputMeasurements), buckets, from, kernel, metrics, summary);
+    }
 
-            /* Call findDayOfWeek so that our table matches the real dates */
-            result.add(unitMap.getDays().get(findDayOfWeek(day, month, year)), record);
+    /**
+     * @message foldRecords
+     * @brief Folds the records [from, to) of a list with derived metrics into a summary: the records are first laid out as columns,
+     *          so that their meters and metrics are folded a time unit at a time like the rows of a dataset
+     */
+    private static void foldRecords(ArrayList<MeasurementRecord> inputMeasurements, int from, int to, TimeUnitOrdinals timeUnits,
+            IMeterKernel kernel, MetricExpression.Evaluator[] metrics, SummaryResultModel summary) {
+        double[][] columns = new double[MetricExpression.COLUMNS][to - from];
+        int[] buckets = new int[to - from];
+        int rows = 0;
+        for(int row = from; row < to; row++) {
+            MeasurementRecord record = inputMeasurements.get(row);
+            int timeUnit = timeUnits.of(record);
+            if(timeUnit < 0) { /* A record with a date or time outside the mapping keeps the former null time unit, without metrics */
+                summary.add((String)null, record);
+                continue;
+            }
+            columns[MetricExpression.SUB_METERING_1][rows] = record.getSub_metering_1();
+            columns[MetricExpression.SUB_METERING_2][rows] = record.getSub_metering_2();
+            columns[MetricExpression.SUB_METERING_3][rows] = record.getSub_metering_3();
+            columns[MetricExpression.GLOBAL_ACTIVE_POWER][rows] = record.getGlobal_active_power();
+            buckets[rows++] = timeUnit;
         }
-        
-        result.calculateResult();
-        return this.result;
+        foldBucketed(columns, Arrays.copyOf(buckets, rows), 0, kernel, metrics, summary);
+    }
+
+    /**
+     * @message foldBucketed
+     * @brief Folds rows of the columns in any order, whose time units are known, into a summary a time unit at a time
+     * @param buckets the time unit of every row
+     * @param from the row of the columns the first bucket belongs to
+     */
+    private static void foldBucketed(double[][] columns, int[] buckets, int from, IMeterKernel kernel,
+            MetricExpression.Evaluator[] metrics, SummaryResultModel summary) {
+        int[] starts = new int[summary.getTimeUnits().length + 1];
+        for(int bucket : buckets)
+            starts[bucket + 1]++;
+        int present = 0;
+        for(int timeUnit = 0; timeUnit < summary.getTimeUnits().length; timeUnit++)
+            if(starts[timeUnit + 1] > 0)
+                present++;
+
+        /* The masked kernels only fold the meter columns, so the rows of derived metrics are always gathered */
+        if(present <= MASKED_TIME_UNITS && metrics.length == 0) {
+            for(int timeUnit = 0; timeUnit < summary.getTimeUnits().length; timeUnit++)
+                if(starts[timeUnit + 1] > 0)
+                    foldMasked(columns, buckets, from, timeUnit, kernel, summary);
+            return;
+        }
+
+        /* A counting sort of the rows by time unit, after which the rows of every time unit are a run */
+        for(int timeUnit = 1; timeUnit < starts.length; timeUnit++)
+            starts[timeUnit] += starts[timeUnit - 1];
+        int gatheredColumns = (metrics.length == 0) ? 3 : MetricExpression.COLUMNS;
+        double[][] gathered = new double[gatheredColumns][buckets.length];
+        int[] next = starts.clone();
+        for(int row = 0; row < buckets.length; row++) {
+            int position = next[buckets[row]]++;
+            for(int column = 0; column < gatheredColumns; column++)
+                gathered[column][position] = columns[column][from + row];
+        }
+        for(int timeUnit = 0; timeUnit < summary.getTimeUnits().length; timeUnit++)
+            if(starts[timeUnit + 1] > starts[timeUnit])
+                foldRun(gathered, starts[timeUnit], starts[timeUnit + 1], timeUnit, kernel, metrics, summary);
+    }
+
+    /**
+     * @message foldMasked
+     * @brief Folds the rows of a time unit among the rows of a block into a summary through the masked kernels
+     * @param buckets the time unit of every row of the block
+     * @param from the first row of the block
+     */
+    private static void foldMasked(double[][] columns, int[] buckets, int from, int timeUnit, IMeterKernel kernel, SummaryResultModel summary) {
+        double[] sums = new double[3];
+        double[] minimums = new double[3];
+        double[] maximums = new double[3];
+        double[] squaredDeviations = new double[3];
+        int count = 0;
+        for(int meter = 0; meter < 3; meter++) {
+            double[] stats = {0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+            kernel.foldMasked(buckets, timeUnit, columns[meter], from, buckets.length, stats);
+            count = (int)stats[1];
+            sums[meter] = stats[0];
+            minimums[meter] = stats[2];
+            maximums[meter] = stats[3];
+            squaredDeviations[meter] = kernel.squaredDeviationsMasked(buckets, timeUnit, columns[meter], from, buckets.length, stats[0] / count);
+        }
+        summary.add(timeUnit, count, sums, minimums, maximums, squaredDeviations);
+    }
+
+    /**
+     * @message findPeaks
+     * @brief Ranks the meter values of the rows [from, to) of a dataset among the peaks of their time units in a summary
+     */
+    private static void findPeaks(MeasurementDataset inputMeasurements, int from, int to, TimeUnitOrdinals timeUnits, SummaryResultModel summary) {
+        int[] minutes = inputMeasurements.getEpochMinuteColumn();
+        double[] kitchen = inputMeasurements.getMeterColumn(0);
+        double[] laundry = inputMeasurements.getMeterColumn(1);
+        double[] ac = inputMeasurements.getMeterColumn(2);
+        for(int row = from; row < to; row++)
+            summary.addPeak(timeUnits.of(minutes[row]), minutes[row], kitchen[row], laundry[row], ac[row]);
+    }
+
+    /**
+     * @message findPeaks
+     * @brief Ranks the meter values of the records [from, to) of a list among the peaks of their time units in a summary;
+     *          records of the same day share their date model, so the date Strings are only decoded once per day
+     *          Records with a date or time outside the mapping have no time unit, and so are never peaks
+     */
+    private static void findPeaks(ArrayList<MeasurementRecord> inputMeasurements, int from, int to, TimeUnitOrdinals timeUnits,
+            SummaryResultModel summary) {
+        DateModel lastDate = null;
+        int lastEpochDay = 0;
+        for(int row = from; row < to; row++) {
+            MeasurementRecord record = inputMeasurements.get(row);
+            int timeUnit = timeUnits.of(record);
+            if(timeUnit < 0)
+                continue;
+            if(record.getDate() != lastDate) {
+                lastDate = record.getDate();
+                lastEpochDay = EpochTime.toEpochDay(Integer.parseInt(lastDate.getYear()),
+                        Integer.parseInt(lastDate.getMonth()), Integer.parseInt(lastDate.getDay()));
+            }
+            int epochMinute = lastEpochDay * EpochTime.MINUTES_PER_DAY
+                    + Integer.parseInt(record.getTime().getHour()) * 60 + Integer.parseInt(record.getTime().getMinute());
+            summary.addPeak(timeUnit, epochMinute, record.getSub_metering_1(), record.getSub_metering_2(), record.getSub_metering_3());
+        }
+    }
+
+    /* The columns a fold reads, in the order MetricExpression gives them */
+    private static double[][] meterColumnsOf(MeasurementDataset inputMeasurements) {
+        return new double[][] {inputMeasurements.getMeterColumn(0), inputMeasurements.getMeterColumn(1), inputMeasurements.getMeterColumn(2),
+                inputMeasurements.getGlobalActivePowerColumn()};
+    }
+
+    /**
+     * @message evaluatorsOf
+     * @brief Creates an evaluator of every metric of a query, for the block of a single thread
+     */
+    private static MetricExpression.Evaluator[] evaluatorsOf(MetricExpression[] metrics) {
+        MetricExpression.Evaluator[] evaluators = new MetricExpression.Evaluator[metrics.length];
+        for(int metric = 0; metric < metrics.length; metric++)
+            evaluators[metric] = metrics[metric].newEvaluator();
+        return evaluators;
+    }
+
+    /**
+     * @message checkQuery
+     * @brief Checks that the time units of a query are valid and that it asks for a result they can be aggregated into:
+     *          results grouped by two time units are summaries, and so are the results of derived metrics, which are folded
+     *          from the columns as running sums only and so have neither quantiles nor detailed measurements
+     */
+    private boolean checkQuery(AggregationQuery query) {
+        if(!query.isValid()) {
+            System.out.println("The aggregator function input was invalid");
+            return false;
+        }
+        if(query.getColumnUnitType() != null && query.getDetailedResults()) {
+            System.out.println("Results grouped by two time units do not keep detailed results.");
+            return false;
+        }
+        if(query.getMetrics().length == 0)
+            return true;
+        SummaryResultModel probe = createResult(query);
+        if(probe instanceof ResultModel || probe.getKeepsQuantiles()) {
+            System.out.println("Derived metrics can only be aggregated into summaries without percentiles or detailed results.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @message ordinalsOf
+     * @brief Creates the lookup of the time unit, or of the cell of both time units, of the measurements of a query, for a single thread;
+     *          the blocks of the query read its tables through cursors of their own
+     * @param calendar the calendar dimension of the input, through which the time unit of every day is looked up, or null
+     */
+    private TimeUnitOrdinals ordinalsOf(AggregationQuery query, CalendarDimension calendar) {
+        if(query.getColumnUnitType() == null)
+            return new TimeUnitOrdinals(unitMap, query.getTimeUnitType(), calendar);
+        return new TimeUnitOrdinals(unitMap, query.getTimeUnitType(), query.getColumnUnitType(), calendar);
+    }
+
+    /**
+     * @message addRows
+     * @brief Hands the rows [from, to) of a dataset to a sink
+     */
+    private static void addRows(MeasurementDataset inputMeasurements, int from, int to, IMeasurementSink sink) {
+        for(int row = from; row < to; row++)
+            sink.add(inputMeasurements.getEpochMinute(row), inputMeasurements.getSub_metering_1(row),
+                    inputMeasurements.getSub_metering_2(row), inputMeasurements.getSub_metering_3(row));
+    }
+
+    /**
+     * @message aggregateInBlocks
+     * @brief Cuts the input in blocks of BLOCK_SIZE rows, aggregates every block into a partial result of its own
+     *          on the fork join pool, and merges the partial results in input order
+     *          The blocks and the order of the merges depend only on the input size, so the result does not
+     *          depend on the parallelism, down to the last bit of every sum
+     * @param size the number of rows of the input
+     * @param block aggregates a range of rows into a new partial result
+     * @param merge folds a partial result into the partial result of the rows before it
+     * @return the merged partial result of all the rows
+     */
+    private <R> R aggregateInBlocks(int size, BlockAggregation<R> block, BiConsumer<R, R> merge) {
+        int blocks = Math.max(1, (size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        return pool().invoke(new BlockTask<>(block, merge, size, 0, blocks));
+    }
+
+    /**
+     * @message createResult
+     * @brief Creates the empty result of an aggregation, keeping the measurements themselves only if the query asks for detailed results
+     *          and laid out as a grid if the query groups by two time units
+     */
+    private SummaryResultModel createResult(AggregationQuery query) {
+        SummaryResultModel created;
+        if(query.getColumnUnitType() != null) {
+            GridResultModel grid = new GridResultModel();
+            grid.setUnits(query.getTimeUnitType(), unitMap.getNames(query.getTimeUnitType()),
+                    query.getColumnUnitType(), unitMap.getNames(query.getColumnUnitType()));
+            created = grid;
+        }
+        else {
+            created = query.getDetailedResults() ? new ResultModel() : new SummaryResultModel();
+            created.setTimeUnits(unitMap.getNames(query.getTimeUnitType()));
+        }
+        created.setAggregateFunction(query.getAggFunction());
+        created.setDescription(query.getDescription());
+        MetricExpression[] metrics = query.getMetrics();
+        if(metrics.length > 0) {
+            String[] names = new String[metrics.length];
+            for(int metric = 0; metric < metrics.length; metric++)
+                names[metric] = metrics[metric].getName();
+            created.setMetrics(names);
+        }
+        if(query.getPeakPeriod() != null)
+            created.setPeaks(PeakFinder.periodMinutesOf(query.getPeakPeriod()), query.getPeakCount());
+        return created;
     }
 
     /**
-     * @message aggregateByMonth
-     * @brief Aggregate the input measurements by month, mapping specific month encoding values to month names
-     * @param inputMeasurements The data to be aggregated
-     * @return The ResultModel of the aggregated data
+     * @message summaryOf
+     * @brief Creates the empty summary of a query, laid out as aggregate would lay out its result, with the derived metrics and peaks it asks for,
+     *          e.g. to fold measurements into it through summarize while they are read
+     * @param query the query; its measurements are never kept, so it may not ask for detailed results
+     * @return the summary, or null if the query is invalid, asks for detailed results or groups by two time units
      */
-    private IResult aggregateByMonth(ArrayList<MeasurementRecord> inputMeasurements) {
-        for(MeasurementRecord record : inputMeasurements)
-            result.add(unitMap.getMonths().get(record.getDate().getMonth()), record);
+    public SummaryResultModel summaryOf(AggregationQuery query) {
+        if(!checkQuery(query))
+            return null;
+        if(query.getDetailedResults() || query.getColumnUnitType() != null) {
+            System.out.println("A summary that is aggregated while it is read neither keeps detailed results nor groups by two time units.");
+            return null;
+        }
+        return createResult(query);
+    }
+
+    /**
+     * @message pool
+     * @brief Returns the fork join pool of the aggregator, creating it on first use
+     */
+    private synchronized ForkJoinPool pool() {
+        if(pool == null)
+            pool = new ForkJoinPool(parallelism);
+        return pool;
+    }
+
+    /**
+     * @message summarize
+     * @brief Creates a sink that folds every measurement it receives straight into the running sums of a summary,
+     *          so that measurements can be aggregated while they are read without ever being stored
+     * @param summary the summary to fold the measurements into
+     * @return the sink, or null if the time unit type is invalid
+     */
+    public IMeasurementSink summarize(SummaryResultModel summary) {
+        return feed(summary);
+    }
+
+    /**
+     * @message summarize
+     * @brief Creates a sink that folds every measurement it receives straight into the running sums of a summary by a time unit of its own,
+     *          regardless of the time unit set on the aggregator
+     * @param summary the summary to fold the measurements into
+     * @param timeUnitType the time unit the measurements are aggregated by
+     * @return the sink, or null if the time unit type is invalid
+     */
+    public IMeasurementSink summarize(SummaryResultModel summary, String timeUnitType) {
+        return feed(summary, timeUnitType);
+    }
+
+    /**
+     * @message summarize
+     * @brief Creates a sink that folds every measurement it receives straight into the running sums of a summary by a time unit of its own,
+     *          along with the values of the derived metrics the summary keeps, e.g. one created by summaryOf
+     * @param summary the summary to fold the measurements into
+     * @param timeUnitType the time unit the measurements are aggregated by
+     * @param metrics the metrics the summary is aggregated with
+     * @return the sink, or null if the time unit type is invalid or a derived metric of the summary cannot be computed
+     */
+    public IMeasurementSink summarize(SummaryResultModel summary, String timeUnitType, MetricExpression[] metrics) {
+        return feed(summary, timeUnitType, metrics);
+    }
+
+    /**
+     * @message feed
+     * @brief Creates a sink that adds every measurement it receives to an existing result under its time unit,
+     *          so that a result which has already been calculated is kept up to date as new measurements arrive;
+     *          the sink has models of its own, so sinks of other threads may be fed at the same time
+     * @param result a ResultModel or SummaryResultModel, e.g. one returned by aggregateByTimeUnit
+     * @return the sink, or null if the time unit type is invalid
+     */
+    public IMeasurementSink feed(IResult result) {
+        if(!isValidTimeUnitType(timeUnitType)) {
+            System.out.println("The aggregator function input was invalid");
+            return null;
+        }
+        if(result instanceof SummaryResultModel && ((SummaryResultModel)result).getMetrics().length > 0) {
+            System.out.println("A result with derived metrics can only be fed along with its metrics.");
+            return null;
+        }
+        return sinkOf(result, timeUnitType);
+    }
+
+    /**
+     * @message feed
+     * @brief Creates a sink that adds every measurement it receives to an existing result under its time unit, by a time unit of its own;
+     *          the sink has models of its own, so sinks of other threads may be fed at the same time
+     * @param result a ResultModel or SummaryResultModel, e.g. one returned by aggregateByTimeUnit
+     * @param timeUnitType the time unit the result was aggregated by
+     * @return the sink, or null if the time unit type is invalid
+     */
+    public IMeasurementSink feed(IResult result, String timeUnitType) {
+        return feed(result, timeUnitType, new MetricExpression[0]);
+    }
 
-        result.calculateResult();        
-        return this.result;
+    /**
+     * @message feed
+     * @brief Creates a sink that adds every measurement it receives to an existing result under its time unit, by a time unit of its own,
+     *          along with the values of the derived metrics the result keeps, which the sink computes from the measurement
+     * @param result a ResultModel or SummaryResultModel, e.g. one returned by aggregateByTimeUnit
+     * @param timeUnitType the time unit the result was aggregated by
+     * @param metrics the metrics the result may have been aggregated with; every derived metric the result keeps must be among them
+     * @return the sink, or null if the time unit type is invalid or a derived metric of the result cannot be computed
+     */
+    public IMeasurementSink feed(IResult result, String timeUnitType, MetricExpression[] metrics) {
+        if(!isValidTimeUnitType(timeUnitType)) {
+            System.out.println("The aggregator function input was invalid");
+            return null;
+        }
+        if(!(result instanceof SummaryResultModel) || ((SummaryResultModel)result).getMetrics().length == 0)
+            return sinkOf(result, timeUnitType);
+
+        SummaryResultModel summary = (SummaryResultModel)result;
+        if(!Arrays.equals(summary.getTimeUnits(), unitMap.getNames(timeUnitType))) {
+            System.out.println("A result with derived metrics can only be fed by the time unit type it was aggregated by.");
+            return null;
+        }
+        MetricExpression.Evaluator[] evaluators = new MetricExpression.Evaluator[summary.getMetrics().length];
+        for(int metric = 0; metric < evaluators.length; metric++) {
+            for(MetricExpression given : metrics)
+                if(given.getName().equals(summary.getMetrics()[metric]))
+                    evaluators[metric] = given.newEvaluator();
+            if(evaluators[metric] == null) {
+                System.out.println("The derived metric " + summary.getMetrics()[metric] + " of the result is not among the metrics given.");
+                return null;
+            }
+        }
+        return new MetricSink(summary, new TimeUnitOrdinals(unitMap, timeUnitType), evaluators);
     }
 
     /**
-     * @message aggregateBySeason
-     * @brief Aggregate the input measurements by season, mapping specific month encoding values to season names
-     * @param inputMeasurements The data to be aggregated
-     * @return The ResultModel of the aggregated data
+     * @message sinkOf
+     * @brief Creates a sink that adds measurements to a result under their time unit, straight from their values
+     *          for a summary, or through shared records for any result that keeps its measurements
+     *          Results that know the time units of the aggregation are indexed by ordinal, any other result by name,
+     *          and the measurements are also ranked among the peaks of the former if they keep any
+     *          Every sink hands out the models of its records from an interner of its own, so sinks of other threads may be fed at the same time
      */
-    private IResult aggregateBySeason(ArrayList<MeasurementRecord> inputMeasurements) {
-        for(MeasurementRecord record : inputMeasurements)
-            result.add(unitMap.getSeasons().get(record.getDate().getMonth()), record);
+    private IMeasurementSink sinkOf(IResult result, String timeUnitType) {
+        return sinkOf(result, new TimeUnitOrdinals(unitMap, timeUnitType), unitMap.getNames(timeUnitType), new ModelInterner());
+    }
 
-        result.calculateResult();        
-        return this.result;
+    /**
+     * @message sinkOf
+     * @brief Creates a sink that adds measurements to a result under the time units a lookup finds
+     * @param names the names of the time units of the lookup, in ordinal order
+     * @param interner hands out the models of the records; it must not be used by another thread at the same time
+     */
+    private static IMeasurementSink sinkOf(IResult result, TimeUnitOrdinals timeUnits, String[] names, ModelInterner interner) {
+        if(result instanceof SummaryResultModel) {
+            SummaryResultModel summary = (SummaryResultModel)result;
+            if(summary.getTimeUnits() == null)
+                summary.setTimeUnits(names);
+            if(Arrays.equals(summary.getTimeUnits(), names)) {
+                boolean ranksPeaks = summary.getPeakCount() > 0;
+                if(!(summary instanceof ResultModel))
+                    return (epochMinute, sub_metering_1, sub_metering_2, sub_metering_3) -> {
+                        int timeUnit = timeUnits.of(epochMinute);
+                        if(ranksPeaks)
+                            summary.addPeak(timeUnit, epochMinute, sub_metering_1, sub_metering_2, sub_metering_3);
+                        return summary.add(timeUnit, sub_metering_1, sub_metering_2, sub_metering_3);
+                    };
+                return (epochMinute, sub_metering_1, sub_metering_2, sub_metering_3) -> {
+                    int timeUnit = timeUnits.of(epochMinute);
+                    if(ranksPeaks)
+                        summary.addPeak(timeUnit, epochMinute, sub_metering_1, sub_metering_2, sub_metering_3);
+                    return summary.add(timeUnit, interner.recordOf(epochMinute, sub_metering_1, sub_metering_2, sub_metering_3));
+                };
+            }
+        }
+        return (epochMinute, sub_metering_1, sub_metering_2, sub_metering_3) ->
+                result.add(names[timeUnits.of(epochMinute)], interner.recordOf(epochMinute, sub_metering_1, sub_metering_2, sub_metering_3));
     }
 
     /**
-     * @message findDayOfWeek
-     * @brief Finds the name of day knowing only a specific date
-     * @param day The day number
-     * @param month The month number
-     * @param year The year number
-     * @return The name of the day
+     * @class MetricSink
+     * @brief Folds every measurement it receives into a summary along with the values of its derived metrics,
+     *          each computed by the program of its metric over the single row of the measurement
+     *          An instance is meant to be used by a single thread
      */
-    private String findDayOfWeek(int day, int month, int year) {
-        int[] monthCodeTable = {0, 3, 2, 5, 0, 3, 5, 1, 4, 6, 2, 4};
-        year -= (month < 3) ? 1 : 0; /* Look for a leap year */
-        int dayCode = (year + year/4 - year/100 + year/400 + monthCodeTable[month-1] + day) % 7;
-        if(dayCode == 0) dayCode = 7; /* Function results 0 for Sunday */
-        return "0" + dayCode; /* Either '00', '01', '02'.. and so on */
+    private static class MetricSink implements IMeasurementSink {
+        /**
+         * columns -> the row of the measurement, in the columns the programs of the metrics read
+         * metricValues -> the value of every metric for the measurement, in the order of the metrics of the summary
+         */
+        private final SummaryResultModel summary;
+        private final TimeUnitOrdinals timeUnits;
+        private final MetricExpression.Evaluator[] evaluators;
+        private final double[][] columns = new double[MetricExpression.COLUMNS][1];
+        private final double[] metricValues;
+
+        MetricSink(SummaryResultModel summary, TimeUnitOrdinals timeUnits, MetricExpression.Evaluator[] evaluators) {
+            this.summary = summary;
+            this.timeUnits = timeUnits;
+            this.evaluators = evaluators;
+            this.metricValues = new double[evaluators.length];
+        }
+
+        /* A measurement without its global active power has no value for the metrics that read it */
+        @Override
+        public int add(int epochMinute, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+            return add(epochMinute, Double.NaN, sub_metering_1, sub_metering_2, sub_metering_3);
+        }
+
+        @Override
+        public int add(int epochMinute, double global_active_power, double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+            columns[MetricExpression.SUB_METERING_1][0] = sub_metering_1;
+            columns[MetricExpression.SUB_METERING_2][0] = sub_metering_2;
+            columns[MetricExpression.SUB_METERING_3][0] = sub_metering_3;
+            columns[MetricExpression.GLOBAL_ACTIVE_POWER][0] = global_active_power;
+            for(int metric = 0; metric < evaluators.length; metric++)
+                metricValues[metric] = evaluators[metric].evaluate(columns, 0, 1)[0];
+            int timeUnit = timeUnits.of(epochMinute);
+            if(summary.getPeakCount() > 0)
+                summary.addPeak(timeUnit, epochMinute, sub_metering_1, sub_metering_2, sub_metering_3);
+            return summary.add(timeUnit, sub_metering_1, sub_metering_2, sub_metering_3, metricValues);
+        }
+    }
+
+    /**
+     * @message isValidTimeUnitType
+     * @brief Checks that the time unit type is one of "season", "month", "dayofweek", "periodofday"
+     */
+    private static boolean isValidTimeUnitType(String timeUnitType) {
+        return new AggregationQuery(timeUnitType, null, null, false).isValid();
+    }
+
+    /**
+     * @class TimeUnitOrdinals
+     * @brief Finds the ordinal of the time unit a measurement belongs to through the lookup table of the time unit type,
+     *          remembering the ordinal of the last day, as the measurements of a day mostly come one after the other
+     *          An instance is meant to be used by a single thread; cursor gives another thread one of its own over the same tables
+     */
+    private static class TimeUnitOrdinals {
+        /**
+         * ordinals -> maps the month, the day of week or the hour of a measurement to its time unit
+         * byHour, byDayOfWeek -> which field of a measurement is looked up in the table; the month if neither
+         * lastEpochDay, lastDate -> the day of the last measurement, as an epoch day or as the model of a record
+         * lastOrdinal -> the time unit of the last day
+         * columns -> the lookup of the column time unit, for the cells of two time units, or null
+         * columnCount -> the number of column time units, by which the ordinal of the row time unit is multiplied
+         * dayOrdinals, firstDay -> the time unit of every day of the calendar dimension of the input from its first day, or null without one
+         */
+        private final int[] ordinals;
+        private final boolean byHour;
+        private final boolean byDayOfWeek;
+        private int lastEpochDay = Integer.MIN_VALUE;
+        private DateModel lastDate;
+        private int lastOrdinal;
+        private final TimeUnitOrdinals columns;
+        private final int columnCount;
+        private final int[] dayOrdinals;
+        private final int firstDay;
+
+        TimeUnitOrdinals(TimeUnitMappingModel unitMap, String timeUnitType) {
+            this(unitMap, timeUnitType, null, 1, null);
+        }
+
+        /**
+         * @brief Finds the ordinal of the time unit of a day from a calendar dimension, so that it takes a single array lookup
+         */
+        TimeUnitOrdinals(TimeUnitMappingModel unitMap, String timeUnitType, CalendarDimension calendar) {
+            this(unitMap, timeUnitType, null, 1, calendar);
+        }
+
+        /**
+         * @brief Finds the ordinal of the cell of two time units, row * columnCount + column, e.g. of a season and a period of day
+         */
+        TimeUnitOrdinals(TimeUnitMappingModel unitMap, String rowUnitType, String columnUnitType, CalendarDimension calendar) {
+            this(unitMap, rowUnitType, new TimeUnitOrdinals(unitMap, columnUnitType, calendar), unitMap.getNames(columnUnitType).length, calendar);
+        }
+
+        private TimeUnitOrdinals(TimeUnitMappingModel unitMap, String timeUnitType, TimeUnitOrdinals columns, int columnCount,
+                CalendarDimension calendar) {
+            this.ordinals = unitMap.getOrdinals(timeUnitType);
+            this.byHour = timeUnitType.equals("periodofday");
+            this.byDayOfWeek = timeUnitType.equals("dayofweek");
+            this.columns = columns;
+            this.columnCount = columnCount;
+            this.dayOrdinals = (calendar == null || byHour) ? null
+                    : calendar.lookupOf(byDayOfWeek ? CalendarDimension.DAY_OF_WEEK : CalendarDimension.MONTH, ordinals);
+            this.firstDay = (calendar == null) ? 0 : calendar.getFirstDay();
+        }
+
+        /**
+         * @brief Reads the tables of another lookup, which are never changed once built, remembering the last day on its own
+         */
+        private TimeUnitOrdinals(TimeUnitOrdinals tables) {
+            this.ordinals = tables.ordinals;
+            this.byHour = tables.byHour;
+            this.byDayOfWeek = tables.byDayOfWeek;
+            this.columns = (tables.columns == null) ? null : tables.columns.cursor();
+            this.columnCount = tables.columnCount;
+            this.dayOrdinals = tables.dayOrdinals;
+            this.firstDay = tables.firstDay;
+        }
+
+        /**
+         * @message cursor
+         * @brief Creates a lookup over the same tables for another thread, without building them again
+         */
+        TimeUnitOrdinals cursor() {
+            return new TimeUnitOrdinals(this);
+        }
+
+        /**
+         * @message of
+         * @brief Finds the ordinal of the time unit, or of the cell, of an epoch minute
+         */
+        int of(int epochMinute) {
+            int row = rowOf(epochMinute);
+            return (columns == null) ? row : row * columnCount + columns.of(epochMinute);
+        }
+
+        /**
+         * @message of
+         * @brief Finds the ordinal of the time unit, or of the cell, of a record
+         * @return the ordinal, or -1 if the date or time of the record is outside the lookup table
+         */
+        int of(MeasurementRecord record) {
+            int row = rowOf(record);
+            if(columns == null || row < 0)
+                return row;
+            int column = columns.of(record);
+            return (column < 0) ? -1 : row * columnCount + column;
+        }
+
+        private int rowOf(int epochMinute) {
+            if(byHour)
+                return ordinals[EpochTime.hourOf(epochMinute)];
+
+            int epochDay = EpochTime.epochDayOf(epochMinute);
+            if(dayOrdinals != null && epochDay - firstDay >= 0 && epochDay - firstDay < dayOrdinals.length)
+                return dayOrdinals[epochDay - firstDay];
+            if(epochDay != lastEpochDay) {
+                lastOrdinal = ordinals[byDayOfWeek ? EpochTime.dayOfWeekOf(epochDay) : EpochTime.monthOf(epochDay)];
+                lastEpochDay = epochDay;
+                lastDate = null;
+            }
+            return lastOrdinal;
+        }
+
+        /**
+         * @message rowOf
+         * @brief Finds the ordinal of the time unit of a record; records of the same day share their date model,
+         *          so the date Strings are only decoded once per day
+         * @return the ordinal, or -1 if the date or time of the record is outside the lookup table
+         */
+        private int rowOf(MeasurementRecord record) {
+            if(byHour)
+                return lookUp(Integer.parseInt(record.getTime().getHour()));
+
+            DateModel date = record.getDate();
+            if(date != lastDate) {
+                int month = Integer.parseInt(date.getMonth());
+                if(!byDayOfWeek)
+                    lastOrdinal = lookUp(month);
+                else if(month >= 1 && month <= 12)
+                    lastOrdinal = lookUp(EpochTime.dayOfWeekOf(EpochTime.toEpochDay(
+                            Integer.parseInt(date.getYear()), month, Integer.parseInt(date.getDay()))));
+                else
+                    lastOrdinal = -1;
+                lastDate = date;
+                lastEpochDay = Integer.MIN_VALUE;
+            }
+            return lastOrdinal;
+        }
+
+        private int lookUp(int field) {
+            return (field >= 0 && field < ordinals.length) ? ordinals[field] : -1;
+        }
     }
 
+    /**
+     * @message setTimeUnitType
+     * @brief Chooses the time unit of aggregateByTimeUnit, summarize and feed; aggregate and the sinks given a time unit
+     *          use their own instead, so they are the ones to call when several threads aggregate by different time units
+     */
     public void setTimeUnitType(String timeUnitType) {
         this.timeUnitType = timeUnitType;
     }
+    public String getTimeUnitType() {
+        return this.timeUnitType;
+    }
+
+    /**
+     * @message setDetailedResults
+     * @brief Chooses whether the results of aggregateByTimeUnit keep the measurements of every time unit
+     * @param detailedResults true for a ResultModel with detailed results; false for a SummaryResultModel with running sums only
+     */
+    public void setDetailedResults(boolean detailedResults) {
+        this.detailedResults = detailedResults;
+    }
+    public boolean getDetailedResults() {
+        return this.detailedResults;
+    }
+
+    /**
+     * @message setKernel
+     * @brief Chooses the kernel the meter columns of datasets are folded with, e.g. one created by MeterKernels
+     */
+    public void setKernel(IMeterKernel kernel) {
+        this.kernel = kernel;
+    }
+    public IMeterKernel getKernel() {
+        return this.kernel;
+    }
+
+    /**
+     * @message setParallelism
+     * @brief Chooses how many threads aggregateByTimeUnit uses; the results are the same for any number of threads
+     *          The next aggregation gets a new pool, while the aggregations running on the old one finish on it; the old pool is
+     *          not shut down, as they may still submit to it, and its threads end on their own once idle
+     * @param parallelism the number of threads, at least 1
+     */
+    public synchronized void setParallelism(int parallelism) {
+        if(parallelism != this.parallelism)
+            pool = null;
+        this.parallelism = parallelism;
+    }
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * @class BlockAggregation
+     * @brief Aggregates the rows [from, to) of an input into a new partial result
+     */
+    private interface BlockAggregation<R> {
+        R aggregate(int from, int to);
+    }
+
+    /**
+     * @class BlockTask
+     * @brief Aggregates a range of blocks, splitting it in halves until a single block is left,
+     *          and merges the partial result of the right half into the partial result of the left half
+     */
+    private static class BlockTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final BlockAggregation<R> block;
+        private final BiConsumer<R, R> merge;
+        private final int size;
+        private final int firstBlock;
+        private final int lastBlock;
+
+        BlockTask(BlockAggregation<R> block, BiConsumer<R, R> merge, int size, int firstBlock, int lastBlock) {
+            this.block = block;
+            this.merge = merge;
+            this.size = size;
+            this.firstBlock = firstBlock;
+            this.lastBlock = lastBlock;
+        }
+
+        @Override
+        protected R compute() {
+            if(lastBlock - firstBlock == 1)
+                return block.aggregate(firstBlock * BLOCK_SIZE, (int)Math.min(size, (long)lastBlock * BLOCK_SIZE));
+
+            int middle = (firstBlock + lastBlock) >>> 1;
+            BlockTask<R> right = new BlockTask<>(block, merge, size, middle, lastBlock);
+            right.fork();
+            R partial = new BlockTask<>(block, merge, size, firstBlock, middle).compute();
+            merge.accept(partial, right.join());
+            return partial;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package timeaggregation;
+
+public interface IMeterKernel {
+
+	/**
+	 * Folds a range of the values of a meter column into its sum, minimum and maximum
+	 * 
+	 * @param values the column of a meter
+	 * @param from the first row of the range
+	 * @param to the row after the last row of the range
+	 * @param stats the sum, minimum and maximum so far, updated in place
+	 */
+	void fold(double[] values, int from, int to, double[] stats);
+
+	/**
+	 * Sums the squared deviations of a range of the values of a meter column around their mean
+	 * 
+	 * @param values the column of a meter
+	 * @param from the first row of the range
+	 * @param to the row after the last row of the range
+	 * @param mean the mean of the values of the range
+	 * @return the sum of the squared deviations
+	 */
+	double squaredDeviations(double[] values, int from, int to, double mean);
+
+	/**
+	 * Folds the values of the rows of a range that belong to a bucket into their sum, count, minimum and maximum
+	 * 
+	 * @param buckets the bucket of every row of the range, buckets[i] being the bucket of values[offset + i]
+	 * @param bucket the bucket whose values are folded
+	 * @param values the column of a meter
+	 * @param offset the first row of the range
+	 * @param length the number of rows of the range
+	 * @param stats the sum, count, minimum and maximum so far, updated in place
+	 */
+	void foldMasked(int[] buckets, int bucket, double[] values, int offset, int length, double[] stats);
+
+	/**
+	 * Sums the squared deviations around their mean of the values of the rows of a range that belong to a bucket
+	 * 
+	 * @param buckets the bucket of every row of the range, buckets[i] being the bucket of values[offset + i]
+	 * @param bucket the bucket whose values are summed
+	 * @param values the column of a meter
+	 * @param offset the first row of the range
+	 * @param length the number of rows of the range
+	 * @param mean the mean of the values of the bucket
+	 * @return the sum of the squared deviations
+	 */
+	double squaredDeviationsMasked(int[] buckets, int bucket, double[] values, int offset, int length, double mean);
+}
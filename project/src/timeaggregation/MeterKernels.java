@@ -0,0 +1,54 @@
+package timeaggregation;
+
+/**
+ * @class MeterKernels
+ * @brief Creates the IMeterKernel the aggregations run on, choosing at runtime between the vectorized kernel
+ *          and the scalar one, as the vectorized kernel is only compiled and usable with the jdk.incubator.vector module
+ */
+public class MeterKernels {
+    /**
+     * VECTOR_KERNEL -> the class of the vectorized kernel, compiled from src-vector together with the jdk.incubator.vector module
+     */
+    private static final String VECTOR_KERNEL = "timeaggregation.VectorMeterKernel";
+
+    private MeterKernels() {}
+
+    /**
+     * @message create
+     * @brief Creates a kernel of the given kind
+     * @param kind "vector" for the vectorized kernel, "scalar" for the scalar kernel,
+     *          or "auto" for the vectorized kernel where it is available and the scalar one otherwise
+     * @return the kernel, or null if the kind is unknown or the vectorized kernel is not available
+     */
+    public static IMeterKernel create(String kind) {
+        if(kind == null)
+            return null;
+        switch(kind) {
+            case "scalar":
+                return new ScalarMeterKernel();
+            case "vector":
+                return vectorKernel();
+            case "auto":
+                IMeterKernel kernel = vectorKernel();
+                return (kernel == null) ? new ScalarMeterKernel() : kernel;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @message vectorKernel
+     * @brief Loads the vectorized kernel by name, so that this class compiles and runs without the incubator module
+     * @return the kernel, or null if the module is not part of the runtime or the kernel was not compiled
+     */
+    private static IMeterKernel vectorKernel() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return null;
+        try {
+            return (IMeterKernel)Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
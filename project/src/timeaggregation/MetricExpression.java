@@ -0,0 +1,339 @@
+package timeaggregation;
+
+import java.util.Arrays;
+
+/**
+ * @class MetricExpression
+ * @brief A derived metric, e.g. the energy the sub meters leave unmetered, defined by an arithmetic expression over the columns of a measurement
+ *          The expression is compiled once into a short program of column operations, each of which runs over a whole chunk of rows
+ *          in a tight loop, so the expression is never interpreted per row; the aggregation runs the program over every chunk of rows
+ *          right after folding the meters of the chunk, while the chunk is still in cache
+ *          Expressions combine numbers, the columns global_active_power, sub_metering_1, sub_metering_2, sub_metering_3
+ *          (or kitchen, laundry, ac), the operators + - * / and parentheses
+ */
+public final class MetricExpression {
+    /**
+     * UNMETERED -> the energy of the household in watt-hours per minute that none of the sub meters measures
+     * SUB_METERING_1, SUB_METERING_2, SUB_METERING_3, GLOBAL_ACTIVE_POWER -> the positions of the columns a program reads, in the order the aggregator passes them
+     * COLUMNS -> the number of columns; every slot of a program past them is a chunk buffer holding a constant or an intermediate value
+     * CHUNK -> the most rows a program runs over at once
+     * COPY, NEGATE, ADD, SUBTRACT, MULTIPLY, DIVIDE -> the operations of a program
+     */
+    public static final String UNMETERED = "global_active_power * 1000 / 60 - sub_metering_1 - sub_metering_2 - sub_metering_3";
+    public static final int SUB_METERING_1 = 0;
+    public static final int SUB_METERING_2 = 1;
+    public static final int SUB_METERING_3 = 2;
+    public static final int GLOBAL_ACTIVE_POWER = 3;
+    public static final int COLUMNS = 4;
+    public static final int CHUNK = 1024;
+    private static final int COPY = 0;
+    private static final int NEGATE = 1;
+    private static final int ADD = 2;
+    private static final int SUBTRACT = 3;
+    private static final int MULTIPLY = 4;
+    private static final int DIVIDE = 5;
+
+    /**
+     * name -> the name the aggregates of the metric are kept under
+     * expression -> the source of the metric
+     * program -> the operations, four ints each: the operation, its left and right operand slots and its target slot
+     * constants -> the value of every constant slot, NaN for the other slots
+     * result -> the slot the value of the metric ends up in
+     */
+    private final String name;
+    private final String expression;
+    private final int[] program;
+    private final double[] constants;
+    private final int result;
+
+    private MetricExpression(String name, String expression, int[] program, double[] constants, int result) {
+        this.name = name;
+        this.expression = expression;
+        this.program = program;
+        this.constants = constants;
+        this.result = result;
+    }
+
+    /**
+     * @message compile
+     * @brief Parses an expression and compiles it into a program, folding the operations on constants along the way
+     * @param name the name of the metric
+     * @param expression the expression, e.g. UNMETERED
+     * @return the compiled metric, or null if the expression is not valid
+     */
+    public static MetricExpression compile(String name, String expression) {
+        if(name == null || name.isEmpty() || expression == null) {
+            System.out.println("A metric needs a name and an expression.");
+            return null;
+        }
+        Compiler compiler = new Compiler(expression);
+        int result = compiler.compile();
+        if(result < 0) {
+            System.out.println("The metric expression \"" + expression + "\" is not valid at position " + (compiler.position + 1) + ".");
+            return null;
+        }
+        /* The value always ends up in a buffer of its own, so that evaluate returns the same kind of array for any expression */
+        if(result < COLUMNS || !Double.isNaN(compiler.constants[result]))
+            result = compiler.emit(COPY, result, result);
+        return new MetricExpression(name, expression, Arrays.copyOf(compiler.program, compiler.instructions),
+                Arrays.copyOf(compiler.constants, compiler.slots), result);
+    }
+
+    /**
+     * @message newEvaluator
+     * @brief Creates the chunk buffers the program runs in; an evaluator is meant to be used by a single thread
+     */
+    public Evaluator newEvaluator() {
+        return new Evaluator();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+    public String getExpression() {
+        return this.expression;
+    }
+
+    /**
+     * @class Evaluator
+     * @brief Runs the program of a metric over chunks of rows, in buffers of its own
+     */
+    public final class Evaluator {
+        /**
+         * buffers -> the chunk buffer of every slot past the columns; the constant ones are filled once
+         */
+        private final double[][] buffers = new double[constants.length][];
+
+        private Evaluator() {
+            for(int slot = COLUMNS; slot < constants.length; slot++) {
+                buffers[slot] = new double[CHUNK];
+                if(!Double.isNaN(constants[slot]))
+                    Arrays.fill(buffers[slot], constants[slot]);
+            }
+        }
+
+        /**
+         * @message evaluate
+         * @brief Computes the metric of the rows [from, from + length) of the columns
+         * @param columns the columns in the order of SUB_METERING_1 to GLOBAL_ACTIVE_POWER
+         * @param length the number of rows, at most CHUNK
+         * @return a buffer whose first length values are the metric of every row; it is reused by the next call
+         */
+        public double[] evaluate(double[][] columns, int from, int length) {
+            for(int instruction = 0; instruction < program.length; instruction += 4) {
+                int leftSlot = program[instruction + 1];
+                int rightSlot = program[instruction + 2];
+                double[] left = (leftSlot < COLUMNS) ? columns[leftSlot] : buffers[leftSlot];
+                double[] right = (rightSlot < COLUMNS) ? columns[rightSlot] : buffers[rightSlot];
+                int leftFrom = (leftSlot < COLUMNS) ? from : 0;
+                int rightFrom = (rightSlot < COLUMNS) ? from : 0;
+                double[] target = buffers[program[instruction + 3]];
+
+                switch(program[instruction]) {
+                    case COPY:
+                        System.arraycopy(left, leftFrom, target, 0, length);
+                        break;
+                    case NEGATE:
+                        for(int row = 0; row < length; row++)
+                            target[row] = -left[leftFrom + row];
+                        break;
+                    case ADD:
+                        for(int row = 0; row < length; row++)
+                            target[row] = left[leftFrom + row] + right[rightFrom + row];
+                        break;
+                    case SUBTRACT:
+                        for(int row = 0; row < length; row++)
+                            target[row] = left[leftFrom + row] - right[rightFrom + row];
+                        break;
+                    case MULTIPLY:
+                        for(int row = 0; row < length; row++)
+                            target[row] = left[leftFrom + row] * right[rightFrom + row];
+                        break;
+                    default:
+                        for(int row = 0; row < length; row++)
+                            target[row] = left[leftFrom + row] / right[rightFrom + row];
+                        break;
+                }
+            }
+            return buffers[result];
+        }
+    }
+
+    /**
+     * @class Compiler
+     * @brief Parses an expression by recursive descent, giving every column, constant and intermediate value a slot
+     *          and emitting an operation for every operator whose operands are not both constants
+     */
+    private static final class Compiler {
+        private final String source;
+        private int position;
+        private int[] program = new int[32];
+        private int instructions;
+        private double[] constants = new double[16];
+        private int slots = COLUMNS;
+
+        Compiler(String source) {
+            this.source = source;
+            Arrays.fill(constants, Double.NaN);
+        }
+
+        /**
+         * @message compile
+         * @return the slot of the value of the whole expression, or -1 if it is not valid
+         */
+        int compile() {
+            int slot = sum();
+            skipSpaces();
+            return (slot >= 0 && position == source.length()) ? slot : -1;
+        }
+
+        /* sum := product (('+' | '-') product)* */
+        private int sum() {
+            int left = product();
+            while(left >= 0 && (peek('+') || peek('-'))) {
+                int operation = (source.charAt(position++) == '+') ? ADD : SUBTRACT;
+                int right = product();
+                left = (right < 0) ? -1 : combine(operation, left, right);
+            }
+            return left;
+        }
+
+        /* product := unary (('*' | '/') unary)* */
+        private int product() {
+            int left = unary();
+            while(left >= 0 && (peek('*') || peek('/'))) {
+                int operation = (source.charAt(position++) == '*') ? MULTIPLY : DIVIDE;
+                int right = unary();
+                left = (right < 0) ? -1 : combine(operation, left, right);
+            }
+            return left;
+        }
+
+        /* unary := '-' unary | '+' unary | primary */
+        private int unary() {
+            if(peek('-')) {
+                position++;
+                int operand = unary();
+                return (operand < 0) ? -1 : combine(NEGATE, operand, operand);
+            }
+            if(peek('+')) {
+                position++;
+                return unary();
+            }
+            return primary();
+        }
+
+        /* primary := number | column | '(' sum ')' */
+        private int primary() {
+            skipSpaces();
+            if(peek('(')) {
+                position++;
+                int slot = sum();
+                if(slot < 0 || !peek(')'))
+                    return -1;
+                position++;
+                return slot;
+            }
+
+            int start = position;
+            while(position < source.length() && (Character.isLetterOrDigit(source.charAt(position))
+                    || source.charAt(position) == '_' || source.charAt(position) == '.'))
+                position++;
+            String token = source.substring(start, position);
+            switch(token) {
+                case "sub_metering_1":
+                case "kitchen":
+                    return SUB_METERING_1;
+                case "sub_metering_2":
+                case "laundry":
+                    return SUB_METERING_2;
+                case "sub_metering_3":
+                case "ac":
+                    return SUB_METERING_3;
+                case "global_active_power":
+                    return GLOBAL_ACTIVE_POWER;
+            }
+            try {
+                if(token.isEmpty() || !Character.isDigit(token.charAt(0)) && token.charAt(0) != '.')
+                    throw new NumberFormatException();
+                return constant(Double.parseDouble(token));
+            }
+            catch(NumberFormatException e) {
+                position = start;
+                return -1;
+            }
+        }
+
+        /**
+         * @message combine
+         * @brief Folds an operation on constants into a new constant, or emits it
+         * @return the slot of the value of the operation
+         */
+        private int combine(int operation, int left, int right) {
+            if(!isConstant(left) || !isConstant(right))
+                return emit(operation, left, right);
+
+            double a = constants[left];
+            double b = constants[right];
+            switch(operation) {
+                case NEGATE:
+                    return constant(-a);
+                case ADD:
+                    return constant(a + b);
+                case SUBTRACT:
+                    return constant(a - b);
+                case MULTIPLY:
+                    return constant(a * b);
+                default:
+                    return constant(a / b);
+            }
+        }
+
+        /**
+         * @message emit
+         * @brief Appends an operation that writes into a new slot
+         * @return the new slot
+         */
+        int emit(int operation, int left, int right) {
+            int target = newSlot();
+            if(instructions + 4 > program.length)
+                program = Arrays.copyOf(program, program.length * 2);
+            program[instructions++] = operation;
+            program[instructions++] = left;
+            program[instructions++] = right;
+            program[instructions++] = target;
+            return target;
+        }
+
+        private int constant(double value) {
+            /* A NaN constant, e.g. 0 / 0, could not be told apart from an intermediate slot, so it is computed at run time */
+            if(Double.isNaN(value))
+                return emit(DIVIDE, constant(0), constant(0));
+            int slot = newSlot();
+            constants[slot] = value;
+            return slot;
+        }
+
+        private boolean isConstant(int slot) {
+            return slot >= COLUMNS && !Double.isNaN(constants[slot]);
+        }
+
+        private int newSlot() {
+            if(slots == constants.length) {
+                constants = Arrays.copyOf(constants, constants.length * 2);
+                Arrays.fill(constants, slots, constants.length, Double.NaN);
+            }
+            return slots++;
+        }
+
+        private boolean peek(char expected) {
+            skipSpaces();
+            return position < source.length() && source.charAt(position) == expected;
+        }
+
+        private void skipSpaces() {
+            while(position < source.length() && Character.isWhitespace(source.charAt(position)))
+                position++;
+        }
+    }
+}
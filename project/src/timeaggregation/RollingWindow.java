@@ -0,0 +1,102 @@
+package timeaggregation;
+
+/**
+ * @class RollingWindow
+ * @brief Keeps the running sums of the three meters over the last minutes, in a ring buffer with one slot per minute
+ *          Moving the window forward by a minute drops the oldest slot from the sums, so no window is summed again from scratch
+ *          A missing minute simply leaves its slot empty, and the number of measurements in the window tells how many minutes are present
+ */
+class RollingWindow {
+    /**
+     * slots -> per meter, the sum of the measurements of every minute of the window
+     * slotCounts -> the number of measurements of every minute of the window
+     * sums -> the running sums of the meters over the window
+     * count -> the number of measurements in the window
+     * position -> the slot of the newest minute
+     */
+    private final double[][] slots;
+    private final int[] slotCounts;
+    private final double[] sums = new double[3];
+    private int count;
+    private int position;
+
+    /**
+     * @param windowMinutes the number of minutes the window spans, at least 1
+     */
+    RollingWindow(int windowMinutes) {
+        slots = new double[3][windowMinutes];
+        slotCounts = new int[windowMinutes];
+        position = windowMinutes - 1;
+    }
+
+    /**
+     * @message advance
+     * @brief Moves the window forward by a minute, dropping its oldest minute and leaving the new one empty
+     *          Every time the ring wraps around, the sums are taken again from the slots, so rounding errors of the running sums do not build up
+     */
+    void advance() {
+        position = (position + 1 == slotCounts.length) ? 0 : position + 1;
+        for(int meter = 0; meter < 3; meter++) {
+            sums[meter] -= slots[meter][position];
+            slots[meter][position] = 0;
+        }
+        count -= slotCounts[position];
+        slotCounts[position] = 0;
+
+        if(position == 0) {
+            for(int meter = 0; meter < 3; meter++) {
+                double sum = 0;
+                for(double slot : slots[meter])
+                    sum += slot;
+                sums[meter] = sum;
+            }
+        }
+    }
+
+    /**
+     * @message add
+     * @brief Adds a measurement of the newest minute
+     */
+    void add(double sub_metering_1, double sub_metering_2, double sub_metering_3) {
+        slots[0][position] += sub_metering_1;
+        slots[1][position] += sub_metering_2;
+        slots[2][position] += sub_metering_3;
+        sums[0] += sub_metering_1;
+        sums[1] += sub_metering_2;
+        sums[2] += sub_metering_3;
+        slotCounts[position]++;
+        count++;
+    }
+
+    /**
+     * @message value
+     * @brief Applies an aggregate function to a meter over the window
+     * @param aggregateFunction one of avg, sum, count
+     * @param meter 0 for the Kitchen, 1 for the Laundry and 2 for the AC meter
+     * @return the aggregate; the average of a window without measurements is NaN, and so is any other function
+     */
+    double value(String aggregateFunction, int meter) {
+        switch(aggregateFunction) {
+            case "avg":
+                return (count > 0) ? sums[meter] / count : Double.NaN;
+            case "count":
+                return count;
+            case "sum":
+                return sums[meter];
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * @message isAggregateFunction
+     * @brief Checks that an aggregate function is one a window can apply: avg, sum or count
+     */
+    static boolean isAggregateFunction(String aggregateFunction) {
+        return "avg".equals(aggregateFunction) || "sum".equals(aggregateFunction) || "count".equals(aggregateFunction);
+    }
+
+    int getCount() {
+        return this.count;
+    }
+}
@@ -0,0 +1,88 @@
+package timeaggregation;
+
+/**
+ * @class ScalarMeterKernel
+ * @brief Implements the IMeterKernel interface one value at a time, on any Java runtime
+ */
+public class ScalarMeterKernel implements IMeterKernel {
+    /**
+     * @message fold
+     * @brief Folds a range of the values of a meter column into its sum, minimum and maximum
+     * @param stats the sum, minimum and maximum so far, updated in place
+     */
+    @Override
+    public void fold(double[] values, int from, int to, double[] stats) {
+        double sum = 0;
+        double min = stats[1];
+        double max = stats[2];
+        for(int row = from; row < to; row++) {
+            double value = values[row];
+            sum += value;
+            if(value < min)
+                min = value;
+            if(value > max)
+                max = value;
+        }
+        stats[0] += sum;
+        stats[1] = min;
+        stats[2] = max;
+    }
+
+    /**
+     * @message squaredDeviations
+     * @brief Sums the squared deviations of a range of the values of a meter column around their mean
+     */
+    @Override
+    public double squaredDeviations(double[] values, int from, int to, double mean) {
+        double sum = 0;
+        for(int row = from; row < to; row++) {
+            double deviation = values[row] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    /**
+     * @message foldMasked
+     * @brief Folds the values of the rows of a range that belong to a bucket into their sum, count, minimum and maximum
+     * @param stats the sum, count, minimum and maximum so far, updated in place
+     */
+    @Override
+    public void foldMasked(int[] buckets, int bucket, double[] values, int offset, int length, double[] stats) {
+        double sum = 0;
+        int count = 0;
+        double min = stats[2];
+        double max = stats[3];
+        for(int row = 0; row < length; row++) {
+            if(buckets[row] != bucket)
+                continue;
+            double value = values[offset + row];
+            sum += value;
+            count++;
+            if(value < min)
+                min = value;
+            if(value > max)
+                max = value;
+        }
+        stats[0] += sum;
+        stats[1] += count;
+        stats[2] = min;
+        stats[3] = max;
+    }
+
+    /**
+     * @message squaredDeviationsMasked
+     * @brief Sums the squared deviations around their mean of the values of the rows of a range that belong to a bucket
+     */
+    @Override
+    public double squaredDeviationsMasked(int[] buckets, int bucket, double[] values, int offset, int length, double mean) {
+        double sum = 0;
+        for(int row = 0; row < length; row++) {
+            if(buckets[row] == bucket) {
+                double deviation = values[offset + row] - mean;
+                sum += deviation * deviation;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,47 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import datamodel.IResult;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+
+/**
+ * @class AggregationFixtures
+ * @brief The inputs and checks the aggregation tests share
+ */
+public class AggregationFixtures {
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	/* The sample repeated until it spans several blocks of the aggregator or chunks of a metric program */
+	public static ArrayList<MeasurementRecord> loadRepeated(Engine mainEngine, int times) {
+		ArrayList<MeasurementRecord> sample = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, sample);
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		for(int time = 0; time < times; time++)
+			objCollection.addAll(sample);
+		return objCollection;
+	}
+
+	/* Two results hold the same aggregates of every meter, down to the last bit */
+	public static void assertIdentical(IResult expected, IResult actual) {
+		assertEquals(expected.getAggregateMeterKitchen(), actual.getAggregateMeterKitchen());
+		assertEquals(expected.getAggregateMeterLaundry(), actual.getAggregateMeterLaundry());
+		assertEquals(expected.getAggregateMeterAC(), actual.getAggregateMeterAC());
+	}
+
+	/* Two results hold the same time units, and aggregates of every meter equal up to the rounding of a different order of sums */
+	public static void assertSameAggregates(IResult expected, IResult actual) {
+		assertEquals(expected.getAggregateMeterKitchen().keySet(), actual.getAggregateMeterKitchen().keySet());
+		for(String timeUnit : expected.getAggregateMeterKitchen().keySet()) {
+			assertEquals(expected.getAggregateMeterKitchen().get(timeUnit), actual.getAggregateMeterKitchen().get(timeUnit), 1e-9);
+			assertEquals(expected.getAggregateMeterLaundry().get(timeUnit), actual.getAggregateMeterLaundry().get(timeUnit), 1e-9);
+			assertEquals(expected.getAggregateMeterAC().get(timeUnit), actual.getAggregateMeterAC().get(timeUnit), 1e-9);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import datamodel.CalendarDimension;
+import datamodel.EpochTime;
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class CalendarDimensionTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+	private static String[] timeUnitTypes = {"season", "month", "dayofweek", "periodofday"};
+
+	@Test
+	public void matchCalendarAttributes() {
+		CalendarDimension calendar = new CalendarDimension((int)LocalDate.of(2006, 12, 16).toEpochDay(), (int)LocalDate.of(2010, 11, 26).toEpochDay());
+		assertEquals(LocalDate.of(2006, 1, 1).toEpochDay(), calendar.getFirstDay());
+		assertEquals(LocalDate.of(2011, 1, 1).toEpochDay() - LocalDate.of(2006, 1, 1).toEpochDay(), calendar.getDays());
+
+		int[] seasons = {-1, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, 0};
+		for(int epochDay = calendar.getFirstDay(); epochDay < calendar.getFirstDay() + calendar.getDays(); epochDay++) {
+			LocalDate date = LocalDate.ofEpochDay(epochDay);
+			String message = date.toString();
+			assertTrue(message, calendar.contains(epochDay));
+			assertEquals(message, date.getDayOfWeek().getValue(), calendar.attributeOf(CalendarDimension.DAY_OF_WEEK, epochDay));
+			assertEquals(message, EpochTime.dayOfWeekOf(epochDay), calendar.attributeOf(CalendarDimension.DAY_OF_WEEK, epochDay));
+			assertEquals(message, date.getDayOfMonth(), calendar.attributeOf(CalendarDimension.DAY_OF_MONTH, epochDay));
+			assertEquals(message, date.getMonthValue(), calendar.attributeOf(CalendarDimension.MONTH, epochDay));
+			assertEquals(message, seasons[date.getMonthValue()], calendar.attributeOf(CalendarDimension.SEASON, epochDay));
+			assertEquals(message, date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), calendar.attributeOf(CalendarDimension.ISO_WEEK, epochDay));
+			assertEquals(message, date.getYear(), calendar.attributeOf(CalendarDimension.YEAR, epochDay));
+			assertEquals(message, date.getDayOfWeek().getValue() >= 6, calendar.isWeekend(epochDay));
+		}
+		assertFalse(calendar.contains(calendar.getFirstDay() - 1));
+		assertFalse(calendar.contains(calendar.getFirstDay() + calendar.getDays()));
+	}
+
+	@Test
+	public void markFrenchHolidays() {
+		CalendarDimension calendar = new CalendarDimension((int)LocalDate.of(2007, 6, 1).toEpochDay(), (int)LocalDate.of(2008, 6, 1).toEpochDay());
+		LocalDate[] holidays = {LocalDate.of(2007, 1, 1), LocalDate.of(2007, 4, 9), LocalDate.of(2007, 5, 1), LocalDate.of(2007, 5, 8),
+				LocalDate.of(2007, 5, 17), LocalDate.of(2007, 5, 28), LocalDate.of(2007, 7, 14), LocalDate.of(2007, 8, 15),
+				LocalDate.of(2007, 11, 1), LocalDate.of(2007, 11, 11), LocalDate.of(2007, 12, 25), LocalDate.of(2008, 3, 24),
+				LocalDate.of(2008, 5, 1), LocalDate.of(2008, 5, 12)};
+		int count = 0;
+		for(int epochDay = calendar.getFirstDay(); epochDay < calendar.getFirstDay() + calendar.getDays(); epochDay++)
+			count += calendar.isHoliday(epochDay) ? 1 : 0;
+		for(LocalDate holiday : holidays)
+			assertTrue(holiday.toString(), calendar.isHoliday((int)holiday.toEpochDay()));
+		assertFalse(calendar.isHoliday((int)LocalDate.of(2007, 4, 8).toEpochDay()));
+		assertFalse(calendar.isHoliday((int)LocalDate.of(2007, 12, 24).toEpochDay()));
+		/* 11 a year, though Ascension Day and Labour Day fall on the same day in 2008 */
+		assertEquals(21, count);
+	}
+
+	@Test
+	public void aggregateThroughCalendar() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		MeasurementDataset dataset = new MeasurementDataset();
+		for(MeasurementRecord record : objCollection)
+			dataset.add(record);
+
+		for(String timeUnitType : timeUnitTypes) {
+			IResult fromList = mainEngine.aggregateByTimeUnit(objCollection, timeUnitType, "sum", "list");
+			IResult fromDataset = mainEngine.aggregateByTimeUnit(dataset, timeUnitType, "sum", "dataset");
+			assertEquals(timeUnitType, fromList.getAggregateMeterKitchen(), fromDataset.getAggregateMeterKitchen());
+			assertEquals(timeUnitType, fromList.getAggregateMeterAC(), fromDataset.getAggregateMeterAC());
+		}
+	}
+
+	@Test
+	public void rebuildCalendarOfGrownDataset() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		MeasurementDataset dataset = new MeasurementDataset();
+		assertNull(dataset.getCalendar());
+		for(MeasurementRecord record : objCollection)
+			dataset.add(record);
+
+		CalendarDimension calendar = dataset.getCalendar();
+		assertSame(calendar, dataset.getCalendar());
+		assertTrue(calendar.contains(EpochTime.epochDayOf(dataset.getEpochMinuteColumn()[0])));
+
+		/* A measurement within the years of the calendar keeps it, one after them grows it */
+		dataset.add(objCollection.get(0));
+		assertSame(calendar, dataset.getCalendar());
+		dataset.add((int)LocalDate.of(2009, 1, 1).toEpochDay() * 1440 + 600, 1, 2, 3);
+		CalendarDimension grown = dataset.getCalendar();
+		assertTrue(grown != calendar);
+		assertTrue(grown.contains((int)LocalDate.of(2009, 12, 31).toEpochDay()));
+	}
+}
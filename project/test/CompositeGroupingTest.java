@@ -0,0 +1,157 @@
+package test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.IResult2D;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import datamodel.SummaryResultModel;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+import timeaggregation.MetricExpression;
+
+public class CompositeGroupingTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+	private static String[] aggFunctions = {"sum", "avg", "min", "max", "count", "stddev"};
+
+	private static void assertTable(String message, double[][] expected, double[][] actual) {
+		assertEquals(message, expected.length, actual.length);
+		for(int row = 0; row < expected.length; row++)
+			for(int column = 0; column < expected[row].length; column++)
+				assertEquals(message + " " + row + " " + column, expected[row][column], actual[row][column],
+						Double.isNaN(expected[row][column]) ? 0 : 1e-9 * Math.max(1, Math.abs(expected[row][column])));
+	}
+
+	/* Every column of the grid is the aggregation by the row time unit of only the measurements of the column time unit */
+	private static void assertColumnsAggregated(Engine mainEngine, IResult2D grid, HashMap<String, ArrayList<MeasurementRecord>> byColumn,
+			String aggFunction) {
+		String[] rowUnits = grid.getRowUnits();
+		String[] columnUnits = grid.getColumnUnits();
+		double[][] kitchen = grid.getAggregateMeterKitchenTable();
+		double[][] ac = grid.getAggregateMeterACTable();
+		for(int column = 0; column < columnUnits.length; column++) {
+			ArrayList<MeasurementRecord> records = byColumn.getOrDefault(columnUnits[column], new ArrayList<MeasurementRecord>());
+			IResult expected = mainEngine.aggregateByTimeUnit(records, grid.getRowUnitType(), aggFunction, "column");
+			for(int row = 0; row < rowUnits.length; row++) {
+				String message = aggFunction + " " + rowUnits[row] + " " + columnUnits[column];
+				Double value = expected.getAggregateMeterKitchen().get(rowUnits[row]);
+				if(value == null) {
+					assertTrue(message, Double.isNaN(kitchen[row][column]));
+					continue;
+				}
+				assertEquals(message, value, kitchen[row][column], 1e-9 * Math.max(1, Math.abs(value)));
+				assertEquals(message, expected.getAggregateMeterAC().get(rowUnits[row]), ac[row][column], 1e-9 * Math.max(1, Math.abs(value)));
+			}
+		}
+	}
+
+	@Test
+	public void aggregateByPairsOfTimeUnits() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		MeasurementDataset dataset = new MeasurementDataset();
+		for(MeasurementRecord record : objCollection)
+			dataset.add(record);
+		MeasurementDataset ordered = new MeasurementDataset();
+		ordered.addAll(dataset);
+		ordered.sortByTime();
+
+		String[][] pairs = {{"season", "periodofday"}, {"dayofweek", "periodofday"}, {"month", "dayofweek"}, {"periodofday", "season"}};
+		for(String[] pair : pairs) {
+			mainEngine.setDetailedResults(true);
+			HashMap<String, ArrayList<MeasurementRecord>> byColumn = mainEngine.aggregateByTimeUnit(objCollection, pair[1], "count", "split").getDetailedResults();
+			mainEngine.setDetailedResults(false);
+
+			for(String aggFunction : aggFunctions) {
+				IResult2D fromList = mainEngine.aggregateByTimeUnits(objCollection, pair[0], pair[1], aggFunction, "list");
+				IResult2D fromDataset = mainEngine.aggregateByTimeUnits(dataset, pair[0], pair[1], aggFunction, "dataset");
+				IResult2D fromOrdered = mainEngine.aggregateByTimeUnits(ordered, pair[0], pair[1], aggFunction, "ordered");
+				assertEquals(pair[0], fromList.getRowUnitType());
+				assertEquals(pair[1], fromList.getColumnUnitType());
+				assertColumnsAggregated(mainEngine, fromList, byColumn, aggFunction);
+
+				String message = pair[0] + " " + pair[1] + " " + aggFunction;
+				assertTable(message + " dataset", fromList.getAggregateMeterKitchenTable(), fromDataset.getAggregateMeterKitchenTable());
+				assertTable(message + " ordered", fromList.getAggregateMeterLaundryTable(), fromOrdered.getAggregateMeterLaundryTable());
+			}
+		}
+	}
+
+	@Test
+	public void countEveryMeasurementOnce() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		IResult2D grid = mainEngine.aggregateByTimeUnits(objCollection, "season", "periodofday", "count", "count");
+		assertArrayEquals(new String[] {"WINTER", "SPRING", "SUMMER", "AUTUMN"}, grid.getRowUnits());
+		assertArrayEquals(new String[] {"NIGHT", "EARLY MORNING", "MORNING", "AFTERNOON", "EVENING"}, grid.getColumnUnits());
+		IResult seasons = mainEngine.aggregateByTimeUnit(objCollection, "season", "count", "seasons");
+
+		double total = 0;
+		double[][] counts = grid.getAggregateMeterKitchenTable();
+		for(int row = 0; row < counts.length; row++) {
+			double season = 0;
+			for(double count : counts[row])
+				season += Double.isNaN(count) ? 0 : count;
+			assertEquals(seasons.getAggregateMeterKitchen().getOrDefault(grid.getRowUnits()[row], 0.0), season, 0);
+			total += season;
+		}
+		assertEquals(objCollection.size(), total, 0);
+	}
+
+	@Test
+	public void rejectWrongPairs() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		assertNull(mainEngine.aggregateByTimeUnits(objCollection, "season", "season", "avg", "same"));
+		assertNull(mainEngine.aggregateByTimeUnits(objCollection, "season", "year", "avg", "wrong"));
+		assertNull(mainEngine.aggregateByTimeUnits(objCollection, "season", null, "avg", "missing"));
+		assertNull(mainEngine.aggregateByTimeUnits(objCollection, "season", "month", "median", "wrong function"));
+		assertNotNull(mainEngine.aggregateByTimeUnits(objCollection, "season", "month", "p95", "percentile"));
+	}
+
+	@Test
+	public void reportTables() throws Exception {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		assertEquals(0, mainEngine.addMetric("unmetered", MetricExpression.UNMETERED));
+		IResult2D grid = mainEngine.aggregateByTimeUnits(objCollection, "dayofweek", "periodofday", "avg", "Weekday by period of day");
+		assertEquals(7, grid.tableOf(((SummaryResultModel)grid).getAggregateMetric("unmetered")).length);
+
+		File directory = Files.createTempDirectory("tables").toFile();
+		String[] headers = {"<tr><td>dayofweek \\ periodofday</td><td>NIGHT</td>", "| dayofweek \\ periodofday | NIGHT |", "dayofweek \\ periodofday\tNIGHT\t"};
+		String[] exportTypes = {"html", "md", "txt"};
+		for(int type = 0; type < exportTypes.length; type++) {
+			File report = new File(directory, "tables." + exportTypes[type]);
+			assertEquals(0, mainEngine.reportResultInFile(grid, exportTypes[type], report.getPath()));
+			String contents = new String(Files.readAllBytes(report.toPath()));
+			assertTrue(exportTypes[type], contents.contains(headers[type]));
+			assertTrue(exportTypes[type], contents.contains("MON"));
+			assertTrue(exportTypes[type], contents.contains("unmetered"));
+			report.delete();
+		}
+		directory.delete();
+	}
+}
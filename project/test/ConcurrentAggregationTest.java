@@ -0,0 +1,154 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static test.AggregationFixtures.assertIdentical;
+import static test.AggregationFixtures.loadRepeated;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class ConcurrentAggregationTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+	private static String[] aggTypes = {"season", "month", "dayofweek", "periodofday"};
+	private static String[] aggFunctions = {"sum", "avg", "min", "max", "count", "stddev", "p95"};
+	private static int threads = 8;
+	private static int queriesPerThread = 60;
+
+	/* Runs the same task on every thread at once and rethrows the first failure of any of them */
+	private static void runOnAllThreads(Callable<Void> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for(int thread = 0; thread < threads; thread++)
+				futures.add(executor.submit(task));
+			for(Future<Void> future : futures)
+				future.get();
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/* Every thread runs its own random queries over the same list and dataset, and gets what a lone thread gets */
+	private static void answerLikeALoneThread(Engine mainEngine) throws Exception {
+		ArrayList<MeasurementRecord> objCollection = loadRepeated(mainEngine, 600);
+		MeasurementDataset dataset = new MeasurementDataset();
+		for(MeasurementRecord record : objCollection)
+			dataset.add(record);
+
+		HashMap<String, IResult> expected = new HashMap<String, IResult>();
+		for(String aggType : aggTypes) {
+			for(String aggFunction : aggFunctions) {
+				expected.put("list " + aggType + " " + aggFunction, mainEngine.aggregateByTimeUnit(objCollection, aggType, aggFunction, "expected"));
+				expected.put("dataset " + aggType + " " + aggFunction, mainEngine.aggregateByTimeUnit(dataset, aggType, aggFunction, "expected"));
+			}
+		}
+
+		runOnAllThreads(() -> {
+			Random random = new Random(Thread.currentThread().getId());
+			for(int query = 0; query < queriesPerThread; query++) {
+				String aggType = aggTypes[random.nextInt(aggTypes.length)];
+				String aggFunction = aggFunctions[random.nextInt(aggFunctions.length)];
+				String description = Thread.currentThread().getName() + " " + query;
+				String input = random.nextBoolean() ? "list" : "dataset";
+				IResult result = input.equals("list")
+						? mainEngine.aggregateByTimeUnit(objCollection, aggType, aggFunction, description)
+						: mainEngine.aggregateByTimeUnit(dataset, aggType, aggFunction, description);
+				assertEquals(description, result.getDescription());
+				assertIdentical(expected.get(input + " " + aggType + " " + aggFunction), result);
+			}
+			return null;
+		});
+	}
+
+	@Test
+	public void aggregateConcurrently() throws Exception {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		mainEngine.setResultCacheSize(0);
+		mainEngine.setRollupMode(false);
+		mainEngine.setParallelism(2);
+		answerLikeALoneThread(mainEngine);
+	}
+
+	@Test
+	public void aggregateConcurrentlyThroughRollupsAndCache() throws Exception {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		mainEngine.setResultCacheSize(4);
+		answerLikeALoneThread(mainEngine);
+	}
+
+	@Test
+	public void changeParallelismWhileAggregating() throws Exception {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		mainEngine.setResultCacheSize(0);
+		mainEngine.setRollupMode(false);
+		ArrayList<MeasurementRecord> objCollection = loadRepeated(mainEngine, 600);
+		IResult expected = mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "expected");
+
+		/* Every thread switches the parallelism between its queries, while the queries of the other threads still run on the pool it replaces */
+		runOnAllThreads(() -> {
+			Random random = new Random(Thread.currentThread().getId());
+			for(int query = 0; query < 20; query++) {
+				assertEquals(0, mainEngine.setParallelism(1 + random.nextInt(4)));
+				assertIdentical(expected, mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "query " + query));
+			}
+			return null;
+		});
+	}
+
+	@Test
+	public void reportConcurrently() throws Exception {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		IResult result = mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "Concurrent reports");
+
+		File directory = Files.createTempDirectory("concurrent").toFile();
+		String[] exportTypes = {"txt", "md", "html"};
+		HashMap<String, List<String>> expected = new HashMap<String, List<String>>();
+		for(String exportType : exportTypes) {
+			File report = new File(directory, "expected." + exportType);
+			assertEquals(0, mainEngine.reportResultInFile(result, exportType, report.getPath()));
+			expected.put(exportType, Files.readAllLines(report.toPath()));
+		}
+
+		/* Every thread writes reports of every type at once, each to a file of its own */
+		runOnAllThreads(() -> {
+			String name = Thread.currentThread().getName();
+			for(int round = 0; round < 10; round++) {
+				for(String exportType : exportTypes) {
+					File report = new File(directory, name + "-" + round + "." + exportType);
+					assertEquals(0, mainEngine.reportResultInFile(result, exportType, report.getPath()));
+					assertEquals(expected.get(exportType), Files.readAllLines(report.toPath()));
+					report.delete();
+				}
+			}
+			return null;
+		});
+
+		for(File report : directory.listFiles())
+			report.delete();
+		directory.delete();
+	}
+}
@@ -0,0 +1,78 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import datamodel.MeasurementDataset;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+/**
+ * @class ConcurrentQueryBenchmark
+ * @brief Measures how many aggregations per second one engine answers over one resident dataset
+ * 			as the number of threads querying it at once grows from 1 to twice the number of cores
+ * 			Every query runs on a single thread and the result cache and rollups are off, so every query scans the dataset
+ *
+ * Run with: java -cp bin test.ConcurrentQueryBenchmark [input file] [delimiter] [seconds per thread count]
+ */
+public class ConcurrentQueryBenchmark {
+	private static String[] aggTypes = {"season", "month", "dayofweek", "periodofday"};
+	private static String[] aggFunctions = {"sum", "avg", "max", "stddev"};
+
+	private static double checksum;
+
+	/* Runs queries on a number of threads for a number of seconds and returns the number of queries answered */
+	private static int measure(Engine mainEngine, MeasurementDataset dataset, int threads, double seconds) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		AtomicInteger queries = new AtomicInteger();
+		long deadline = System.nanoTime() + (long)(seconds * 1e9);
+		List<Future<Double>> futures = new ArrayList<Future<Double>>();
+		for(int thread = 0; thread < threads; thread++) {
+			int first = thread;
+			futures.add(executor.submit(() -> {
+				double sum = 0;
+				for(int query = first; System.nanoTime() < deadline; query++) {
+					String aggType = aggTypes[query % aggTypes.length];
+					String aggFunction = aggFunctions[(query / aggTypes.length) % aggFunctions.length];
+					sum += mainEngine.aggregateByTimeUnit(dataset, aggType, aggFunction, "benchmark").getAggregateMeterKitchen().size();
+					queries.incrementAndGet();
+				}
+				return sum;
+			}));
+		}
+		for(Future<Double> future : futures)
+			checksum += future.get();
+		executor.shutdown();
+		return queries.get();
+	}
+
+	public static void main(String[] args) throws Exception {
+		String inputFile = (args.length > 0) ? args[0] : "./Resources/TestInput/household_preview.txt";
+		String delimiter = (args.length > 1) ? args[1] : ";";
+		double seconds = (args.length > 2) ? Double.parseDouble(args[2]) : 3;
+
+		Engine mainEngine = new MainEngineFactory().createMainEngine("MainEngine");
+		mainEngine.setSnapshotMode(false);
+		mainEngine.setRollupMode(false);
+		mainEngine.setResultCacheSize(0);
+		mainEngine.setParallelism(1);
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimiter, true, 9, dataset);
+		System.out.println(dataset.size() + " rows, " + Runtime.getRuntime().availableProcessors() + " cores");
+
+		/* A first round warms the JIT up */
+		measure(mainEngine, dataset, 1, seconds);
+		double single = 0;
+		for(int threads = 1; threads <= 2 * Runtime.getRuntime().availableProcessors(); threads *= 2) {
+			double perSecond = measure(mainEngine, dataset, threads, seconds) / seconds;
+			if(threads == 1)
+				single = perSecond;
+			System.out.printf("%3d threads %10.1f queries/sec %6.2fx%n", threads, perSecond, perSecond / single);
+		}
+		System.out.println("checksum " + checksum);
+	}
+}
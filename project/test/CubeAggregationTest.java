@@ -0,0 +1,60 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static test.AggregationFixtures.assertSameAggregates;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import datamodel.AggregateCube;
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.IMainEngine;
+import mainengine.MainEngineFactory;
+
+public class CubeAggregationTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+	private static IMainEngine mainEngine = factory.createMainEngine("MainEngine");
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+	private static String[] aggTypes = {"season", "month", "dayofweek", "periodofday"};
+
+	@Test
+	public void answerEveryTimeUnitFromOneScan() {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+
+		AggregateCube[] cubes = {
+			mainEngine.aggregateCube(objCollection),
+			mainEngine.aggregateCube(dataset),
+			mainEngine.loadAndAggregateCube(inputFile, delimeter, hasHeaderLine, numFields)
+		};
+		for(AggregateCube cube : cubes) {
+			assertEquals(cube.size(), objCollection.size());
+			for(String aggType : aggTypes) {
+				for(String aggFunction : new String[] {"sum", "avg"}) {
+					IResult expected = mainEngine.aggregateByTimeUnit(objCollection, aggType, aggFunction, "scan");
+					IResult actual = cube.getResult(aggType, aggFunction, "cube");
+					assertSameAggregates(expected, actual);
+					assertEquals(actual.getDescription(), "cube");
+				}
+			}
+		}
+	}
+
+	@Test
+	public void aggregateCubeWithWrongInputs() {
+		assertNull(mainEngine.aggregateCube((ArrayList<MeasurementRecord>)null));
+		assertNull(mainEngine.aggregateCube((MeasurementDataset)null));
+		assertNull(mainEngine.loadAndAggregateCube("./Resources/TestInput/missing.tsv", delimeter, hasHeaderLine, numFields));
+		assertNull(mainEngine.aggregateCube(new ArrayList<MeasurementRecord>()).getResult("random", "avg", "Desc"));
+	}
+}
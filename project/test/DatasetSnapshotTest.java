@@ -0,0 +1,83 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dataload.DatasetSnapshot;
+import datamodel.MeasurementDataset;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class DatasetSnapshotTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+	private static Engine mainEngine = factory.createMainEngine("MainEngine");
+
+	private static String delimeter = ";";
+	private static boolean hasHeaderLine = true;
+	private static int numFields = 9;
+
+	private File inputFile;
+
+	@Before
+	public void setUp() throws Exception {
+		inputFile = File.createTempFile("household", ".txt");
+		Files.copy(new File("./Resources/TestInput/household_preview.txt").toPath(), inputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@After
+	public void tearDown() {
+		new File(DatasetSnapshot.snapshotPathOf(inputFile.getPath())).delete();
+		inputFile.delete();
+	}
+
+	@Test
+	public void loadFromSnapshot() {
+		MeasurementDataset parsed = new MeasurementDataset();
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, parsed), 99);
+
+		MeasurementDataset snapshot = DatasetSnapshot.read(inputFile.getPath(), delimeter, hasHeaderLine);
+		assertNotNull(snapshot);
+		assertEquals(snapshot.size(), parsed.size());
+		for(int row = 0; row < parsed.size(); row++) {
+			assertEquals(snapshot.getEpochMinute(row), parsed.getEpochMinute(row));
+			assertEquals(snapshot.getSub_metering_1(row), parsed.getSub_metering_1(row), 0);
+			assertEquals(snapshot.getSub_metering_2(row), parsed.getSub_metering_2(row), 0);
+			assertEquals(snapshot.getSub_metering_3(row), parsed.getSub_metering_3(row), 0);
+		}
+
+		MeasurementDataset reloaded = new MeasurementDataset();
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, reloaded), 99);
+	}
+
+	@Test
+	public void ignoreSnapshotWithOtherSettings() {
+		mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, new MeasurementDataset());
+		assertNull(DatasetSnapshot.read(inputFile.getPath(), delimeter, false));
+		assertNull(DatasetSnapshot.read(inputFile.getPath(), "\t", hasHeaderLine));
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, false, numFields, new MeasurementDataset()), -1);
+	}
+
+	@Test
+	public void rebuildSnapshotWhenSourceChanges() throws Exception {
+		mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, new MeasurementDataset());
+
+		try(FileWriter writer = new FileWriter(inputFile, true)) {
+			writer.write("16/12/2006;19:03:00;3.454;0.000;233.340;14.800;0.000;0.000;17.000\n");
+		}
+		assertNull(DatasetSnapshot.read(inputFile.getPath(), delimeter, hasHeaderLine));
+
+		MeasurementDataset dataset = new MeasurementDataset();
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, dataset), 100);
+		assertEquals(DatasetSnapshot.read(inputFile.getPath(), delimeter, hasHeaderLine).size(), 100);
+	}
+}
@@ -0,0 +1,166 @@
+package test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static test.AggregationFixtures.loadRepeated;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import datamodel.SummaryResultModel;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+import timeaggregation.MetricExpression;
+
+public class DerivedMetricTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+	private static String[] aggTypes = {"season", "month", "dayofweek", "periodofday"};
+	private static String[] aggFunctions = {"sum", "avg", "min", "max", "count", "stddev"};
+
+	private static double[] evaluate(String expression, double[][] columns) {
+		MetricExpression metric = MetricExpression.compile("metric", expression);
+		assertNotNull(expression, metric);
+		double[] values = metric.newEvaluator().evaluate(columns, 0, columns[0].length);
+		return Arrays.copyOf(values, columns[0].length);
+	}
+
+	private static void assertClose(String message, HashMap<String, Double> expected, HashMap<String, Double> actual) {
+		assertEquals(message, expected.keySet(), actual.keySet());
+		for(String timeUnit : expected.keySet()) {
+			double value = expected.get(timeUnit);
+			assertEquals(message + " " + timeUnit, value, actual.get(timeUnit), 1e-9 * Math.max(1, Math.abs(value)));
+		}
+	}
+
+	@Test
+	public void compileExpressions() {
+		double[][] columns = {{1, 2, 3}, {10, 20, 30}, {100, 200, 300}, {0.06, 0.12, 0.18}};
+		assertArrayEquals(new double[] {111, 222, 333}, evaluate("kitchen + laundry + ac", columns), 0);
+		assertArrayEquals(new double[] {21, 42, 63}, evaluate("sub_metering_1 + sub_metering_2 * 2", columns), 0);
+		assertArrayEquals(new double[] {22, 44, 66}, evaluate("(sub_metering_1 + sub_metering_2) * 2", columns), 0);
+		assertArrayEquals(new double[] {-9, -18, -27}, evaluate("-sub_metering_2 - -sub_metering_1", columns), 0);
+		assertArrayEquals(new double[] {7, 7, 7}, evaluate("1 + 2 * 3", columns), 0);
+		assertArrayEquals(new double[] {2, 4, 6}, evaluate("sub_metering_1 * (4 / 2)", columns), 0);
+		assertArrayEquals(new double[] {-111 + 1, -222 + 2, -333 + 3}, evaluate(MetricExpression.UNMETERED, columns), 1e-12);
+
+		assertNull(MetricExpression.compile("metric", "kitchen +"));
+		assertNull(MetricExpression.compile("metric", "(kitchen"));
+		assertNull(MetricExpression.compile("metric", "kitchen laundry"));
+		assertNull(MetricExpression.compile("metric", "voltage * 2"));
+		assertNull(MetricExpression.compile("metric", ""));
+		assertNull(MetricExpression.compile("", "kitchen"));
+	}
+
+	@Test
+	public void aggregateUnmeteredEnergy() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = loadRepeated(mainEngine, 50);
+		MeasurementDataset dataset = new MeasurementDataset();
+		for(MeasurementRecord record : objCollection)
+			dataset.add(record);
+		MeasurementDataset ordered = new MeasurementDataset();
+		ordered.addAll(dataset);
+		ordered.sortByTime();
+
+		/* The unmetered energy of every row as the kitchen meter of a dataset of its own, aggregated without metrics */
+		MeasurementDataset unmetered = new MeasurementDataset();
+		for(int row = 0; row < dataset.size(); row++)
+			unmetered.add(dataset.getEpochMinute(row), dataset.getGlobal_active_power(row) * 1000 / 60
+					- dataset.getSub_metering_1(row) - dataset.getSub_metering_2(row) - dataset.getSub_metering_3(row), 0, 0);
+		Engine reference = factory.createMainEngine("MainEngine");
+
+		assertEquals(0, mainEngine.addMetric("unmetered", MetricExpression.UNMETERED));
+		for(String aggType : aggTypes) {
+			for(String aggFunction : aggFunctions) {
+				HashMap<String, Double> expected = reference.aggregateByTimeUnit(unmetered, aggType, aggFunction, "expected").getAggregateMeterKitchen();
+				IResult plain = reference.aggregateByTimeUnit(dataset, aggType, aggFunction, "plain");
+				String message = aggType + " " + aggFunction;
+
+				SummaryResultModel fromList = (SummaryResultModel)mainEngine.aggregateByTimeUnit(objCollection, aggType, aggFunction, "list");
+				SummaryResultModel fromDataset = (SummaryResultModel)mainEngine.aggregateByTimeUnit(dataset, aggType, aggFunction, "dataset");
+				SummaryResultModel fromOrdered = (SummaryResultModel)mainEngine.aggregateByTimeUnit(ordered, aggType, aggFunction, "ordered");
+				assertClose(message + " list", expected, fromList.getAggregateMetric("unmetered"));
+				assertClose(message + " dataset", expected, fromDataset.getAggregateMetric("unmetered"));
+				assertClose(message + " ordered", expected, fromOrdered.getAggregateMetric("unmetered"));
+
+				/* The meters are aggregated as they are without metrics */
+				assertClose(message + " kitchen", plain.getAggregateMeterKitchen(), fromOrdered.getAggregateMeterKitchen());
+				assertClose(message + " ac", plain.getAggregateMeterAC(), fromDataset.getAggregateMeterAC());
+			}
+		}
+	}
+
+	@Test
+	public void loadGlobalActivePower() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		mainEngine.setSnapshotMode(false);
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		MeasurementDataset dataset = new MeasurementDataset();
+		assertEquals(objCollection.size(), mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset));
+
+		assertEquals(1.292, objCollection.get(0).getGlobal_active_power(), 0);
+		for(int row = 0; row < dataset.size(); row++)
+			assertEquals(objCollection.get(row).getGlobal_active_power(), dataset.getGlobal_active_power(row), 0);
+	}
+
+	@Test
+	public void rejectWrongMetrics() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		assertEquals(-1, mainEngine.addMetric("wrong", "kitchen * * 2"));
+		assertEquals(0, mainEngine.addMetric("unmetered", MetricExpression.UNMETERED));
+		assertEquals(-1, mainEngine.addMetric("unmetered", "kitchen"));
+		assertEquals(0, mainEngine.addMetric("appliances", "kitchen + laundry + ac"));
+
+		assertNull(mainEngine.aggregateByTimeUnit(objCollection, "month", "p95", "percentile"));
+		mainEngine.setDetailedResults(true);
+		assertNull(mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "detailed"));
+		mainEngine.setDetailedResults(false);
+
+		SummaryResultModel result = (SummaryResultModel)mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "metrics");
+		assertArrayEquals(new String[] {"unmetered", "appliances"}, result.getMetrics());
+
+		mainEngine.clearMetrics();
+		result = (SummaryResultModel)mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "meters");
+		assertEquals(0, result.getMetrics().length);
+		assertNotNull(mainEngine.aggregateByTimeUnit(objCollection, "month", "p95", "percentile"));
+	}
+
+	@Test
+	public void reportMetrics() throws Exception {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		assertEquals(0, mainEngine.addMetric("unmetered", MetricExpression.UNMETERED));
+		IResult result = mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "Unmetered energy");
+
+		File directory = Files.createTempDirectory("metrics").toFile();
+		for(String exportType : new String[] {"txt", "md", "html"}) {
+			File report = new File(directory, "metrics." + exportType);
+			assertEquals(0, mainEngine.reportResultInFile(result, exportType, report.getPath()));
+			String contents = new String(Files.readAllBytes(report.toPath()));
+			assertTrue(exportType, contents.contains("unmetered"));
+			report.delete();
+		}
+		directory.delete();
+	}
+}
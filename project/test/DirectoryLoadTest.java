@@ -0,0 +1,105 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import datamodel.FileLoadModel;
+import datamodel.MeasurementDataset;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class DirectoryLoadTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	private Engine mainEngine;
+	private File directory;
+
+	/* Splits the sample into three files, named so that their name order differs from their time order */
+	@Before
+	public void setUp() throws Exception {
+		mainEngine = factory.createMainEngine("MainEngine");
+		directory = Files.createTempDirectory("household").toFile();
+
+		List<String> lines = Files.readAllLines(new File(inputFile).toPath());
+		int third = lines.size() / 3;
+		Files.write(new File(directory, "c_first.tsv").toPath(), lines.subList(0, third));
+		Files.write(new File(directory, "b_second.tsv").toPath(), lines.subList(third, 2 * third));
+		Files.write(new File(directory, "a_third.tsv").toPath(), lines.subList(2 * third, lines.size()));
+		Files.write(new File(directory, "notes.txt").toPath(), List.of("household archive"));
+	}
+
+	@After
+	public void tearDown() {
+		for(File file : directory.listFiles())
+			file.delete();
+		directory.delete();
+	}
+
+	/* The sample is not fully in time order, so its rows are sorted the way the merged rows are */
+	private MeasurementDataset loadWhole() {
+		MeasurementDataset whole = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, whole);
+		whole.sortByTime();
+		for(int row = 1; row < whole.size(); row++)
+			assertTrue(whole.getEpochMinute(row - 1) <= whole.getEpochMinute(row));
+		return whole;
+	}
+
+	private static void assertSameRows(MeasurementDataset expected, MeasurementDataset actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int row = 0; row < expected.size(); row++) {
+			assertEquals(expected.getEpochMinute(row), actual.getEpochMinute(row));
+			assertEquals(expected.getSub_metering_1(row), actual.getSub_metering_1(row), 0);
+			assertEquals(expected.getSub_metering_3(row), actual.getSub_metering_3(row), 0);
+		}
+	}
+
+	@Test
+	public void loadGlobInTimeOrder() {
+		MeasurementDataset dataset = new MeasurementDataset();
+		ArrayList<FileLoadModel> files = mainEngine.loadDirectory(new File(directory, "*.tsv").getPath(), delimeter, hasHeaderLine, numFields, dataset);
+
+		assertEquals(files.size(), 3);
+		assertTrue(files.get(0).getFilename().endsWith("a_third.tsv"));
+		int rows = 0;
+		for(FileLoadModel file : files) {
+			assertTrue(file.getMillis() >= 0);
+			rows += file.getRows();
+		}
+		assertEquals(rows, dataset.size());
+		assertSameRows(loadWhole(), dataset);
+	}
+
+	@Test
+	public void loadDirectoryWithWrongFile() {
+		mainEngine.setSnapshotMode(false);
+		MeasurementDataset dataset = new MeasurementDataset();
+		ArrayList<FileLoadModel> files = mainEngine.loadDirectory(directory.getPath(), delimeter, hasHeaderLine, numFields, dataset);
+
+		/* notes.txt is not a measurement file, so it is reported and left out */
+		assertEquals(files.size(), 4);
+		assertEquals(files.get(3).getRows(), -1);
+		assertSameRows(loadWhole(), dataset);
+	}
+
+	@Test
+	public void loadMissingDirectory() {
+		assertNull(mainEngine.loadDirectory(new File(directory, "missing/*.tsv").getPath(), delimeter, hasHeaderLine, numFields, new MeasurementDataset()));
+		assertNull(mainEngine.loadDirectory(null, delimeter, hasHeaderLine, numFields, new MeasurementDataset()));
+	}
+}
@@ -0,0 +1,137 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import datamodel.AggregateCube;
+import datamodel.EpochTime;
+import datamodel.IResult;
+import datamodel.MeasurementRecord;
+import datamodel.QuantileSketch;
+import datamodel.TimeUnitMappingModel;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class DistributionAggregationTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	/* The AC values of every season, straight from the loaded records */
+	private static HashMap<String, double[]> acValuesBySeason(ArrayList<MeasurementRecord> objCollection) {
+		HashMap<String, String> seasons = new TimeUnitMappingModel().getSeasons();
+		HashMap<String, double[]> values = new HashMap<String, double[]>();
+		for(MeasurementRecord record : objCollection) {
+			String season = seasons.get(record.getDate().getMonth());
+			double[] previous = values.getOrDefault(season, new double[0]);
+			double[] next = Arrays.copyOf(previous, previous.length + 1);
+			next[previous.length] = record.getSub_metering_3();
+			values.put(season, next);
+		}
+		return values;
+	}
+
+	@Test
+	public void countAndDeviationOfEveryTimeUnit() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		IResult count = mainEngine.aggregateByTimeUnit(objCollection, "season", "count", "Season count");
+		IResult stddev = mainEngine.aggregateByTimeUnit(objCollection, "season", "stddev", "Season stddev");
+		HashMap<String, double[]> values = acValuesBySeason(objCollection);
+		for(String season : values.keySet()) {
+			double[] ac = values.get(season);
+			double mean = Arrays.stream(ac).sum() / ac.length;
+			double squares = Arrays.stream(ac).map(value -> (value - mean) * (value - mean)).sum();
+			assertEquals(count.getAggregateMeterAC().get(season), ac.length, 0);
+			assertEquals(stddev.getAggregateMeterAC().get(season), Math.sqrt(squares / (ac.length - 1)), 1e-9);
+		}
+	}
+
+	@Test
+	public void percentilesWithinTheirRelativeAccuracy() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		HashMap<String, double[]> values = acValuesBySeason(objCollection);
+		for(String percentile : new String[] {"p50", "p95", "p99"}) {
+			IResult result = mainEngine.aggregateByTimeUnit(objCollection, "season", percentile, "Season " + percentile);
+			for(String season : values.keySet()) {
+				double[] ac = values.get(season).clone();
+				Arrays.sort(ac);
+				double exact = ac[(int)Math.floor(Double.parseDouble(percentile.substring(1)) / 100 * (ac.length - 1))];
+				assertEquals(result.getAggregateMeterAC().get(season), exact, exact * QuantileSketch.RELATIVE_ACCURACY + 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void sameDistributionsForAnyParallelism() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> sample = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, sample);
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		for(int time = 0; time < 1500; time++)
+			objCollection.addAll(sample);
+
+		for(String aggFunction : new String[] {"stddev", "p95", "count"}) {
+			mainEngine.setParallelism(1);
+			IResult sequential = mainEngine.aggregateByTimeUnit(objCollection, "month", aggFunction, "sequential");
+			mainEngine.setParallelism(4);
+			IResult parallel = mainEngine.aggregateByTimeUnit(objCollection, "month", aggFunction, "parallel");
+			assertEquals(sequential.getAggregateMeterKitchen(), parallel.getAggregateMeterKitchen());
+			assertEquals(sequential.getAggregateMeterAC(), parallel.getAggregateMeterAC());
+		}
+	}
+
+	@Test
+	public void mergeSketches() {
+		QuantileSketch whole = new QuantileSketch();
+		QuantileSketch first = new QuantileSketch();
+		QuantileSketch second = new QuantileSketch();
+		for(int value = 0; value <= 1000; value++) {
+			whole.add(value);
+			((value % 2 == 0) ? first : second).add(value);
+		}
+		first.merge(second);
+		assertEquals(first.getCount(), 1001);
+		for(double fraction : new double[] {0, 0.5, 0.95, 0.99, 1})
+			assertEquals(first.quantile(fraction), whole.quantile(fraction), 0);
+		assertEquals(whole.quantile(0.5), 500, 500 * QuantileSketch.RELATIVE_ACCURACY);
+		assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)));
+	}
+
+	@Test
+	public void percentilesFromCube() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		AggregateCube cube = new AggregateCube(true);
+		for(MeasurementRecord record : objCollection)
+			cube.add(EpochTime.epochMinuteOf(record), record.getSub_metering_1(), record.getSub_metering_2(), record.getSub_metering_3());
+		assertEquals(cube.getResult("season", "p99", "cube").getAggregateMeterAC(),
+				mainEngine.aggregateByTimeUnit(objCollection, "season", "p99", "scan").getAggregateMeterAC());
+		assertNull(new AggregateCube().getResult("season", "p99", "cube"));
+	}
+
+	@Test
+	public void aggregateWithWrongFunction() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		assertNull(mainEngine.aggregateByTimeUnit(objCollection, "month", "median", "Desc"));
+		assertNull(mainEngine.aggregateByTimeUnit(objCollection, "month", "p101", "Desc"));
+	}
+}
@@ -0,0 +1,138 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static test.AggregationFixtures.assertSameAggregates;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dataload.DatasetSnapshot;
+import datamodel.IResult;
+import datamodel.MeasurementRecord;
+import datamodel.SummaryResultModel;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+import timeaggregation.MetricExpression;
+
+public class FollowTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String delimeter = ";";
+	private static boolean hasHeaderLine = true;
+	private static int numFields = 9;
+
+	private Engine mainEngine;
+	private List<String> lines;
+	private File inputFile;
+	private File expectedFile;
+
+	@Before
+	public void setUp() throws Exception {
+		mainEngine = factory.createMainEngine("MainEngine");
+		lines = Files.readAllLines(new File("./Resources/TestInput/household_preview.txt").toPath());
+		inputFile = File.createTempFile("household", ".txt");
+		expectedFile = File.createTempFile("household", ".txt");
+	}
+
+	@After
+	public void tearDown() {
+		new File(DatasetSnapshot.snapshotPathOf(inputFile.getPath())).delete();
+		new File(DatasetSnapshot.snapshotPathOf(expectedFile.getPath())).delete();
+		inputFile.delete();
+		expectedFile.delete();
+	}
+
+	private static void write(File file, String text, boolean append) throws Exception {
+		try(FileWriter writer = new FileWriter(file, append)) {
+			writer.write(text);
+		}
+	}
+
+	private static String joinLines(List<String> lines, int from, int to) {
+		StringBuilder text = new StringBuilder();
+		for(int line = from; line < to; line++)
+			text.append(lines.get(line)).append('\n');
+		return text.toString();
+	}
+
+	private IResult aggregateBySeason(File file, String aggFunction) {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(file.getPath(), delimeter, hasHeaderLine, numFields, objCollection);
+		return mainEngine.aggregateByTimeUnit(objCollection, "season", aggFunction, "follow");
+	}
+
+	private IResult aggregate(File file, String aggFunction) {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(file.getPath(), delimeter, hasHeaderLine, numFields, objCollection);
+		return mainEngine.aggregateByTimeUnit(objCollection, "periodofday", aggFunction, "follow");
+	}
+
+	@Test
+	public void followAppendedLines() throws Exception {
+		write(inputFile, joinLines(lines, 0, 41), false);
+		IResult result = aggregate(inputFile, "avg");
+		assertEquals(mainEngine.followData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "periodofday", result), 0);
+
+		/* The last appended line is still being written, so it is left for the next follow */
+		String appended = joinLines(lines, 41, lines.size());
+		write(inputFile, appended.substring(0, appended.length() - 10), true);
+		assertEquals(mainEngine.followData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "periodofday", result), lines.size() - 42);
+		write(expectedFile, joinLines(lines, 0, lines.size() - 1), false);
+		assertSameAggregates(aggregate(expectedFile, "avg"), result);
+
+		write(inputFile, appended.substring(appended.length() - 10), true);
+		assertEquals(mainEngine.followData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "periodofday", result), 1);
+		assertSameAggregates(aggregate(inputFile, "avg"), result);
+	}
+
+	@Test
+	public void followStreamedSummary() throws Exception {
+		write(inputFile, joinLines(lines, 0, 50), false);
+		IResult result = mainEngine.loadAndAggregate(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "periodofday", "sum", "follow");
+
+		write(inputFile, joinLines(lines, 50, lines.size()), true);
+		assertEquals(mainEngine.followData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "periodofday", result), lines.size() - 50);
+		assertSameAggregates(aggregate(inputFile, "sum"), result);
+	}
+
+	@Test
+	public void followWithDerivedMetrics() throws Exception {
+		assertEquals(0, mainEngine.addMetric("unmetered", MetricExpression.UNMETERED));
+		write(inputFile, joinLines(lines, 0, 51), false);
+		SummaryResultModel result = (SummaryResultModel)aggregateBySeason(inputFile, "avg");
+
+		/* Every followed row counts towards the metric as it does towards the meters, so its aggregates stay those of all the rows */
+		write(inputFile, joinLines(lines, 51, lines.size()), true);
+		assertEquals(mainEngine.followData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "season", result), lines.size() - 51);
+		String[] aggFunctions = {"avg", "stddev", "max"};
+		for(String aggFunction : aggFunctions) {
+			SummaryResultModel expected = (SummaryResultModel)aggregateBySeason(inputFile, aggFunction);
+			SummaryResultModel followed = result.summarizeAs(aggFunction, "followed");
+			assertSameAggregates(expected, followed);
+			for(String season : expected.getAggregateMetric("unmetered").keySet())
+				assertEquals(aggFunction + " " + season, expected.getAggregateMetric("unmetered").get(season),
+						followed.getAggregateMetric("unmetered").get(season), 1e-9);
+		}
+
+		/* A result whose metric the engine no longer computes is not followed */
+		write(inputFile, joinLines(lines, 1, 3), true);
+		mainEngine.clearMetrics();
+		assertEquals(-1, mainEngine.followData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "season", result));
+	}
+
+	@Test
+	public void followTruncatedFileFromStart() throws Exception {
+		write(inputFile, joinLines(lines, 0, lines.size()), false);
+		IResult result = aggregate(inputFile, "sum");
+
+		write(inputFile, joinLines(lines, 0, 11), false);
+		assertEquals(mainEngine.followData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "periodofday", result), 10);
+	}
+}
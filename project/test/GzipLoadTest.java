@@ -0,0 +1,81 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dataload.DayIndex;
+import datamodel.FileHandler;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class GzipLoadTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/household_preview.txt";
+	private static String delimeter = ";";
+	private static boolean hasHeaderLine = true;
+	private static int numFields = 9;
+
+	private Engine mainEngine;
+	private File gzipFile;
+
+	@Before
+	public void setUp() throws Exception {
+		mainEngine = factory.createMainEngine("MainEngine");
+		mainEngine.setSnapshotMode(false);
+		gzipFile = File.createTempFile("household_preview", ".txt.gz");
+		try(GZIPOutputStream output = new GZIPOutputStream(new FileOutputStream(gzipFile))) {
+			output.write(Files.readAllBytes(new File(inputFile).toPath()));
+		}
+	}
+
+	@After
+	public void tearDown() {
+		new File(DayIndex.indexPathOf(gzipFile.getPath())).delete();
+		gzipFile.delete();
+	}
+
+	@Test
+	public void detectGzipFile() {
+		assertTrue(new FileHandler(gzipFile.getPath()).isGzipFile());
+		assertFalse(new FileHandler(inputFile).isGzipFile());
+	}
+
+	@Test
+	public void loadSameRowsAsPlainFile() {
+		MeasurementDataset plain = new MeasurementDataset();
+		MeasurementDataset compressed = new MeasurementDataset();
+		assertEquals(mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, plain), 99);
+		assertEquals(mainEngine.loadData(gzipFile.getPath(), delimeter, hasHeaderLine, numFields, compressed), 99);
+		for(int row = 0; row < plain.size(); row++) {
+			assertEquals(plain.getEpochMinute(row), compressed.getEpochMinute(row));
+			assertEquals(plain.getSub_metering_1(row), compressed.getSub_metering_1(row), 0);
+			assertEquals(plain.getSub_metering_3(row), compressed.getSub_metering_3(row), 0);
+		}
+
+		ArrayList<MeasurementRecord> records = new ArrayList<MeasurementRecord>();
+		assertEquals(mainEngine.loadData(gzipFile.getPath(), delimeter, hasHeaderLine, numFields, records), 99);
+		assertEquals(records.get(98).getTime().getMinute(), plain.getRecord(98).getTime().getMinute());
+	}
+
+	@Test
+	public void aggregateGzipFileInOnePass() {
+		assertEquals(mainEngine.loadAndAggregate(gzipFile.getPath(), delimeter, hasHeaderLine, numFields, "periodofday", "sum", "gzip")
+				.getAggregateMeterAC(),
+				mainEngine.loadAndAggregate(inputFile, delimeter, hasHeaderLine, numFields, "periodofday", "sum", "plain")
+				.getAggregateMeterAC());
+	}
+}
@@ -0,0 +1,105 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class MappedLoadTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static int numFields = 9;
+
+	private static ArrayList<MeasurementRecord> load(String loadMode, String inputFile, String delimeter, boolean hasHeaderLine) {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		assertEquals(mainEngine.setLoadMode(loadMode), 0);
+
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		int numRows = mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		assertEquals(numRows, objCollection.size());
+		return objCollection;
+	}
+
+	private static void assertSameRecords(ArrayList<MeasurementRecord> expected, ArrayList<MeasurementRecord> actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getDate().getDay(), actual.get(i).getDate().getDay());
+			assertEquals(expected.get(i).getDate().getMonth(), actual.get(i).getDate().getMonth());
+			assertEquals(expected.get(i).getDate().getYear(), actual.get(i).getDate().getYear());
+			assertEquals(expected.get(i).getTime().getHour(), actual.get(i).getTime().getHour());
+			assertEquals(expected.get(i).getTime().getMinute(), actual.get(i).getTime().getMinute());
+			assertEquals(expected.get(i).getSub_metering_1(), actual.get(i).getSub_metering_1(), 0);
+			assertEquals(expected.get(i).getSub_metering_2(), actual.get(i).getSub_metering_2(), 0);
+			assertEquals(expected.get(i).getSub_metering_3(), actual.get(i).getSub_metering_3(), 0);
+		}
+	}
+
+	@Test
+	public void mappedLoadKeepsFileOrder() {
+		String inputFile = "./Resources/TestInput/household_preview.txt";
+		assertSameRecords(load("sequential", inputFile, ";", true), load("mapped", inputFile, ";", true));
+
+		inputFile = "./Resources/TestInput/2007_sample.tsv";
+		assertSameRecords(load("sequential", inputFile, "\t", false), load("mapped", inputFile, "\t", false));
+	}
+
+	@Test
+	public void mappedLoadWithRegexDelimiterKeepsEveryDate() throws Exception {
+		/* A delimiter that needs String.split sends every chunk through its own interner; the date changes on every line,
+			so a date model shared between the chunk parsers would hand records the date of another chunk */
+		File directory = Files.createTempDirectory("mapped").toFile();
+		File inputFile = new File(directory, "dates.txt");
+		int lines = 200000;
+		LocalDate first = LocalDate.of(2007, 1, 1);
+		try(PrintWriter writer = new PrintWriter(inputFile)) {
+			for(int line = 0; line < lines; line++) {
+				LocalDate date = first.plusDays(line % 997);
+				writer.printf("%02d/%02d/%d;%02d:%02d:00;1.0;0.1;240.0;4.0;%d.0;1.0;17.0%n", date.getDayOfMonth(), date.getMonthValue(), date.getYear(),
+						(line / 60) % 24, line % 60, line % 7);
+			}
+		}
+
+		ArrayList<MeasurementRecord> records = load("mapped", inputFile.getPath(), "[;]", false);
+		assertEquals(lines, records.size());
+		for(int line = 0; line < lines; line++) {
+			LocalDate date = first.plusDays(line % 997);
+			MeasurementRecord record = records.get(line);
+			assertEquals("line " + line, date.getDayOfMonth(), Integer.parseInt(record.getDate().getDay()));
+			assertEquals("line " + line, date.getMonthValue(), Integer.parseInt(record.getDate().getMonth()));
+			assertEquals("line " + line, date.getYear(), Integer.parseInt(record.getDate().getYear()));
+			assertEquals("line " + line, line % 60, Integer.parseInt(record.getTime().getMinute()));
+			assertEquals("line " + line, line % 7, record.getSub_metering_1(), 0);
+		}
+		inputFile.delete();
+		directory.delete();
+	}
+
+	@Test
+	public void mappedLoadSkipsEmptyCells() {
+		assertEquals(load("mapped", "./Resources/TestInput/hld_with_emptyCells.txt", ";", true).size(), 4);
+	}
+
+	@Test
+	public void mappedLoadWithWrongHeaderLine() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		mainEngine.setLoadMode("mapped");
+		int wrongOutput = mainEngine.loadData("./Resources/TestInput/household_preview.txt", ";", false, numFields, new ArrayList<MeasurementRecord>());
+		assertEquals(wrongOutput, -1);
+	}
+
+	@Test
+	public void setWrongLoadMode() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		assertEquals(mainEngine.setLoadMode("random"), -1);
+		assertEquals(mainEngine.setLoadMode(null), -1);
+	}
+}
@@ -0,0 +1,82 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import datamodel.EpochTime;
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class MeasurementDatasetTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+	private static Engine mainEngine = factory.createMainEngine("MainEngine");
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	@Test
+	public void convertEpochTime() {
+		assertEquals(EpochTime.toEpochDay(1970, 1, 1), 0);
+		assertEquals(EpochTime.toEpochDay(2006, 12, 16), 13498);
+		assertEquals(EpochTime.toEpochMinute(1970, 1, 2, 1, 30), 1440 + 90);
+
+		int epochDay = EpochTime.toEpochDay(2008, 2, 29);
+		assertEquals(EpochTime.yearOf(epochDay), 2008);
+		assertEquals(EpochTime.monthOf(epochDay), 2);
+		assertEquals(EpochTime.dayOfMonthOf(epochDay), 29);
+		/* 29/02/2008 was a Friday */
+		assertEquals(EpochTime.dayOfWeekOf(epochDay), 5);
+	}
+
+	@Test
+	public void loadSameRowsAsRecords() {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		int numRows = mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+
+		assertEquals(numRows, objCollection.size());
+		for(int row = 0; row < numRows; row++) {
+			MeasurementRecord expected = objCollection.get(row);
+			MeasurementRecord actual = dataset.getRecord(row);
+			assertEquals(expected.getDate().getDay(), actual.getDate().getDay());
+			assertEquals(expected.getDate().getMonth(), actual.getDate().getMonth());
+			assertEquals(expected.getDate().getYear(), actual.getDate().getYear());
+			assertEquals(expected.getTime().getHour(), actual.getTime().getHour());
+			assertEquals(expected.getTime().getMinute(), actual.getTime().getMinute());
+			assertEquals(expected.getSub_metering_1(), dataset.getSub_metering_1(row), 0);
+			assertEquals(expected.getSub_metering_2(), dataset.getSub_metering_2(row), 0);
+			assertEquals(expected.getSub_metering_3(), dataset.getSub_metering_3(row), 0);
+		}
+	}
+
+	@Test
+	public void aggregateSameAsRecords() {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+
+		for(String aggType : new String[] {"season", "month", "dayofweek", "periodofday"}) {
+			IResult expected = mainEngine.aggregateByTimeUnit(objCollection, aggType, "avg", "records");
+			IResult actual = mainEngine.aggregateByTimeUnit(dataset, aggType, "avg", "dataset");
+			assertEquals(expected.getAggregateMeterKitchen(), actual.getAggregateMeterKitchen());
+			assertEquals(expected.getAggregateMeterLaundry(), actual.getAggregateMeterLaundry());
+			assertEquals(expected.getAggregateMeterAC(), actual.getAggregateMeterAC());
+		}
+	}
+
+	@Test
+	public void loadIntoNullDataset() {
+		MeasurementDataset dataset = null;
+		assertEquals(mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset), -1);
+	}
+}
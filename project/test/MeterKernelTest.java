@@ -0,0 +1,115 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static test.AggregationFixtures.assertSameAggregates;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+import timeaggregation.IMeterKernel;
+import timeaggregation.MeterKernels;
+
+public class MeterKernelTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+	private static String[] aggTypes = {"season", "month", "dayofweek", "periodofday"};
+	private static String[] aggFunctions = {"sum", "avg", "min", "max", "count", "stddev"};
+
+	@Test
+	public void foldLikeALoop() {
+		Random random = new Random(7);
+		double[] values = new double[1003];
+		int[] buckets = new int[values.length - 5];
+		for(int row = 0; row < values.length; row++)
+			values[row] = random.nextInt(40) + random.nextDouble();
+		for(int row = 0; row < buckets.length; row++)
+			buckets[row] = random.nextInt(5);
+
+		/* The kernel of the runtime, vectorized or not, against the scalar kernel and a plain loop */
+		for(IMeterKernel kernel : new IMeterKernel[] {MeterKernels.create("scalar"), MeterKernels.create("auto")}) {
+			double[] stats = {0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+			kernel.fold(values, 3, 1000, stats);
+			double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+			for(int row = 3; row < 1000; row++) {
+				sum += values[row];
+				min = Math.min(min, values[row]);
+				max = Math.max(max, values[row]);
+			}
+			assertEquals(sum, stats[0], 1e-9);
+			assertEquals(min, stats[1], 0);
+			assertEquals(max, stats[2], 0);
+
+			double squares = 0;
+			for(int row = 3; row < 1000; row++)
+				squares += (values[row] - sum / 997) * (values[row] - sum / 997);
+			assertEquals(squares, kernel.squaredDeviations(values, 3, 1000, sum / 997), 1e-6);
+
+			for(int bucket = 0; bucket < 6; bucket++) {
+				double[] masked = {0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+				kernel.foldMasked(buckets, bucket, values, 5, buckets.length, masked);
+				double maskedSum = 0, maskedSquares = 0;
+				int count = 0;
+				for(int row = 0; row < buckets.length; row++) {
+					if(buckets[row] == bucket) {
+						maskedSum += values[5 + row];
+						maskedSquares += (values[5 + row] - 20) * (values[5 + row] - 20);
+						count++;
+					}
+				}
+				assertEquals(maskedSum, masked[0], 1e-9);
+				assertEquals(count, masked[1], 0);
+				assertEquals(maskedSquares, kernel.squaredDeviationsMasked(buckets, bucket, values, 5, buckets.length, 20), 1e-6);
+			}
+		}
+	}
+
+	@Test
+	public void aggregateColumnsAsRecords() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		mainEngine.setRollupMode(false);
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+
+		/* The rows in reverse order are folded a time unit at a time instead of a run at a time */
+		MeasurementDataset reversed = new MeasurementDataset();
+		for(int row = dataset.size() - 1; row >= 0; row--)
+			reversed.add(dataset.getEpochMinute(row), dataset.getSub_metering_1(row), dataset.getSub_metering_2(row), dataset.getSub_metering_3(row));
+
+		for(String kernel : new String[] {"scalar", "auto"}) {
+			assertEquals(0, mainEngine.setMeterKernel(kernel));
+			for(String aggType : aggTypes) {
+				for(String aggFunction : aggFunctions) {
+					IResult expected = mainEngine.aggregateByTimeUnit(objCollection, aggType, aggFunction, "records");
+					assertSameAggregates(expected, mainEngine.aggregateByTimeUnit(dataset, aggType, aggFunction, "columns"));
+					assertSameAggregates(expected, mainEngine.aggregateByTimeUnit(reversed, aggType, aggFunction, "reversed"));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void chooseKernels() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		assertNotNull(MeterKernels.create("auto"));
+		assertNotNull(MeterKernels.create("scalar"));
+		assertNull(MeterKernels.create("random"));
+		assertNull(MeterKernels.create(null));
+		assertEquals(-1, mainEngine.setMeterKernel("random"));
+		assertEquals((MeterKernels.create("vector") == null) ? -1 : 0, mainEngine.setMeterKernel("vector"));
+	}
+}
@@ -0,0 +1,61 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import dataload.ModelInterner;
+import datamodel.MeasurementRecord;
+import mainengine.MainEngineFactory;
+import mainengine.IMainEngine;
+
+public class ModelInternerTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+	private static IMainEngine mainEngine = factory.createMainEngine("MainEngine");
+
+	@Test
+	public void shareEqualModels() {
+		ModelInterner interner = new ModelInterner();
+		assertSame(interner.dateOf(2007, 1, 4), interner.dateOf(2007, 1, 4));
+		assertSame(interner.dateOf(2007, 1, 4), new ModelInterner().dateOf(2007, 1, 4));
+		assertNotSame(interner.dateOf(2007, 1, 4), interner.dateOf(2007, 1, 5));
+		assertEquals(interner.dateOf(2007, 1, 4).getMonth(), "01");
+		assertEquals(interner.dateOf(2007, 1, 4).getYear(), "2007");
+
+		assertSame(interner.timeOf(20, 51, 0), interner.timeOf("20", "51", "00"));
+		assertSame(interner.timeOf(20, 51, 7), interner.timeOf("20", "51", "07"));
+		assertEquals(interner.timeOf(9, 5, 0).getHour(), "09");
+		assertEquals(interner.dateOf("04", "01", "2007").getDay(), "04");
+
+		/* A day has a single model whether it was asked for by its numbers or by its Strings */
+		assertSame(interner.dateOf(2007, 1, 4), new ModelInterner().dateOf("04", "01", "2007"));
+		assertSame(new ModelInterner().dateOf("05", "01", "2007"), interner.dateOf(2007, 1, 5));
+		assertEquals(interner.dateOf("4", "1", "2007").getDay(), "4");
+		assertNotSame(interner.dateOf("4", "1", "2007"), interner.dateOf(2007, 1, 4));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void rejectChangesToSharedDate() {
+		new ModelInterner().dateOf(2007, 1, 4).setDay("05");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void rejectChangesToSharedTime() {
+		new ModelInterner().timeOf(20, 51, 0).setMinute("52");
+	}
+
+	@Test
+	public void loadRecordsWithSharedModels() {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData("./Resources/TestInput/household_preview.txt", ";", true, 9, objCollection);
+
+		/* The whole preview is a single day */
+		for(MeasurementRecord record : objCollection)
+			assertSame(record.getDate(), objCollection.get(0).getDate());
+		assertEquals(objCollection.get(0).getTime().getMinute(), "24");
+	}
+}
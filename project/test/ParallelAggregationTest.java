@@ -0,0 +1,65 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static test.AggregationFixtures.assertIdentical;
+import static test.AggregationFixtures.loadRepeated;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class ParallelAggregationTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String[] aggTypes = {"season", "month", "dayofweek", "periodofday"};
+
+	@Test
+	public void sameResultsForAnyParallelism() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = loadRepeated(mainEngine, 2000);
+		MeasurementDataset dataset = new MeasurementDataset();
+		for(MeasurementRecord record : objCollection)
+			dataset.add(record);
+
+		for(String aggType : aggTypes) {
+			for(String aggFunction : new String[] {"sum", "avg"}) {
+				mainEngine.setParallelism(1);
+				IResult sequential = mainEngine.aggregateByTimeUnit(objCollection, aggType, aggFunction, "sequential");
+				IResult sequentialDataset = mainEngine.aggregateByTimeUnit(dataset, aggType, aggFunction, "sequential");
+				mainEngine.setParallelism(4);
+				assertIdentical(sequential, mainEngine.aggregateByTimeUnit(objCollection, aggType, aggFunction, "parallel"));
+				assertIdentical(sequentialDataset, mainEngine.aggregateByTimeUnit(dataset, aggType, aggFunction, "parallel"));
+			}
+		}
+	}
+
+	@Test
+	public void keepDetailedResultsInInputOrder() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = loadRepeated(mainEngine, 1000);
+		mainEngine.setDetailedResults(true);
+		mainEngine.setParallelism(3);
+
+		IResult result = mainEngine.aggregateByTimeUnit(objCollection, "month", "sum", "detailed");
+		ArrayList<MeasurementRecord> january = result.getDetailedResults().get("JAN");
+		int next = 0;
+		for(MeasurementRecord record : objCollection)
+			if(record.getDate().getMonth().equals("01"))
+				assertSame(january.get(next++), record);
+		assertEquals(january.size(), next);
+	}
+
+	@Test
+	public void rejectWrongParallelism() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		assertEquals(mainEngine.setParallelism(0), -1);
+		assertEquals(mainEngine.setParallelism(2), 0);
+	}
+}
@@ -0,0 +1,223 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+
+import datamodel.EpochTime;
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import datamodel.PeakRecord;
+import datamodel.TimeUnitMappingModel;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class PeakFinderTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+	private static String[] seasons = {"WINTER", "WINTER", "SPRING", "SPRING", "SPRING", "SUMMER", "SUMMER", "SUMMER", "AUTUMN", "AUTUMN", "AUTUMN", "WINTER"};
+
+	/* The peaks of every season and meter the slow way: the consumption of every period, sorted with the earlier period first among equal ones */
+	private static ArrayList<HashMap<String, ArrayList<PeakRecord>>> expectedPeaks(MeasurementDataset dataset, int periodMinutes, int count) {
+		return expectedPeaks(dataset, periodMinutes, count, epochMinute -> seasons[EpochTime.monthOf(EpochTime.epochDayOf(epochMinute)) - 1]);
+	}
+
+	/* The peaks of every time unit and meter the slow way, where a period split among time units counts within each of them apart */
+	private static ArrayList<HashMap<String, ArrayList<PeakRecord>>> expectedPeaks(MeasurementDataset dataset, int periodMinutes, int count, IntFunction<String> timeUnitOf) {
+		ArrayList<HashMap<String, ArrayList<PeakRecord>>> meters = new ArrayList<>();
+		for(int meter = 0; meter < 3; meter++) {
+			HashMap<String, HashMap<Integer, Double>> totals = new HashMap<>();
+			for(int row = 0; row < dataset.size(); row++)
+				totals.computeIfAbsent(timeUnitOf.apply(dataset.getEpochMinute(row)), timeUnit -> new HashMap<>())
+						.merge(Math.floorDiv(dataset.getEpochMinute(row), periodMinutes) * periodMinutes, dataset.getMeterColumn(meter)[row], Double::sum);
+
+			HashMap<String, ArrayList<PeakRecord>> peaks = new HashMap<>();
+			totals.forEach((timeUnit, periods) -> periods.forEach((epochMinute, value) -> peaks.computeIfAbsent(timeUnit,
+					ranked -> new ArrayList<>()).add(new PeakRecord(epochMinute, periodMinutes, value))));
+			for(ArrayList<PeakRecord> ranked : peaks.values()) {
+				Collections.sort(ranked, (first, second) -> (first.getValue() != second.getValue()) ? Double.compare(second.getValue(), first.getValue())
+						: Integer.compare(first.getEpochMinute(), second.getEpochMinute()));
+				ranked.subList(Math.min(count, ranked.size()), ranked.size()).clear();
+			}
+			meters.add(peaks);
+		}
+		return meters;
+	}
+
+	private static void assertPeaks(String message, ArrayList<HashMap<String, ArrayList<PeakRecord>>> expected, IResult result) {
+		ArrayList<HashMap<String, ArrayList<PeakRecord>>> actual = new ArrayList<>();
+		actual.add(result.getPeakMeterKitchen());
+		actual.add(result.getPeakMeterLaundry());
+		actual.add(result.getPeakMeterAC());
+		for(int meter = 0; meter < 3; meter++) {
+			assertEquals(message + " " + meter, expected.get(meter).keySet(), actual.get(meter).keySet());
+			for(String season : expected.get(meter).keySet()) {
+				ArrayList<PeakRecord> expectedPeaks = expected.get(meter).get(season);
+				ArrayList<PeakRecord> actualPeaks = actual.get(meter).get(season);
+				assertEquals(message + " " + meter + " " + season, expectedPeaks.size(), actualPeaks.size());
+				for(int rank = 0; rank < expectedPeaks.size(); rank++) {
+					assertEquals(message + " " + season + " " + rank, expectedPeaks.get(rank).getEpochMinute(), actualPeaks.get(rank).getEpochMinute());
+					assertEquals(message + " " + season + " " + rank, expectedPeaks.get(rank).getValue(), actualPeaks.get(rank).getValue(), 1e-9);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void findMinutePeaks() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		MeasurementDataset dataset = new MeasurementDataset();
+		for(MeasurementRecord record : objCollection)
+			dataset.add(record);
+		MeasurementDataset ordered = new MeasurementDataset();
+		ordered.addAll(dataset);
+		ordered.sortByTime();
+
+		assertEquals(0, mainEngine.setPeaks("minute", 3));
+		ArrayList<HashMap<String, ArrayList<PeakRecord>>> expected = expectedPeaks(dataset, 1, 3);
+		assertPeaks("list", expected, mainEngine.aggregateByTimeUnit(objCollection, "season", "avg", "list"));
+		assertPeaks("dataset", expected, mainEngine.aggregateByTimeUnit(dataset, "season", "p95", "dataset"));
+		assertPeaks("ordered", expected, mainEngine.aggregateByTimeUnit(ordered, "season", "sum", "ordered"));
+		mainEngine.setDetailedResults(true);
+		assertPeaks("detailed", expected, mainEngine.aggregateByTimeUnit(objCollection, "season", "max", "detailed"));
+
+		PeakRecord highest = mainEngine.aggregateByTimeUnit(dataset, "season", "max", "labels").getPeakMeterAC().get("WINTER").get(0);
+		assertEquals(1, highest.getPeriodMinutes());
+		assertTrue(highest.getLabel(), highest.getLabel().matches("\\d\\d/\\d\\d/\\d{4} \\d\\d:\\d\\d"));
+	}
+
+	@Test
+	public void findHourAndDayPeaksAcrossBlocks() {
+		/* Enough minutes for several blocks, so that hours and days are split between blocks aggregated by different threads */
+		Random random = new Random(25);
+		MeasurementDataset dataset = new MeasurementDataset();
+		int first = EpochTime.toEpochMinute(2007, 1, 1, 0, 0);
+		for(int minute = 0; minute < 300000; minute++)
+			dataset.add(first + minute, random.nextInt(40), random.nextInt(3), random.nextInt(18));
+		MeasurementDataset shuffled = new MeasurementDataset();
+		ArrayList<Integer> rows = new ArrayList<>();
+		for(int row = 0; row < dataset.size(); row++)
+			rows.add(row);
+		Collections.shuffle(rows, random);
+		for(int row : rows)
+			shuffled.add(dataset.getEpochMinute(row), dataset.getSub_metering_1(row), dataset.getSub_metering_2(row), dataset.getSub_metering_3(row));
+
+		String[] periods = {"minute", "hour", "day"};
+		int[] periodMinutes = {1, 60, 1440};
+		for(int period = 0; period < periods.length; period++) {
+			ArrayList<HashMap<String, ArrayList<PeakRecord>>> expected = expectedPeaks(dataset, periodMinutes[period], 5);
+			for(int parallelism : new int[] {1, 4}) {
+				Engine mainEngine = factory.createMainEngine("MainEngine");
+				assertEquals(0, mainEngine.setParallelism(parallelism));
+				assertEquals(0, mainEngine.setPeaks(periods[period], 5));
+				String message = periods[period] + " " + parallelism;
+				assertPeaks(message + " ordered", expected, mainEngine.aggregateByTimeUnit(dataset, "season", "avg", "ordered"));
+				assertPeaks(message + " shuffled", expected, mainEngine.aggregateByTimeUnit(shuffled, "season", "avg", "shuffled"));
+			}
+		}
+	}
+
+	@Test
+	public void findDayPeaksWithinPeriodsOfDay() {
+		/* A day spans all periods of the day, so its consumption within each of them is ranked apart, whichever period comes first or thread adds it */
+		Random random = new Random(26);
+		MeasurementDataset dataset = new MeasurementDataset();
+		int first = EpochTime.toEpochMinute(2007, 1, 1, 0, 0);
+		for(int minute = 0; minute < 300000; minute++)
+			dataset.add(first + minute, random.nextInt(40), random.nextInt(3), random.nextInt(18));
+		HashMap<String, String> periodOfDay = new TimeUnitMappingModel().getPeriodOfDay();
+
+		ArrayList<HashMap<String, ArrayList<PeakRecord>>> expected = expectedPeaks(dataset, 1440, 5,
+				epochMinute -> periodOfDay.get(EpochTime.twoDigits(EpochTime.hourOf(epochMinute))));
+		for(int parallelism : new int[] {1, 4}) {
+			Engine mainEngine = factory.createMainEngine("MainEngine");
+			assertEquals(0, mainEngine.setParallelism(parallelism));
+			assertEquals(0, mainEngine.setPeaks("day", 5));
+			assertPeaks("day " + parallelism, expected, mainEngine.aggregateByTimeUnit(dataset, "periodofday", "avg", "periods of day"));
+		}
+	}
+
+	@Test
+	public void rejectWrongPeaks() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		assertEquals(-1, mainEngine.setPeaks("week", 3));
+		assertEquals(-1, mainEngine.setPeaks("hour", 0));
+		assertTrue(mainEngine.aggregateByTimeUnit(objCollection, "season", "avg", "no peaks").getPeakMeterKitchen().isEmpty());
+
+		assertEquals(0, mainEngine.setPeaks("hour", 2));
+		assertEquals(2, mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "peaks").getPeakMeterKitchen().values().iterator().next().size());
+		assertEquals(0, mainEngine.setPeaks(null, 0));
+		assertTrue(mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "peaks off").getPeakMeterKitchen().isEmpty());
+	}
+
+	@Test
+	public void keepPeaksOfCachedAndGroupedResults() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		MeasurementDataset dataset = new MeasurementDataset();
+		for(MeasurementRecord record : objCollection)
+			dataset.add(record);
+		assertEquals(0, mainEngine.setPeaks("day", 2));
+
+		ArrayList<HashMap<String, ArrayList<PeakRecord>>> expected = expectedPeaks(dataset, 1440, 2);
+		assertPeaks("first", expected, mainEngine.aggregateByTimeUnit(dataset, "season", "avg", "first"));
+		long hits = mainEngine.getResultCache().getHits();
+		assertPeaks("cached", expected, mainEngine.aggregateByTimeUnit(dataset, "season", "avg", "cached"));
+		assertEquals(hits + 1, mainEngine.getResultCache().getHits());
+
+		/* Every cell of a grid keeps peaks of its own, which together hold the peaks of every row */
+		IResult grid = mainEngine.aggregateByTimeUnits(dataset, "season", "periodofday", "avg", "grid");
+		int cells = 0;
+		for(String cell : grid.getPeakMeterAC().keySet()) {
+			assertTrue(cell, cell.contains(" / "));
+			cells += grid.getPeakMeterAC().get(cell).size();
+		}
+		assertTrue(cells >= 2);
+	}
+
+	@Test
+	public void reportPeaks() throws Exception {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		assertEquals(0, mainEngine.setPeaks("minute", 3));
+		IResult result = mainEngine.aggregateByTimeUnit(objCollection, "season", "avg", "Peaks by season");
+		IResult grid = mainEngine.aggregateByTimeUnits(objCollection, "season", "periodofday", "avg", "Peaks by season and period of day");
+		String highest = result.getPeakMeterAC().get("WINTER").get(0).getLabel();
+
+		File directory = Files.createTempDirectory("peaks").toFile();
+		String[] exportTypes = {"html", "md", "txt"};
+		for(String exportType : exportTypes) {
+			for(IResult reported : new IResult[] {result, grid}) {
+				File report = new File(directory, "peaks." + exportType);
+				assertEquals(0, mainEngine.reportResultInFile(reported, exportType, report.getPath()));
+				String contents = new String(Files.readAllBytes(report.toPath()));
+				assertTrue(exportType, contents.contains("A/C peaks"));
+				assertTrue(exportType, contents.contains(" #1: "));
+				assertTrue(exportType, contents.contains(highest) || reported == grid);
+				report.delete();
+			}
+		}
+		directory.delete();
+	}
+}
@@ -0,0 +1,113 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dataload.DatasetSnapshot;
+import dataload.DayIndex;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class RangeLoadTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	private Engine mainEngine;
+	private File inputFile;
+
+	@Before
+	public void setUp() throws Exception {
+		mainEngine = factory.createMainEngine("MainEngine");
+		mainEngine.setSnapshotMode(false);
+		inputFile = File.createTempFile("2007_sample", ".tsv");
+		Files.copy(new File("./Resources/TestInput/2007_sample.tsv").toPath(), inputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@After
+	public void tearDown() {
+		new File(DayIndex.indexPathOf(inputFile.getPath())).delete();
+		new File(DatasetSnapshot.snapshotPathOf(inputFile.getPath())).delete();
+		inputFile.delete();
+	}
+
+	/* The rows of the whole file whose date falls in [fromMonth, toMonth] of 2007 */
+	private ArrayList<MeasurementRecord> expectedRows(int fromMonth, int toMonth) {
+		ArrayList<MeasurementRecord> all = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, all);
+		ArrayList<MeasurementRecord> expected = new ArrayList<MeasurementRecord>();
+		for(MeasurementRecord record : all) {
+			int month = Integer.parseInt(record.getDate().getMonth());
+			if(month >= fromMonth && month <= toMonth)
+				expected.add(record);
+		}
+		return expected;
+	}
+
+	private static void assertSameRows(ArrayList<MeasurementRecord> expected, ArrayList<MeasurementRecord> actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int row = 0; row < expected.size(); row++) {
+			assertEquals(expected.get(row).getDate().getDay(), actual.get(row).getDate().getDay());
+			assertEquals(expected.get(row).getDate().getMonth(), actual.get(row).getDate().getMonth());
+			assertEquals(expected.get(row).getTime().getMinute(), actual.get(row).getTime().getMinute());
+			assertEquals(expected.get(row).getSub_metering_3(), actual.get(row).getSub_metering_3(), 0);
+		}
+	}
+
+	@Test
+	public void loadRangeThroughDayIndex() {
+		ArrayList<MeasurementRecord> expected = expectedRows(3, 5);
+		assertTrue(expected.size() > 0);
+
+		/* The full load above built the index */
+		DayIndex dayIndex = DayIndex.read(inputFile.getPath());
+		assertNotNull(dayIndex);
+		assertEquals(dayIndex.size(), 103);
+
+		ArrayList<MeasurementRecord> actual = new ArrayList<MeasurementRecord>();
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "01/03/2007", "31/05/2007", actual), expected.size());
+		assertSameRows(expected, actual);
+	}
+
+	@Test
+	public void loadRangeWithoutDayIndex() {
+		ArrayList<MeasurementRecord> actual = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "01/11/2007", null, actual);
+		assertNotNull(DayIndex.read(inputFile.getPath()));
+		new File(DayIndex.indexPathOf(inputFile.getPath())).delete();
+
+		assertSameRows(expectedRows(11, 12), actual);
+	}
+
+	@Test
+	public void loadRangeFromSnapshot() {
+		mainEngine.setSnapshotMode(true);
+		ArrayList<MeasurementRecord> expected = expectedRows(7, 7);
+
+		MeasurementDataset actual = new MeasurementDataset();
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "01/07/2007", "31/07/2007", actual), expected.size());
+		assertSameRows(expected, actual.toRecords());
+	}
+
+	@Test
+	public void loadEmptyAndWrongRanges() {
+		MeasurementDataset dataset = new MeasurementDataset();
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "01/01/2009", "31/12/2009", dataset), 0);
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "31/12/2007", "01/01/2007", dataset), -1);
+		assertEquals(mainEngine.loadData(inputFile.getPath(), delimeter, hasHeaderLine, numFields, "2007-01-01", null, dataset), -1);
+	}
+}
@@ -0,0 +1,103 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import dataload.RecordParser;
+
+/**
+ * @class RecordParserBenchmark
+ * @brief Compares the String.split/Double.parseDouble parsing with the byte level RecordParser,
+ * 			decoding either all the columns or only the ones the data model keeps,
+ * 			in rows per second and bytes allocated per row
+ *
+ * Run with: java -cp bin test.RecordParserBenchmark [input file] [delimiter] [rounds]
+ */
+public class RecordParserBenchmark {
+	private static final com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	private static double checksum;
+
+	/* The parsing part of Loader.createDataRecord before the byte level parser */
+	private static int parseWithSplit(String inputFile, String delimiter) throws Exception {
+		int rows = 0;
+		try(BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
+			reader.readLine();
+			String data;
+			while((data = reader.readLine()) != null) {
+				String[] dataItems = data.split(delimiter);
+				if(dataItems.length != 9)
+					continue;
+				String[] dateItems = dataItems[0].split("/");
+				String[] timeItems = dataItems[1].split(":");
+				checksum += Integer.parseInt(dateItems[0]) + Integer.parseInt(timeItems[1]);
+				for(int column = 2; column < 9; column++)
+					checksum += Double.parseDouble(dataItems[column]);
+				rows++;
+			}
+		}
+		return rows;
+	}
+
+	private static int parseWithBytes(String inputFile, String delimiter, int... columns) throws Exception {
+		RecordParser parser = new RecordParser((byte)RecordParser.delimiterByte(delimiter), 9);
+		if(columns.length > 0)
+			parser.setColumns(columns);
+		int rows = 0;
+		try(RandomAccessFile file = new RandomAccessFile(inputFile, "r");
+			FileChannel channel = file.getChannel()) {
+			ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			int start = 0;
+			boolean header = true;
+			while(start < buf.limit()) {
+				int end = start;
+				while(end < buf.limit() && buf.get(end) != '\n')
+					end++;
+				if(!header && parser.parse(buf, start, end) == RecordParser.OK) {
+					checksum += parser.getDay() + parser.getMinute();
+					for(int column = RecordParser.SUB_METERING_1; column < 9; column++)
+						checksum += parser.getValue(column);
+					rows++;
+				}
+				header = false;
+				start = end + 1;
+			}
+		}
+		return rows;
+	}
+
+	private interface Run {
+		int rows() throws Exception;
+	}
+
+	private static void measure(String name, Run run) throws Exception {
+		long threadId = Thread.currentThread().getId();
+		long allocated = threads.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		int rows = run.rows();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+
+		System.out.printf("%-8s %9d rows %12.0f rows/sec %10.1f bytes/row %10.1f MB/sec allocated%n",
+				name, rows, rows / seconds, (double)allocated / rows, allocated / seconds / (1 << 20));
+	}
+
+	public static void main(String[] args) throws Exception {
+		String inputFile = (args.length > 0) ? args[0] : "./Resources/TestInput/household_preview.txt";
+		String delimiter = (args.length > 1) ? args[1] : ";";
+		int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+
+		for(int round = 1; round <= rounds; round++) {
+			System.out.println("Round " + round);
+			measure("split", () -> parseWithSplit(inputFile, delimiter));
+			measure("bytes", () -> parseWithBytes(inputFile, delimiter));
+			measure("minimal", () -> parseWithBytes(inputFile, delimiter, RecordParser.MODEL_COLUMNS));
+		}
+		System.out.println("checksum " + checksum);
+	}
+}
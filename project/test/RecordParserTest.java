@@ -0,0 +1,81 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import dataload.RecordParser;
+
+public class RecordParserTest {
+	private static RecordParser parser = new RecordParser((byte)';', 9);
+
+	private static int parse(String line) {
+		ByteBuffer buf = ByteBuffer.wrap(line.getBytes(StandardCharsets.ISO_8859_1));
+		return parser.parse(buf, 0, buf.limit());
+	}
+
+	@Test
+	public void parseValidLine() {
+		assertEquals(parse("16/12/2006;17:24:00;4.216;0.418;234.840;18.400;0.000;1.000;17.000"), RecordParser.OK);
+		assertEquals(parser.getDay(), 16);
+		assertEquals(parser.getMonth(), 12);
+		assertEquals(parser.getYear(), 2006);
+		assertEquals(parser.getHour(), 17);
+		assertEquals(parser.getMinute(), 24);
+		assertEquals(parser.getSecond(), 0);
+		assertEquals(parser.getValue(RecordParser.GLOBAL_ACTIVE_POWER), Double.parseDouble("4.216"), 0);
+		assertEquals(parser.getValue(RecordParser.VOLTAGE), Double.parseDouble("234.840"), 0);
+		assertEquals(parser.getValue(RecordParser.SUB_METERING_3), 17.0, 0);
+	}
+
+	@Test
+	public void parseSameValuesAsParseDouble() {
+		String[] numbers = {"0.000", "17.000", "0.1", "1.3", "238.26", "-0.000", "3222", "0.0", "16000", "1e3", "123456789012345678901"};
+		for(String number : numbers) {
+			assertEquals(parse("01/01/2007;00:00:00;" + number + ";0;0;0;0;0;0"), RecordParser.OK);
+			assertEquals(Double.doubleToLongBits(parser.getValue(RecordParser.GLOBAL_ACTIVE_POWER)),
+					Double.doubleToLongBits(Double.parseDouble(number)));
+		}
+	}
+
+	@Test
+	public void parseWrongLines() {
+		assertEquals(parse("14/01/2007;18:36:00;;;;;;;"), RecordParser.SKIP);
+		assertEquals(parse("14/01/2007;18:36:00;?;?;?;?;?;?;?"), RecordParser.SKIP);
+		assertEquals(parse("14/01/2007\t18:36:00\t1\t1\t1\t1\t1\t1\t1"), RecordParser.DELIMITER_ERROR);
+		assertEquals(parse("Date;Time;Global_active_power;Global_reactive_power;Voltage;Global_intensity;Sub_metering_1;Sub_metering_2;Sub_metering_3"),
+				RecordParser.HEADER_ERROR);
+	}
+
+	@Test
+	public void findDelimiterByte() {
+		assertEquals(RecordParser.delimiterByte(";"), ';');
+		assertEquals(RecordParser.delimiterByte("\t"), '\t');
+		assertEquals(RecordParser.delimiterByte("\\t"), '\t');
+		assertEquals(RecordParser.delimiterByte("|"), -1);
+		assertEquals(RecordParser.delimiterByte("randomdelimeter"), -1);
+	}
+
+	@Test
+	public void parseProjectedColumns() {
+		RecordParser projected = new RecordParser((byte)';', 9);
+		projected.setColumns(RecordParser.MODEL_COLUMNS);
+
+		ByteBuffer buf = ByteBuffer.wrap("16/12/2006;17:24:00;4.216;0.418;234.840;18.400;0.000;1.000;17.000".getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(projected.parse(buf, 0, buf.limit()), RecordParser.OK);
+		assertEquals(projected.getMinute(), 24);
+		assertEquals(projected.getValue(RecordParser.SUB_METERING_2), 1.0, 0);
+		assertEquals(projected.getValue(RecordParser.SUB_METERING_3), 17.0, 0);
+		assertTrue(Double.isNaN(projected.getValue(RecordParser.VOLTAGE)));
+
+		/* Skipped columns are still checked for missing values */
+		buf = ByteBuffer.wrap("14/01/2007;18:36:00;?;?;?;?;1;1;1".getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(projected.parse(buf, 0, buf.limit()), RecordParser.SKIP);
+		buf = ByteBuffer.wrap("14/01/2007;18:36:00;1;;1;1;1;1;1".getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(projected.parse(buf, 0, buf.limit()), RecordParser.SKIP);
+	}
+}
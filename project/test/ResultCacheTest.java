@@ -0,0 +1,134 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+import mainengine.ResultCache;
+
+public class ResultCacheTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	@Test
+	public void answerRepeatedAggregations() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		ResultCache cache = mainEngine.getResultCache();
+
+		IResult first = mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "first");
+		IResult second = mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "second");
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertNotSame(first, second);
+		assertEquals("second", second.getDescription());
+		assertEquals(first.getAggregateMeterKitchen(), second.getAggregateMeterKitchen());
+		assertEquals(first.getAggregateMeterAC(), second.getAggregateMeterAC());
+
+		/* A returned result may be changed without changing the cached one */
+		second.getAggregateMeterKitchen().clear();
+		assertEquals(first.getAggregateMeterKitchen(), mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "third").getAggregateMeterKitchen());
+
+		mainEngine.aggregateByTimeUnit(objCollection, "month", "sum", "other function");
+		mainEngine.aggregateByTimeUnit(objCollection, "season", "avg", "other time unit");
+		assertEquals(3, cache.getMisses());
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void evictTheLeastRecentlyUsed() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+		ResultCache cache = mainEngine.getResultCache();
+		assertEquals(0, mainEngine.setResultCacheSize(2));
+
+		mainEngine.aggregateByTimeUnit(dataset, "season", "avg", "season");
+		mainEngine.aggregateByTimeUnit(dataset, "month", "avg", "month");
+		mainEngine.aggregateByTimeUnit(dataset, "season", "avg", "season again");
+		mainEngine.aggregateByTimeUnit(dataset, "dayofweek", "avg", "evicts month");
+		assertEquals(1, cache.getEvictions());
+		assertEquals(2, cache.size());
+
+		mainEngine.aggregateByTimeUnit(dataset, "season", "avg", "still cached");
+		assertEquals(2, cache.getHits());
+		mainEngine.aggregateByTimeUnit(dataset, "month", "avg", "evicted");
+		assertEquals(4, cache.getMisses());
+
+		assertEquals(0, mainEngine.setResultCacheSize(1));
+		assertEquals(1, cache.size());
+		assertEquals(-1, mainEngine.setResultCacheSize(-1));
+	}
+
+	@Test
+	public void invalidateOnLoadAndChange() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+		ResultCache cache = mainEngine.getResultCache();
+
+		IResult before = mainEngine.aggregateByTimeUnit(dataset, "month", "count", "before");
+		assertEquals(1, cache.size());
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, new ArrayList<MeasurementRecord>());
+		assertEquals(0, cache.size());
+
+		mainEngine.aggregateByTimeUnit(dataset, "month", "count", "cached again");
+		dataset.add(dataset.getEpochMinute(0), 1, 1, 1);
+		IResult after = mainEngine.aggregateByTimeUnit(dataset, "month", "count", "after");
+		assertEquals(0, cache.getHits());
+		double counted = 0;
+		for(String month : after.getAggregateMeterKitchen().keySet())
+			counted += after.getAggregateMeterKitchen().get(month) - before.getAggregateMeterKitchen().getOrDefault(month, 0.0);
+		assertEquals(1, counted, 0);
+	}
+
+	@Test
+	public void invalidateOnRecordChangedInPlace() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		for(int time = 0; time < 100; time++) {
+			ArrayList<MeasurementRecord> sample = new ArrayList<MeasurementRecord>();
+			mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, sample);
+			objCollection.addAll(sample);
+		}
+		ResultCache cache = mainEngine.getResultCache();
+
+		/* Every record of the list is part of its key, not only the ones a sample would pick */
+		IResult before = mainEngine.aggregateByTimeUnit(objCollection, "month", "sum", "before");
+		MeasurementRecord changed = objCollection.get(1);
+		changed.setSub_metering_1(changed.getSub_metering_1() + 1000);
+		IResult after = mainEngine.aggregateByTimeUnit(objCollection, "month", "sum", "after");
+		assertEquals(0, cache.getHits());
+		mainEngine.setResultCacheSize(0);
+		IResult uncached = mainEngine.aggregateByTimeUnit(objCollection, "month", "sum", "uncached");
+		assertEquals(uncached.getAggregateMeterKitchen(), after.getAggregateMeterKitchen());
+		assertTrue(!before.getAggregateMeterKitchen().equals(after.getAggregateMeterKitchen()));
+	}
+
+	@Test
+	public void leaveDetailedResultsOut() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		mainEngine.setDetailedResults(true);
+
+		mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "detailed");
+		mainEngine.aggregateByTimeUnit(objCollection, "month", "avg", "detailed");
+		assertEquals(0, mainEngine.getResultCache().size());
+		assertEquals(0, mainEngine.getResultCache().getHits());
+	}
+}
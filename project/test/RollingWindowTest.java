@@ -0,0 +1,125 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import datamodel.TimeSeriesResultModel;
+import mainengine.IMainEngine;
+import mainengine.MainEngineFactory;
+import timeaggregation.Aggregator;
+
+public class RollingWindowTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+	private static IMainEngine mainEngine = factory.createMainEngine("MainEngine");
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	/* Minutes 0 to 9 and 20 to 29 of a day, leaving ten minutes missing in between */
+	private static MeasurementDataset datasetWithGap() {
+		MeasurementDataset dataset = new MeasurementDataset();
+		for(int minute = 0; minute < 30; minute++)
+			if(minute < 10 || minute >= 20)
+				dataset.add(20000 * 1440 + minute, minute, 2 * minute, 1);
+		return dataset;
+	}
+
+	@Test
+	public void slideAsTheWindowsOfEveryStep() {
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+
+		for(int windowMinutes : new int[] {1, 15, 60}) {
+			TimeSeriesResultModel series = mainEngine.aggregateRolling(dataset, windowMinutes, 1, "sum", "rolling");
+			assertEquals(dataset.getEpochMinute(dataset.size() - 1) - dataset.getEpochMinute(0) + 1, series.size());
+			for(int step = 0; step < series.size(); step++) {
+				int minute = series.getEpochMinute(step);
+				double sum = 0;
+				int count = 0;
+				for(int row = 0; row < dataset.size(); row++) {
+					if(dataset.getEpochMinute(row) > minute - windowMinutes && dataset.getEpochMinute(row) <= minute) {
+						sum += dataset.getSub_metering_3(row);
+						count++;
+					}
+				}
+				assertEquals(sum, series.getAC(step), 1e-9);
+				assertEquals(count, series.getCount(step));
+			}
+		}
+	}
+
+	@Test
+	public void leaveMissingMinutesOut() {
+		TimeSeriesResultModel series = mainEngine.aggregateRolling(datasetWithGap(), 5, 1, "avg", "gap");
+		assertEquals(30, series.size());
+
+		/* Minute 12 covers the minutes 8 to 12, of which only 8 and 9 are present */
+		assertEquals(2, series.getCount(12));
+		assertEquals(8.5, series.getKitchen(12), 1e-9);
+		assertEquals(17, series.getLaundry(12), 1e-9);
+
+		/* Minutes 14 to 19 cover no measurement at all */
+		for(int step = 14; step < 20; step++) {
+			assertEquals(0, series.getCount(step));
+			assertTrue(Double.isNaN(series.getKitchen(step)));
+		}
+		assertEquals(22, series.getKitchen(24), 1e-9);
+		assertEquals(5, series.getCount(24));
+	}
+
+	@Test
+	public void emitEveryStep() {
+		ArrayList<MeasurementRecord> records = datasetWithGap().toRecords();
+		TimeSeriesResultModel series = mainEngine.aggregateRolling(records, 10, 7, "count", "steps");
+		assertEquals(5, series.size());
+		for(int step = 0; step < series.size(); step++)
+			assertEquals(series.getEpochMinute(0) + 7 * step, series.getEpochMinute(step));
+		assertEquals("04/10/2024 00:28", series.getLabel(4));
+		assertEquals(9, series.getKitchen(4), 0);
+		assertEquals(10, series.getWindowMinutes());
+		assertEquals(7, series.getStepMinutes());
+	}
+
+	@Test
+	public void reportTheSeries() throws Exception {
+		TimeSeriesResultModel series = mainEngine.aggregateRolling(datasetWithGap(), 5, 1, "avg", "Rolling average");
+		File directory = Files.createTempDirectory("rolling").toFile();
+		for(String exportType : new String[] {"txt", "md", "html"}) {
+			File report = new File(directory, "series." + exportType);
+			assertEquals(0, mainEngine.reportTimeSeriesInFile(series, exportType, report.getPath()));
+
+			List<String> lines = Files.readAllLines(report.toPath());
+			assertTrue(lines.get(0).contains("Rolling average") || lines.get(0).startsWith("<!doctype"));
+			assertTrue(lines.stream().anyMatch(line -> line.contains("04/10/2024 00:24")));
+			report.delete();
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void aggregateRollingWithWrongInputs() {
+		MeasurementDataset dataset = datasetWithGap();
+		assertNull(mainEngine.aggregateRolling((MeasurementDataset)null, 5, 1, "avg", "Desc"));
+		assertNull(mainEngine.aggregateRolling((ArrayList<MeasurementRecord>)null, 5, 1, "avg", "Desc"));
+		assertNull(mainEngine.aggregateRolling(dataset, 0, 1, "avg", "Desc"));
+		assertNull(mainEngine.aggregateRolling(dataset, 5, 0, "avg", "Desc"));
+		assertNull(mainEngine.aggregateRolling(dataset, 5, 1, "p95", "Desc"));
+		assertNull(mainEngine.aggregateRolling(dataset, 5, 1, "avgg", "Desc"));
+		assertNull(new Aggregator().aggregateRolling(dataset, 5, 1, "avgg", "Desc"));
+		assertNull(mainEngine.aggregateRolling(dataset, 5, 1, "avg", ""));
+		assertEquals(0, mainEngine.aggregateRolling(new MeasurementDataset(), 5, 1, "avg", "Desc").size());
+		assertEquals(-1, mainEngine.reportTimeSeriesInFile(null, "txt", "./Resources/TestOutput/series.txt"));
+	}
+}
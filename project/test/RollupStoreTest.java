@@ -0,0 +1,118 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static test.AggregationFixtures.assertSameAggregates;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.MeasurementDataset;
+import datamodel.MeasurementRecord;
+import datamodel.RollupStore;
+import mainengine.IMainEngine;
+import mainengine.MainEngineFactory;
+
+public class RollupStoreTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+	private static IMainEngine mainEngine = factory.createMainEngine("MainEngine");
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+	private static String[] aggTypes = {"season", "month", "dayofweek", "periodofday"};
+	private static String[] aggFunctions = {"sum", "avg", "min", "max", "count", "stddev"};
+
+	@Test
+	public void answerFromRollupsAsFromRows() {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+
+		for(String aggType : aggTypes) {
+			for(String aggFunction : aggFunctions) {
+				IResult expected = mainEngine.aggregateByTimeUnit(objCollection, aggType, aggFunction, "rows");
+				IResult actual = mainEngine.aggregateByTimeUnit(dataset, aggType, aggFunction, "rollups");
+				assertSameAggregates(expected, actual);
+				assertEquals(actual.getDescription(), "rollups");
+			}
+		}
+	}
+
+	@Test
+	public void rollUpEveryLevel() {
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+
+		/* The rows in reverse order roll up into the same periods */
+		MeasurementDataset reversed = new MeasurementDataset();
+		for(int row = dataset.size() - 1; row >= 0; row--)
+			reversed.add(dataset.getEpochMinute(row), dataset.getSub_metering_1(row), dataset.getSub_metering_2(row), dataset.getSub_metering_3(row));
+
+		RollupStore rollups = new RollupStore(dataset);
+		RollupStore reversedRollups = new RollupStore(reversed);
+		for(int level = RollupStore.HOUR; level <= RollupStore.YEAR; level++) {
+			int count = 0;
+			double sum = 0;
+			for(int period = 0; period < rollups.size(level); period++) {
+				count += rollups.getCount(level, period);
+				sum += rollups.getSum(level, period, 2);
+				assertEquals(rollups.getPeriod(level, period), reversedRollups.getPeriod(level, period));
+				if(period > 0)
+					assertTrue(rollups.getPeriod(level, period - 1) < rollups.getPeriod(level, period));
+			}
+			assertEquals(rollups.size(level), reversedRollups.size(level));
+			assertEquals(dataset.size(), count);
+
+			double rowSum = 0;
+			for(int row = 0; row < dataset.size(); row++)
+				rowSum += dataset.getSub_metering_3(row);
+			assertEquals(rowSum, sum, 1e-9);
+		}
+		assertTrue(rollups.size(RollupStore.HOUR) >= rollups.size(RollupStore.DAY));
+		assertTrue(rollups.size(RollupStore.DAY) >= rollups.size(RollupStore.MONTH));
+	}
+
+	@Test
+	public void pickTheCoarsestLevel() {
+		assertEquals(RollupStore.MONTH, RollupStore.levelFor("season"));
+		assertEquals(RollupStore.MONTH, RollupStore.levelFor("month"));
+		assertEquals(RollupStore.DAY, RollupStore.levelFor("dayofweek"));
+		assertEquals(RollupStore.HOUR, RollupStore.levelFor("periodofday"));
+		assertEquals(-1, RollupStore.levelFor("random"));
+	}
+
+	@Test
+	public void rebuildRollupsOfChangedDataset() {
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+		RollupStore rollups = new RollupStore(dataset);
+		assertTrue(rollups.isCurrent(dataset));
+
+		IResult before = mainEngine.aggregateByTimeUnit(dataset, "month", "count", "before");
+		dataset.add(dataset.getEpochMinute(0), 1, 2, 3);
+		assertFalse(rollups.isCurrent(dataset));
+
+		IResult after = mainEngine.aggregateByTimeUnit(dataset, "month", "count", "after");
+		double counted = 0;
+		for(String timeUnit : after.getAggregateMeterKitchen().keySet())
+			counted += after.getAggregateMeterKitchen().get(timeUnit) - before.getAggregateMeterKitchen().getOrDefault(timeUnit, 0.0);
+		assertEquals(1, counted, 0);
+	}
+
+	@Test
+	public void getResultWithWrongInputs() {
+		MeasurementDataset dataset = new MeasurementDataset();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, dataset);
+		RollupStore rollups = new RollupStore(dataset);
+		assertNull(rollups.getResult("random", "avg", "Desc"));
+		assertNull(rollups.getResult("month", "p95", "Desc"));
+		assertNull(rollups.getResult("month", "median", "Desc"));
+	}
+}
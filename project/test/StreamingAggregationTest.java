@@ -0,0 +1,98 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static test.AggregationFixtures.assertSameAggregates;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.MeasurementRecord;
+import datamodel.PeakRecord;
+import datamodel.SummaryResultModel;
+import datamodel.TimeUnitMappingModel;
+import mainengine.Engine;
+import mainengine.IMainEngine;
+import mainengine.MainEngineFactory;
+import timeaggregation.MetricExpression;
+
+public class StreamingAggregationTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+	private static IMainEngine mainEngine = factory.createMainEngine("MainEngine");
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	@Test
+	public void streamSameAggregatesAsLoadedRecords() {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		/* Monthly sums and counts computed straight from the loaded records */
+		HashMap<String, String> months = new TimeUnitMappingModel().getMonths();
+		HashMap<String, double[]> expected = new HashMap<String, double[]>();
+		for(MeasurementRecord record : objCollection) {
+			double[] sums = expected.computeIfAbsent(months.get(record.getDate().getMonth()), key -> new double[4]);
+			sums[0] += record.getSub_metering_1();
+			sums[1] += record.getSub_metering_2();
+			sums[2] += record.getSub_metering_3();
+			sums[3]++;
+		}
+
+		IResult sum = mainEngine.loadAndAggregate(inputFile, delimeter, hasHeaderLine, numFields, "month", "sum", "Monthly sum");
+		IResult avg = mainEngine.loadAndAggregate(inputFile, delimeter, hasHeaderLine, numFields, "month", "avg", "Monthly avg");
+		assertEquals(sum.getAggregateMeterKitchen().size(), expected.size());
+		for(String month : expected.keySet()) {
+			double[] sums = expected.get(month);
+			assertEquals(sum.getAggregateMeterKitchen().get(month), sums[0], 1e-9);
+			assertEquals(sum.getAggregateMeterLaundry().get(month), sums[1], 1e-9);
+			assertEquals(sum.getAggregateMeterAC().get(month), sums[2], 1e-9);
+			assertEquals(avg.getAggregateMeterKitchen().get(month), sums[0] / sums[3], 1e-9);
+			assertEquals(avg.getAggregateMeterAC().get(month), sums[2] / sums[3], 1e-9);
+		}
+		assertEquals(sum.getDetailedResults().size(), 0);
+	}
+
+	@Test
+	public void streamWithMetricsAndPeaks() {
+		Engine metricEngine = factory.createMainEngine("MainEngine");
+		assertEquals(0, metricEngine.addMetric("unmetered", MetricExpression.UNMETERED));
+		assertEquals(0, metricEngine.setPeaks("hour", 3));
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		metricEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+
+		/* Streaming aggregates the metrics and peaks of the engine as the loaded records are aggregated */
+		IResult expected = metricEngine.aggregateByTimeUnit(objCollection, "season", "avg", "loaded");
+		IResult streamed = metricEngine.loadAndAggregate(inputFile, delimeter, hasHeaderLine, numFields, "season", "avg", "streamed");
+		assertSameAggregates(expected, streamed);
+		HashMap<String, Double> expectedMetric = ((SummaryResultModel)expected).getAggregateMetric("unmetered");
+		HashMap<String, Double> streamedMetric = ((SummaryResultModel)streamed).getAggregateMetric("unmetered");
+		assertEquals(expectedMetric.keySet(), streamedMetric.keySet());
+		for(String season : expectedMetric.keySet())
+			assertEquals(expectedMetric.get(season), streamedMetric.get(season), 1e-9);
+		assertEquals(expected.getPeakMeterAC().keySet(), streamed.getPeakMeterAC().keySet());
+		for(String season : expected.getPeakMeterAC().keySet()) {
+			ArrayList<PeakRecord> expectedPeaks = expected.getPeakMeterAC().get(season);
+			assertEquals(3, streamed.getPeakMeterAC().get(season).size());
+			for(int rank = 0; rank < expectedPeaks.size(); rank++) {
+				assertEquals(expectedPeaks.get(rank).getEpochMinute(), streamed.getPeakMeterAC().get(season).get(rank).getEpochMinute());
+				assertEquals(expectedPeaks.get(rank).getValue(), streamed.getPeakMeterAC().get(season).get(rank).getValue(), 1e-9);
+			}
+		}
+
+		/* Percentiles are not aggregated along with derived metrics, streamed or not */
+		assertNull(metricEngine.loadAndAggregate(inputFile, delimeter, hasHeaderLine, numFields, "season", "p95", "streamed"));
+	}
+
+	@Test
+	public void streamWithWrongInputs() {
+		assertNull(mainEngine.loadAndAggregate(inputFile, delimeter, hasHeaderLine, numFields, "random", "avg", "Desc"));
+		assertNull(mainEngine.loadAndAggregate(inputFile, delimeter, hasHeaderLine, numFields, "month", "avg", ""));
+		assertNull(mainEngine.loadAndAggregate("./Resources/TestInput/household_preview.txt", ";", false, numFields, "month", "avg", "Desc"));
+	}
+}
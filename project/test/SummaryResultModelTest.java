@@ -0,0 +1,97 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import datamodel.IResult;
+import datamodel.MeasurementRecord;
+import datamodel.SummaryResultModel;
+import datamodel.TimeUnitMappingModel;
+import mainengine.Engine;
+import mainengine.MainEngineFactory;
+
+public class SummaryResultModelTest {
+	private static MainEngineFactory factory = new MainEngineFactory();
+
+	private static String inputFile = "./Resources/TestInput/2007_sample.tsv";
+	private static String delimeter = "\t";
+	private static boolean hasHeaderLine = false;
+	private static int numFields = 9;
+
+	private static ArrayList<MeasurementRecord> load(Engine mainEngine) {
+		ArrayList<MeasurementRecord> objCollection = new ArrayList<MeasurementRecord>();
+		mainEngine.loadData(inputFile, delimeter, hasHeaderLine, numFields, objCollection);
+		return objCollection;
+	}
+
+	@Test
+	public void keepMinimumMaximumAndCount() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = load(mainEngine);
+
+		/* Monthly minimum, maximum and count of the kitchen meter computed straight from the loaded records */
+		HashMap<String, String> months = new TimeUnitMappingModel().getMonths();
+		HashMap<String, double[]> expected = new HashMap<String, double[]>();
+		for(MeasurementRecord record : objCollection) {
+			double[] values = expected.computeIfAbsent(months.get(record.getDate().getMonth()),
+					key -> new double[] {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0});
+			values[0] = Math.min(values[0], record.getSub_metering_1());
+			values[1] = Math.max(values[1], record.getSub_metering_1());
+			values[2]++;
+		}
+
+		IResult min = mainEngine.aggregateByTimeUnit(objCollection, "month", "min", "Monthly min");
+		IResult max = mainEngine.aggregateByTimeUnit(objCollection, "month", "max", "Monthly max");
+		assertEquals(min.getAggregateMeterKitchen().size(), expected.size());
+		for(String month : expected.keySet()) {
+			assertEquals(min.getAggregateMeterKitchen().get(month), expected.get(month)[0], 0);
+			assertEquals(max.getAggregateMeterKitchen().get(month), expected.get(month)[1], 0);
+			assertEquals(((SummaryResultModel)min).getCount(month), (int)expected.get(month)[2]);
+		}
+	}
+
+	@Test
+	public void mergeSummariesOfSeparateParts() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = load(mainEngine);
+		int half = objCollection.size() / 2;
+
+		for(String aggFunction : new String[] {"sum", "avg", "min", "max"}) {
+			IResult whole = mainEngine.aggregateByTimeUnit(objCollection, "season", aggFunction, "whole");
+			SummaryResultModel merged = (SummaryResultModel)mainEngine.aggregateByTimeUnit(
+					new ArrayList<MeasurementRecord>(objCollection.subList(0, half)), "season", aggFunction, "first");
+			merged.merge((SummaryResultModel)mainEngine.aggregateByTimeUnit(
+					new ArrayList<MeasurementRecord>(objCollection.subList(half, objCollection.size())), "season", aggFunction, "second"));
+
+			assertEquals(whole.getAggregateMeterKitchen().keySet(), merged.getAggregateMeterKitchen().keySet());
+			for(String season : whole.getAggregateMeterKitchen().keySet()) {
+				assertEquals(whole.getAggregateMeterKitchen().get(season), merged.getAggregateMeterKitchen().get(season), 1e-9);
+				assertEquals(whole.getAggregateMeterLaundry().get(season), merged.getAggregateMeterLaundry().get(season), 1e-9);
+				assertEquals(whole.getAggregateMeterAC().get(season), merged.getAggregateMeterAC().get(season), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void keepDetailedResultsOnlyWhenAsked() {
+		Engine mainEngine = factory.createMainEngine("MainEngine");
+		ArrayList<MeasurementRecord> objCollection = load(mainEngine);
+
+		IResult summary = mainEngine.aggregateByTimeUnit(objCollection, "periodofday", "avg", "summary");
+		assertEquals(summary.getDetailedResults().size(), 0);
+
+		mainEngine.setDetailedResults(true);
+		IResult detailed = mainEngine.aggregateByTimeUnit(objCollection, "periodofday", "avg", "detailed");
+		assertEquals(detailed.getDetailedResults().keySet(), summary.getAggregateMeterKitchen().keySet());
+		int records = 0;
+		for(String period : detailed.getDetailedResults().keySet()) {
+			records += detailed.getDetailedResults().get(period).size();
+			assertEquals(detailed.getAggregateMeterKitchen().get(period), summary.getAggregateMeterKitchen().get(period), 1e-9);
+		}
+		assertEquals(records, objCollection.size());
+	}
+}
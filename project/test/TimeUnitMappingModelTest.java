@@ -0,0 +1,34 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import datamodel.EpochTime;
+import datamodel.TimeUnitMappingModel;
+
+public class TimeUnitMappingModelTest {
+	private static TimeUnitMappingModel unitMap = new TimeUnitMappingModel();
+
+	private static void assertSameMapping(String timeUnitType, HashMap<String, String> names, int first, int last) {
+		int[] ordinals = unitMap.getOrdinals(timeUnitType);
+		for(int field = first; field <= last; field++)
+			assertEquals(unitMap.getNames(timeUnitType)[ordinals[field]], names.get(EpochTime.twoDigits(field)));
+	}
+
+	@Test
+	public void mapOrdinalsToTheSameNames() {
+		assertSameMapping("season", unitMap.getSeasons(), 1, 12);
+		assertSameMapping("month", unitMap.getMonths(), 1, 12);
+		assertSameMapping("dayofweek", unitMap.getDays(), 1, 7);
+		assertSameMapping("periodofday", unitMap.getPeriodOfDay(), 0, 23);
+
+		assertEquals(unitMap.getNames("season").length, 4);
+		assertEquals(unitMap.getNames("periodofday").length, 5);
+		assertNull(unitMap.getOrdinals("random"));
+		assertNull(unitMap.getNames("random"));
+	}
+}